@@ -244,21 +244,24 @@ export class AdminPrograms {
   }
 
   async getCsv() {
-    const [downloadEvent] = await Promise.all([
-      this.page.waitForEvent('download'),
-      this.page.click('text="Download all (CSV)"')
-    ]);
-    const path = await downloadEvent.path();
-    if (path === null) {
-      throw new Error('download failed');
-    }
-    return readFileSync(path, 'utf8');
+    await this.page.click('text="Download all (CSV)"');
+    return this.downloadExport();
   }
 
   async getDemographicsCsv() {
+    await this.page.click('text="Download Exported Data (CSV)"');
+    return this.downloadExport();
+  }
+
+  /**
+   * Waits on the export job page, which reloads itself while the export runs, until the download
+   * link appears, and returns the downloaded file's contents.
+   */
+  async downloadExport() {
+    await this.page.waitForSelector('#export-job-download', { timeout: 60000 });
     const [downloadEvent] = await Promise.all([
       this.page.waitForEvent('download'),
-      this.page.click('text="Download Exported Data (CSV)"')
+      this.page.click('#export-job-download')
     ]);
     const path = await downloadEvent.path();
     if (path === null) {
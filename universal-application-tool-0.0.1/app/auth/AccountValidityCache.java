@@ -0,0 +1,63 @@
+package auth;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import repository.UserRepository;
+
+/**
+ * Remembers, for a short time, which accounts are known to exist, so that checking the account in
+ * a session cookie does not cost a database query on every request.
+ *
+ * <p>Only accounts that exist are cached. A missing account is looked up again each time, so an
+ * account created with a previously missing id is never reported as invalid. Deleting accounts
+ * must call {@link #invalidate} or {@link #invalidateAll}; accounts deleted outside the
+ * application stay valid here for at most {@link #TIME_TO_LIVE}.
+ */
+@Singleton
+public final class AccountValidityCache {
+  private static final Duration TIME_TO_LIVE = Duration.ofSeconds(30);
+  private static final long MAXIMUM_SIZE = 100_000;
+
+  private final UserRepository userRepository;
+  private final Cache<Long, Boolean> existingAccountIds =
+      CacheBuilder.newBuilder().expireAfterWrite(TIME_TO_LIVE).maximumSize(MAXIMUM_SIZE).build();
+
+  @Inject
+  public AccountValidityCache(UserRepository userRepository) {
+    this.userRepository = checkNotNull(userRepository);
+  }
+
+  /** Returns whether the account referenced by the profile exists. */
+  public CompletionStage<Boolean> isValid(CiviFormProfile profile) {
+    long accountId = Long.parseLong(profile.getId());
+    if (existingAccountIds.getIfPresent(accountId) != null) {
+      return CompletableFuture.completedFuture(true);
+    }
+    return userRepository
+        .accountExists(accountId)
+        .thenApply(
+            exists -> {
+              if (exists) {
+                existingAccountIds.put(accountId, true);
+              }
+              return exists;
+            });
+  }
+
+  /** Forgets that the account exists. Call this after deleting it. */
+  public void invalidate(long accountId) {
+    existingAccountIds.invalidate(accountId);
+  }
+
+  /** Forgets all accounts. Call this after deleting accounts in bulk. */
+  public void invalidateAll() {
+    existingAccountIds.invalidateAll();
+  }
+}
@@ -13,8 +13,9 @@ import javax.inject.Inject;
 import javax.persistence.EntityNotFoundException;
 import models.Account;
 import models.Applicant;
-import play.libs.concurrent.HttpExecutionContext;
 import repository.DatabaseExecutionContext;
+import repository.QueryProfilingHttpExecutionContext;
+import services.RequestLoader;
 
 /**
  * This is a "pure" wrapper of CiviFormProfileData. Since CiviFormProfileData is the serialized data
@@ -23,13 +24,13 @@ import repository.DatabaseExecutionContext;
  */
 public class CiviFormProfile {
   private DatabaseExecutionContext dbContext;
-  private HttpExecutionContext httpContext;
+  private QueryProfilingHttpExecutionContext httpContext;
   private CiviFormProfileData profileData;
 
   @Inject
   public CiviFormProfile(
       DatabaseExecutionContext dbContext,
-      HttpExecutionContext httpContext,
+      QueryProfilingHttpExecutionContext httpContext,
       CiviFormProfileData profileData) {
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
@@ -64,6 +65,20 @@ public class CiviFormProfile {
         dbContext);
   }
 
+  /** Look up the {@link Account} associated with the profile through the request's loader. */
+  public CompletableFuture<Account> getAccount(RequestLoader requestLoader) {
+    long accountId = Long.valueOf(this.profileData.getId());
+    return requestLoader
+        .loadAccount(accountId)
+        .toCompletableFuture()
+        .thenApply(
+            accountMaybe ->
+                accountMaybe.orElseThrow(
+                    () ->
+                        new AccountNonexistentException(
+                            String.format("Account %d does not exist", accountId))));
+  }
+
   /**
    * Get the client name associated with the profile.
    *
@@ -157,7 +172,21 @@ public class CiviFormProfile {
    * @return the future of the check
    */
   public CompletableFuture<Void> checkAuthorization(long applicantId) {
-    return getAccount()
+    return checkAuthorization(applicantId, getAccount());
+  }
+
+  /**
+   * Same as {@link #checkAuthorization(long)}, but reads the account through the request's {@link
+   * RequestLoader}.
+   */
+  public CompletableFuture<Void> checkAuthorization(
+      long applicantId, RequestLoader requestLoader) {
+    return checkAuthorization(applicantId, getAccount(requestLoader));
+  }
+
+  private CompletableFuture<Void> checkAuthorization(
+      long applicantId, CompletableFuture<Account> accountFuture) {
+    return accountFuture
         .thenApplyAsync(
             account ->
                 Stream.concat(
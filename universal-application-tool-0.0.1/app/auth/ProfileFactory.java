@@ -5,8 +5,8 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 import models.Account;
 import models.Applicant;
-import play.libs.concurrent.HttpExecutionContext;
 import repository.DatabaseExecutionContext;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.VersionRepository;
 
 /**
@@ -16,13 +16,13 @@ import repository.VersionRepository;
 public class ProfileFactory {
 
   private DatabaseExecutionContext dbContext;
-  private HttpExecutionContext httpContext;
+  private QueryProfilingHttpExecutionContext httpContext;
   private Provider<VersionRepository> versionRepositoryProvider;
 
   @Inject
   public ProfileFactory(
       DatabaseExecutionContext dbContext,
-      HttpExecutionContext httpContext,
+      QueryProfilingHttpExecutionContext httpContext,
       Provider<VersionRepository> versionRepositoryProvider) {
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
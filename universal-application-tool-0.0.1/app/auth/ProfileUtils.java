@@ -2,7 +2,6 @@ package auth;
 
 import com.google.common.base.Preconditions;
 import java.util.Optional;
-import java.util.concurrent.CompletionException;
 import javax.inject.Inject;
 import org.pac4j.core.context.WebContext;
 import org.pac4j.core.context.session.SessionStore;
@@ -42,17 +41,4 @@ public class ProfileUtils {
     }
     return Optional.of(profileFactory.wrapProfileData(p.get()));
   }
-
-  /** Return true if the account referenced by the profile exists. */
-  public boolean validCiviFormProfile(CiviFormProfile profile) {
-    try {
-      profile.getAccount().join();
-      return true;
-    } catch (CompletionException e) {
-      if (e.getCause() instanceof AccountNonexistentException) {
-        return false;
-      }
-      throw new RuntimeException(e);
-    }
-  }
 }
@@ -6,13 +6,19 @@ import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
 import play.mvc.Controller;
 import play.mvc.Http;
+import play.mvc.Result;
+import play.twirl.api.Content;
 import services.CiviFormError;
+import services.RequestLoader;
+import views.HtmlBundle;
+import views.HtmlRenderExecutionContext;
 
 /**
  * Base Controller providing useful helper functions that can be utilized by all CiviForm
  * controllers.
  */
 public class CiviFormController extends Controller {
+  private static final String HTML_CONTENT_TYPE = "text/html; charset=utf-8";
 
   protected String joinErrors(ImmutableSet<CiviFormError> errors) {
     StringJoiner messageJoiner = new StringJoiner(". ", "", ".");
@@ -22,11 +28,37 @@ public class CiviFormController extends Controller {
     return messageJoiner.toString();
   }
 
+  /**
+   * Returns an OK result for the page. If {@code stream} is true and the page was built from an
+   * {@link HtmlBundle}, it is rendered on {@code renderContext} while it is sent in chunks, so the
+   * browser can start loading it sooner. Otherwise it is rendered in full before it is sent.
+   */
+  protected Result okHtml(Content page, boolean stream, HtmlRenderExecutionContext renderContext) {
+    if (stream && page instanceof HtmlBundle.HtmlBundleContent) {
+      HtmlBundle.HtmlBundleContent htmlPage = (HtmlBundle.HtmlBundleContent) page;
+      return ok()
+          .chunked(htmlPage.stream(renderContext.current(), renderContext.getStreamWriteTimeout()))
+          .as(HTML_CONTENT_TYPE);
+    }
+    return ok(page);
+  }
+
   protected CompletableFuture<Void> checkApplicantAuthorization(
       ProfileUtils profileUtils, Http.Request request, long applicantId) {
     return profileUtils.currentUserProfile(request).orElseThrow().checkAuthorization(applicantId);
   }
 
+  protected CompletableFuture<Void> checkApplicantAuthorization(
+      ProfileUtils profileUtils,
+      Http.Request request,
+      long applicantId,
+      RequestLoader requestLoader) {
+    return profileUtils
+        .currentUserProfile(request)
+        .orElseThrow()
+        .checkAuthorization(applicantId, requestLoader);
+  }
+
   protected CompletableFuture<Void> checkProgramAdminAuthorization(
       ProfileUtils profileUtils, Http.Request request, String programName) {
     return profileUtils
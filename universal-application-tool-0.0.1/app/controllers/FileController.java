@@ -8,9 +8,9 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import org.pac4j.play.java.Secure;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import services.aws.SimpleStorage;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
@@ -18,14 +18,14 @@ import services.program.ProgramService;
 
 /** Controller for handling methods for admins and applicants accessing uploaded files. */
 public class FileController extends CiviFormController {
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private final ProgramService programService;
   private final SimpleStorage amazonS3Client;
   private final ProfileUtils profileUtils;
 
   @Inject
   public FileController(
-      HttpExecutionContext httpExecutionContext,
+      QueryProfilingHttpExecutionContext httpExecutionContext,
       ProgramService programService,
       SimpleStorage amazonS3Client,
       ProfileUtils profileUtils) {
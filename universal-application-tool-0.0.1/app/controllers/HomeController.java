@@ -11,10 +11,10 @@ import javax.inject.Inject;
 import org.pac4j.core.exception.TechnicalException;
 import org.pac4j.play.java.Secure;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import services.applicant.ApplicantData;
 import views.LoginForm;
 
@@ -24,14 +24,14 @@ public class HomeController extends Controller {
   private final LoginForm loginForm;
   private final ProfileUtils profileUtils;
   private final MessagesApi messagesApi;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
 
   @Inject
   public HomeController(
       LoginForm form,
       ProfileUtils profileUtils,
       MessagesApi messagesApi,
-      HttpExecutionContext httpExecutionContext) {
+      QueryProfilingHttpExecutionContext httpExecutionContext) {
     this.loginForm = checkNotNull(form);
     this.profileUtils = checkNotNull(profileUtils);
     this.messagesApi = checkNotNull(messagesApi);
@@ -8,10 +8,10 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import views.ProfileView;
 
 /** Controller for handling methods for user profile pages. */
@@ -19,13 +19,13 @@ public class ProfileController extends Controller {
 
   private final ProfileView profileView;
   private final ProfileUtils profileUtils;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
 
   @Inject
   public ProfileController(
       ProfileUtils profileUtils,
       ProfileView profileView,
-      HttpExecutionContext httpExecutionContext) {
+      QueryProfilingHttpExecutionContext httpExecutionContext) {
     this.profileUtils = checkNotNull(profileUtils);
     this.profileView = checkNotNull(profileView);
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
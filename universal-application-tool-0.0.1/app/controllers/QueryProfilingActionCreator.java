@@ -0,0 +1,49 @@
+package controllers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import javax.inject.Inject;
+import play.http.ActionCreator;
+import play.mvc.Action;
+import play.mvc.Http;
+import play.mvc.Result;
+import repository.QueryProfile;
+import repository.QueryProfiler;
+
+/**
+ * Profiles the SQL statements run by each controller action with {@link QueryProfiler}. Unlike a
+ * filter, this runs on the thread that calls the controller, so the database work the controller
+ * starts can be attributed to the request.
+ */
+public class QueryProfilingActionCreator implements ActionCreator {
+  private final QueryProfiler queryProfiler;
+
+  @Inject
+  public QueryProfilingActionCreator(QueryProfiler queryProfiler) {
+    this.queryProfiler = checkNotNull(queryProfiler);
+  }
+
+  @Override
+  public Action createAction(Http.Request request, Method actionMethod) {
+    return new Action.Simple() {
+      @Override
+      public CompletionStage<Result> call(Http.Request req) {
+        Optional<QueryProfile> profile =
+            queryProfiler.attach(String.format("%s %s", req.method(), req.path()));
+        if (profile.isEmpty()) {
+          return delegate.call(req);
+        }
+        try {
+          return delegate
+              .call(req)
+              .whenComplete((result, error) -> queryProfiler.finish(profile.get()));
+        } finally {
+          queryProfiler.detach();
+        }
+      }
+    };
+  }
+}
@@ -2,13 +2,18 @@ package controllers.admin;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import auth.Authorizers;
 import auth.ProfileUtils;
 import com.google.common.collect.ImmutableList;
 import controllers.CiviFormController;
 import java.time.Clock;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import models.Application;
 import models.Program;
@@ -16,7 +21,7 @@ import org.pac4j.play.java.Secure;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.ApplicationRepository;
-import services.PaginationInfo;
+import repository.QueryProfilingHttpExecutionContext;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantService;
 import services.applicant.Block;
@@ -39,6 +44,7 @@ public class AdminApplicationController extends CiviFormController {
   private final ExporterService exporterService;
   private final ProfileUtils profileUtils;
   private final Clock clock;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private static final int PAGE_SIZE = 10;
 
   @Inject
@@ -50,7 +56,8 @@ public class AdminApplicationController extends CiviFormController {
       ProgramApplicationView applicationView,
       ApplicationRepository applicationRepository,
       ProfileUtils profileUtils,
-      Clock clock) {
+      Clock clock,
+      QueryProfilingHttpExecutionContext httpExecutionContext) {
     this.programService = checkNotNull(programService);
     this.applicantService = checkNotNull(applicantService);
     this.applicationListView = checkNotNull(applicationListView);
@@ -59,6 +66,7 @@ public class AdminApplicationController extends CiviFormController {
     this.applicationRepository = checkNotNull(applicationRepository);
     this.clock = clock;
     this.exporterService = checkNotNull(exporterService);
+    this.httpExecutionContext = checkNotNull(httpExecutionContext);
   }
 
   /** Download a CSV file containing all applications to the specified program. */
@@ -68,8 +76,9 @@ public class AdminApplicationController extends CiviFormController {
       ProgramDefinition program = programService.getProgramDefinition(programId);
       checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
       String filename = String.format("%s-%s.csv", program.adminName(), clock.instant().toString());
-      String csv = exporterService.getProgramCsv(programId);
-      return ok(csv)
+      Source<ByteString, NotUsed> csv = exporterService.getProgramCsvSource(programId);
+      return ok()
+          .chunked(csv)
           .as(Http.MimeTypes.BINARY)
           .withHeader(
               "Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
@@ -88,8 +97,9 @@ public class AdminApplicationController extends CiviFormController {
   @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
   public Result downloadDemographics() {
     String filename = String.format("demographics-%s.csv", clock.instant().toString());
-    String csv = exporterService.getDemographicsCsv();
-    return ok(csv)
+    Source<ByteString, NotUsed> csv = exporterService.getDemographicsCsvSource();
+    return ok()
+        .chunked(csv)
         .as(Http.MimeTypes.BINARY)
         .withHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
   }
@@ -144,36 +154,44 @@ public class AdminApplicationController extends CiviFormController {
 
   /** Return a paginated HTML page displaying (part of) all applications to the program. */
   @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
-  public Result index(
+  public CompletionStage<Result> index(
       Http.Request request, long programId, Optional<String> search, Optional<Integer> page) {
     if (page.isEmpty()) {
-      return redirect(routes.AdminApplicationController.index(programId, search, Optional.of(1)));
+      return CompletableFuture.completedFuture(
+          redirect(routes.AdminApplicationController.index(programId, search, Optional.of(1))));
     }
     try {
       ProgramDefinition program = programService.getProgramDefinition(programId);
       checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
     } catch (ProgramNotFoundException e) {
-      return notFound(e.toString());
+      return CompletableFuture.completedFuture(notFound(e.toString()));
     } catch (CompletionException e) {
-      return unauthorized();
-    }
-    try {
-      ImmutableList<Application> applications =
-          programService.getProgramApplications(programId, search);
-      PaginationInfo<Application> pageInfo =
-          PaginationInfo.paginate(applications, PAGE_SIZE, page.get());
-      ImmutableList<Program> previousVersions = programService.getOtherProgramVersions(programId);
-      return ok(
-          applicationListView.render(
-              request,
-              programId,
-              pageInfo.getPageItems(),
-              pageInfo.getPage(),
-              pageInfo.getPageCount(),
-              search,
-              previousVersions));
-    } catch (ProgramNotFoundException e) {
-      return notFound(e.toString());
+      return CompletableFuture.completedFuture(unauthorized());
     }
+    return programService
+        .getProgramApplications(programId, search, PAGE_SIZE, page.get())
+        .thenApplyAsync(
+            pageInfo -> {
+              ImmutableList<Program> previousVersions =
+                  programService.getOtherProgramVersions(programId);
+              return ok(
+                  applicationListView.render(
+                      request,
+                      programId,
+                      pageInfo.getPageItems(),
+                      pageInfo.getPage(),
+                      pageInfo.getPageCount(),
+                      search,
+                      previousVersions));
+            },
+            httpExecutionContext.current())
+        .exceptionally(
+            ex -> {
+              if (ex instanceof CompletionException
+                  && ex.getCause() instanceof ProgramNotFoundException) {
+                return notFound(ex.getCause().toString());
+              }
+              throw new RuntimeException(ex);
+            });
   }
 }
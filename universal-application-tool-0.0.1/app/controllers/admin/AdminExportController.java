@@ -0,0 +1,101 @@
+package controllers.admin;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import auth.Authorizers;
+import auth.CiviFormProfile;
+import auth.ProfileUtils;
+import controllers.CiviFormController;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import javax.inject.Inject;
+import models.ExportJob;
+import models.ExportJobStatus;
+import org.pac4j.play.java.Secure;
+import play.mvc.Http;
+import play.mvc.Result;
+import services.export.ExportJobService;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+import views.admin.exports.ExportJobView;
+
+/**
+ * Controller for admins exporting applications as CSV files. Exports run in the background, and
+ * admins are sent to a page that shows their progress until the file is ready to download.
+ */
+public class AdminExportController extends CiviFormController {
+  private final ExportJobService exportJobService;
+  private final ProgramService programService;
+  private final ProfileUtils profileUtils;
+  private final ExportJobView exportJobView;
+
+  @Inject
+  public AdminExportController(
+      ExportJobService exportJobService,
+      ProgramService programService,
+      ProfileUtils profileUtils,
+      ExportJobView exportJobView) {
+    this.exportJobService = checkNotNull(exportJobService);
+    this.programService = checkNotNull(programService);
+    this.profileUtils = checkNotNull(profileUtils);
+    this.exportJobView = checkNotNull(exportJobView);
+  }
+
+  /** Start exporting all applications to the specified program. */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result exportProgram(Http.Request request, long programId) {
+    try {
+      ProgramDefinition program = programService.getProgramDefinition(programId);
+      checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
+      ExportJob job = exportJobService.requestProgramExport(programId);
+      return redirect(routes.AdminExportController.show(job.id));
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    } catch (CompletionException e) {
+      return unauthorized();
+    }
+  }
+
+  /** Start exporting the demographics information of all applications. */
+  @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
+  public Result exportDemographics() {
+    ExportJob job = exportJobService.requestDemographicsExport();
+    return redirect(routes.AdminExportController.show(job.id));
+  }
+
+  /**
+   * Show the progress of an export, and a link to download its file once it has succeeded.
+   * Program exports can be seen by the admins of the program, and demographics exports by CiviForm
+   * admins.
+   */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result show(Http.Request request, long jobId) {
+    Optional<ExportJob> maybeJob = exportJobService.getJob(jobId);
+    if (maybeJob.isEmpty()) {
+      return notFound(String.format("Export %d does not exist.", jobId));
+    }
+    ExportJob job = maybeJob.get();
+    try {
+      if (job.getProgramId().isPresent()) {
+        ProgramDefinition program = programService.getProgramDefinition(job.getProgramId().get());
+        checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
+      } else if (!profileUtils
+          .currentUserProfile(request)
+          .map(CiviFormProfile::isCiviFormAdmin)
+          .orElse(false)) {
+        return unauthorized();
+      }
+    } catch (ProgramNotFoundException e) {
+      return notFound(e.toString());
+    } catch (CompletionException e) {
+      return unauthorized();
+    }
+
+    Optional<String> downloadUrl =
+        job.getStatus() == ExportJobStatus.SUCCEEDED
+            ? Optional.of(exportJobService.getDownloadUrl(job).toString())
+            : Optional.empty();
+    return ok(exportJobView.render(job, downloadUrl));
+  }
+}
@@ -0,0 +1,26 @@
+package controllers.admin;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import auth.Authorizers;
+import javax.inject.Inject;
+import org.pac4j.play.java.Secure;
+import play.mvc.Controller;
+import play.mvc.Result;
+import services.metrics.MetricsService;
+
+/** Controller for exposing the server's metrics to admins, e.g. for scraping by Prometheus. */
+public class AdminMetricsController extends Controller {
+  private final MetricsService metricsService;
+
+  @Inject
+  public AdminMetricsController(MetricsService metricsService) {
+    this.metricsService = checkNotNull(metricsService);
+  }
+
+  /** Return all metrics in the Prometheus text format. */
+  @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
+  public Result index() {
+    return ok(metricsService.scrape()).as(MetricsService.CONTENT_TYPE);
+  }
+}
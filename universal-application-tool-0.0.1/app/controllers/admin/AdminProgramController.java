@@ -8,6 +8,7 @@ import auth.ProfileUtils;
 import controllers.CiviFormController;
 import forms.ProgramForm;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import org.pac4j.play.java.Secure;
 import play.data.Form;
@@ -102,13 +103,12 @@ public class AdminProgramController extends CiviFormController {
 
   /** POST endpoint for publishing all programs in the draft version. */
   @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
-  public Result publish() {
-    try {
-      versionRepository.publishNewSynchronizedVersion();
-      return redirect(routes.AdminProgramController.index());
-    } catch (Exception e) {
-      return badRequest(e.toString());
-    }
+  public CompletionStage<Result> publish() {
+    return versionRepository
+        .publishNewSynchronizedVersionAsync()
+        .thenApply(unused -> redirect(routes.AdminProgramController.index()))
+        // Failures reach here wrapped in a CompletionException.
+        .exceptionally(e -> badRequest(e.getCause().toString()));
   }
 
   /** POST endpoint for creating a new draft version of the program. */
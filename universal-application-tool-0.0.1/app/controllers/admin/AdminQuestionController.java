@@ -18,9 +18,9 @@ import javax.inject.Inject;
 import models.QuestionTag;
 import org.pac4j.play.java.Secure;
 import play.data.FormFactory;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.LocalizedStrings;
@@ -45,7 +45,7 @@ public class AdminQuestionController extends CiviFormController {
   private final QuestionsListView listView;
   private final QuestionEditView editView;
   private final FormFactory formFactory;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
 
   @Inject
   public AdminQuestionController(
@@ -53,7 +53,7 @@ public class AdminQuestionController extends CiviFormController {
       QuestionsListView listView,
       QuestionEditView editView,
       FormFactory formFactory,
-      HttpExecutionContext httpExecutionContext) {
+      QueryProfilingHttpExecutionContext httpExecutionContext) {
     this.service = checkNotNull(service);
     this.listView = checkNotNull(listView);
     this.editView = checkNotNull(editView);
@@ -10,9 +10,9 @@ import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
 import org.pac4j.play.java.Secure;
 import play.data.FormFactory;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.question.QuestionService;
@@ -26,14 +26,14 @@ import views.admin.questions.QuestionTranslationView;
 /** Provides controller methods for editing and updating question translations. */
 public class AdminQuestionTranslationsController extends CiviFormController {
 
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private final QuestionService questionService;
   private final QuestionTranslationView translationView;
   private final FormFactory formFactory;
 
   @Inject
   public AdminQuestionTranslationsController(
-      HttpExecutionContext httpExecutionContext,
+      QueryProfilingHttpExecutionContext httpExecutionContext,
       QuestionService questionService,
       QuestionTranslationView translationView,
       FormFactory formFactory) {
@@ -17,10 +17,10 @@ import play.data.Form;
 import play.data.FormFactory;
 import play.i18n.Lang;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
 import play.mvc.Results;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.UserRepository;
 import services.applicant.ApplicantData;
 import services.applicant.ApplicantService;
@@ -33,7 +33,7 @@ import views.applicant.ApplicantInformationView;
  */
 public final class ApplicantInformationController extends CiviFormController {
 
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private final MessagesApi messagesApi;
   private final ApplicantInformationView informationView;
   private final UserRepository repository;
@@ -43,7 +43,7 @@ public final class ApplicantInformationController extends CiviFormController {
 
   @Inject
   public ApplicantInformationController(
-      HttpExecutionContext httpExecutionContext,
+      QueryProfilingHttpExecutionContext httpExecutionContext,
       MessagesApi messagesApi,
       ApplicantInformationView informationView,
       UserRepository repository,
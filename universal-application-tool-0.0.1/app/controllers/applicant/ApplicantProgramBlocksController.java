@@ -14,6 +14,7 @@ import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import models.StoredFile;
 import org.pac4j.play.java.Secure;
 import org.slf4j.Logger;
@@ -21,10 +22,11 @@ import org.slf4j.LoggerFactory;
 import play.data.DynamicForm;
 import play.data.FormFactory;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.StoredFileRepository;
+import services.RequestLoader;
 import services.applicant.ApplicantService;
 import services.applicant.Block;
 import services.applicant.ReadOnlyApplicantProgramService;
@@ -46,12 +48,13 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
 
   private final ApplicantService applicantService;
   private final MessagesApi messagesApi;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private final ApplicantProgramBlockEditView editView;
   private final FormFactory formFactory;
   private final SimpleStorage amazonS3Client;
   private final StoredFileRepository storedFileRepository;
   private final ProfileUtils profileUtils;
+  private final Provider<RequestLoader> requestLoaderProvider;
   private final String baseUrl;
 
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
@@ -60,12 +63,13 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   public ApplicantProgramBlocksController(
       ApplicantService applicantService,
       MessagesApi messagesApi,
-      HttpExecutionContext httpExecutionContext,
+      QueryProfilingHttpExecutionContext httpExecutionContext,
       ApplicantProgramBlockEditView editView,
       FormFactory formFactory,
       SimpleStorage amazonS3Client,
       StoredFileRepository storedFileRepository,
       ProfileUtils profileUtils,
+      Provider<RequestLoader> requestLoaderProvider,
       Config configuration) {
     this.applicantService = checkNotNull(applicantService);
     this.messagesApi = checkNotNull(messagesApi);
@@ -75,6 +79,7 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
     this.amazonS3Client = checkNotNull(amazonS3Client);
     this.storedFileRepository = checkNotNull(storedFileRepository);
     this.profileUtils = checkNotNull(profileUtils);
+    this.requestLoaderProvider = checkNotNull(requestLoaderProvider);
     this.baseUrl = checkNotNull(configuration).getString("base_url");
   }
 
@@ -112,14 +117,18 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   private CompletionStage<Result> editOrReview(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<String> applicantStage = this.applicantService.getName(applicantId);
+    RequestLoader requestLoader = requestLoaderProvider.get();
+    CompletionStage<String> applicantStage =
+        this.applicantService.getName(applicantId, requestLoader);
 
     return applicantStage
         .thenComposeAsync(
-            v -> checkApplicantAuthorization(profileUtils, request, applicantId),
+            v -> checkApplicantAuthorization(profileUtils, request, applicantId, requestLoader),
             httpExecutionContext.current())
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestLoader),
             httpExecutionContext.current())
         .thenApplyAsync(
             (roApplicantProgramService) -> {
@@ -168,14 +177,18 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   public CompletionStage<Result> updateFile(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<String> applicantStage = this.applicantService.getName(applicantId);
+    RequestLoader requestLoader = requestLoaderProvider.get();
+    CompletionStage<String> applicantStage =
+        this.applicantService.getName(applicantId, requestLoader);
 
     return applicantStage
         .thenComposeAsync(
-            v -> checkApplicantAuthorization(profileUtils, request, applicantId),
+            v -> checkApplicantAuthorization(profileUtils, request, applicantId, requestLoader),
             httpExecutionContext.current())
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestLoader),
             httpExecutionContext.current())
         .thenComposeAsync(
             (roApplicantProgramService) -> {
@@ -205,7 +218,7 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
 
               updateFileRecord(key.get());
               return applicantService.stageAndUpdateIfValid(
-                  applicantId, programId, blockId, formData);
+                  applicantId, programId, blockId, formData, requestLoader);
             },
             httpExecutionContext.current())
         .thenComposeAsync(
@@ -226,11 +239,13 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   public CompletionStage<Result> update(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<String> applicantStage = this.applicantService.getName(applicantId);
+    RequestLoader requestLoader = requestLoaderProvider.get();
+    CompletionStage<String> applicantStage =
+        this.applicantService.getName(applicantId, requestLoader);
 
     return applicantStage
         .thenComposeAsync(
-            v -> checkApplicantAuthorization(profileUtils, request, applicantId),
+            v -> checkApplicantAuthorization(profileUtils, request, applicantId, requestLoader),
             httpExecutionContext.current())
         .thenComposeAsync(
             v -> {
@@ -238,7 +253,7 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
               ImmutableMap<String, String> formData = cleanForm(form.rawData());
 
               return applicantService.stageAndUpdateIfValid(
-                  applicantId, programId, blockId, formData);
+                  applicantId, programId, blockId, formData, requestLoader);
             },
             httpExecutionContext.current())
         .thenComposeAsync(
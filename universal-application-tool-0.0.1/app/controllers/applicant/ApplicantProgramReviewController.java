@@ -5,24 +5,28 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import auth.CiviFormProfile;
 import auth.ProfileUtils;
 import com.google.common.collect.ImmutableList;
+import com.typesafe.config.Config;
 import controllers.CiviFormController;
 import java.util.Optional;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import models.Application;
 import org.pac4j.play.java.Secure;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Call;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
+import services.RequestLoader;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantService;
 import services.applicant.Block;
 import services.applicant.ReadOnlyApplicantProgramService;
 import services.applicant.exception.ApplicationSubmissionException;
 import services.program.ProgramNotFoundException;
+import views.HtmlRenderExecutionContext;
 import views.applicant.ApplicantProgramSummaryView;
 
 /**
@@ -34,23 +38,32 @@ import views.applicant.ApplicantProgramSummaryView;
 public class ApplicantProgramReviewController extends CiviFormController {
 
   private final ApplicantService applicantService;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
+  private final HtmlRenderExecutionContext htmlRenderExecutionContext;
   private final MessagesApi messagesApi;
   private final ApplicantProgramSummaryView summaryView;
   private final ProfileUtils profileUtils;
+  private final Provider<RequestLoader> requestLoaderProvider;
+  private final boolean streamHtml;
 
   @Inject
   public ApplicantProgramReviewController(
       ApplicantService applicantService,
-      HttpExecutionContext httpExecutionContext,
+      QueryProfilingHttpExecutionContext httpExecutionContext,
+      HtmlRenderExecutionContext htmlRenderExecutionContext,
       MessagesApi messagesApi,
       ApplicantProgramSummaryView summaryView,
-      ProfileUtils profileUtils) {
+      ProfileUtils profileUtils,
+      Provider<RequestLoader> requestLoaderProvider,
+      Config configuration) {
     this.applicantService = checkNotNull(applicantService);
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
+    this.htmlRenderExecutionContext = checkNotNull(htmlRenderExecutionContext);
     this.messagesApi = checkNotNull(messagesApi);
     this.summaryView = checkNotNull(summaryView);
     this.profileUtils = checkNotNull(profileUtils);
+    this.requestLoaderProvider = checkNotNull(requestLoaderProvider);
+    this.streamHtml = checkNotNull(configuration).getBoolean("stream_html_pages");
   }
 
   @Secure
@@ -66,12 +79,16 @@ public class ApplicantProgramReviewController extends CiviFormController {
   private CompletionStage<Result> view(
       Request request, long applicantId, long programId, boolean inReview) {
     Optional<String> banner = request.flash().get("banner");
-    CompletionStage<String> applicantStage = applicantService.getName(applicantId);
+    RequestLoader requestLoader = requestLoaderProvider.get();
+    CompletionStage<String> applicantStage = applicantService.getName(applicantId, requestLoader);
 
     return applicantStage
-        .thenComposeAsync(v -> checkApplicantAuthorization(profileUtils, request, applicantId))
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v -> checkApplicantAuthorization(profileUtils, request, applicantId, requestLoader))
+        .thenComposeAsync(
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestLoader),
             httpExecutionContext.current())
         .thenApplyAsync(
             (roApplicantProgramService) -> {
@@ -85,7 +102,7 @@ public class ApplicantProgramReviewController extends CiviFormController {
                       .setProgramId(programId)
                       .setRequest(request)
                       .build();
-              return ok(summaryView.render(params));
+              return okHtml(summaryView.render(params), streamHtml, htmlRenderExecutionContext);
             },
             httpExecutionContext.current())
         .exceptionally(
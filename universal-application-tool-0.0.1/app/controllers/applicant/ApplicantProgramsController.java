@@ -15,9 +15,9 @@ import javax.inject.Inject;
 import models.LifecycleStage;
 import org.pac4j.play.java.Secure;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import services.applicant.ApplicantService;
 import services.applicant.Block;
 import services.program.ProgramDefinition;
@@ -32,7 +32,7 @@ import views.applicant.ProgramIndexView;
  */
 public class ApplicantProgramsController extends CiviFormController {
 
-  private final HttpExecutionContext httpContext;
+  private final QueryProfilingHttpExecutionContext httpContext;
   private final ApplicantService applicantService;
   private final MessagesApi messagesApi;
   private final ProgramIndexView programIndexView;
@@ -41,7 +41,7 @@ public class ApplicantProgramsController extends CiviFormController {
 
   @Inject
   public ApplicantProgramsController(
-      HttpExecutionContext httpContext,
+      QueryProfilingHttpExecutionContext httpContext,
       ApplicantService applicantService,
       MessagesApi messagesApi,
       ProgramIndexView programIndexView,
@@ -11,14 +11,16 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import models.Applicant;
 import models.Program;
 import org.pac4j.play.java.Secure;
 import play.i18n.MessagesApi;
-import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.ProgramRepository;
+import repository.QueryProfilingHttpExecutionContext;
+import services.RequestLoader;
 import services.applicant.ApplicantService;
 import services.applicant.ReadOnlyApplicantProgramService;
 import services.program.ProgramNotFoundException;
@@ -29,27 +31,30 @@ import views.applicant.ApplicantUpsellCreateAccountView;
  * can access the page.
  */
 public class RedirectController extends CiviFormController {
-  private final HttpExecutionContext httpContext;
+  private final QueryProfilingHttpExecutionContext httpContext;
   private final ApplicantService applicantService;
   private final ProfileUtils profileUtils;
   private final ProgramRepository programRepository;
   private final ApplicantUpsellCreateAccountView upsellView;
   private final MessagesApi messagesApi;
+  private final Provider<RequestLoader> requestLoaderProvider;
 
   @Inject
   public RedirectController(
-      HttpExecutionContext httpContext,
+      QueryProfilingHttpExecutionContext httpContext,
       ApplicantService applicantService,
       ProfileUtils profileUtils,
       ProgramRepository programRepository,
       ApplicantUpsellCreateAccountView upsellView,
-      MessagesApi messagesApi) {
+      MessagesApi messagesApi,
+      Provider<RequestLoader> requestLoaderProvider) {
     this.httpContext = checkNotNull(httpContext);
     this.applicantService = checkNotNull(applicantService);
     this.profileUtils = checkNotNull(profileUtils);
     this.programRepository = checkNotNull(programRepository);
     this.upsellView = checkNotNull(upsellView);
     this.messagesApi = checkNotNull(messagesApi);
+    this.requestLoaderProvider = checkNotNull(requestLoaderProvider);
   }
 
   @Secure
@@ -90,14 +95,15 @@ public class RedirectController extends CiviFormController {
           badRequest("You are not signed in - you cannot perform this action."));
     }
 
-    CompletionStage<String> applicantName = applicantService.getName(applicantId);
+    RequestLoader requestLoader = requestLoaderProvider.get();
+    CompletionStage<String> applicantName = applicantService.getName(applicantId, requestLoader);
     CompletionStage<ReadOnlyApplicantProgramService> roApplicantProgramServiceCompletionStage =
-        applicantService.getReadOnlyApplicantProgramService(applicantId, programId);
+        applicantService.getReadOnlyApplicantProgramService(applicantId, programId, requestLoader);
     return applicantName
         .thenComposeAsync(
-            v -> checkApplicantAuthorization(profileUtils, request, applicantId),
+            v -> checkApplicantAuthorization(profileUtils, request, applicantId, requestLoader),
             httpContext.current())
-        .thenComposeAsync(v -> profile.get().getAccount(), httpContext.current())
+        .thenComposeAsync(v -> profile.get().getAccount(requestLoader), httpContext.current())
         .thenCombineAsync(
             roApplicantProgramServiceCompletionStage,
             (account, roApplicantProgramService) ->
@@ -2,6 +2,7 @@ package controllers.dev;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import auth.AccountValidityCache;
 import com.google.common.collect.ImmutableList;
 import com.google.inject.Inject;
 import com.typesafe.config.Config;
@@ -47,6 +48,7 @@ public class DatabaseSeedController extends DevController {
   private final EbeanServer ebeanServer;
   private final QuestionService questionService;
   private final ProgramService programService;
+  private final AccountValidityCache accountValidityCache;
 
   @Inject
   public DatabaseSeedController(
@@ -54,6 +56,7 @@ public class DatabaseSeedController extends DevController {
       EbeanConfig ebeanConfig,
       QuestionService questionService,
       ProgramService programService,
+      AccountValidityCache accountValidityCache,
       Environment environment,
       Config configuration) {
     super(environment, configuration);
@@ -61,6 +64,7 @@ public class DatabaseSeedController extends DevController {
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.questionService = checkNotNull(questionService);
     this.programService = checkNotNull(programService);
+    this.accountValidityCache = checkNotNull(accountValidityCache);
   }
 
   /**
@@ -277,6 +281,7 @@ public class DatabaseSeedController extends DevController {
 
   private void resetTables() {
     Models.truncate(ebeanServer);
+    accountValidityCache.invalidateAll();
     Version newActiveVersion = new Version(LifecycleStage.ACTIVE);
     newActiveVersion.save();
   }
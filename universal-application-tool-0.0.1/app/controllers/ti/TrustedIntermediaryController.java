@@ -13,6 +13,9 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import forms.AddApplicantToTrustedIntermediaryGroupForm;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import javax.inject.Inject;
 import models.Account;
 import models.TrustedIntermediaryGroup;
@@ -22,6 +25,7 @@ import play.data.FormFactory;
 import play.i18n.MessagesApi;
 import play.mvc.Http;
 import play.mvc.Result;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.UserRepository;
 import services.PaginationInfo;
 import services.ti.EmailAddressExistsException;
@@ -39,6 +43,7 @@ public class TrustedIntermediaryController {
   private final UserRepository userRepository;
   private final MessagesApi messagesApi;
   private final FormFactory formFactory;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
 
   @Inject
   public TrustedIntermediaryController(
@@ -46,36 +51,77 @@ public class TrustedIntermediaryController {
       UserRepository userRepository,
       FormFactory formFactory,
       MessagesApi messagesApi,
-      TrustedIntermediaryDashboardView trustedIntermediaryDashboardView) {
+      TrustedIntermediaryDashboardView trustedIntermediaryDashboardView,
+      QueryProfilingHttpExecutionContext httpExecutionContext) {
     this.profileUtils = Preconditions.checkNotNull(profileUtils);
     this.tiDashboardView = Preconditions.checkNotNull(trustedIntermediaryDashboardView);
     this.userRepository = Preconditions.checkNotNull(userRepository);
     this.formFactory = Preconditions.checkNotNull(formFactory);
     this.messagesApi = Preconditions.checkNotNull(messagesApi);
+    this.httpExecutionContext = Preconditions.checkNotNull(httpExecutionContext);
   }
 
   @Secure(authorizers = Authorizers.Labels.TI)
-  public Result dashboard(Http.Request request, Optional<String> search, Optional<Integer> page) {
+  public CompletionStage<Result> dashboard(
+      Http.Request request, Optional<String> search, Optional<Integer> page) {
     if (page.isEmpty()) {
-      return redirect(routes.TrustedIntermediaryController.dashboard(search, Optional.of(1)));
+      return CompletableFuture.completedFuture(
+          redirect(routes.TrustedIntermediaryController.dashboard(search, Optional.of(1))));
     }
     Optional<CiviFormProfile> civiformProfile = profileUtils.currentUserProfile(request);
     if (civiformProfile.isEmpty()) {
-      return unauthorized();
-    }
-    Optional<TrustedIntermediaryGroup> trustedIntermediaryGroup =
-        userRepository.getTrustedIntermediaryGroup(civiformProfile.get());
-    if (trustedIntermediaryGroup.isEmpty()) {
-      return notFound();
+      return CompletableFuture.completedFuture(unauthorized());
     }
-    ImmutableList<Account> managedAccounts =
-        trustedIntermediaryGroup.get().getManagedAccounts(search);
-    PaginationInfo<Account> pageInfo =
-        PaginationInfo.paginate(managedAccounts, PAGE_SIZE, page.get());
+    Executor httpExecutor = httpExecutionContext.current();
+    return civiformProfile
+        .get()
+        .getAccount()
+        .thenComposeAsync(
+            tiAccount -> {
+              Optional<TrustedIntermediaryGroup> trustedIntermediaryGroup =
+                  tiAccount.getMemberOfGroup();
+              if (trustedIntermediaryGroup.isEmpty()) {
+                return CompletableFuture.completedFuture(notFound());
+              }
+              CompletionStage<PaginationInfo<Account>> pageInfoStage =
+                  userRepository.getManagedAccounts(
+                      trustedIntermediaryGroup.get(), search, PAGE_SIZE, page.get());
+              return userRepository
+                  .getTrustedIntermediaries(trustedIntermediaryGroup.get())
+                  .thenCombineAsync(
+                      pageInfoStage,
+                      (trustedIntermediaries, pageInfo) ->
+                          renderDashboard(
+                              request,
+                              tiAccount,
+                              trustedIntermediaryGroup.get(),
+                              trustedIntermediaries,
+                              pageInfo,
+                              search),
+                      httpExecutor);
+            },
+            httpExecutor);
+  }
+
+  private Result renderDashboard(
+      Http.Request request,
+      Account tiAccount,
+      TrustedIntermediaryGroup trustedIntermediaryGroup,
+      ImmutableList<Account> trustedIntermediaries,
+      PaginationInfo<Account> pageInfo,
+      Optional<String> search) {
+    // The TI is a member of the group, so take their name from the fetched members.
+    String tiName =
+        trustedIntermediaries.stream()
+            .filter(member -> member.id.equals(tiAccount.id))
+            .findAny()
+            .orElse(tiAccount)
+            .getApplicantName();
     return ok(
         tiDashboardView.render(
-            trustedIntermediaryGroup.get(),
-            civiformProfile.get().getApplicant().join().getApplicantData().getApplicantName(),
+            trustedIntermediaryGroup,
+            trustedIntermediaries,
+            tiName,
             pageInfo.getPageItems(),
             pageInfo.getPageCount(),
             pageInfo.getPage(),
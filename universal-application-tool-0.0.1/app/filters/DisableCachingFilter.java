@@ -2,31 +2,43 @@ package filters;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import com.typesafe.config.Config;
 import java.util.concurrent.Executor;
 import javax.inject.Inject;
 import play.mvc.EssentialAction;
 import play.mvc.EssentialFilter;
 
-/** A filter to disable caching our responses. */
+/**
+ * A filter to disable caching our responses.
+ *
+ * <p>Static assets are left alone: the assets controller sets their caching headers, which lets
+ * browsers keep fingerprinted assets for a year.
+ */
 public class DisableCachingFilter extends EssentialFilter {
   private final Executor exec;
+  private final String assetsPrefix;
 
   @Inject
-  public DisableCachingFilter(Executor exec) {
+  public DisableCachingFilter(Executor exec, Config configuration) {
     this.exec = checkNotNull(exec);
+    this.assetsPrefix = checkNotNull(configuration).getString("play.assets.urlPrefix") + "/";
   }
 
   @Override
   public EssentialAction apply(EssentialAction next) {
     return EssentialAction.of(
-        request ->
-            next.apply(request)
-                .map(
-                    result ->
-                        result
-                            .withHeader("Cache-Control", "no-cache, must-revalidate")
-                            .withHeader("Pragma", "no-cache")
-                            .withHeader("Expires", "0"),
-                    exec));
+        request -> {
+          if (request.path().startsWith(assetsPrefix)) {
+            return next.apply(request);
+          }
+          return next.apply(request)
+              .map(
+                  result ->
+                      result
+                          .withHeader("Cache-Control", "no-cache, must-revalidate")
+                          .withHeader("Pragma", "no-cache")
+                          .withHeader("Expires", "0"),
+                  exec);
+        });
   }
 }
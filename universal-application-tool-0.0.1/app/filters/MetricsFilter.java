@@ -0,0 +1,73 @@
+package filters;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.mvc.EssentialAction;
+import play.mvc.EssentialFilter;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.routing.HandlerDef;
+import play.routing.Router;
+import services.metrics.MetricsService;
+
+/**
+ * Records the latency and status of every response in {@link MetricsService}, labelled with the
+ * route that handled the request. Routes are labelled by their path pattern, e.g.
+ * "/admin/programs/$programId<[^/]+>/edit", so that each route has one set of metrics however many
+ * ids it is called with.
+ */
+@Singleton
+public class MetricsFilter extends EssentialFilter {
+  private final Executor exec;
+  private final Clock clock;
+  private final MetricsService metricsService;
+
+  @Inject
+  public MetricsFilter(Executor exec, Clock clock, MetricsService metricsService) {
+    this.exec = checkNotNull(exec);
+    this.clock = checkNotNull(clock);
+    this.metricsService = checkNotNull(metricsService);
+  }
+
+  @Override
+  public EssentialAction apply(EssentialAction next) {
+    return EssentialAction.of(
+        request -> {
+          final long startTime = clock.millis();
+          return next.apply(request)
+              .map(
+                  result -> {
+                    record(request, result.status(), startTime);
+                    return result;
+                  },
+                  exec)
+              .recoverWith(
+                  error -> {
+                    // Errors are turned into a server error by the error handler, after filters.
+                    record(request, Http.Status.INTERNAL_SERVER_ERROR, startTime);
+                    CompletableFuture<Result> failure = new CompletableFuture<>();
+                    failure.completeExceptionally(error);
+                    return failure;
+                  },
+                  exec);
+        });
+  }
+
+  private void record(Http.RequestHeader request, int status, long startTime) {
+    metricsService.recordRequest(
+        request.method(), route(request), status, clock.millis() - startTime);
+  }
+
+  private static String route(Http.RequestHeader request) {
+    return request
+        .attrs()
+        .getOptional(Router.Attrs.HANDLER_DEF)
+        .map(HandlerDef::path)
+        .orElse(MetricsService.UNMATCHED_ROUTE);
+  }
+}
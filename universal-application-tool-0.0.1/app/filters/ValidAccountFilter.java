@@ -2,41 +2,71 @@ package filters;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import akka.stream.Materializer;
+import akka.util.ByteString;
+import auth.AccountValidityCache;
 import auth.CiviFormProfile;
 import auth.ProfileUtils;
 import java.util.Optional;
+import java.util.concurrent.Executor;
 import javax.inject.Inject;
 import play.libs.streams.Accumulator;
 import play.mvc.EssentialAction;
 import play.mvc.EssentialFilter;
+import play.mvc.Result;
 import play.mvc.Results;
 
 /**
  * A filter to ensure the account referenced in the browser cookie is valid. This should only matter
  * when the account is deleted from the database which almost will never happen in prod database.
+ *
+ * <p>The check does not block: the request continues once {@link AccountValidityCache} answers,
+ * which is immediately for recently seen accounts.
  */
 public class ValidAccountFilter extends EssentialFilter {
   private final ProfileUtils profileUtils;
+  private final AccountValidityCache accountValidityCache;
+  private final Materializer materializer;
+  private final Executor exec;
 
   @Inject
-  public ValidAccountFilter(ProfileUtils profileUtils) {
+  public ValidAccountFilter(
+      ProfileUtils profileUtils,
+      AccountValidityCache accountValidityCache,
+      Materializer materializer,
+      Executor exec) {
     this.profileUtils = checkNotNull(profileUtils);
+    this.accountValidityCache = checkNotNull(accountValidityCache);
+    this.materializer = checkNotNull(materializer);
+    this.exec = checkNotNull(exec);
   }
 
   @Override
   public EssentialAction apply(EssentialAction next) {
     return EssentialAction.of(
         request -> {
+          if (allowedEndpoint(request.uri())) {
+            return next.apply(request);
+          }
           Optional<CiviFormProfile> profile = profileUtils.currentUserProfile(request);
-          if (profile.isPresent() && !profileUtils.validCiviFormProfile(profile.get())) {
-            // The cookie is present but the profile is not valid, redirect to logout and clear the
-            // cookie.
-            if (!allowedEndpoint(request.uri())) {
-              return Accumulator.done(
-                  Results.redirect(org.pac4j.play.routes.LogoutController.logout()));
-            }
+          if (profile.isEmpty()) {
+            return next.apply(request);
           }
-          return next.apply(request);
+          return Accumulator.flatten(
+              accountValidityCache
+                  .isValid(profile.get())
+                  .<Accumulator<ByteString, Result>>thenApplyAsync(
+                      valid -> {
+                        if (!valid) {
+                          // The cookie is present but the profile is not valid, redirect to logout
+                          // and clear the cookie.
+                          return Accumulator.done(
+                              Results.redirect(org.pac4j.play.routes.LogoutController.logout()));
+                        }
+                        return next.apply(request);
+                      },
+                      exec),
+              materializer);
         });
   }
 
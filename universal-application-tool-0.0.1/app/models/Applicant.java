@@ -7,6 +7,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -15,6 +16,7 @@ import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 import play.data.validation.Constraints;
 import services.applicant.ApplicantData;
+import services.applicant.ParsedApplicantDataCache;
 
 /**
  * An EBean mapped class that represents a single applicant.
@@ -52,6 +54,19 @@ public class Applicant extends BaseModel {
   }
 
   public ApplicantData getApplicantData() {
+    return getApplicantData(ApplicantData::new);
+  }
+
+  /**
+   * Returns the applicant's data like {@link #getApplicantData()}, taking the parsed JSON from the
+   * cache if it is there.
+   */
+  public ApplicantData getApplicantData(ParsedApplicantDataCache cache) {
+    return getApplicantData((locale, json) -> cache.parse(this, locale, json));
+  }
+
+  private ApplicantData getApplicantData(
+      BiFunction<Optional<Locale>, String, ApplicantData> parser) {
     // This is called both before and after serialization, so we need to handle
     // all three cases - loading from the database, where `object` contains the
     // data and `applicantData` is null, first initialization, where `object`
@@ -60,10 +75,10 @@ public class Applicant extends BaseModel {
     if (this.applicantData == null && (object != null && !object.isEmpty())) {
       if (preferredLocale == null || preferredLocale.isEmpty()) {
         // Default to English until the applicant specifies their preferred language.
-        this.applicantData = new ApplicantData(object);
+        this.applicantData = parser.apply(Optional.empty(), object);
       } else {
         this.applicantData =
-            new ApplicantData(Optional.of(Locale.forLanguageTag(preferredLocale)), object);
+            parser.apply(Optional.of(Locale.forLanguageTag(preferredLocale)), object);
       }
     } else if (this.applicantData == null) {
       this.applicantData = new ApplicantData();
@@ -71,6 +86,11 @@ public class Applicant extends BaseModel {
     return applicantData;
   }
 
+  /** Replaces the applicant's data, e.g. with a copy that updates were staged on. */
+  public void setApplicantData(ApplicantData applicantData) {
+    this.applicantData = applicantData;
+  }
+
   @PrePersist
   @PreUpdate
   public void synchronizeObject() {
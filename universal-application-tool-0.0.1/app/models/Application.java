@@ -6,11 +6,13 @@ import io.ebean.annotation.UpdatedTimestamp;
 import java.time.Instant;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import play.data.validation.Constraints;
 import services.applicant.ApplicantData;
+import services.applicant.ParsedApplicantDataCache;
 
 /**
  * An EBean mapped class that records the submission of a single applicant to a single program.
@@ -66,12 +68,25 @@ public class Application extends BaseModel {
   }
 
   public ApplicantData getApplicantData() {
+    return getApplicantData(ApplicantData::new);
+  }
+
+  /**
+   * Returns the application's data like {@link #getApplicantData()}, taking the parsed JSON from
+   * the cache if it is there.
+   */
+  public ApplicantData getApplicantData(ParsedApplicantDataCache cache) {
+    return getApplicantData((locale, json) -> cache.parse(this, locale, json));
+  }
+
+  private ApplicantData getApplicantData(
+      BiFunction<Optional<Locale>, String, ApplicantData> parser) {
     if (this.preferredLocale == null || this.preferredLocale.isEmpty()) {
       // Default to English.
-      return new ApplicantData(this.object);
+      return parser.apply(Optional.empty(), this.object);
     }
 
-    return new ApplicantData(Optional.of(Locale.forLanguageTag(preferredLocale)), this.object);
+    return parser.apply(Optional.of(Locale.forLanguageTag(preferredLocale)), this.object);
   }
 
   public void setApplicantData(ApplicantData data) {
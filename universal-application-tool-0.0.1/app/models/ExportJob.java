@@ -0,0 +1,132 @@
+package models;
+
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import play.data.validation.Constraints;
+
+/**
+ * An EBean mapped class for a CSV export of the applications to one program, or of the demographics
+ * of all applications, that runs in the background.
+ *
+ * <p>A job's {@code fingerprint} identifies what it exports and the state of the applications when
+ * it was requested. A later request with the same fingerprint reuses the job and its file rather
+ * than exporting again, since nothing it covers has changed.
+ */
+@Entity
+@Table(name = "export_jobs")
+public class ExportJob extends BaseModel {
+  private static final long serialVersionUID = 1L;
+
+  /** The program whose applications are exported, or null for the demographics export. */
+  private Long programId;
+
+  @Constraints.Required private String fingerprint;
+
+  @Constraints.Required private ExportJobStatus status;
+
+  private int rowsTotal;
+
+  private int rowsWritten;
+
+  private String storageKey;
+
+  private String error;
+
+  @Constraints.Required private Instant createTime;
+
+  private Instant startTime;
+
+  private Instant finishTime;
+
+  /**
+   * When the server running the job last recorded that it is still queued or running there. A job
+   * whose heartbeat stops, e.g. because that server restarted, is assumed lost.
+   */
+  @Constraints.Required private Instant heartbeatTime;
+
+  public ExportJob(Optional<Long> programId, String fingerprint, Instant createTime) {
+    this.programId = programId.orElse(null);
+    this.fingerprint = fingerprint;
+    this.status = ExportJobStatus.QUEUED;
+    this.createTime = createTime;
+    this.heartbeatTime = createTime;
+  }
+
+  public Optional<Long> getProgramId() {
+    return Optional.ofNullable(programId);
+  }
+
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public ExportJobStatus getStatus() {
+    return status;
+  }
+
+  public int getRowsTotal() {
+    return rowsTotal;
+  }
+
+  public int getRowsWritten() {
+    return rowsWritten;
+  }
+
+  public Optional<String> getStorageKey() {
+    return Optional.ofNullable(storageKey);
+  }
+
+  public Optional<String> getError() {
+    return Optional.ofNullable(error);
+  }
+
+  public Instant getCreateTime() {
+    return createTime;
+  }
+
+  public Optional<Instant> getStartTime() {
+    return Optional.ofNullable(startTime);
+  }
+
+  public Optional<Instant> getFinishTime() {
+    return Optional.ofNullable(finishTime);
+  }
+
+  public Instant getHeartbeatTime() {
+    return heartbeatTime;
+  }
+
+  /** Returns whether the job has stopped running, whether or not it succeeded. */
+  public boolean isFinished() {
+    return status == ExportJobStatus.SUCCEEDED || status == ExportJobStatus.FAILED;
+  }
+
+  /** Records that the job has started, expecting to write {@code rowsTotal} applications. */
+  public void markRunning(Instant now, int rowsTotal) {
+    this.status = ExportJobStatus.RUNNING;
+    this.startTime = now;
+    this.rowsTotal = rowsTotal;
+    this.rowsWritten = 0;
+  }
+
+  /** Records that {@code rows} more applications have been written. */
+  public void addRowsWritten(int rows) {
+    this.rowsWritten += rows;
+  }
+
+  /** Records that the file has been written to storage under {@code storageKey}. */
+  public void markSucceeded(Instant now, String storageKey) {
+    this.status = ExportJobStatus.SUCCEEDED;
+    this.finishTime = now;
+    this.storageKey = storageKey;
+  }
+
+  /** Records that the export failed. */
+  public void markFailed(Instant now, String error) {
+    this.status = ExportJobStatus.FAILED;
+    this.finishTime = now;
+    this.error = error;
+  }
+}
@@ -0,0 +1,23 @@
+package models;
+
+import io.ebean.annotation.DbEnumType;
+import io.ebean.annotation.DbEnumValue;
+
+/** The stages of an {@link ExportJob}. */
+public enum ExportJobStatus {
+  QUEUED("queued"),
+  RUNNING("running"),
+  SUCCEEDED("succeeded"),
+  FAILED("failed");
+
+  private final String status;
+
+  ExportJobStatus(String status) {
+    this.status = status;
+  }
+
+  @DbEnumValue(storage = DbEnumType.VARCHAR)
+  public String getValue() {
+    return this.status;
+  }
+}
@@ -12,7 +12,10 @@ public class Models {
           Account.class,
           Applicant.class,
           Application.class,
+          ExportJob.class,
           Program.class,
+          OutgoingEmail.class,
+          ProgramCsvColumns.class,
           Question.class,
           StoredFile.class,
           TrustedIntermediaryGroup.class,
@@ -0,0 +1,104 @@
+package models;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.annotation.DbArray;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import play.data.validation.Constraints;
+
+/**
+ * An EBean mapped class for an email waiting in the outbox, or already sent from it.
+ *
+ * <p>Emails are saved in the same transaction as the change they notify about, and sent later by
+ * {@code OutgoingEmailDispatcher}. An email is pending while it has no {@code sentTime} and has a
+ * {@code nextAttemptTime}. One that has failed too many times keeps its {@code lastError} but has
+ * no next attempt, so it is never sent. A claimed email's next attempt is the end of its claim.
+ */
+@Entity
+@Table(name = "outgoing_emails")
+public class OutgoingEmail extends BaseModel {
+  private static final long serialVersionUID = 1L;
+
+  @Constraints.Required @DbArray private List<String> toAddresses = new ArrayList<>();
+
+  @Constraints.Required private String subject;
+
+  @Constraints.Required private String body;
+
+  @Constraints.Required private Instant createTime;
+
+  private int attempts;
+
+  private Instant nextAttemptTime;
+
+  private Instant sentTime;
+
+  private String lastError;
+
+  public OutgoingEmail(
+      ImmutableList<String> toAddresses, String subject, String body, Instant createTime) {
+    this.toAddresses = new ArrayList<>(toAddresses);
+    this.subject = subject;
+    this.body = body;
+    this.createTime = createTime;
+    this.nextAttemptTime = createTime;
+  }
+
+  public ImmutableList<String> getToAddresses() {
+    return ImmutableList.copyOf(toAddresses);
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  public Instant getCreateTime() {
+    return createTime;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public Optional<Instant> getNextAttemptTime() {
+    return Optional.ofNullable(nextAttemptTime);
+  }
+
+  public Optional<Instant> getSentTime() {
+    return Optional.ofNullable(sentTime);
+  }
+
+  public Optional<String> getLastError() {
+    return Optional.ofNullable(lastError);
+  }
+
+  /**
+   * Claims the email for a send attempt by moving its next attempt to {@code leaseUntil}, so that
+   * no other dispatcher picks it up before then.
+   */
+  public void claim(Instant leaseUntil) {
+    this.nextAttemptTime = leaseUntil;
+  }
+
+  /** Records a successful send. */
+  public void markSent(Instant now) {
+    this.attempts++;
+    this.sentTime = now;
+    this.nextAttemptTime = null;
+  }
+
+  /** Records a failed send, to be retried at {@code retryTime}, or never if it is empty. */
+  public void markFailed(String error, Optional<Instant> retryTime) {
+    this.attempts++;
+    this.lastError = error;
+    this.nextAttemptTime = retryTime.orElse(null);
+  }
+}
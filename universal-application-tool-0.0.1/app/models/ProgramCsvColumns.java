@@ -0,0 +1,44 @@
+package models;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.ebean.annotation.DbJsonB;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import play.data.validation.Constraints;
+
+/**
+ * The EBean mapped class that records, for one program, the CSV answer columns seen in any of its
+ * applications.
+ *
+ * <p>Each key identifies an answer by its block id and question index, and each value lists the
+ * scalar paths exported for that answer. Rows are only ever extended, never shrunk, so the default
+ * CSV export can read its headers from here instead of from every application.
+ *
+ * <p>A row is created incomplete when the program's existing applications start being scanned for
+ * their columns, so that submissions during the scan add theirs, and is complete once the scan's
+ * columns are merged in.
+ */
+@Entity
+@Table(name = "program_csv_columns")
+public class ProgramCsvColumns extends BaseModel {
+  private static final long serialVersionUID = 1L;
+
+  @Constraints.Required private long programId;
+
+  @Constraints.Required @DbJsonB private ImmutableMap<String, ImmutableList<String>> columns;
+
+  private boolean complete;
+
+  public long getProgramId() {
+    return programId;
+  }
+
+  public ImmutableMap<String, ImmutableList<String>> getColumns() {
+    return columns;
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+}
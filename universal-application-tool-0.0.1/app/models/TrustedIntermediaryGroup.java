@@ -3,8 +3,6 @@ package models;
 import com.google.common.collect.ImmutableList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
@@ -52,20 +50,4 @@ public class TrustedIntermediaryGroup extends BaseModel {
   public String getDescription() {
     return this.description;
   }
-
-  public ImmutableList<Account> getManagedAccounts(Optional<String> search) {
-    ImmutableList<Account> allAccounts = getManagedAccounts();
-    if (search.isPresent()) {
-      allAccounts =
-          allAccounts.stream()
-              .filter(
-                  account ->
-                      account
-                          .getApplicantName()
-                          .toLowerCase(Locale.ROOT)
-                          .contains(search.get().toLowerCase(Locale.ROOT)))
-              .collect(ImmutableList.toImmutableList());
-    }
-    return allAccounts;
-  }
 }
@@ -5,6 +5,8 @@ import java.time.Clock;
 import java.time.ZoneId;
 import services.applicant.ApplicantService;
 import services.applicant.ApplicantServiceImpl;
+import services.email.OutgoingEmailDispatcher;
+import services.export.ExportJobService;
 import services.program.ProgramService;
 import services.program.ProgramServiceImpl;
 import services.question.QuestionService;
@@ -27,5 +29,9 @@ public class MainModule extends AbstractModule {
     bind(ProgramService.class).to(ProgramServiceImpl.class);
     bind(QuestionService.class).to(QuestionServiceImpl.class);
     bind(ApplicantService.class).to(ApplicantServiceImpl.class);
+    // Polls the email outbox in the background for as long as the application runs.
+    bind(OutgoingEmailDispatcher.class).asEagerSingleton();
+    // Keeps export jobs alive and deletes expired ones in the background.
+    bind(ExportJobService.class).asEagerSingleton();
   }
 }
@@ -6,6 +6,10 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 import com.google.common.collect.ImmutableList;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.ExpressionList;
+import io.ebean.SqlQuery;
+import io.ebean.SqlRow;
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
@@ -14,6 +18,7 @@ import javax.inject.Inject;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutgoingEmail;
 import models.Program;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +35,7 @@ public class ApplicationRepository {
   private final UserRepository userRepository;
   private final EbeanServer ebeanServer;
   private final DatabaseExecutionContext executionContext;
+  private final DatabaseExecutionContexts executionContexts;
   private static final Logger LOG = LoggerFactory.getLogger(ApplicationRepository.class);
 
   @Inject
@@ -37,11 +43,13 @@ public class ApplicationRepository {
       ProgramRepository programRepository,
       UserRepository userRepository,
       EbeanConfig ebeanConfig,
-      DatabaseExecutionContext executionContext) {
+      DatabaseExecutionContext executionContext,
+      DatabaseExecutionContexts executionContexts) {
     this.programRepository = checkNotNull(programRepository);
     this.userRepository = checkNotNull(userRepository);
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.executionContext = checkNotNull(executionContext);
+    this.executionContexts = checkNotNull(executionContexts);
   }
 
   /**
@@ -53,22 +61,35 @@ public class ApplicationRepository {
       Applicant applicant, Program program, Optional<String> submitterEmail) {
     return supplyAsync(
         () -> {
-          return submitApplicationInternal(applicant, program, submitterEmail);
+          return submitApplicationInternal(
+              applicant, program, submitterEmail, application -> ImmutableList.of());
         },
         executionContext.current());
   }
 
+  /**
+   * Submits an application as {@link #submitApplication(Applicant, Program, Optional)} does, and
+   * adds the emails {@code notifications} returns for it to the outbox in the same transaction.
+   * The emails are only sent if the submission is committed.
+   */
   public CompletionStage<Optional<Application>> submitApplication(
-      long applicantId, long programId, Optional<String> submitterEmail) {
+      long applicantId,
+      long programId,
+      Optional<String> submitterEmail,
+      Function<Application, ImmutableList<OutgoingEmail>> notifications) {
     return this.perform(
         applicantId,
         programId,
         (ApplicationArguments appArgs) ->
-            submitApplicationInternal(appArgs.applicant, appArgs.program, submitterEmail));
+            submitApplicationInternal(
+                appArgs.applicant, appArgs.program, submitterEmail, notifications));
   }
 
   private Application submitApplicationInternal(
-      Applicant applicant, Program program, Optional<String> submitterEmail) {
+      Applicant applicant,
+      Program program,
+      Optional<String> submitterEmail,
+      Function<Application, ImmutableList<OutgoingEmail>> notifications) {
     ebeanServer.beginTransaction();
     try {
       List<Application> oldApplications =
@@ -97,6 +118,7 @@ public class ApplicationRepository {
       }
 
       application.save();
+      ebeanServer.saveAll(notifications.apply(application));
       ebeanServer.commitTransaction();
       return application;
     } finally {
@@ -130,10 +152,61 @@ public class ApplicationRepository {
             });
   }
 
+  /**
+   * Returns a string that changes whenever an application is added or changed, optionally only
+   * counting applications to one program. Exports can be reused while it stays the same.
+   */
+  public String getApplicationsFingerprint(Optional<Long> programId) {
+    SqlQuery query =
+        ebeanServer.createSqlQuery(
+            "select count(*) as row_count, coalesce(max(id), 0) as max_id,"
+                + " max(submit_time) as last_change from applications"
+                + (programId.isPresent() ? " where program_id = :programId" : ""));
+    programId.ifPresent(id -> query.setParameter("programId", id));
+    SqlRow row = query.findOne();
+    Timestamp lastChange = row.getTimestamp("last_change");
+    return String.format(
+        "%d-%d-%d",
+        row.getLong("row_count"),
+        row.getLong("max_id"),
+        lastChange == null ? 0 : lastChange.getTime());
+  }
+
+  /** Returns the number of applications, optionally only those to one program. */
+  public int countApplications(Optional<Long> programId) {
+    ExpressionList<Application> query = ebeanServer.find(Application.class).where();
+    if (programId.isPresent()) {
+      query = query.eq("program.id", programId.get());
+    }
+    return query.findCount();
+  }
+
   public ImmutableList<Application> getAllApplications() {
     return ImmutableList.copyOf(ebeanServer.find(Application.class).findList());
   }
 
+  /**
+   * Returns up to {@code pageSize} applications with ids greater than {@code afterId}, in id order,
+   * optionally restricted to one program. Paging by id keeps each query cheap no matter how deep
+   * into the results it is, so large exports can be read a page at a time.
+   *
+   * <p>The page is read on the dispatcher for {@code workload}, e.g. {@link
+   * DatabaseWorkload#EXPORT} for exports, so that they do not hold up applicants.
+   */
+  public CompletionStage<ImmutableList<Application>> getApplicationsAfter(
+      Optional<Long> programId, long afterId, int pageSize, DatabaseWorkload workload) {
+    return supplyAsync(
+        () -> {
+          ExpressionList<Application> query =
+              ebeanServer.find(Application.class).where().gt("id", afterId);
+          if (programId.isPresent()) {
+            query = query.eq("program.id", programId.get());
+          }
+          return ImmutableList.copyOf(query.orderBy("id").setMaxRows(pageSize).findList());
+        },
+        executionContexts.forWorkload(workload).current());
+  }
+
   // Need to transmit both arguments to submitApplication through the CompletionStage pipeline.
   // Not useful in the API, not needed more broadly.
   private static class ApplicationArguments {
@@ -3,15 +3,82 @@ package repository;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import akka.actor.ActorSystem;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import play.libs.concurrent.CustomExecutionContext;
+import play.libs.concurrent.HttpExecution;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.ExecutionContextExecutor;
 
-/** Custom execution context wired to "database.dispatcher" thread pool */
+/**
+ * Custom execution context wired to "database.dispatcher" thread pool, which runs applicant-facing
+ * database work. Contexts for the other {@link DatabaseWorkload}s are in {@link
+ * DatabaseExecutionContexts}.
+ *
+ * <p>Counts the tasks waiting for and running on the pool, so that its saturation can be
+ * monitored, and runs each task as part of the {@link QueryProfile} of the thread that submitted
+ * it.
+ */
 @Singleton
 public class DatabaseExecutionContext extends CustomExecutionContext {
+  private final AtomicLong submittedTasks = new AtomicLong();
+  private final AtomicLong startedTasks = new AtomicLong();
+  private final AtomicLong finishedTasks = new AtomicLong();
+
   @Inject
   public DatabaseExecutionContext(ActorSystem actorSystem) {
-    super(checkNotNull(actorSystem), "database.dispatcher");
+    this(actorSystem, DatabaseWorkload.APPLICANT.dispatcherName());
+  }
+
+  DatabaseExecutionContext(ActorSystem actorSystem, String dispatcherName) {
+    super(checkNotNull(actorSystem), checkNotNull(dispatcherName));
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    submittedTasks.incrementAndGet();
+    Runnable profiledCommand = QueryProfiler.propagate(command);
+    try {
+      super.execute(
+          () -> {
+            startedTasks.incrementAndGet();
+            try {
+              profiledCommand.run();
+            } finally {
+              finishedTasks.incrementAndGet();
+            }
+          });
+    } catch (RuntimeException e) {
+      submittedTasks.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns an executor that keeps the calling thread's class loader, as the default does, and
+   * submits through {@link #execute}, so that the tasks are counted and profiled.
+   */
+  @Override
+  public ExecutionContextExecutor current() {
+    return HttpExecution.fromThread((ExecutionContext) this);
+  }
+
+  /** The number of tasks waiting for a thread in the pool. */
+  public long queuedTaskCount() {
+    // Read in the opposite order to the updates, so that the difference is never negative.
+    long started = startedTasks.get();
+    return Math.max(0, submittedTasks.get() - started);
+  }
+
+  /** The number of tasks running in the pool. */
+  public long activeTaskCount() {
+    long finished = finishedTasks.get();
+    return Math.max(0, startedTasks.get() - finished);
+  }
+
+  /** The number of tasks that have finished running in the pool. */
+  public long completedTaskCount() {
+    return finishedTasks.get();
   }
 }
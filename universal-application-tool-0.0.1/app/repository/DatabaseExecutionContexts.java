@@ -0,0 +1,85 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The execution context for each {@link DatabaseWorkload}. Each has its own fixed-size dispatcher,
+ * which also bounds how many pooled connections that kind of work can hold at once.
+ *
+ * <p>The default {@link DatabaseExecutionContext} is the one for {@link
+ * DatabaseWorkload#APPLICANT}.
+ */
+@Singleton
+public final class DatabaseExecutionContexts {
+  private static final Logger LOG = LoggerFactory.getLogger(DatabaseExecutionContexts.class);
+
+  /** Other dispatchers whose tasks hold a database connection while they run. */
+  private static final ImmutableList<String> OTHER_DATABASE_DISPATCHERS =
+      ImmutableList.of("email.dispatcher", "export-jobs.dispatcher");
+
+  private final ImmutableMap<DatabaseWorkload, DatabaseExecutionContext> contexts;
+
+  @Inject
+  public DatabaseExecutionContexts(
+      ActorSystem actorSystem,
+      DatabaseExecutionContext applicantExecutionContext,
+      Config configuration) {
+    checkNotNull(actorSystem);
+    this.contexts =
+        ImmutableMap.of(
+            DatabaseWorkload.APPLICANT,
+            checkNotNull(applicantExecutionContext),
+            DatabaseWorkload.ADMIN,
+            new DatabaseExecutionContext(actorSystem, DatabaseWorkload.ADMIN.dispatcherName()),
+            DatabaseWorkload.EXPORT,
+            new DatabaseExecutionContext(actorSystem, DatabaseWorkload.EXPORT.dispatcherName()));
+    checkPoolSize(checkNotNull(configuration));
+  }
+
+  /** Returns the execution context that work of the given kind should run on. */
+  public DatabaseExecutionContext forWorkload(DatabaseWorkload workload) {
+    return contexts.get(workload);
+  }
+
+  /** Returns the execution context for each kind of work. */
+  public ImmutableMap<DatabaseWorkload, DatabaseExecutionContext> all() {
+    return contexts;
+  }
+
+  /**
+   * Warns if the connection pool is smaller than every consumer of it together: the threads of
+   * each dispatcher that queries the database, plus the connections set aside for queries run on
+   * request threads. Otherwise busy consumers can still take each other's connections.
+   */
+  private static void checkPoolSize(Config configuration) {
+    int consumers = configuration.getInt("requestThreadConnections");
+    for (DatabaseWorkload workload : DatabaseWorkload.values()) {
+      consumers += dispatcherThreads(configuration, workload.dispatcherName());
+    }
+    for (String dispatcherName : OTHER_DATABASE_DISPATCHERS) {
+      consumers += dispatcherThreads(configuration, dispatcherName);
+    }
+    int poolSize = configuration.getInt("play.db.prototype.hikaricp.maximumPoolSize");
+    if (poolSize < consumers) {
+      LOG.warn(
+          "The database connection pool has {} connections, fewer than the {} its dispatchers and"
+              + " request threads may hold at once, so workloads can starve each other of"
+              + " connections.",
+          poolSize,
+          consumers);
+    }
+  }
+
+  private static int dispatcherThreads(Config configuration, String dispatcherName) {
+    return configuration.getInt(dispatcherName + ".thread-pool-executor.fixed-pool-size");
+  }
+}
@@ -0,0 +1,26 @@
+package repository;
+
+/**
+ * The kinds of database work that run on separate dispatchers, so that one kind of work cannot
+ * hold every database thread and connection while the others wait. See {@link
+ * DatabaseExecutionContexts}.
+ */
+public enum DatabaseWorkload {
+  /** Requests from applicants and trusted intermediaries filling out applications. */
+  APPLICANT("database.dispatcher"),
+  /** Requests from admins managing programs and questions. */
+  ADMIN("database.admin-dispatcher"),
+  /** Long-running bulk reads, such as CSV exports. */
+  EXPORT("database.export-dispatcher");
+
+  private final String dispatcherName;
+
+  DatabaseWorkload(String dispatcherName) {
+    this.dispatcherName = dispatcherName;
+  }
+
+  /** The name of the Akka dispatcher this work runs on. */
+  public String dispatcherName() {
+    return dispatcherName;
+  }
+}
@@ -0,0 +1,110 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.DuplicateKeyException;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import io.ebean.ExpressionList;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+import javax.inject.Inject;
+import models.ExportJob;
+import models.ExportJobStatus;
+import play.db.ebean.EbeanConfig;
+
+/** ExportJobRepository stores the {@link ExportJob}s for background CSV exports. */
+public class ExportJobRepository {
+  private final EbeanServer ebeanServer;
+
+  @Inject
+  public ExportJobRepository(EbeanConfig ebeanConfig) {
+    this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
+  }
+
+  /**
+   * Inserts the job.
+   *
+   * @throws DuplicateKeyException if the job is unfinished and another unfinished job for the same
+   *     export already exists. See {@link #findUnfinished}.
+   */
+  public ExportJob insert(ExportJob job) {
+    ebeanServer.insert(job);
+    return job;
+  }
+
+  public void update(ExportJob job) {
+    ebeanServer.update(job);
+  }
+
+  public void delete(ExportJob job) {
+    ebeanServer.delete(job);
+  }
+
+  public Optional<ExportJob> lookup(long id) {
+    return ebeanServer.find(ExportJob.class).setId(id).findOneOrEmpty();
+  }
+
+  /**
+   * Returns the queued or running job exporting the applications to the program, or the
+   * demographics if {@code programId} is empty. The database allows at most one such job.
+   */
+  public Optional<ExportJob> findUnfinished(Optional<Long> programId) {
+    ExpressionList<ExportJob> query = ebeanServer.find(ExportJob.class).where();
+    query =
+        programId.isPresent() ? query.eq("programId", programId.get()) : query.isNull("programId");
+    return query
+        .in("status", ImmutableList.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING))
+        .findOneOrEmpty();
+  }
+
+  /**
+   * Returns the most recent job with the fingerprint that either succeeded, or is still queued or
+   * running and had a heartbeat after {@code staleBefore}. Unfinished jobs without a recent
+   * heartbeat are assumed to have been lost, e.g. to a server restart.
+   */
+  public Optional<ExportJob> findReusable(String fingerprint, Instant staleBefore) {
+    return ebeanServer
+        .find(ExportJob.class)
+        .where()
+        .eq("fingerprint", fingerprint)
+        .or()
+        .eq("status", ExportJobStatus.SUCCEEDED)
+        .and()
+        .in("status", ImmutableList.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING))
+        .gt("heartbeatTime", staleBefore)
+        .endAnd()
+        .endOr()
+        .orderBy("createTime desc, id desc")
+        .setMaxRows(1)
+        .findOneOrEmpty();
+  }
+
+  /** Records a heartbeat at {@code now} for those of the given jobs that are still unfinished. */
+  public void recordHeartbeats(Collection<Long> ids, Instant now) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    ebeanServer
+        .update(ExportJob.class)
+        .set("heartbeatTime", now)
+        .where()
+        .idIn(ids)
+        .in("status", ImmutableList.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING))
+        .update();
+  }
+
+  /** Returns up to {@code limit} of the jobs that finished before {@code finishedBefore}. */
+  public ImmutableList<ExportJob> findFinishedBefore(Instant finishedBefore, int limit) {
+    return ImmutableList.copyOf(
+        ebeanServer
+            .find(ExportJob.class)
+            .where()
+            .lt("finishTime", finishedBefore)
+            .orderBy("finishTime, id")
+            .setMaxRows(limit)
+            .findList());
+  }
+}
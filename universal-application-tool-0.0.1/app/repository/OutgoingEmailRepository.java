@@ -0,0 +1,106 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import java.time.Instant;
+import java.util.List;
+import javax.inject.Inject;
+import models.OutgoingEmail;
+import play.db.ebean.EbeanConfig;
+
+/**
+ * OutgoingEmailRepository claims and counts the emails in the {@link OutgoingEmail} outbox.
+ *
+ * <p>Emails are added by saving them in the transaction of the change they notify about, so an
+ * email is only sent if that change is committed. Sending happens outside of any transaction: a
+ * batch is claimed in one short transaction, which leases its emails by moving their next attempt
+ * forward, and the outcome of the sends is recorded in another. Batches are claimed with {@code
+ * for update skip locked}, so several servers can dispatch from the same outbox without sending an
+ * email twice while its lease lasts.
+ */
+public class OutgoingEmailRepository {
+  private final EbeanServer ebeanServer;
+
+  @Inject
+  public OutgoingEmailRepository(EbeanConfig ebeanConfig) {
+    this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
+  }
+
+  /**
+   * Claims up to {@code batchSize} emails due at {@code now} until {@code leaseUntil}, and returns
+   * them. Pass the same {@code leaseUntil} to {@link #recordAttempts} once they are sent.
+   */
+  public ImmutableList<OutgoingEmail> claimDue(Instant now, int batchSize, Instant leaseUntil) {
+    ebeanServer.beginTransaction();
+    try {
+      List<OutgoingEmail> due =
+          ebeanServer
+              .find(OutgoingEmail.class)
+              .where()
+              .isNull("sentTime")
+              .le("nextAttemptTime", now)
+              .orderBy("nextAttemptTime, id")
+              .setMaxRows(batchSize)
+              .forUpdateSkipLocked()
+              .findList();
+      for (OutgoingEmail email : due) {
+        email.claim(leaseUntil);
+      }
+      ebeanServer.saveAll(due);
+      ebeanServer.commitTransaction();
+      return ImmutableList.copyOf(due);
+    } finally {
+      ebeanServer.endTransaction();
+    }
+  }
+
+  /**
+   * Saves the outcome of sending emails claimed until {@code leaseUntil}. Emails whose lease ran
+   * out and that were claimed again in the meantime are left to their new claim.
+   *
+   * @return the number of emails saved
+   */
+  public int recordAttempts(ImmutableList<OutgoingEmail> emails, Instant leaseUntil) {
+    if (emails.isEmpty()) {
+      return 0;
+    }
+    ImmutableList<Long> ids =
+        emails.stream().map(email -> email.id).collect(ImmutableList.toImmutableList());
+    ebeanServer.beginTransaction();
+    try {
+      ImmutableSet<Long> stillClaimed =
+          ImmutableSet.copyOf(
+              ebeanServer
+                  .find(OutgoingEmail.class)
+                  .where()
+                  .idIn(ids)
+                  .isNull("sentTime")
+                  .eq("nextAttemptTime", leaseUntil)
+                  .forUpdate()
+                  .<Long>findIds());
+      ImmutableList<OutgoingEmail> owned =
+          emails.stream()
+              .filter(email -> stillClaimed.contains(email.id))
+              .collect(ImmutableList.toImmutableList());
+      ebeanServer.saveAll(owned);
+      ebeanServer.commitTransaction();
+      return owned.size();
+    } finally {
+      ebeanServer.endTransaction();
+    }
+  }
+
+  /** Returns the number of emails waiting to be sent, including ones waiting to be retried. */
+  public int countPending() {
+    return ebeanServer
+        .find(OutgoingEmail.class)
+        .where()
+        .isNull("sentTime")
+        .isNotNull("nextAttemptTime")
+        .findCount();
+  }
+}
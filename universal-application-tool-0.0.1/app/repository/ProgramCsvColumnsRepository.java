@@ -0,0 +1,103 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.ebean.Ebean;
+import io.ebean.EbeanServer;
+import java.util.Optional;
+import javax.inject.Inject;
+import models.ProgramCsvColumns;
+import play.db.ebean.EbeanConfig;
+
+/**
+ * ProgramCsvColumnsRepository reads and extends the per-program catalog of CSV answer columns in
+ * {@link ProgramCsvColumns}.
+ *
+ * <p>Writes merge in a single statement so concurrent submissions cannot drop each other's columns.
+ * Existing entries always win over new ones, since an answer's columns never change within a
+ * program.
+ */
+public class ProgramCsvColumnsRepository {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final EbeanServer ebeanServer;
+
+  @Inject
+  public ProgramCsvColumnsRepository(EbeanConfig ebeanConfig) {
+    this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
+  }
+
+  /**
+   * Returns the columns recorded for the program, or empty if its catalog has not been completed
+   * yet.
+   */
+  public Optional<ImmutableMap<String, ImmutableList<String>>> lookupColumns(long programId) {
+    return ebeanServer
+        .find(ProgramCsvColumns.class)
+        .where()
+        .eq("programId", programId)
+        .eq("complete", true)
+        .findOneOrEmpty()
+        .map(ProgramCsvColumns::getColumns);
+  }
+
+  /**
+   * Adds the given columns to the program's catalog if it already has one, complete or not.
+   * Programs without a catalog are left alone: the catalog is created from a full scan the first
+   * time it is needed, and a partial catalog would hide columns from earlier applications.
+   */
+  public void mergeColumnsIfPresent(
+      long programId, ImmutableMap<String, ImmutableList<String>> columns) {
+    ebeanServer
+        .createSqlUpdate(
+            "update program_csv_columns set columns = cast(:columns as jsonb) || columns"
+                + " where program_id = :programId")
+        .setParameter("columns", toJson(columns))
+        .setParameter("programId", programId)
+        .execute();
+  }
+
+  /**
+   * Creates an incomplete, empty catalog for the program unless it already has one, so that
+   * submissions add their columns to it while the program's existing applications are scanned.
+   */
+  public void startColumns(long programId) {
+    ebeanServer
+        .createSqlUpdate(
+            "insert into program_csv_columns (program_id, columns, complete)"
+                + " values (:programId, '{}', false)"
+                + " on conflict (program_id) do nothing")
+        .setParameter("programId", programId)
+        .execute();
+  }
+
+  /**
+   * Creates the program's catalog with the given columns, or adds them to an existing one, and
+   * marks it complete.
+   */
+  public void insertOrMergeColumns(
+      long programId, ImmutableMap<String, ImmutableList<String>> columns) {
+    ebeanServer
+        .createSqlUpdate(
+            "insert into program_csv_columns (program_id, columns)"
+                + " values (:programId, cast(:columns as jsonb))"
+                + " on conflict (program_id)"
+                + " do update set columns = excluded.columns || program_csv_columns.columns,"
+                + " complete = true")
+        .setParameter("columns", toJson(columns))
+        .setParameter("programId", programId)
+        .execute();
+  }
+
+  private static String toJson(ImmutableMap<String, ImmutableList<String>> columns) {
+    try {
+      return MAPPER.writeValueAsString(columns);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -5,21 +5,29 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.ExpressionList;
+import io.ebean.PagedList;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.inject.Provider;
 import models.Account;
+import models.Application;
 import models.LifecycleStage;
 import models.Program;
 import models.Version;
 import play.db.ebean.EbeanConfig;
+import services.PaginationInfo;
 import services.program.ProgramNotFoundException;
 
 /**
@@ -30,22 +38,45 @@ public class ProgramRepository {
 
   private final EbeanServer ebeanServer;
   private final DatabaseExecutionContext executionContext;
+  private final DatabaseExecutionContext adminExecutionContext;
   private final Provider<VersionRepository> versionRepository;
 
   @Inject
   public ProgramRepository(
       EbeanConfig ebeanConfig,
       DatabaseExecutionContext executionContext,
+      DatabaseExecutionContexts executionContexts,
       Provider<VersionRepository> versionRepository) {
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.executionContext = checkNotNull(executionContext);
+    this.adminExecutionContext = executionContexts.forWorkload(DatabaseWorkload.ADMIN);
     this.versionRepository = checkNotNull(versionRepository);
   }
 
   public CompletionStage<Optional<Program>> lookupProgram(long id) {
-    return supplyAsync(
-        () -> ebeanServer.find(Program.class).where().eq("id", id).findOneOrEmpty(),
-        executionContext);
+    return supplyAsync(() -> lookupProgramSync(id), executionContext);
+  }
+
+  /** Looks up the program on the calling thread, so that it sees the thread's transaction. */
+  public Optional<Program> lookupProgramSync(long id) {
+    return ebeanServer.find(Program.class).where().eq("id", id).findOneOrEmpty();
+  }
+
+  /**
+   * Returns the admin names of the programs with the given ids, keyed by id, with one query. Ids
+   * that are not programs are left out.
+   */
+  public ImmutableMap<Long, String> getProgramNames(Collection<Long> programIds) {
+    if (programIds.isEmpty()) {
+      return ImmutableMap.of();
+    }
+    return ebeanServer
+        .createSqlQuery("select id, name from programs where id in (:ids)")
+        .setParameter("ids", programIds)
+        .findList()
+        .stream()
+        .collect(
+            ImmutableMap.toImmutableMap(row -> row.getLong("id"), row -> row.getString("name")));
   }
 
   public Program insertProgramSync(Program program) {
@@ -61,6 +92,16 @@ public class ProgramRepository {
   }
 
   public Program createOrUpdateDraft(Program existingProgram) {
+    return createOrUpdateDraft(existingProgram, () -> versionRepository.get().getLatestQuestions());
+  }
+
+  /**
+   * Creates or updates the draft of the program as {@link #createOrUpdateDraft(Program)} does,
+   * pointing a new draft at the questions that {@code latestQuestions} supplies. Callers making
+   * drafts of several programs for one change can share them.
+   */
+  Program createOrUpdateDraft(
+      Program existingProgram, Supplier<VersionRepository.LatestQuestions> latestQuestions) {
     Version draftVersion = versionRepository.get().getDraftVersion();
     Optional<Program> existingDraft =
         draftVersion.getProgramByName(existingProgram.getProgramDefinition().adminName());
@@ -101,7 +142,7 @@ public class ProgramRepository {
                     .count()
                 == 1,
             "Must be exactly one program with this name in the draft.");
-        versionRepository.get().updateQuestionVersions(newDraft);
+        versionRepository.get().updateQuestionVersions(newDraft, latestQuestions.get());
         transaction.commit();
         return newDraft;
       } catch (IllegalStateException e) {
@@ -110,7 +151,7 @@ public class ProgramRepository {
         // We cannot have this transaction on the thread-local transaction stack when that
         // happens.
         transaction.end();
-        return createOrUpdateDraft(existingProgram);
+        return createOrUpdateDraft(existingProgram, latestQuestions);
       } finally {
         // This may come after a prior call to `transaction.end` in the event of a
         // precondition failure - this is okay, since it a double-call to `end` on
@@ -171,4 +212,38 @@ public class ProgramRepository {
         .stream()
         .collect(ImmutableList.toImmutableList());
   }
+
+  /**
+   * Returns one page of the program's applications in id order, along with the total number of
+   * matching applications. If a search is given, only applications whose applicant name, formatted
+   * as "last, first", contains it (ignoring case) are returned.
+   *
+   * <p>Filtering, counting and paging all happen in the database against the indexed {@code
+   * applicant_name} column, so no applicant data is parsed to render a page. Only admins page
+   * through applications, so this runs on the {@link DatabaseWorkload#ADMIN} dispatcher.
+   */
+  public CompletionStage<PaginationInfo<Application>> getApplicationsForProgram(
+      long programId, Optional<String> search, int pageSize, int page) {
+    return supplyAsync(
+        () -> findApplicationsForProgram(programId, search, pageSize, page),
+        adminExecutionContext);
+  }
+
+  private PaginationInfo<Application> findApplicationsForProgram(
+      long programId, Optional<String> search, int pageSize, int page) {
+    ExpressionList<Application> query =
+        ebeanServer.find(Application.class).where().eq("program.id", programId);
+    String searchTerm = search.orElse("").toLowerCase(Locale.ROOT);
+    if (!searchTerm.isEmpty()) {
+      query = query.raw("applicant_name like ?", SqlLikePatterns.containing(searchTerm));
+    }
+    PagedList<Application> pagedList =
+        query
+            .orderBy("id")
+            .setFirstRow(Math.max(page - 1, 0) * pageSize)
+            .setMaxRows(pageSize)
+            .findPagedList();
+    return PaginationInfo.fromPage(
+        ImmutableList.copyOf(pagedList.getList()), pagedList.getTotalCount(), pageSize, page);
+  }
 }
@@ -0,0 +1,88 @@
+package repository;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The SQL statements run on behalf of one unit of work, such as a request, as logged by Ebean.
+ *
+ * <p>Statements are also grouped by their shape: the statement with its transaction id, bind
+ * values and literals removed. The same shape running many times for one request usually means
+ * rows are being loaded one at a time in a loop, i.e. an N+1 query.
+ */
+public final class QueryProfile {
+  private static final Pattern TRANSACTION_PREFIX = Pattern.compile("^txn\\[[^\\]]*\\]\\s*");
+  private static final Pattern LOGGED_DETAILS =
+      Pattern.compile(";?\\s*--(?:bind|micros)\\(.*$", Pattern.DOTALL);
+  private static final Pattern MICROS = Pattern.compile("--micros\\((\\d+)\\)");
+  private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+  private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+  private static final Pattern PARAMETER_LIST =
+      Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+  private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+  private final String label;
+  private final AtomicInteger queryCount = new AtomicInteger();
+  private final AtomicLong queryMicros = new AtomicLong();
+  private final ConcurrentHashMap<String, AtomicInteger> shapeCounts = new ConcurrentHashMap<>();
+
+  public QueryProfile(String label) {
+    this.label = label;
+  }
+
+  /** What the statements were run for, e.g. the request's method and path. */
+  public String getLabel() {
+    return label;
+  }
+
+  /** Records a statement, as logged by Ebean's SQL logger. */
+  public void record(String loggedStatement) {
+    queryCount.incrementAndGet();
+    Matcher micros = MICROS.matcher(loggedStatement);
+    if (micros.find()) {
+      queryMicros.addAndGet(Long.parseLong(micros.group(1)));
+    }
+    shapeCounts.computeIfAbsent(shapeOf(loggedStatement), unused -> new AtomicInteger())
+        .incrementAndGet();
+  }
+
+  /** The number of statements recorded. */
+  public int getQueryCount() {
+    return queryCount.get();
+  }
+
+  /** The time spent running the recorded statements, where Ebean logged it. */
+  public long getQueryMicros() {
+    return queryMicros.get();
+  }
+
+  /** Returns the shapes that were run at least {@code minimumCount} times, with their counts. */
+  public ImmutableMap<String, Integer> getRepeatedShapes(int minimumCount) {
+    ImmutableMap.Builder<String, Integer> repeated = ImmutableMap.builder();
+    for (Map.Entry<String, AtomicInteger> shape : shapeCounts.entrySet()) {
+      if (shape.getValue().get() >= minimumCount) {
+        repeated.put(shape.getKey(), shape.getValue().get());
+      }
+    }
+    return repeated.build();
+  }
+
+  /**
+   * Returns the shape of a statement as logged by Ebean: the SQL without its transaction id, bind
+   * values or literals, and with lists of parameters collapsed, so that loading different rows
+   * with the same query gives the same shape.
+   */
+  public static String shapeOf(String loggedStatement) {
+    String sql = TRANSACTION_PREFIX.matcher(loggedStatement.trim()).replaceFirst("");
+    sql = LOGGED_DETAILS.matcher(sql).replaceFirst("");
+    sql = STRING_LITERAL.matcher(sql).replaceAll("?");
+    sql = NUMBER_LITERAL.matcher(sql).replaceAll("?");
+    sql = PARAMETER_LIST.matcher(sql).replaceAll("(?...)");
+    return WHITESPACE.matcher(sql).replaceAll(" ").trim();
+  }
+}
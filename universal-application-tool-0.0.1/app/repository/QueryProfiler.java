@@ -0,0 +1,159 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import com.typesafe.config.Config;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+
+/**
+ * Counts and times the SQL statements each request runs, and logs requests that run more than
+ * {@code query_profiling.max_queries_per_request} statements or run the same statement shape at
+ * least {@code query_profiling.repeated_query_threshold} times (see {@link QueryProfile}).
+ *
+ * <p>Statements are read from Ebean's SQL logger, and attributed to the {@link QueryProfile} of the
+ * thread that runs them. The profile is attached to the thread that starts handling a request.
+ * {@link DatabaseExecutionContext} and {@link QueryProfilingHttpExecutionContext} carry it over to
+ * the tasks and continuations scheduled from a profiled thread, so it follows the request across
+ * both.
+ */
+@Singleton
+public final class QueryProfiler {
+  private static final org.slf4j.Logger LOG = LoggerFactory.getLogger(QueryProfiler.class);
+  private static final String EBEAN_SQL_LOGGER = "io.ebean.SQL";
+
+  private static final ThreadLocal<QueryProfile> currentProfile = new ThreadLocal<>();
+
+  private final boolean enabled;
+  private final int maxQueriesPerRequest;
+  private final int repeatedQueryThreshold;
+
+  @Inject
+  public QueryProfiler(Config configuration, ApplicationLifecycle appLifecycle) {
+    checkNotNull(configuration);
+    this.enabled = configuration.getBoolean("query_profiling.enabled");
+    this.maxQueriesPerRequest = configuration.getInt("query_profiling.max_queries_per_request");
+    this.repeatedQueryThreshold = configuration.getInt("query_profiling.repeated_query_threshold");
+    if (enabled) {
+      listenToEbean(appLifecycle);
+    }
+  }
+
+  /**
+   * Starts profiling the statements run by the current thread, and the database tasks it submits,
+   * until {@link #detach()} is called. Returns empty if profiling is disabled.
+   */
+  public Optional<QueryProfile> attach(String label) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    QueryProfile profile = new QueryProfile(label);
+    currentProfile.set(profile);
+    return Optional.of(profile);
+  }
+
+  /** Stops attributing the current thread's statements to its profile. */
+  public void detach() {
+    currentProfile.remove();
+  }
+
+  /** Logs the profile if it ran more statements than expected or likely contains an N+1 query. */
+  public void finish(QueryProfile profile) {
+    if (profile.getQueryCount() > maxQueriesPerRequest) {
+      LOG.warn(
+          "{} ran {} queries, taking {}us.",
+          profile.getLabel(),
+          profile.getQueryCount(),
+          profile.getQueryMicros());
+    }
+    for (Map.Entry<String, Integer> shape :
+        profile.getRepeatedShapes(repeatedQueryThreshold).entrySet()) {
+      LOG.warn(
+          "{} ran the same query {} times, which is likely an N+1 query: {}",
+          profile.getLabel(),
+          shape.getValue(),
+          shape.getKey());
+    }
+  }
+
+  /** Returns a task that runs {@code task} as part of the current thread's profile, if any. */
+  static Runnable propagate(Runnable task) {
+    return propagate(task, currentProfile.get());
+  }
+
+  /**
+   * Returns an executor that runs tasks on {@code delegate} as part of the current thread's
+   * profile. If the current thread has none, each task takes the profile of the thread that
+   * submits it, e.g. the database thread completing the stage a continuation waits on.
+   */
+  static Executor propagating(Executor delegate) {
+    QueryProfile profile = currentProfile.get();
+    return task ->
+        delegate.execute(propagate(task, profile != null ? profile : currentProfile.get()));
+  }
+
+  private static Runnable propagate(Runnable task, QueryProfile profile) {
+    if (profile == null) {
+      return task;
+    }
+    return () -> {
+      QueryProfile previous = currentProfile.get();
+      currentProfile.set(profile);
+      try {
+        task.run();
+      } finally {
+        if (previous == null) {
+          currentProfile.remove();
+        } else {
+          currentProfile.set(previous);
+        }
+      }
+    };
+  }
+
+  private static void listenToEbean(ApplicationLifecycle appLifecycle) {
+    Logger ebeanSqlLogger = (Logger) LoggerFactory.getLogger(EBEAN_SQL_LOGGER);
+    Level previousLevel = ebeanSqlLogger.getLevel();
+    boolean previouslyAdditive = ebeanSqlLogger.isAdditive();
+    if (!ebeanSqlLogger.isDebugEnabled()) {
+      // Ebean only logs statements at DEBUG. Don't pass them on to the application's logs when
+      // they are only being logged for profiling.
+      ebeanSqlLogger.setLevel(Level.DEBUG);
+      ebeanSqlLogger.setAdditive(false);
+    }
+    // Statements are logged from many threads at once, and each only touches its own profile.
+    UnsynchronizedAppenderBase<ILoggingEvent> appender =
+        new UnsynchronizedAppenderBase<>() {
+          @Override
+          protected void append(ILoggingEvent event) {
+            QueryProfile profile = currentProfile.get();
+            if (profile != null) {
+              profile.record(event.getFormattedMessage());
+            }
+          }
+        };
+    appender.setName(QueryProfiler.class.getName());
+    appender.setContext(ebeanSqlLogger.getLoggerContext());
+    appender.start();
+    ebeanSqlLogger.addAppender(appender);
+
+    appLifecycle.addStopHook(
+        () -> {
+          ebeanSqlLogger.detachAppender(appender);
+          appender.stop();
+          ebeanSqlLogger.setLevel(previousLevel);
+          ebeanSqlLogger.setAdditive(previouslyAdditive);
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+}
@@ -0,0 +1,26 @@
+package repository;
+
+import java.util.concurrent.Executor;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.HttpExecutionContext;
+
+/**
+ * An {@link HttpExecutionContext} whose continuations run as part of the {@link QueryProfile} of
+ * the request that scheduled them, so that statements run after hopping back to the HTTP
+ * execution context are still attributed to the request. Inject this instead of {@link
+ * HttpExecutionContext}.
+ */
+@Singleton
+public final class QueryProfilingHttpExecutionContext extends HttpExecutionContext {
+
+  @Inject
+  public QueryProfilingHttpExecutionContext(Executor delegate) {
+    super(delegate);
+  }
+
+  @Override
+  public Executor current() {
+    return QueryProfiler.propagating(super.current());
+  }
+}
@@ -31,16 +31,20 @@ public class QuestionRepository {
 
   private final EbeanServer ebeanServer;
   private final DatabaseExecutionContext executionContext;
+  private final DatabaseExecutionContext adminExecutionContext;
   private final Provider<VersionRepository> versionRepositoryProvider;
 
   @Inject
   public QuestionRepository(
       EbeanConfig ebeanConfig,
       DatabaseExecutionContext executionContext,
+      DatabaseExecutionContexts executionContexts,
       ProgramRepository programRepository,
       Provider<VersionRepository> versionRepositoryProvider) {
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.executionContext = checkNotNull(executionContext);
+    // Questions are only created and edited by admins.
+    this.adminExecutionContext = executionContexts.forWorkload(DatabaseWorkload.ADMIN);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
   }
 
@@ -203,7 +207,7 @@ public class QuestionRepository {
           ebeanServer.insert(question);
           return question;
         },
-        executionContext);
+        adminExecutionContext);
   }
 
   public Question insertQuestionSync(Question question) {
@@ -217,7 +221,7 @@ public class QuestionRepository {
           ebeanServer.update(question);
           return question;
         },
-        executionContext);
+        adminExecutionContext);
   }
 
   public Question updateQuestionSync(Question question) {
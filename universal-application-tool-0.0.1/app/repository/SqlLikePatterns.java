@@ -0,0 +1,15 @@
+package repository;
+
+/** Builds patterns for SQL LIKE and ILIKE from user-provided search text. */
+final class SqlLikePatterns {
+
+  private SqlLikePatterns() {}
+
+  /**
+   * Returns a pattern matching any value that contains {@code text}. Characters that LIKE treats
+   * specially are escaped with its default escape character, so they match literally.
+   */
+  static String containing(String text) {
+    return "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
+}
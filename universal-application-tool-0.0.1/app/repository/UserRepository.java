@@ -11,8 +11,12 @@ import com.google.common.collect.ImmutableSet;
 import forms.AddApplicantToTrustedIntermediaryGroupForm;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
+import io.ebean.SqlQuery;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
@@ -25,6 +29,7 @@ import models.LifecycleStage;
 import models.Program;
 import models.TrustedIntermediaryGroup;
 import play.db.ebean.EbeanConfig;
+import services.PaginationInfo;
 import services.program.ProgramDefinition;
 import services.ti.EmailAddressExistsException;
 import services.ti.NoSuchTrustedIntermediaryError;
@@ -36,17 +41,26 @@ import services.ti.NoSuchTrustedIntermediaryGroupError;
  */
 public class UserRepository {
 
+  /** SQL for a managed account's name, matching {@link Account#getApplicantName}. */
+  private static final String ACCOUNT_NAME_SQL =
+      "coalesce(newest_applicant.applicant_name, '<unnamed user>')";
+
   private final EbeanServer ebeanServer;
   private final DatabaseExecutionContext executionContext;
+  private final DatabaseExecutionContext adminExecutionContext;
   private final Provider<VersionRepository> versionRepositoryProvider;
 
   @Inject
   public UserRepository(
       EbeanConfig ebeanConfig,
       DatabaseExecutionContext executionContext,
+      DatabaseExecutionContexts executionContexts,
       Provider<VersionRepository> versionRepositoryProvider) {
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.executionContext = checkNotNull(executionContext);
+    // The trusted intermediary dashboard pages through whole groups, so it runs beside admin work
+    // rather than on the dispatcher applicants wait on.
+    this.adminExecutionContext = executionContexts.forWorkload(DatabaseWorkload.ADMIN);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
   }
 
@@ -107,6 +121,18 @@ public class UserRepository {
         .findOneOrEmpty();
   }
 
+  public CompletionStage<Optional<Account>> lookupAccount(long id) {
+    return supplyAsync(
+        () -> ebeanServer.find(Account.class).setId(id).findOneOrEmpty(), executionContext);
+  }
+
+  /** Returns whether an account with the given id exists, without loading it. */
+  public CompletionStage<Boolean> accountExists(long accountId) {
+    return supplyAsync(
+        () -> ebeanServer.find(Account.class).where().idEq(accountId).findCount() > 0,
+        executionContext);
+  }
+
   public CompletionStage<Optional<Applicant>> lookupApplicant(String emailAddress) {
     return supplyAsync(
         () -> {
@@ -260,6 +286,119 @@ public class UserRepository {
     return civiformProfile.getAccount().join().getMemberOfGroup();
   }
 
+  /**
+   * Returns the trusted intermediaries who are members of the group, with their applicants fetched
+   * in the same query so that their names can be read without loading each one's applicants.
+   */
+  public CompletionStage<ImmutableList<Account>> getTrustedIntermediaries(
+      TrustedIntermediaryGroup tiGroup) {
+    return supplyAsync(
+        () ->
+            ImmutableList.copyOf(
+                ebeanServer
+                    .find(Account.class)
+                    .fetch("applicants")
+                    .where()
+                    .eq("memberOfGroup.id", tiGroup.id)
+                    .findList()),
+        adminExecutionContext);
+  }
+
+  /**
+   * Returns one page of the accounts managed by the trusted intermediary group, sorted by applicant
+   * name, along with the total number of matching accounts. If a search is given, only accounts
+   * whose applicant name contains it (ignoring case) are returned.
+   *
+   * <p>An account's name is that of its newest applicant, as in {@link Account#getApplicantName}.
+   * Names are read from the indexed, lowercased {@code applicants.applicant_name} column and sorted
+   * in code point order, so no applicant data is parsed to choose the page. A search first narrows
+   * the accounts to those with any applicant matching it, which the column's trigram index
+   * answers, and then checks the newest applicant's name.
+   */
+  public CompletionStage<PaginationInfo<Account>> getManagedAccounts(
+      TrustedIntermediaryGroup tiGroup, Optional<String> search, int pageSize, int page) {
+    return supplyAsync(
+        () -> findManagedAccounts(tiGroup, search, pageSize, page), adminExecutionContext);
+  }
+
+  private PaginationInfo<Account> findManagedAccounts(
+      TrustedIntermediaryGroup tiGroup, Optional<String> search, int pageSize, int page) {
+    String fromManagedAccounts =
+        " from accounts"
+            + " left join lateral ("
+            + "   select applicant_name from applicants"
+            + "   where applicants.account_id = accounts.id"
+            + "   order by applicants.when_created desc limit 1"
+            + " ) as newest_applicant on true"
+            + " where accounts.managed_by_group_id = :groupId";
+    String searchTerm = search.orElse("").toLowerCase(Locale.ROOT);
+    if (!searchTerm.isEmpty()) {
+      fromManagedAccounts +=
+          " and (accounts.id in ("
+              + "   select account_id from applicants where applicant_name like :search"
+              + " ) or newest_applicant.applicant_name is null)"
+              + " and "
+              + ACCOUNT_NAME_SQL
+              + " like :search";
+    }
+
+    SqlQuery countQuery =
+        ebeanServer
+            .createSqlQuery("select count(*) as total" + fromManagedAccounts)
+            .setParameter("groupId", tiGroup.id);
+    SqlQuery pageQuery =
+        ebeanServer
+            .createSqlQuery(
+                "select accounts.id"
+                    + fromManagedAccounts
+                    + " order by "
+                    + ACCOUNT_NAME_SQL
+                    + " collate \"C\", accounts.id"
+                    + " limit :limit offset :offset")
+            .setParameter("groupId", tiGroup.id)
+            .setParameter("limit", pageSize)
+            .setParameter("offset", Math.max(page - 1, 0) * pageSize);
+    if (!searchTerm.isEmpty()) {
+      countQuery.setParameter("search", SqlLikePatterns.containing(searchTerm));
+      pageQuery.setParameter("search", SqlLikePatterns.containing(searchTerm));
+    }
+
+    int totalCount = countQuery.findOne().getInteger("total");
+    ImmutableList<Long> pageIds =
+        pageQuery.findList().stream()
+            .map(row -> row.getLong("id"))
+            .collect(ImmutableList.toImmutableList());
+    Map<Long, Account> accountsById =
+        ebeanServer.find(Account.class).fetch("applicants").where().idIn(pageIds).findMap();
+    ImmutableList<Account> pageItems =
+        pageIds.stream().map(accountsById::get).collect(ImmutableList.toImmutableList());
+    return PaginationInfo.fromPage(pageItems, totalCount, pageSize, page);
+  }
+
+  /**
+   * Returns the names of the trusted intermediary groups managing the accounts of the given
+   * applicants, keyed by applicant id, with one query. Applicants whose accounts are not managed by
+   * a group are left out.
+   */
+  public ImmutableMap<Long, String> getManagingGroupNames(Collection<Long> applicantIds) {
+    if (applicantIds.isEmpty()) {
+      return ImmutableMap.of();
+    }
+    return ebeanServer
+        .createSqlQuery(
+            "select applicants.id as applicant_id, ti_organizations.name as group_name"
+                + " from applicants"
+                + " join accounts on accounts.id = applicants.account_id"
+                + " join ti_organizations on ti_organizations.id = accounts.managed_by_group_id"
+                + " where applicants.id in (:ids)")
+        .setParameter("ids", applicantIds)
+        .findList()
+        .stream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                row -> row.getLong("applicant_id"), row -> row.getString("group_name")));
+  }
+
   /**
    * Create an applicant and add it to the provided trusted intermediary group. Associate it with an
    * email address if one is provided, but if one is not provided, use an anonymous (guest-style)
@@ -2,10 +2,13 @@ package repository;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.concurrent.CompletableFuture.runAsync;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.Ebean;
 import io.ebean.EbeanServer;
@@ -13,8 +16,12 @@ import io.ebean.SerializableConflictException;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
 import io.ebean.annotation.TxIsolation;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.RollbackException;
@@ -40,71 +47,129 @@ public class VersionRepository {
   private final EbeanServer ebeanServer;
   private final Logger LOG = LoggerFactory.getLogger(VersionRepository.class);
   private final ProgramRepository programRepository;
+  private final DatabaseExecutionContext adminExecutionContext;
+
+  /** The Postgres advisory lock key of {@link #lockVersions}. Any value unused elsewhere works. */
+  private static final long VERSIONS_LOCK_KEY = 0x76657273696f6e73L;
 
   @Inject
-  public VersionRepository(EbeanConfig ebeanConfig, ProgramRepository programRepository) {
+  public VersionRepository(
+      EbeanConfig ebeanConfig,
+      ProgramRepository programRepository,
+      DatabaseExecutionContexts executionContexts) {
     this.ebeanServer = Ebean.getServer(checkNotNull(ebeanConfig).defaultServer());
     this.programRepository = checkNotNull(programRepository);
+    this.adminExecutionContext = executionContexts.forWorkload(DatabaseWorkload.ADMIN);
+  }
+
+  /**
+   * Publishes as {@link #publishNewSynchronizedVersion} does, on the {@link DatabaseWorkload#ADMIN}
+   * dispatcher so that a slow publish does not hold threads applicants are waiting on.
+   */
+  public CompletionStage<Void> publishNewSynchronizedVersionAsync() {
+    return runAsync(this::publishNewSynchronizedVersion, adminExecutionContext);
   }
 
   /**
    * Publish a new version of all programs and all questions. All DRAFT programs will become ACTIVE,
    * and all ACTIVE programs without a draft will be copied to the next version.
+   *
+   * <p>The programs and questions carried over are added to the draft with one statement each,
+   * matched by name in the database, rather than saved one at a time. Publishing holds the {@link
+   * #lockVersions version lock}, and logs how long each step took.
    */
   public void publishNewSynchronizedVersion() {
     try {
       ebeanServer.beginTransaction();
+      Stopwatch stopwatch = Stopwatch.createStarted();
+      lockVersions();
+      long lockMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+      stopwatch.reset().start();
       Version draft = getDraftVersion();
       Version active = getActiveVersion();
       Preconditions.checkState(
-          draft.getPrograms().size() > 0, "Must have at least 1 program in the draft version.");
-      active.getPrograms().stream()
-          .filter(
-              activeProgram ->
-                  !draft.programIsTombstoned(activeProgram.getProgramDefinition().adminName()))
-          .filter(
-              activeProgram ->
-                  draft.getPrograms().stream()
-                      .noneMatch(
-                          draftProgram ->
-                              activeProgram
-                                  .getProgramDefinition()
-                                  .adminName()
-                                  .equals(draftProgram.getProgramDefinition().adminName())))
-          .forEach(
-              activeProgramNotInDraft -> {
-                activeProgramNotInDraft.addVersion(draft);
-                activeProgramNotInDraft.save();
-              });
-      active.getQuestions().stream()
-          .filter(
-              activeQuestion ->
-                  !draft.questionIsTombstoned(activeQuestion.getQuestionDefinition().getName()))
-          .filter(
-              activeQuestion ->
-                  draft.getQuestions().stream()
-                      .noneMatch(
-                          draftQuestion ->
-                              activeQuestion
-                                  .getQuestionDefinition()
-                                  .getName()
-                                  .equals(draftQuestion.getQuestionDefinition().getName())))
-          .forEach(
-              activeQuestionNotInDraft -> {
-                activeQuestionNotInDraft.addVersion(draft);
-                activeQuestionNotInDraft.save();
-              });
+          countDraftPrograms(draft.id) > 0, "Must have at least 1 program in the draft version.");
+      int programsCarriedOver =
+          ebeanServer
+              .createSqlUpdate(
+                  "insert into versions_programs (programs_id, versions_id)"
+                      + " select vp.programs_id, draft.id"
+                      + " from versions_programs vp"
+                      + " join programs p on p.id = vp.programs_id"
+                      + " join versions draft on draft.id = :draftId"
+                      + " where vp.versions_id = :activeId"
+                      + " and p.name <> all(coalesce(draft.tombstoned_program_names, '{}'))"
+                      + " and not exists (select 1 from versions_programs dvp"
+                      + " join programs dp on dp.id = dvp.programs_id"
+                      + " where dvp.versions_id = draft.id and dp.name = p.name)")
+              .setParameter("draftId", draft.id)
+              .setParameter("activeId", active.id)
+              .execute();
+      long programsMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+      stopwatch.reset().start();
+      int questionsCarriedOver =
+          ebeanServer
+              .createSqlUpdate(
+                  "insert into versions_questions (questions_id, versions_id)"
+                      + " select vq.questions_id, draft.id"
+                      + " from versions_questions vq"
+                      + " join questions q on q.id = vq.questions_id"
+                      + " join versions draft on draft.id = :draftId"
+                      + " where vq.versions_id = :activeId"
+                      + " and q.name <> all(coalesce(draft.tombstoned_question_names, '{}'))"
+                      + " and not exists (select 1 from versions_questions dvq"
+                      + " join questions dq on dq.id = dvq.questions_id"
+                      + " where dvq.versions_id = draft.id and dq.name = q.name)")
+              .setParameter("draftId", draft.id)
+              .setParameter("activeId", active.id)
+              .execute();
+      long questionsMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+      stopwatch.reset().start();
       active.setLifecycleStage(LifecycleStage.OBSOLETE);
       draft.setLifecycleStage(LifecycleStage.ACTIVE);
       active.save();
       draft.save();
       draft.refresh();
       ebeanServer.commitTransaction();
+      LOG.info(
+          "Published version {}: locked in {} ms, carried over {} programs in {} ms and {}"
+              + " questions in {} ms, committed in {} ms.",
+          draft.id,
+          lockMillis,
+          programsCarriedOver,
+          programsMillis,
+          questionsCarriedOver,
+          questionsMillis,
+          stopwatch.elapsed(TimeUnit.MILLISECONDS));
     } finally {
       ebeanServer.endTransaction();
     }
   }
 
+  private int countDraftPrograms(long draftVersionId) {
+    return ebeanServer
+        .createSqlQuery(
+            "select count(*) as program_count from versions_programs where versions_id = :id")
+        .setParameter("id", draftVersionId)
+        .findOne()
+        .getInteger("program_count");
+  }
+
+  /**
+   * Takes the version lock, which is held until the current transaction ends. Publishing and
+   * {@link #setLive} hold it, so two changes to which version is active never interleave, and each
+   * sees the other's programs and questions once it has committed.
+   */
+  private void lockVersions() {
+    ebeanServer
+        .createSqlQuery("select 1 as locked from pg_advisory_xact_lock(:key)")
+        .setParameter("key", VERSIONS_LOCK_KEY)
+        .findOne();
+  }
+
   /** Get the current draft version. Creates it if one does not exist. */
   public Version getDraftVersion() {
     Optional<Version> version =
@@ -166,19 +231,68 @@ public class VersionRepository {
         .findOne();
   }
 
-  private Optional<Question> getLatestVersionOfQuestion(long questionId) {
-    String questionName =
-        ebeanServer.find(Question.class).setId(questionId).select("name").findSingleAttribute();
-    Optional<Question> draftQuestion =
-        getDraftVersion().getQuestions().stream()
-            .filter(question -> question.getQuestionDefinition().getName().equals(questionName))
-            .findFirst();
-    if (draftQuestion.isPresent()) {
-      return draftQuestion;
+  /**
+   * Returns the current generation of the versioned data. Database triggers bump it once when a
+   * transaction that modified versions, programs, questions, or the associations between them
+   * commits. Two reads that observe the same generation observe the same active and draft versions.
+   * Generations are only compared for equality.
+   */
+  public long getVersionGeneration() {
+    return ebeanServer
+        .createSqlQuery("select generation from version_generation where id = 1")
+        .findOne()
+        .getLong("generation");
+  }
+
+  /**
+   * Returns true if the calling thread is inside an explicit transaction, in which case reads may
+   * observe changes that other threads cannot see yet.
+   */
+  public boolean isInTransaction() {
+    return ebeanServer.currentTransaction() != null;
+  }
+
+  /**
+   * The most up-to-date version of each question, which is its draft if it has one and otherwise
+   * its active version, keyed by name. It is read once and shared by all the programs updated for a
+   * change, since it does not change while their drafts are made.
+   */
+  static final class LatestQuestions {
+    private final ImmutableMap<String, Question> questionsByName;
+    private final ImmutableMap<Long, String> namesById;
+
+    private LatestQuestions(
+        ImmutableMap<String, Question> questionsByName, ImmutableMap<Long, String> namesById) {
+      this.questionsByName = questionsByName;
+      this.namesById = namesById;
+    }
+  }
+
+  /** Reads the latest version of every draft and active question. */
+  LatestQuestions getLatestQuestions() {
+    Map<String, Question> questionsByName = new HashMap<>();
+    Map<Long, String> namesById = new HashMap<>();
+    // Draft questions are added last, so they replace the active questions of the same name.
+    for (Version version : ImmutableList.of(getActiveVersion(), getDraftVersion())) {
+      for (Question question : version.getQuestions()) {
+        String name = question.getQuestionDefinition().getName();
+        questionsByName.put(name, question);
+        namesById.put(question.id, name);
+      }
+    }
+    return new LatestQuestions(
+        ImmutableMap.copyOf(questionsByName), ImmutableMap.copyOf(namesById));
+  }
+
+  private Optional<Question> getLatestVersionOfQuestion(
+      long questionId, LatestQuestions latestQuestions) {
+    String questionName = latestQuestions.namesById.get(questionId);
+    if (questionName == null) {
+      // The program refers to a question that is neither draft nor active any more.
+      questionName =
+          ebeanServer.find(Question.class).setId(questionId).select("name").findSingleAttribute();
     }
-    return getActiveVersion().getQuestions().stream()
-        .filter(question -> question.getQuestionDefinition().getName().equals(questionName))
-        .findFirst();
+    return Optional.ofNullable(latestQuestions.questionsByName.get(questionName));
   }
 
   /**
@@ -191,11 +305,20 @@ public class VersionRepository {
     Preconditions.checkArgument(isInactive(draftProgram), "input program must not be active.");
     Preconditions.checkArgument(
         isDraft(draftProgram), "input program must be in the current draft version.");
+    updateQuestionVersions(draftProgram, getLatestQuestions());
+  }
+
+  /**
+   * Updates the questions of the program as {@link #updateQuestionVersions(Program)} does, to the
+   * given latest versions. The caller must have checked that the program is a draft.
+   */
+  void updateQuestionVersions(Program draftProgram, LatestQuestions latestQuestions) {
     ProgramDefinition.Builder updatedDefinition =
         draftProgram.getProgramDefinition().toBuilder().setBlockDefinitions(ImmutableList.of());
     for (BlockDefinition block : draftProgram.getProgramDefinition().blockDefinitions()) {
       LOG.trace("Updating screen (block) {}.", block.id());
-      updatedDefinition.addBlockDefinition(updateQuestionVersions(draftProgram.id, block));
+      updatedDefinition.addBlockDefinition(
+          updateQuestionVersions(draftProgram.id, block, latestQuestions));
     }
     draftProgram = new Program(updatedDefinition.build());
     LOG.trace("Submitting update.");
@@ -223,12 +346,14 @@ public class VersionRepository {
         .anyMatch(draftProgram -> draftProgram.id.equals(program.id));
   }
 
-  private BlockDefinition updateQuestionVersions(long programDefinitionId, BlockDefinition block) {
+  private BlockDefinition updateQuestionVersions(
+      long programDefinitionId, BlockDefinition block, LatestQuestions latestQuestions) {
     BlockDefinition.Builder updatedBlock =
         block.toBuilder().setProgramQuestionDefinitions(ImmutableList.of());
     // Update questions contained in this block.
     for (ProgramQuestionDefinition question : block.programQuestionDefinitions()) {
-      Optional<Question> updatedQuestion = getLatestVersionOfQuestion(question.id());
+      Optional<Question> updatedQuestion =
+          getLatestVersionOfQuestion(question.id(), latestQuestions);
       LOG.trace(
           "Updating question ID {} to new ID {}.", question.id(), updatedQuestion.orElseThrow().id);
       updatedBlock.addQuestion(
@@ -240,14 +365,16 @@ public class VersionRepository {
       PredicateDefinition oldPredicate = block.visibilityPredicate().get();
       updatedBlock.setVisibilityPredicate(
           PredicateDefinition.create(
-              updatePredicateNode(oldPredicate.rootNode()), oldPredicate.action()));
+              updatePredicateNode(oldPredicate.rootNode(), latestQuestions),
+              oldPredicate.action()));
     }
     if (block.optionalPredicate().isPresent()) {
       PredicateDefinition oldPredicate = block.optionalPredicate().get();
       updatedBlock.setOptionalPredicate(
           Optional.of(
               PredicateDefinition.create(
-                  updatePredicateNode(oldPredicate.rootNode()), oldPredicate.action())));
+                  updatePredicateNode(oldPredicate.rootNode(), latestQuestions),
+                  oldPredicate.action())));
     }
     return updatedBlock.build();
   }
@@ -256,20 +383,29 @@ public class VersionRepository {
   // recursively recreate the tree with updated leaf nodes.
   @VisibleForTesting
   protected PredicateExpressionNode updatePredicateNode(PredicateExpressionNode current) {
+    return updatePredicateNode(current, getLatestQuestions());
+  }
+
+  private PredicateExpressionNode updatePredicateNode(
+      PredicateExpressionNode current, LatestQuestions latestQuestions) {
     switch (current.getType()) {
       case AND:
         AndNode and = current.getAndNode();
         ImmutableSet<PredicateExpressionNode> updatedAndChildren =
-            and.children().stream().map(this::updatePredicateNode).collect(toImmutableSet());
+            and.children().stream()
+                .map(child -> updatePredicateNode(child, latestQuestions))
+                .collect(toImmutableSet());
         return PredicateExpressionNode.create(AndNode.create(updatedAndChildren));
       case OR:
         OrNode or = current.getOrNode();
         ImmutableSet<PredicateExpressionNode> updatedOrChildren =
-            or.children().stream().map(this::updatePredicateNode).collect(toImmutableSet());
+            or.children().stream()
+                .map(child -> updatePredicateNode(child, latestQuestions))
+                .collect(toImmutableSet());
         return PredicateExpressionNode.create(OrNode.create(updatedOrChildren));
       case LEAF_OPERATION:
         LeafOperationExpressionNode leaf = current.getLeafNode();
-        Optional<Question> updated = getLatestVersionOfQuestion(leaf.questionId());
+        Optional<Question> updated = getLatestVersionOfQuestion(leaf.questionId(), latestQuestions);
         return PredicateExpressionNode.create(
             leaf.toBuilder().setQuestionId(updated.orElseThrow().id).build());
       default:
@@ -277,19 +413,55 @@ public class VersionRepository {
     }
   }
 
+  /**
+   * Points the programs that use the question with id {@code oldId} at its new draft: draft
+   * programs are updated, and active programs without a draft get one.
+   *
+   * <p>The programs are found with the index of the questions in programs' blocks, and the latest
+   * questions are read once for all of them.
+   */
   public void updateProgramsForNewDraftQuestion(long oldId) {
-    getDraftVersion().getPrograms().stream()
-        .filter(program -> program.getProgramDefinition().hasQuestion(oldId))
-        .forEach(program -> updateQuestionVersions(program));
-
-    getActiveVersion().getPrograms().stream()
-        .filter(program -> program.getProgramDefinition().hasQuestion(oldId))
-        .filter(
-            program ->
-                getDraftVersion()
-                    .getProgramByName(program.getProgramDefinition().adminName())
-                    .isEmpty())
-        .forEach(program -> programRepository.createOrUpdateDraft(program));
+    Version draft = getDraftVersion();
+    Version active = getActiveVersion();
+    LatestQuestions latestQuestions = getLatestQuestions();
+
+    for (Program program : getProgramsUsingQuestion(draft, oldId)) {
+      updateQuestionVersions(program, latestQuestions);
+    }
+
+    ImmutableSet<String> draftProgramNames =
+        ImmutableSet.copyOf(
+            ebeanServer
+                .find(Program.class)
+                .select("name")
+                .where()
+                .eq("versions.id", draft.id)
+                .<String>findSingleAttributeList());
+    for (Program program : getProgramsUsingQuestion(active, oldId)) {
+      // Programs in a version have distinct names, so drafts made here do not change which of the
+      // others need one.
+      if (!draftProgramNames.contains(program.getProgramDefinition().adminName())) {
+        programRepository.createOrUpdateDraft(program, () -> latestQuestions);
+      }
+    }
+  }
+
+  /**
+   * Returns the programs in the version with a block that asks the question. The containment test
+   * is answered by the GIN index on programs' block definitions.
+   */
+  private List<Program> getProgramsUsingQuestion(Version version, long questionId) {
+    return ebeanServer
+        .find(Program.class)
+        .where()
+        .eq("versions.id", version.id)
+        .raw("block_definitions @> cast(? as jsonb)", questionContainment(questionId))
+        .findList();
+  }
+
+  /** Returns the JSON that the block definitions of programs asking the question contain. */
+  private static String questionContainment(long questionId) {
+    return String.format("[{\"questionDefinitions\": [{\"id\": %d}]}]", questionId);
   }
 
   public List<Version> listAllVersions() {
@@ -297,14 +469,21 @@ public class VersionRepository {
   }
 
   public void setLive(long versionId) {
-    Version draftVersion = getDraftVersion();
-    Version activeVersion = getActiveVersion();
-    Version newActiveVersion = ebeanServer.find(Version.class).setId(versionId).findOne();
-    newActiveVersion.setLifecycleStage(LifecycleStage.ACTIVE);
-    newActiveVersion.save();
-    activeVersion.setLifecycleStage(LifecycleStage.OBSOLETE);
-    activeVersion.save();
-    draftVersion.setLifecycleStage(LifecycleStage.DELETED);
-    draftVersion.save();
+    try {
+      ebeanServer.beginTransaction();
+      lockVersions();
+      Version draftVersion = getDraftVersion();
+      Version activeVersion = getActiveVersion();
+      Version newActiveVersion = ebeanServer.find(Version.class).setId(versionId).findOne();
+      newActiveVersion.setLifecycleStage(LifecycleStage.ACTIVE);
+      newActiveVersion.save();
+      activeVersion.setLifecycleStage(LifecycleStage.OBSOLETE);
+      activeVersion.save();
+      draftVersion.setLifecycleStage(LifecycleStage.DELETED);
+      draftVersion.save();
+      ebeanServer.commitTransaction();
+    } finally {
+      ebeanServer.endTransaction();
+    }
   }
 }
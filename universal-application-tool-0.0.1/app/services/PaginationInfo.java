@@ -4,10 +4,6 @@ import com.google.common.collect.ImmutableList;
 
 /** PaginationInfo is a generic class for pagination. */
 public class PaginationInfo<T> {
-  public ImmutableList<T> getAllItems() {
-    return allItems;
-  }
-
   public ImmutableList<T> getPageItems() {
     return pageItems;
   }
@@ -20,39 +16,41 @@ public class PaginationInfo<T> {
     return pageCount;
   }
 
-  private final ImmutableList<T> allItems;
   private final ImmutableList<T> pageItems;
   private final int page;
   private final int pageCount;
 
-  private PaginationInfo(
-      ImmutableList<T> allItems, ImmutableList<T> pageItems, int page, int pageCount) {
-    this.allItems = allItems;
+  private PaginationInfo(ImmutableList<T> pageItems, int page, int pageCount) {
     this.pageItems = pageItems;
     this.page = page;
     this.pageCount = pageCount;
   }
 
+  /** Paginates a list that is already fully in memory. */
   public static <V> PaginationInfo<V> paginate(ImmutableList<V> allItems, int pageSize, int page) {
-    int endOfListIndex = page * pageSize;
-    int totalPageCount = (int) Math.ceil((double) allItems.size() / pageSize);
-    if (allItems.size() <= endOfListIndex) {
-      endOfListIndex = allItems.size();
-    }
-    ImmutableList<V> pageItems;
-    if (allItems.size() <= (page - 1) * pageSize) {
-      pageItems = ImmutableList.of();
-      if (allItems.size() == 0) {
+    int startOfPageIndex = Math.min((page - 1) * pageSize, allItems.size());
+    int endOfPageIndex = Math.min(page * pageSize, allItems.size());
+    return fromPage(
+        allItems.subList(startOfPageIndex, endOfPageIndex), allItems.size(), pageSize, page);
+  }
+
+  /**
+   * Wraps a single page of items that was fetched on its own, such as with LIMIT and OFFSET in the
+   * database, given the total number of items across all pages.
+   */
+  public static <V> PaginationInfo<V> fromPage(
+      ImmutableList<V> pageItems, int totalCount, int pageSize, int page) {
+    int totalPageCount = (int) Math.ceil((double) totalCount / pageSize);
+    if (pageItems.isEmpty()) {
+      if (totalCount == 0) {
         // Display 1 page (which is empty)
         totalPageCount = 1;
       } else {
         // If for some reason we're way past the end of the list, make sure the "previous"
         // button goes to the end of the list.
-        page = Math.floorDiv(allItems.size(), pageSize) + 2;
+        page = Math.floorDiv(totalCount, pageSize) + 2;
       }
-    } else {
-      pageItems = allItems.subList((page - 1) * pageSize, endOfListIndex);
     }
-    return new PaginationInfo<V>(allItems, pageItems, page, totalPageCount);
+    return new PaginationInfo<V>(pageItems, page, totalPageCount);
   }
 }
@@ -0,0 +1,81 @@
+package services;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.inject.Inject;
+import models.Account;
+import models.Applicant;
+import models.Program;
+import repository.ProgramRepository;
+import repository.UserRepository;
+import services.program.ProgramDefinition;
+import services.program.ProgramService;
+
+/**
+ * Loads the {@link Applicant}s, {@link Account}s, {@link Program}s and {@link ProgramDefinition}s
+ * that a single request needs, and remembers them for the rest of that request.
+ *
+ * <p>A loader is not scoped by Guice: inject a {@code Provider<RequestLoader>} and get a new loader
+ * at the start of each controller action, then pass it to every service call that action makes.
+ * Each entity is then read at most once per request. Lookups of the same entity that are made
+ * while it is still being read share the one query rather than starting another.
+ *
+ * <p>Loaded models are shared by everything that uses the loader, so code that changes one must
+ * only do so once the change is meant to be saved.
+ */
+public final class RequestLoader {
+  private final UserRepository userRepository;
+  private final ProgramRepository programRepository;
+  private final ProgramService programService;
+
+  private final ConcurrentHashMap<Long, CompletableFuture<Optional<Applicant>>> applicants =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, CompletableFuture<Optional<Account>>> accounts =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, CompletableFuture<Optional<Program>>> programs =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, CompletableFuture<ProgramDefinition>> programDefinitions =
+      new ConcurrentHashMap<>();
+
+  @Inject
+  public RequestLoader(
+      UserRepository userRepository,
+      ProgramRepository programRepository,
+      ProgramService programService) {
+    this.userRepository = checkNotNull(userRepository);
+    this.programRepository = checkNotNull(programRepository);
+    this.programService = checkNotNull(programService);
+  }
+
+  /** Returns the applicant with the given id, or empty if there is none. */
+  public CompletionStage<Optional<Applicant>> loadApplicant(long applicantId) {
+    return applicants.computeIfAbsent(
+        applicantId, id -> userRepository.lookupApplicant(id).toCompletableFuture());
+  }
+
+  /** Returns the account with the given id, or empty if there is none. */
+  public CompletionStage<Optional<Account>> loadAccount(long accountId) {
+    return accounts.computeIfAbsent(
+        accountId, id -> userRepository.lookupAccount(id).toCompletableFuture());
+  }
+
+  /** Returns the program with the given id, or empty if there is none. */
+  public CompletionStage<Optional<Program>> loadProgram(long programId) {
+    return programs.computeIfAbsent(
+        programId, id -> programRepository.lookupProgram(id).toCompletableFuture());
+  }
+
+  /**
+   * Returns the definition of the program with the given id, as {@link
+   * ProgramService#getProgramDefinitionAsync} does. The stage fails with a {@link
+   * services.program.ProgramNotFoundException} if there is no such program.
+   */
+  public CompletionStage<ProgramDefinition> loadProgramDefinition(long programId) {
+    return programDefinitions.computeIfAbsent(
+        programId, id -> programService.getProgramDefinitionAsync(id).toCompletableFuture());
+  }
+}
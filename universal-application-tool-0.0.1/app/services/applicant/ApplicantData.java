@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.TypeRef;
@@ -50,11 +51,17 @@ public class ApplicantData {
   public static final Path APPLICANT_PATH = Path.create(APPLICANT);
   private static final String EMPTY_APPLICANT_DATA_JSON =
       String.format("{ \"%s\": {} }", APPLICANT);
+  private static final String ENTITY_NAME_KEY = Path.empty().join(Scalar.ENTITY_NAME).keyName();
   private static final TypeRef<List<Object>> LIST_OF_OBJECTS_TYPE = new TypeRef<>() {};
   private static final TypeRef<ImmutableList<Long>> IMMUTABLE_LIST_LONG_TYPE = new TypeRef<>() {};
-  private final DocumentContext jsonData;
+  private DocumentContext jsonData;
   private final Logger logger = LoggerFactory.getLogger(this.getClass());
   private boolean locked = false;
+  /**
+   * True while {@link #jsonData} may be referenced by another instance or by a {@link
+   * ParsedApplicantDataCache}. A shared document is copied before it is first changed.
+   */
+  private boolean shared;
   private Optional<Locale> preferredLocale;
 
   public ApplicantData() {
@@ -66,8 +73,45 @@ public class ApplicantData {
   }
 
   public ApplicantData(Optional<Locale> preferredLocale, String jsonData) {
+    this(
+        preferredLocale,
+        JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData)),
+        /* shared= */ false);
+  }
+
+  private ApplicantData(
+      Optional<Locale> preferredLocale, DocumentContext jsonData, boolean shared) {
     this.preferredLocale = preferredLocale;
-    this.jsonData = JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData));
+    this.jsonData = jsonData;
+    this.shared = shared;
+  }
+
+  /** Returns an ApplicantData over a parsed tree that others share, which it copies on write. */
+  static ApplicantData ofSharedTree(Optional<Locale> preferredLocale, Object sharedTree) {
+    return new ApplicantData(
+        preferredLocale, JsonPathProvider.getJsonPath().parse(sharedTree), /* shared= */ true);
+  }
+
+  /**
+   * Returns a locked copy of this ApplicantData. The copy shares the underlying JSON with this
+   * instance, which copies it before its next change, so taking a copy does not serialize or parse
+   * anything.
+   */
+  public ApplicantData lockedCopy() {
+    shared = true;
+    ApplicantData copy =
+        new ApplicantData(Optional.of(preferredLocale()), jsonData, /* shared= */ true);
+    copy.lock();
+    return copy;
+  }
+
+  /**
+   * Returns a copy of this ApplicantData that can be changed without changing this one. Like
+   * {@link #lockedCopy()}, taking the copy does not serialize or parse anything.
+   */
+  public ApplicantData copy() {
+    shared = true;
+    return new ApplicantData(preferredLocale, jsonData, /* shared= */ true);
   }
 
   /** Makes this ApplicantData immutable. A locked ApplicantData cannot be unlocked. */
@@ -110,12 +154,7 @@ public class ApplicantData {
    * @return true if path is present for this applicant; false otherwise
    */
   public boolean hasPath(Path path) {
-    try {
-      jsonData.read(path.toString());
-    } catch (PathNotFoundException e) {
-      return false;
-    }
-    return true;
+    return JsonTree.find(jsonData.json(), path) != JsonTree.MISSING;
   }
 
   /**
@@ -126,11 +165,8 @@ public class ApplicantData {
    * @return true if there is a non-null value at the given path; false otherwise
    */
   public boolean hasValueAtPath(Path path) {
-    try {
-      return read(path, Object.class).isPresent();
-    } catch (JsonPathTypeMismatchException e) {
-      return false;
-    }
+    Object value = JsonTree.find(jsonData.json(), path);
+    return value != JsonTree.MISSING && value != null;
   }
 
   /**
@@ -251,19 +287,24 @@ public class ApplicantData {
   /** Delete whatever is there if it exists. Returns whether a delete actually happened. */
   public void maybeDelete(Path path) {
     checkLocked();
-    if (hasPath(path)) {
-      jsonData.delete(path.toString());
-    }
+    JsonTree.delete(jsonData.json(), path);
   }
 
   private void putAt(Path path, Object value) {
     checkLocked();
-    jsonData.put(path.parentPath().toString(), path.keyName(), value);
+    if (!JsonTree.set(jsonData.json(), path, value)) {
+      throw new IllegalStateException(
+          String.format("Cannot put a value at %s: its parent is not a JSON object.", path));
+    }
   }
 
   private void addAt(Path path, Object value) {
     checkLocked();
-    jsonData.add(path.withoutArrayReference().toString(), value);
+    Path arrayPath = path.withoutArrayReference();
+    if (!JsonTree.append(jsonData.json(), arrayPath, value)) {
+      throw new IllegalStateException(
+          String.format("Cannot add a value to %s: it is not a JSON array.", arrayPath));
+    }
   }
 
   /**
@@ -355,12 +396,37 @@ public class ApplicantData {
    */
   public Optional<ImmutableList<Long>> readList(Path path) {
     try {
-      return this.read(path, IMMUTABLE_LIST_LONG_TYPE);
+      return readLongList(path);
     } catch (JsonPathTypeMismatchException e) {
       return Optional.empty();
     }
   }
 
+  /**
+   * Reads a JSON array of longs. Arrays of integral numbers, which is how lists of longs are
+   * stored, are converted directly; anything else goes through the JsonPath mapping provider.
+   */
+  private Optional<ImmutableList<Long>> readLongList(Path path)
+      throws JsonPathTypeMismatchException {
+    Object value = JsonTree.find(jsonData.json(), path);
+    if (value instanceof List) {
+      ImmutableList.Builder<Long> longs = ImmutableList.builder();
+      boolean allIntegral = true;
+      for (Object element : (List<?>) value) {
+        if (element instanceof Long || element instanceof Integer || element instanceof Short) {
+          longs.add(((Number) element).longValue());
+        } else {
+          allIntegral = false;
+          break;
+        }
+      }
+      if (allIntegral) {
+        return Optional.of(longs.build());
+      }
+    }
+    return read(path, IMMUTABLE_LIST_LONG_TYPE);
+  }
+
   /**
    * Attempts to read the names of the repeated entities at the given {@link Path}.
    *
@@ -369,11 +435,20 @@ public class ApplicantData {
    *     repeated entities at path.
    */
   public ImmutableList<String> readRepeatedEntities(Path path) {
-    int index = 0;
+    Object entities = JsonTree.find(jsonData.json(), path.withoutArrayReference());
+    if (!(entities instanceof List)) {
+      return ImmutableList.of();
+    }
     ImmutableList.Builder<String> listBuilder = ImmutableList.builder();
-    while (hasPath(path.atIndex(index))) {
-      listBuilder.add(readString(path.atIndex(index).join(Scalar.ENTITY_NAME)).orElse(""));
-      index++;
+    List<?> entityList = (List<?>) entities;
+    for (int index = 0; index < entityList.size(); index++) {
+      Object entity = entityList.get(index);
+      Object name = entity instanceof Map ? ((Map<?, ?>) entity).get(ENTITY_NAME_KEY) : null;
+      if (name instanceof String) {
+        listBuilder.add((String) name);
+      } else {
+        listBuilder.add(readString(path.atIndex(index).join(Scalar.ENTITY_NAME)).orElse(""));
+      }
     }
     return listBuilder.build();
   }
@@ -405,10 +480,21 @@ public class ApplicantData {
    * @throws JsonPathTypeMismatchException if the scalar at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, Class<T> type) throws JsonPathTypeMismatchException {
-    try {
-      return Optional.ofNullable(jsonData.read(path.toString(), type));
-    } catch (PathNotFoundException e) {
+    Object value = JsonTree.find(jsonData.json(), path);
+    if (value == JsonTree.MISSING || value == null) {
       return Optional.empty();
+    }
+    if (type.isInstance(value)) {
+      return Optional.of(type.cast(value));
+    }
+    if (type == Long.class && (value instanceof Integer || value instanceof Short)) {
+      return Optional.of(type.cast(((Number) value).longValue()));
+    }
+    // Other conversions are left to the JsonPath mapping provider, which is what a JsonPath read
+    // would use.
+    try {
+      Configuration configuration = jsonData.configuration();
+      return Optional.ofNullable(configuration.mappingProvider().map(value, type, configuration));
     } catch (MappingException e) {
       throw new JsonPathTypeMismatchException(path, type, e);
     }
@@ -424,10 +510,13 @@ public class ApplicantData {
    * @throws JsonPathTypeMismatchException if the value at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, TypeRef<T> type) throws JsonPathTypeMismatchException {
-    try {
-      return Optional.ofNullable(jsonData.read(path.toString(), type));
-    } catch (PathNotFoundException e) {
+    Object value = JsonTree.find(jsonData.json(), path);
+    if (value == JsonTree.MISSING || value == null) {
       return Optional.empty();
+    }
+    try {
+      Configuration configuration = jsonData.configuration();
+      return Optional.ofNullable(configuration.mappingProvider().map(value, type, configuration));
     } catch (MappingException e) {
       throw new JsonPathTypeMismatchException(path, type.getClass(), e);
     }
@@ -477,7 +566,7 @@ public class ApplicantData {
     // Delete in reverse sorted order because deletion is index based, and indices would need to be
     // decremented for each deletion if it wasn't reverse sorted.
     for (int index : reverseSortedIndices) {
-      jsonData.delete(path.atIndex(index).toString());
+      JsonTree.delete(jsonData.json(), path.atIndex(index));
     }
     return true;
   }
@@ -485,13 +574,26 @@ public class ApplicantData {
   /** Returns true if the value at the path is a JSON array of longs, and false otherwise. */
   private boolean isJsonArray(Path path) {
     try {
-      this.read(path, IMMUTABLE_LIST_LONG_TYPE);
+      readLongList(path);
       return true;
     } catch (JsonPathTypeMismatchException e) {
       return false;
     }
   }
 
+  /**
+   * Returns the raw JSON value at the given path, or empty if there is none. Objects are returned
+   * as {@link Map}s and arrays as {@link List}s.
+   *
+   * <p>The value is read by walking the parsed JSON directly rather than through a JsonPath query,
+   * which makes this suitable for hot paths such as predicate evaluation. The returned value is
+   * shared with this instance and must not be modified.
+   */
+  public Optional<Object> readJsonValue(Path path) {
+    Object value = JsonTree.find(jsonData.json(), path);
+    return value == JsonTree.MISSING ? Optional.empty() : Optional.ofNullable(value);
+  }
+
   /**
    * Evaluates a {@code JsonPathPredicate} query string returning true if there is matching data.
    */
@@ -530,7 +632,7 @@ public class ApplicantData {
    * @return A list of {@code Path}s whose values could not be copied due to conflicts.
    */
   public ImmutableList<Path> mergeFrom(ApplicantData other) {
-    Map<?, ?> rootAsMap = other.jsonData.read("$", Map.class);
+    Map<?, ?> rootAsMap = (Map<?, ?>) other.jsonData.json();
     return mergeFrom(Path.empty(), rootAsMap);
   }
 
@@ -548,7 +650,7 @@ public class ApplicantData {
           // Add items from lists.
           // TODO(github.com/seattle-uat/civiform/issues/405): improve merge for repeated fields.
           for (Object item : (List) entry.getValue()) {
-            jsonData.add(path.toString(), item);
+            addAt(path.asArrayElement(), ParsedApplicantDataCache.deepCopy(item));
           }
         } else {
           try {
@@ -562,7 +664,7 @@ public class ApplicantData {
         }
       } else {
         // currently empty, can add.
-        this.put(path, entry.getValue());
+        this.put(path, ParsedApplicantDataCache.deepCopy(entry.getValue()));
       }
     }
     return pathsRemoved.build();
@@ -607,11 +709,16 @@ public class ApplicantData {
 
   /**
    * This method should be called on methods that mutate ApplicantData to protect immutable
-   * ApplicantData.
+   * ApplicantData. It also takes a private copy of the underlying JSON if it is shared.
    */
   private void checkLocked() {
     if (locked) {
       throw new RuntimeException("Cannot change ApplicantData after it has been locked.");
     }
+    if (shared) {
+      jsonData =
+          JsonPathProvider.getJsonPath().parse(ParsedApplicantDataCache.deepCopy(jsonData.json()));
+      shared = false;
+    }
   }
 }
@@ -8,6 +8,7 @@ import java.util.concurrent.CompletionStage;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import services.RequestLoader;
 import services.applicant.exception.ApplicationSubmissionException;
 import services.program.ProgramDefinition;
 
@@ -49,6 +50,17 @@ public interface ApplicantService {
   CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
       long applicantId, long programId, String blockId, ImmutableMap<String, String> updateMap);
 
+  /**
+   * Same as {@link #stageAndUpdateIfValid(long, long, String, ImmutableMap)}, but reads the
+   * applicant and program through the request's {@link RequestLoader}.
+   */
+  CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableMap<String, String> updateMap,
+      RequestLoader requestLoader);
+
   /**
    * Create a new active {@link Application} for the applicant applying to the program.
    *
@@ -74,10 +86,24 @@ public interface ApplicantService {
   CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       long applicantId, long programId);
 
+  /**
+   * Same as {@link #getReadOnlyApplicantProgramService(long, long)}, but reads the applicant and
+   * program through the request's {@link RequestLoader}.
+   */
+  CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
+      long applicantId, long programId, RequestLoader requestLoader);
+
   /** Get a {@link ReadOnlyApplicantProgramService} from an application. */
   CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       Application application);
 
+  /**
+   * Same as {@link #getReadOnlyApplicantProgramService(Application)}, but with the definition of
+   * the application's program already looked up, e.g. once for many applications to it.
+   */
+  ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
+      Application application, ProgramDefinition programDefinition);
+
   /**
    * Return all programs that are appropriate to serve to an applicant - which is any active
    * program, plus any program where they have an application in the draft stage.
@@ -90,6 +116,9 @@ public interface ApplicantService {
   /** Return the name of the given applicant id. */
   CompletionStage<String> getName(long applicantId);
 
+  /** Return the name of the given applicant id, read through the request's loader. */
+  CompletionStage<String> getName(long applicantId, RequestLoader requestLoader);
+
   /** Return the email of the given applicant id if they have one. */
   CompletionStage<Optional<String>> getEmail(long applicantId);
 
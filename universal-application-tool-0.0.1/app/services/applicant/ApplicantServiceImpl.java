@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import auth.CiviFormProfile;
 import com.google.auto.value.AutoValue;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -18,20 +19,29 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import javax.inject.Inject;
+import javax.inject.Provider;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
-import play.libs.concurrent.HttpExecutionContext;
+import models.OutgoingEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import repository.ApplicationRepository;
+import repository.DatabaseExecutionContext;
+import repository.ProgramCsvColumnsRepository;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.UserRepository;
 import services.Path;
+import services.RequestLoader;
 import services.applicant.exception.ApplicantNotFoundException;
 import services.applicant.exception.ApplicationSubmissionException;
 import services.applicant.exception.ProgramBlockNotFoundException;
+import services.applicant.predicate.VisibilityPredicateCache;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Scalar;
-import services.aws.SimpleEmail;
+import services.export.ExporterService;
 import services.program.PathNotInBlockException;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
@@ -49,32 +59,52 @@ public class ApplicantServiceImpl implements ApplicantService {
   private static final String STAGING_APPLICANT_NOTIFICATION_MAILING_LIST =
       "seattle-civiform-applicants-notify@google.com";
 
+  private final Logger logger = LoggerFactory.getLogger(this.getClass());
   private final ApplicationRepository applicationRepository;
+  private final ProgramCsvColumnsRepository programCsvColumnsRepository;
   private final UserRepository userRepository;
   private final ProgramService programService;
-  private final SimpleEmail amazonSESClient;
+  private final ParsedApplicantDataCache parsedApplicantDataCache;
+  private final VisibilityPredicateCache visibilityPredicateCache;
   private final Clock clock;
   private final String baseUrl;
   private final boolean isStaging;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
+  private final Provider<RequestLoader> requestLoaderProvider;
+  /** Records the CSV columns of submitted applications, which submissions do not wait on. */
+  private Executor csvColumnsExecutor;
 
   @Inject
   public ApplicantServiceImpl(
       ApplicationRepository applicationRepository,
+      ProgramCsvColumnsRepository programCsvColumnsRepository,
       UserRepository userRepository,
       ProgramService programService,
-      SimpleEmail amazonSESClient,
+      ParsedApplicantDataCache parsedApplicantDataCache,
+      VisibilityPredicateCache visibilityPredicateCache,
       Clock clock,
       Config configuration,
-      HttpExecutionContext httpExecutionContext) {
+      QueryProfilingHttpExecutionContext httpExecutionContext,
+      DatabaseExecutionContext databaseExecutionContext,
+      Provider<RequestLoader> requestLoaderProvider) {
     this.applicationRepository = checkNotNull(applicationRepository);
+    this.programCsvColumnsRepository = checkNotNull(programCsvColumnsRepository);
     this.userRepository = checkNotNull(userRepository);
     this.programService = checkNotNull(programService);
-    this.amazonSESClient = checkNotNull(amazonSESClient);
+    this.parsedApplicantDataCache = checkNotNull(parsedApplicantDataCache);
+    this.visibilityPredicateCache = checkNotNull(visibilityPredicateCache);
     this.clock = checkNotNull(clock);
     this.baseUrl = checkNotNull(configuration).getString("base_url");
     this.isStaging = URI.create(baseUrl).getHost().equals("staging.seattle.civiform.com");
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
+    this.requestLoaderProvider = checkNotNull(requestLoaderProvider);
+    this.csvColumnsExecutor = checkNotNull(databaseExecutionContext);
+  }
+
+  /** Replaces the executor that records CSV columns, so tests can run the recording themselves. */
+  @VisibleForTesting
+  void setCsvColumnsExecutor(Executor csvColumnsExecutor) {
+    this.csvColumnsExecutor = checkNotNull(csvColumnsExecutor);
   }
 
   @Override
@@ -86,10 +116,16 @@ public class ApplicantServiceImpl implements ApplicantService {
   @Override
   public CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       long applicantId, long programId) {
+    return getReadOnlyApplicantProgramService(applicantId, programId, requestLoaderProvider.get());
+  }
+
+  @Override
+  public CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
+      long applicantId, long programId, RequestLoader requestLoader) {
     CompletableFuture<Optional<Applicant>> applicantCompletableFuture =
-        userRepository.lookupApplicant(applicantId).toCompletableFuture();
+        requestLoader.loadApplicant(applicantId).toCompletableFuture();
     CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
-        programService.getProgramDefinitionAsync(programId).toCompletableFuture();
+        requestLoader.loadProgramDefinition(programId).toCompletableFuture();
 
     return CompletableFuture.allOf(applicantCompletableFuture, programDefinitionCompletableFuture)
         .thenApplyAsync(
@@ -98,7 +134,10 @@ public class ApplicantServiceImpl implements ApplicantService {
               ProgramDefinition programDefinition = programDefinitionCompletableFuture.join();
 
               return new ReadOnlyApplicantProgramServiceImpl(
-                  applicant.getApplicantData(), programDefinition, baseUrl);
+                  applicant.getApplicantData(parsedApplicantDataCache),
+                  programDefinition,
+                  baseUrl,
+                  visibilityPredicateCache);
             },
             httpExecutionContext.current());
   }
@@ -109,17 +148,39 @@ public class ApplicantServiceImpl implements ApplicantService {
     try {
       return CompletableFuture.completedFuture(
           new ReadOnlyApplicantProgramServiceImpl(
-              application.getApplicantData(),
+              application.getApplicantData(parsedApplicantDataCache),
               programService.getProgramDefinition(application.getProgram().id),
-              baseUrl));
+              baseUrl,
+              visibilityPredicateCache));
     } catch (ProgramNotFoundException e) {
       throw new RuntimeException("Cannot find a program that has applications for it.", e);
     }
   }
 
+  @Override
+  public ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
+      Application application, ProgramDefinition programDefinition) {
+    return new ReadOnlyApplicantProgramServiceImpl(
+        application.getApplicantData(parsedApplicantDataCache),
+        programDefinition,
+        baseUrl,
+        visibilityPredicateCache);
+  }
+
   @Override
   public CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
       long applicantId, long programId, String blockId, ImmutableMap<String, String> updateMap) {
+    return stageAndUpdateIfValid(
+        applicantId, programId, blockId, updateMap, requestLoaderProvider.get());
+  }
+
+  @Override
+  public CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableMap<String, String> updateMap,
+      RequestLoader requestLoader) {
     ImmutableSet<Update> updates =
         updateMap.entrySet().stream()
             .map(entry -> Update.create(Path.create(entry.getKey()), entry.getValue()))
@@ -136,16 +197,20 @@ public class ApplicantServiceImpl implements ApplicantService {
           new IllegalArgumentException("Path contained reserved scalar key"));
     }
 
-    return stageAndUpdateIfValid(applicantId, programId, blockId, updates);
+    return stageAndUpdateIfValid(applicantId, programId, blockId, updates, requestLoader);
   }
 
   private CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
-      long applicantId, long programId, String blockId, ImmutableSet<Update> updates) {
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableSet<Update> updates,
+      RequestLoader requestLoader) {
     CompletableFuture<Optional<Applicant>> applicantCompletableFuture =
-        userRepository.lookupApplicant(applicantId).toCompletableFuture();
+        requestLoader.loadApplicant(applicantId).toCompletableFuture();
 
     CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
-        programService.getProgramDefinitionAsync(programId).toCompletableFuture();
+        requestLoader.loadProgramDefinition(programId).toCompletableFuture();
 
     return CompletableFuture.allOf(applicantCompletableFuture, programDefinitionCompletableFuture)
         .thenComposeAsync(
@@ -160,7 +225,10 @@ public class ApplicantServiceImpl implements ApplicantService {
               ProgramDefinition programDefinition = programDefinitionCompletableFuture.join();
               ReadOnlyApplicantProgramService readOnlyApplicantProgramServiceBeforeUpdate =
                   new ReadOnlyApplicantProgramServiceImpl(
-                      applicant.getApplicantData(), programDefinition, baseUrl);
+                      applicant.getApplicantData(parsedApplicantDataCache),
+                      programDefinition,
+                      baseUrl,
+                      visibilityPredicateCache);
               Optional<Block> maybeBlockBeforeUpdate =
                   readOnlyApplicantProgramServiceBeforeUpdate.getBlock(blockId);
               if (maybeBlockBeforeUpdate.isEmpty()) {
@@ -169,20 +237,24 @@ public class ApplicantServiceImpl implements ApplicantService {
               }
               Block blockBeforeUpdate = maybeBlockBeforeUpdate.get();
 
+              // The applicant is shared with the rest of the request, so stage the updates on a
+              // copy of its data and only hand the copy to the applicant if it is saved.
+              ApplicantData stagedApplicantData =
+                  applicant.getApplicantData(parsedApplicantDataCache).copy();
               UpdateMetadata updateMetadata = UpdateMetadata.create(programId, clock.millis());
               try {
-                stageUpdates(
-                    applicant.getApplicantData(), blockBeforeUpdate, updateMetadata, updates);
+                stageUpdates(stagedApplicantData, blockBeforeUpdate, updateMetadata, updates);
               } catch (UnsupportedScalarTypeException | PathNotInBlockException e) {
                 return CompletableFuture.failedFuture(e);
               }
 
               ReadOnlyApplicantProgramService roApplicantProgramService =
                   new ReadOnlyApplicantProgramServiceImpl(
-                      applicant.getApplicantData(), programDefinition, baseUrl);
+                      stagedApplicantData, programDefinition, baseUrl, visibilityPredicateCache);
 
               Optional<Block> blockMaybe = roApplicantProgramService.getBlock(blockId);
               if (blockMaybe.isPresent() && !blockMaybe.get().hasErrors()) {
+                applicant.setApplicantData(stagedApplicantData);
                 return userRepository
                     .updateApplicant(applicant)
                     .thenApplyAsync(
@@ -194,10 +266,25 @@ public class ApplicantServiceImpl implements ApplicantService {
             },
             httpExecutionContext.current())
         .thenCompose(
-            (v) ->
-                applicationRepository
-                    .createOrUpdateDraft(applicantId, programId)
-                    .thenApplyAsync(appDraft -> v));
+            (v) -> {
+              // The applicant was found, or the previous stage would have failed.
+              Applicant applicant = applicantCompletableFuture.join().get();
+              return createOrUpdateDraft(applicant, programId, requestLoader)
+                  .thenApplyAsync(appDraft -> v);
+            });
+  }
+
+  private CompletionStage<Application> createOrUpdateDraft(
+      Applicant applicant, long programId, RequestLoader requestLoader) {
+    return requestLoader
+        .loadProgram(programId)
+        .thenCompose(
+            programMaybe -> {
+              if (programMaybe.isEmpty()) {
+                return CompletableFuture.failedFuture(new ProgramNotFoundException(programId));
+              }
+              return applicationRepository.createOrUpdateDraft(applicant, programMaybe.get());
+            });
   }
 
   @Override
@@ -218,7 +305,11 @@ public class ApplicantServiceImpl implements ApplicantService {
   private CompletionStage<Application> submitApplication(
       long applicantId, long programId, Optional<String> submitterEmail) {
     return applicationRepository
-        .submitApplication(applicantId, programId, submitterEmail)
+        .submitApplication(
+            applicantId,
+            programId,
+            submitterEmail,
+            application -> notificationEmails(application, submitterEmail))
         .thenComposeAsync(
             applicationMaybe -> {
               if (applicationMaybe.isEmpty()) {
@@ -226,12 +317,9 @@ public class ApplicantServiceImpl implements ApplicantService {
                     new ApplicationSubmissionException(applicantId, programId));
               }
               Application application = applicationMaybe.get();
-              String programName = application.getProgram().getProgramDefinition().adminName();
-              notifyProgramAdmins(applicantId, programId, application.id, programName);
-              if (submitterEmail.isPresent()) {
-                notifySubmitter(submitterEmail.get(), applicantId, application.id, programName);
-              }
-              maybeNotifyApplicant(applicantId, application.id, programName);
+              // The application is already saved, so the submission must not wait on or fail with
+              // the CSV columns.
+              csvColumnsExecutor.execute(() -> recordCsvColumns(application, programId));
               return CompletableFuture.completedFuture(application);
             },
             httpExecutionContext.current());
@@ -243,7 +331,46 @@ public class ApplicantServiceImpl implements ApplicantService {
     return userRepository.programsForApplicant(applicantId);
   }
 
-  private void notifyProgramAdmins(
+  /**
+   * Adds the columns this application's answers export to, to the program's CSV columns. A failure
+   * is logged and leaves the existing columns in place, since the application is already saved and
+   * dropping the catalog would make the next export of a large program scan every application.
+   */
+  private void recordCsvColumns(Application application, long programId) {
+    try {
+      ReadOnlyApplicantProgramService roApplicantService =
+          getReadOnlyApplicantProgramService(application).toCompletableFuture().join();
+      programCsvColumnsRepository.mergeColumnsIfPresent(
+          programId, ExporterService.answerColumns(roApplicantService.getSummaryData()));
+    } catch (RuntimeException e) {
+      logger.error(
+          "Failed to record CSV columns for application {} to program {}",
+          application.id,
+          programId,
+          e);
+    }
+  }
+
+  /**
+   * Returns the emails announcing a submitted application. They are added to the outbox in the
+   * submission's transaction, so the submission does not wait on them being sent.
+   */
+  private ImmutableList<OutgoingEmail> notificationEmails(
+      Application application, Optional<String> submitterEmail) {
+    long applicantId = application.getApplicant().id;
+    long programId = application.getProgram().id;
+    String programName = application.getProgram().getProgramDefinition().adminName();
+    ImmutableList.Builder<OutgoingEmail> emails = ImmutableList.builder();
+    programAdminsEmail(applicantId, programId, application.id, programName)
+        .ifPresent(emails::add);
+    if (submitterEmail.isPresent()) {
+      emails.add(submitterEmail(submitterEmail.get(), applicantId, application.id, programName));
+    }
+    applicantEmail(application, programName).ifPresent(emails::add);
+    return emails.build();
+  }
+
+  private Optional<OutgoingEmail> programAdminsEmail(
       long applicantId, long programId, long applicationId, String programName) {
     String viewLink =
         baseUrl
@@ -254,15 +381,17 @@ public class ApplicantServiceImpl implements ApplicantService {
         String.format(
             "Applicant %d submitted a new application to program %s.\nView the application at %s.",
             applicantId, programName, viewLink);
-    if (isStaging) {
-      amazonSESClient.send(STAGING_PROGRAM_ADMIN_NOTIFICATION_MAILING_LIST, subject, message);
-    } else {
-      amazonSESClient.send(
-          programService.getNotificationEmailAddresses(programName), subject, message);
+    ImmutableList<String> recipients =
+        isStaging
+            ? ImmutableList.of(STAGING_PROGRAM_ADMIN_NOTIFICATION_MAILING_LIST)
+            : programService.getNotificationEmailAddresses(programName);
+    if (recipients.isEmpty()) {
+      return Optional.empty();
     }
+    return Optional.of(new OutgoingEmail(recipients, subject, message, clock.instant()));
   }
 
-  private void notifySubmitter(
+  private OutgoingEmail submitterEmail(
       String submitter, long applicantId, long applicationId, String programName) {
     String tiDashLink =
         baseUrl
@@ -279,18 +408,16 @@ public class ApplicantServiceImpl implements ApplicantService {
                 + " ID is %d.\n"
                 + "Manage your clients at %s.",
             programName, applicantId, applicationId, tiDashLink);
-    if (isStaging) {
-      amazonSESClient.send(STAGING_TI_NOTIFICATION_MAILING_LIST, subject, message);
-    } else {
-      amazonSESClient.send(submitter, subject, message);
-    }
+    String recipient = isStaging ? STAGING_TI_NOTIFICATION_MAILING_LIST : submitter;
+    return new OutgoingEmail(ImmutableList.of(recipient), subject, message, clock.instant());
   }
 
-  private void maybeNotifyApplicant(long applicantId, long applicationId, String programName) {
-    Optional<String> email = getEmail(applicantId).toCompletableFuture().join();
-    if (email.isEmpty()) {
-      return;
+  private Optional<OutgoingEmail> applicantEmail(Application application, String programName) {
+    String email = application.getApplicant().getAccount().getEmailAddress();
+    if (Strings.isNullOrEmpty(email)) {
+      return Optional.empty();
     }
+    long applicantId = application.getApplicant().id;
     String civiformLink = baseUrl;
     String subject = String.format("Your application to program %s is received", programName);
     String message =
@@ -298,18 +425,21 @@ public class ApplicantServiceImpl implements ApplicantService {
             "Your application to program %s has been received. Your applicant ID is %d and the"
                 + " application ID is %d.\n"
                 + "Log in to CiviForm at %s.",
-            programName, applicantId, applicationId, civiformLink);
-    if (isStaging) {
-      amazonSESClient.send(STAGING_APPLICANT_NOTIFICATION_MAILING_LIST, subject, message);
-    } else {
-      amazonSESClient.send(email.get(), subject, message);
-    }
+            programName, applicantId, application.id, civiformLink);
+    String recipient = isStaging ? STAGING_APPLICANT_NOTIFICATION_MAILING_LIST : email;
+    return Optional.of(
+        new OutgoingEmail(ImmutableList.of(recipient), subject, message, clock.instant()));
   }
 
   @Override
   public CompletionStage<String> getName(long applicantId) {
-    return userRepository
-        .lookupApplicant(applicantId)
+    return getName(applicantId, requestLoaderProvider.get());
+  }
+
+  @Override
+  public CompletionStage<String> getName(long applicantId, RequestLoader requestLoader) {
+    return requestLoader
+        .loadApplicant(applicantId)
         .thenApplyAsync(
             applicant -> {
               if (applicant.isEmpty()) {
@@ -63,6 +63,11 @@ public final class Block {
     return id;
   }
 
+  /** The ID of the {@link BlockDefinition} this block was created from. */
+  public long getBlockDefinitionId() {
+    return blockDefinition.id();
+  }
+
   public String getName() {
     return blockDefinition.name();
   }
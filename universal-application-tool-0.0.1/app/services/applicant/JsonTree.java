@@ -0,0 +1,153 @@
+package services.applicant;
+
+import java.util.List;
+import java.util.Map;
+import services.Path;
+
+/**
+ * Reads and changes a parsed applicant JSON tree, made of {@link Map}s and {@link List}s, by
+ * walking it along the segments of a {@link Path}.
+ *
+ * <p>This gives the same results as the equivalent definite JsonPath queries, without formatting
+ * and parsing a query for every access, and reports missing values with {@link #MISSING} rather
+ * than by throwing. A segment is a key, optionally followed by an array index, e.g. {@code
+ * children[2]}. A segment with an empty index, e.g. {@code children[]}, never matches a value.
+ */
+final class JsonTree {
+
+  /** Returned by {@link #find} when there is no value at the path, as distinct from JSON null. */
+  static final Object MISSING = new Object();
+
+  private static final int NO_INDEX = -1;
+  private static final int INVALID_INDEX = -2;
+
+  private JsonTree() {}
+
+  /** Returns the value at the path, which may be null, or {@link #MISSING} if there is none. */
+  static Object find(Object root, Path path) {
+    Object value = root;
+    for (String segment : path.segments()) {
+      value = child(value, segment);
+      if (value == MISSING) {
+        return MISSING;
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Sets the value at the path. The parent of the path must be an object, and the path must not
+   * end in an array index.
+   *
+   * @return false if the parent is missing or is not an object
+   */
+  static boolean set(Object root, Path path, Object value) {
+    Object parent = find(root, path.parentPath());
+    if (!(parent instanceof Map)) {
+      return false;
+    }
+    @SuppressWarnings("unchecked")
+    Map<String, Object> parentMap = (Map<String, Object>) parent;
+    parentMap.put(path.keyName(), value);
+    return true;
+  }
+
+  /**
+   * Appends the value to the array at the path.
+   *
+   * @return false if there is no array at the path
+   */
+  static boolean append(Object root, Path arrayPath, Object value) {
+    Object array = find(root, arrayPath);
+    if (!(array instanceof List)) {
+      return false;
+    }
+    @SuppressWarnings("unchecked")
+    List<Object> list = (List<Object>) array;
+    list.add(value);
+    return true;
+  }
+
+  /**
+   * Removes the value at the path: an object property, or an array element if the path ends in an
+   * array index.
+   *
+   * @return false if there was no value at the path
+   */
+  static boolean delete(Object root, Path path) {
+    if (path.isEmpty()) {
+      return false;
+    }
+    Object parent = find(root, path.parentPath());
+    String segment = path.keyName();
+    int index = index(segment);
+    if (index == INVALID_INDEX || !(parent instanceof Map)) {
+      return false;
+    }
+    Map<?, ?> parentMap = (Map<?, ?>) parent;
+    String key = key(segment);
+    if (index == NO_INDEX) {
+      if (!parentMap.containsKey(key)) {
+        return false;
+      }
+      parentMap.remove(key);
+      return true;
+    }
+    Object array = parentMap.get(key);
+    if (!(array instanceof List) || index >= ((List<?>) array).size()) {
+      return false;
+    }
+    ((List<?>) array).remove(index);
+    return true;
+  }
+
+  /** Returns the value a single path segment selects from the given value, or {@link #MISSING}. */
+  private static Object child(Object value, String segment) {
+    if (!(value instanceof Map)) {
+      return MISSING;
+    }
+    Map<?, ?> map = (Map<?, ?>) value;
+    int index = index(segment);
+    String key = key(segment);
+    if (!map.containsKey(key)) {
+      return MISSING;
+    }
+    Object child = map.get(key);
+    if (index == NO_INDEX) {
+      return child;
+    }
+    if (index == INVALID_INDEX || !(child instanceof List)) {
+      return MISSING;
+    }
+    List<?> list = (List<?>) child;
+    return index < list.size() ? list.get(index) : MISSING;
+  }
+
+  private static String key(String segment) {
+    int arrayStart = segment.indexOf('[');
+    return arrayStart < 0 ? segment : segment.substring(0, arrayStart);
+  }
+
+  /**
+   * Returns the array index at the end of the segment, {@link #NO_INDEX} if there is none, or
+   * {@link #INVALID_INDEX} if it is empty or not a number.
+   */
+  private static int index(String segment) {
+    int arrayStart = segment.indexOf('[');
+    if (arrayStart < 0) {
+      return NO_INDEX;
+    }
+    if (!segment.endsWith("]") || arrayStart + 2 > segment.length() - 1) {
+      return INVALID_INDEX;
+    }
+    int index = 0;
+    for (int i = arrayStart + 1; i < segment.length() - 1; i++) {
+      char c = segment.charAt(i);
+      if (c < '0' || c > '9' || index > (Integer.MAX_VALUE - 9) / 10) {
+        return INVALID_INDEX;
+      }
+      index = index * 10 + (c - '0');
+    }
+    return index;
+  }
+}
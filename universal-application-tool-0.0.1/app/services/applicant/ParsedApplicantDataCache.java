@@ -0,0 +1,140 @@
+package services.applicant;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.typesafe.config.Config;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import models.BaseModel;
+
+/**
+ * A bounded cache of the parsed JSON of applicants and applications, keyed by the model's type and
+ * id.
+ *
+ * <p>Applicants and applications are loaded many times per request path, and each load used to
+ * re-parse the same {@code object} column. Each entry records a SHA-256 hash of the text it was
+ * parsed from, and is only used if the loaded text has the same hash, so a cached tree is never
+ * stale: any change to the stored JSON misses and replaces the entry. Hashing the text is much
+ * cheaper than parsing it, and the text itself is not kept.
+ *
+ * <p>Entries are weighed by the length of their JSON, and the cache holds at most {@code
+ * applicant_data_cache.max_json_length} characters' worth. A parsed tree takes several times the
+ * memory of its text, but in proportion to it, so this bounds the cache's memory however large
+ * individual applicants' data grows.
+ *
+ * <p>Cached trees are shared between {@link ApplicantData} instances and threads, so they must
+ * never be mutated. {@link ApplicantData} copies the tree with {@link #deepCopy} before its first
+ * write.
+ */
+@Singleton
+public final class ParsedApplicantDataCache {
+  private final Cache<Key, Entry> cache;
+
+  @Inject
+  public ParsedApplicantDataCache(Config config) {
+    this(checkNotNull(config).getLong("applicant_data_cache.max_json_length"));
+  }
+
+  @VisibleForTesting
+  ParsedApplicantDataCache(long maximumJsonLength) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumJsonLength)
+            .weigher((Key key, Entry entry) -> entry.jsonLength)
+            .build();
+  }
+
+  /**
+   * Returns the applicant data in the given JSON, which was loaded for {@code owner}, and is only
+   * parsed if it is not cached. Like {@link ApplicantData#ApplicantData(Optional, String)}, but the
+   * data shares the cached tree until it is first changed. Models that have not been saved yet are
+   * not cached.
+   */
+  public ApplicantData parse(BaseModel owner, Optional<Locale> preferredLocale, String json) {
+    checkNotNull(json);
+    if (checkNotNull(owner).id == null) {
+      return new ApplicantData(preferredLocale, json);
+    }
+    Key key = new Key(owner.getClass(), owner.id);
+    HashCode hash = Hashing.sha256().hashString(json, StandardCharsets.UTF_8);
+    Entry entry = cache.getIfPresent(key);
+    if (entry == null || !entry.hash.equals(hash)) {
+      entry = new Entry(hash, json.length(), JsonPathProvider.getJsonPath().parse(json).json());
+      cache.put(key, entry);
+    }
+    return ApplicantData.ofSharedTree(preferredLocale, entry.tree);
+  }
+
+  /**
+   * Returns a copy of a parsed tree that shares no maps or lists with the original. Leaf values are
+   * immutable, so they are shared.
+   */
+  static Object deepCopy(Object json) {
+    if (json instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) json;
+      Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        copy.put(entry.getKey(), deepCopy(entry.getValue()));
+      }
+      return copy;
+    }
+    if (json instanceof List) {
+      List<?> list = (List<?>) json;
+      List<Object> copy = new ArrayList<>(list.size());
+      for (Object item : list) {
+        copy.add(deepCopy(item));
+      }
+      return copy;
+    }
+    return json;
+  }
+
+  private static final class Key {
+    private final Class<?> type;
+    private final long id;
+
+    Key(Class<?> type, long id) {
+      this.type = type;
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return type.equals(key.type) && id == key.id;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, id);
+    }
+  }
+
+  private static final class Entry {
+    private final HashCode hash;
+    private final int jsonLength;
+    private final Object tree;
+
+    Entry(HashCode hash, int jsonLength, Object tree) {
+      this.hash = hash;
+      this.jsonLength = jsonLength;
+      this.tree = tree;
+    }
+  }
+}
@@ -1,7 +1,6 @@
 package services.applicant;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -11,8 +10,8 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import services.LocalizedStrings;
 import services.Path;
-import services.applicant.predicate.JsonPathPredicateGenerator;
-import services.applicant.predicate.PredicateEvaluator;
+import services.applicant.predicate.CompiledPredicate;
+import services.applicant.predicate.VisibilityPredicateCache;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.FileUploadQuestion;
 import services.applicant.question.Scalar;
@@ -28,24 +27,32 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
 
   /**
    * Note that even though {@link ApplicantData} is mutable, we can consider it immutable at this
-   * point since there is no shared state between requests. In fact, we call {@link
-   * ApplicantData#lock()} in the constructor so no changes can occur. This means that we can
+   * point since there is no shared state between requests. In fact, we take a {@link
+   * ApplicantData#lockedCopy()} in the constructor so no changes can occur. This means that we can
    * memoize attributes based on ApplicantData without concern that the data will change.
    */
   private final ApplicantData applicantData;
 
   private final ProgramDefinition programDefinition;
   private final String baseUrl;
+  private final VisibilityPredicateCache visibilityPredicateCache;
   private ImmutableList<Block> allBlockList;
   private ImmutableList<Block> currentBlockList;
 
   protected ReadOnlyApplicantProgramServiceImpl(
       ApplicantData applicantData, ProgramDefinition programDefinition, String baseUrl) {
-    this.applicantData = new ApplicantData(checkNotNull(applicantData).asJsonString());
-    this.applicantData.setPreferredLocale(applicantData.preferredLocale());
-    this.applicantData.lock();
+    this(applicantData, programDefinition, baseUrl, new VisibilityPredicateCache());
+  }
+
+  protected ReadOnlyApplicantProgramServiceImpl(
+      ApplicantData applicantData,
+      ProgramDefinition programDefinition,
+      String baseUrl,
+      VisibilityPredicateCache visibilityPredicateCache) {
+    this.applicantData = checkNotNull(applicantData).lockedCopy();
     this.programDefinition = checkNotNull(programDefinition);
     this.baseUrl = checkNotNull(baseUrl);
+    this.visibilityPredicateCache = checkNotNull(visibilityPredicateCache);
   }
 
   @Override
@@ -233,19 +240,17 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
       return true;
     }
 
-    JsonPathPredicateGenerator predicateGenerator =
-        new JsonPathPredicateGenerator(
-            this.programDefinition.streamQuestionDefinitions().collect(toImmutableList()),
-            block.getRepeatedEntity());
-    PredicateEvaluator predicateEvaluator =
-        new PredicateEvaluator(this.applicantData, predicateGenerator);
     PredicateDefinition predicate = block.getVisibilityPredicate().get();
+    CompiledPredicate compiledPredicate =
+        visibilityPredicateCache.get(programDefinition, block.getBlockDefinitionId()).get();
+    boolean predicateIsTrue =
+        compiledPredicate.evaluate(this.applicantData, block.getRepeatedEntity());
 
     switch (predicate.action()) {
       case HIDE_BLOCK:
-        return !predicateEvaluator.evaluate(predicate.rootNode());
+        return !predicateIsTrue;
       case SHOW_BLOCK:
-        return predicateEvaluator.evaluate(predicate.rootNode());
+        return predicateIsTrue;
       default:
         return true;
     }
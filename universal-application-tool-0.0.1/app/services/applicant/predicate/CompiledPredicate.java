@@ -0,0 +1,357 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntPredicate;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.RepeatedEntity;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateExpressionNode;
+import services.question.types.QuestionDefinition;
+
+/**
+ * A {@link PredicateExpressionNode} compiled against a program's questions, so it can be evaluated
+ * many times without formatting or parsing JsonPath queries.
+ *
+ * <p>Compiling resolves each leaf's target question, JSON keys and compared value once. Evaluating
+ * only walks the applicant's JSON and compares values. The result is the same as evaluating the
+ * equivalent {@link JsonPathPredicate} queries: a leaf is true if the object at the target
+ * question's path, or any element of it when it is an array, has a scalar that satisfies the
+ * operator. Values are compared the way JsonPath compares them, so, for example, the number 2 is
+ * equal to the string "2".
+ */
+public final class CompiledPredicate {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Marks a JSON null, since values are held in collections that do not allow null. */
+  private static final Object NULL = new Object();
+
+  /** Marks a scalar key that is missing from an object. It is not equal to anything. */
+  private static final Object UNDEFINED = new Object();
+
+  private static final CompiledNode ALWAYS_FALSE = (applicantData, repeatedContext) -> false;
+
+  private final CompiledNode root;
+
+  private CompiledPredicate(CompiledNode root) {
+    this.root = root;
+  }
+
+  /**
+   * Compiles the expression against the questions of the program it belongs to. Leaves that depend
+   * on a question missing from {@code questionsById}, or whose value cannot be used with their
+   * operator, always evaluate to false.
+   */
+  public static CompiledPredicate compile(
+      PredicateExpressionNode node, ImmutableMap<Long, QuestionDefinition> questionsById) {
+    return new CompiledPredicate(compileNode(node, questionsById));
+  }
+
+  /**
+   * Returns true if the expression holds for the applicant, when evaluated in the repeated context
+   * of the block it belongs to.
+   */
+  public boolean evaluate(
+      ApplicantData applicantData, Optional<RepeatedEntity> currentRepeatedContext) {
+    return root.evaluate(applicantData, currentRepeatedContext);
+  }
+
+  private static CompiledNode compileNode(
+      PredicateExpressionNode node, ImmutableMap<Long, QuestionDefinition> questionsById) {
+    switch (node.getType()) {
+      case LEAF_OPERATION:
+        return compileLeaf(node.getLeafNode(), questionsById);
+      case AND:
+        ImmutableList<CompiledNode> allOf =
+            node.getAndNode().children().stream()
+                .map(child -> compileNode(child, questionsById))
+                .collect(toImmutableList());
+        return (applicantData, repeatedContext) -> {
+          for (CompiledNode child : allOf) {
+            if (!child.evaluate(applicantData, repeatedContext)) {
+              return false;
+            }
+          }
+          return true;
+        };
+      case OR:
+        ImmutableList<CompiledNode> anyOf =
+            node.getOrNode().children().stream()
+                .map(child -> compileNode(child, questionsById))
+                .collect(toImmutableList());
+        return (applicantData, repeatedContext) -> {
+          for (CompiledNode child : anyOf) {
+            if (child.evaluate(applicantData, repeatedContext)) {
+              return true;
+            }
+          }
+          return false;
+        };
+      default:
+        return ALWAYS_FALSE;
+    }
+  }
+
+  private static CompiledNode compileLeaf(
+      LeafOperationExpressionNode node, ImmutableMap<Long, QuestionDefinition> questionsById) {
+    QuestionDefinition targetQuestion = questionsById.get(node.questionId());
+    if (targetQuestion == null) {
+      // The predicate was incorrectly configured: it depends on a question not in this program.
+      return ALWAYS_FALSE;
+    }
+    Object comparedValue;
+    try {
+      comparedValue = toValue(MAPPER.readValue(node.comparedValue().value(), Object.class));
+    } catch (JsonProcessingException e) {
+      return ALWAYS_FALSE;
+    }
+    if (requiresList(node.operator()) && !(comparedValue instanceof ImmutableList)) {
+      return ALWAYS_FALSE;
+    }
+    Path questionPath = Path.create(targetQuestion.getQuestionPathSegment());
+    if (targetQuestion.isEnumerator()) {
+      // Enumerator questions are read as the whole array of entities, without the [] suffix.
+      questionPath = questionPath.withoutArrayReference();
+    }
+    return new LeafNode(
+        targetQuestion.getEnumeratorId(),
+        questionPath.keyName(),
+        node.scalar().name().toLowerCase(Locale.ROOT),
+        node.operator(),
+        comparedValue);
+  }
+
+  private static boolean requiresList(Operator operator) {
+    switch (operator) {
+      case ANY_OF:
+      case IN:
+      case NONE_OF:
+      case NOT_IN:
+      case SUBSET_OF:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Converts a parsed JSON value into the form it is compared in: numbers become {@link
+   * BigDecimal}s, arrays become lists of converted values, and null becomes {@link #NULL}. Strings,
+   * booleans and objects are unchanged.
+   */
+  private static Object toValue(Object json) {
+    if (json == null) {
+      return NULL;
+    }
+    if (json instanceof Number) {
+      return new BigDecimal(json.toString());
+    }
+    if (json instanceof List) {
+      return ((List<?>) json).stream().map(CompiledPredicate::toValue).collect(toImmutableList());
+    }
+    return json;
+  }
+
+  /** Returns true if JsonPath would consider the left value equal to the right one. */
+  private static boolean valueEquals(Object left, Object right) {
+    if (left instanceof BigDecimal) {
+      if (right instanceof BigDecimal) {
+        return ((BigDecimal) left).compareTo((BigDecimal) right) == 0;
+      }
+      if (right instanceof String) {
+        try {
+          return ((BigDecimal) left).compareTo(new BigDecimal((String) right)) == 0;
+        } catch (NumberFormatException e) {
+          return false;
+        }
+      }
+      return false;
+    }
+    if (left instanceof String) {
+      if (right instanceof String || right instanceof BigDecimal) {
+        return left.equals(right.toString());
+      }
+      return false;
+    }
+    if (left instanceof ImmutableList) {
+      if (!(right instanceof ImmutableList)) {
+        return false;
+      }
+      ImmutableList<?> leftList = (ImmutableList<?>) left;
+      ImmutableList<?> rightList = (ImmutableList<?>) right;
+      if (leftList.size() != rightList.size()) {
+        return false;
+      }
+      for (int i = 0; i < leftList.size(); i++) {
+        if (!valueEquals(leftList.get(i), rightList.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (left == UNDEFINED || left instanceof Map) {
+      return false;
+    }
+    // Booleans and NULL.
+    return left.equals(right);
+  }
+
+  /**
+   * Compares two numbers or two strings, and tests the result. Values of any other types, or of
+   * different types, never satisfy the comparison.
+   */
+  private static boolean compare(Object left, Object right, IntPredicate test) {
+    if (left instanceof BigDecimal && right instanceof BigDecimal) {
+      return test.test(((BigDecimal) left).compareTo((BigDecimal) right));
+    }
+    if (left instanceof String && right instanceof String) {
+      return test.test(((String) left).compareTo((String) right));
+    }
+    return false;
+  }
+
+  private static boolean listContains(ImmutableList<?> list, Object value) {
+    for (Object element : list) {
+      if (valueEquals(value, element)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A node of a compiled expression tree. */
+  @FunctionalInterface
+  private interface CompiledNode {
+    boolean evaluate(ApplicantData applicantData, Optional<RepeatedEntity> currentRepeatedContext);
+  }
+
+  /** A compiled {@link LeafOperationExpressionNode}. */
+  private static final class LeafNode implements CompiledNode {
+    private final Optional<Long> enumeratorId;
+    private final String questionKey;
+    private final String scalarKey;
+    private final Operator operator;
+    private final Object comparedValue;
+
+    LeafNode(
+        Optional<Long> enumeratorId,
+        String questionKey,
+        String scalarKey,
+        Operator operator,
+        Object comparedValue) {
+      this.enumeratorId = enumeratorId;
+      this.questionKey = questionKey;
+      this.scalarKey = scalarKey;
+      this.operator = operator;
+      this.comparedValue = comparedValue;
+    }
+
+    @Override
+    public boolean evaluate(
+        ApplicantData applicantData, Optional<RepeatedEntity> currentRepeatedContext) {
+      Path contextPath = ApplicantData.APPLICANT_PATH;
+      if (enumeratorId.isPresent()) {
+        // Walk up the repeated context to the entity the target question is repeated for. If it
+        // is not an ancestor of the current block, the predicate cannot apply.
+        Optional<RepeatedEntity> targetContext = currentRepeatedContext;
+        while (targetContext.isPresent()
+            && targetContext.get().enumeratorQuestionDefinition().getId() != enumeratorId.get()) {
+          targetContext = targetContext.get().parent();
+        }
+        if (targetContext.isEmpty()) {
+          return false;
+        }
+        contextPath = targetContext.get().contextualizedPath();
+      }
+
+      Optional<Object> context = applicantData.readJsonValue(contextPath);
+      if (context.isEmpty() || !(context.get() instanceof Map)) {
+        return false;
+      }
+      Object question = ((Map<?, ?>) context.get()).get(questionKey);
+      if (question instanceof Map) {
+        return matches(question);
+      }
+      if (question instanceof List) {
+        for (Object element : (List<?>) question) {
+          if (matches(element)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    /** Returns true if the scalar of the given JSON object satisfies the operator. */
+    private boolean matches(Object object) {
+      Object scalar = UNDEFINED;
+      if (object instanceof Map && ((Map<?, ?>) object).containsKey(scalarKey)) {
+        scalar = toValue(((Map<?, ?>) object).get(scalarKey));
+      }
+      switch (operator) {
+        case EQUAL_TO:
+          return valueEquals(scalar, comparedValue);
+        case NOT_EQUAL_TO:
+          return !valueEquals(scalar, comparedValue);
+        case GREATER_THAN:
+          return compare(scalar, comparedValue, result -> result > 0);
+        case GREATER_THAN_OR_EQUAL_TO:
+        case IS_AFTER:
+          return compare(scalar, comparedValue, result -> result >= 0);
+        case LESS_THAN:
+          return compare(scalar, comparedValue, result -> result < 0);
+        case LESS_THAN_OR_EQUAL_TO:
+        case IS_BEFORE:
+          return compare(scalar, comparedValue, result -> result <= 0);
+        case IN:
+          return listContains((ImmutableList<?>) comparedValue, scalar);
+        case NOT_IN:
+          return !listContains((ImmutableList<?>) comparedValue, scalar);
+        case ANY_OF:
+          if (!(scalar instanceof ImmutableList)) {
+            return false;
+          }
+          for (Object element : (ImmutableList<?>) scalar) {
+            if (listContains((ImmutableList<?>) comparedValue, element)) {
+              return true;
+            }
+          }
+          return false;
+        case NONE_OF:
+          if (!(scalar instanceof ImmutableList)) {
+            return false;
+          }
+          for (Object element : (ImmutableList<?>) scalar) {
+            if (listContains((ImmutableList<?>) comparedValue, element)) {
+              return false;
+            }
+          }
+          return true;
+        case SUBSET_OF:
+          if (!(scalar instanceof ImmutableList)) {
+            return false;
+          }
+          for (Object element : (ImmutableList<?>) scalar) {
+            if (!listContains((ImmutableList<?>) comparedValue, element)) {
+              return false;
+            }
+          }
+          return true;
+        default:
+          return false;
+      }
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import services.program.BlockDefinition;
+import services.program.ProgramDefinition;
+import services.question.types.QuestionDefinition;
+
+/**
+ * Holds the compiled visibility predicates of each program's blocks, so they are compiled once per
+ * {@link ProgramDefinition} rather than every time a block list is built.
+ *
+ * <p>Program definitions are keyed by identity and held weakly. The definitions of active and draft
+ * programs are shared between requests, so their predicates are compiled once per version, and
+ * entries go away with the definitions they were compiled for.
+ */
+@Singleton
+public final class VisibilityPredicateCache {
+
+  private final Cache<ProgramDefinition, ImmutableMap<Long, CompiledPredicate>> cache =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  @Inject
+  public VisibilityPredicateCache() {}
+
+  /** Returns the compiled visibility predicate of the block, or empty if it has none. */
+  public Optional<CompiledPredicate> get(
+      ProgramDefinition programDefinition, long blockDefinitionId) {
+    ImmutableMap<Long, CompiledPredicate> predicatesByBlockId =
+        cache.getIfPresent(programDefinition);
+    if (predicatesByBlockId == null) {
+      predicatesByBlockId = compile(programDefinition);
+      cache.put(programDefinition, predicatesByBlockId);
+    }
+    return Optional.ofNullable(predicatesByBlockId.get(blockDefinitionId));
+  }
+
+  private static ImmutableMap<Long, CompiledPredicate> compile(
+      ProgramDefinition programDefinition) {
+    // A question may appear in more than one block, so keep the first definition of each.
+    ImmutableMap<Long, QuestionDefinition> questionsById =
+        programDefinition
+            .streamQuestionDefinitions()
+            .collect(toImmutableMap(QuestionDefinition::getId, q -> q, (first, second) -> first));
+    return programDefinition.blockDefinitions().stream()
+        .filter(block -> block.visibilityPredicate().isPresent())
+        .collect(
+            toImmutableMap(
+                BlockDefinition::id,
+                block ->
+                    CompiledPredicate.compile(
+                        block.visibilityPredicate().get().rootNode(), questionsById)));
+  }
+}
@@ -53,13 +53,14 @@ public class SimpleEmail {
         });
   }
 
-  public void send(String toAddress, String subject, String bodyText) {
-    send(ImmutableList.of(toAddress), subject, bodyText);
+  public boolean send(String toAddress, String subject, String bodyText) {
+    return send(ImmutableList.of(toAddress), subject, bodyText);
   }
 
-  public void send(ImmutableList<String> toAddresses, String subject, String bodyText) {
+  /** Sends the email, returning false if SES rejected it. */
+  public boolean send(ImmutableList<String> toAddresses, String subject, String bodyText) {
     if (toAddresses.isEmpty()) {
-      return;
+      return true;
     }
 
     try {
@@ -74,9 +75,11 @@ public class SimpleEmail {
       SendEmailRequest emailRequest =
           SendEmailRequest.builder().destination(destination).message(msg).source(sender).build();
       client.get().sendEmail(emailRequest);
+      return true;
     } catch (SesException e) {
       LOG.error(e.toString());
       e.printStackTrace();
+      return false;
     }
   }
 
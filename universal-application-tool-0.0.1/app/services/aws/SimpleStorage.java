@@ -5,9 +5,14 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import com.typesafe.config.Config;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
@@ -17,15 +22,23 @@ import play.Environment;
 import play.inject.ApplicationLifecycle;
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
 import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 /**
  * SimpleStorage provides methods to create federated links for users of CiviForm to upload and
- * download files directly to and from AWS Simple Storage Service (S3).
+ * download files directly to and from AWS Simple Storage Service (S3), and to upload files that
+ * the server creates, such as exports.
+ *
+ * <p>In tests, uploaded files are written to a temporary directory instead.
  */
 @Singleton
 public class SimpleStorage {
@@ -64,8 +77,23 @@ public class SimpleStorage {
   }
 
   public URL getPresignedUrl(String key) {
-    GetObjectRequest getObjectRequest = GetObjectRequest.builder().key(key).bucket(bucket).build();
+    return presign(GetObjectRequest.builder().key(key).bucket(bucket).build());
+  }
+
+  /**
+   * Returns a short-lived link to the object that browsers save as {@code fileName} rather than
+   * display.
+   */
+  public URL getPresignedDownloadUrl(String key, String fileName) {
+    return presign(
+        GetObjectRequest.builder()
+            .key(key)
+            .bucket(bucket)
+            .responseContentDisposition(String.format("attachment; filename=\"%s\"", fileName))
+            .build());
+  }
 
+  private URL presign(GetObjectRequest getObjectRequest) {
     GetObjectPresignRequest getObjectPresignRequest =
         GetObjectPresignRequest.builder()
             .signatureDuration(AWS_PRESIGNED_URL_DURATION)
@@ -77,6 +105,17 @@ public class SimpleStorage {
     return presignedGetObjectRequest.url();
   }
 
+  /** Uploads {@code file} to the bucket under {@code key}, replacing any existing object. */
+  public void putObject(String key, Path file, String contentType) {
+    client.putObject(
+        PutObjectRequest.builder().bucket(bucket).key(key).contentType(contentType).build(), file);
+  }
+
+  /** Deletes the object under {@code key} from the bucket, if there is one. */
+  public void deleteObject(String key) {
+    client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+  }
+
   public SignedS3UploadRequest getSignedUploadRequest(String key, String successActionRedirect) {
     AwsCredentials awsCredentials = credentials.getCredentials();
     SignedS3UploadRequest.Builder builder =
@@ -99,6 +138,10 @@ public class SimpleStorage {
   interface Client {
     S3Presigner getPresigner();
 
+    void putObject(PutObjectRequest request, Path file);
+
+    void deleteObject(DeleteObjectRequest request);
+
     String bucketAddress();
 
     void close();
@@ -106,9 +149,11 @@ public class SimpleStorage {
 
   class AwsClient implements Client {
     private final S3Presigner presigner;
+    private final S3Client s3Client;
 
     AwsClient() {
       presigner = S3Presigner.builder().region(region).build();
+      s3Client = S3Client.builder().region(region).build();
     }
 
     @Override
@@ -116,6 +161,16 @@ public class SimpleStorage {
       return presigner;
     }
 
+    @Override
+    public void putObject(PutObjectRequest request, Path file) {
+      s3Client.putObject(request, RequestBody.fromFile(file));
+    }
+
+    @Override
+    public void deleteObject(DeleteObjectRequest request) {
+      s3Client.deleteObject(request);
+    }
+
     @Override
     public String bucketAddress() {
       return String.format("https://s3-%s.amazonaws.com/%s", region.id(), bucket);
@@ -124,6 +179,7 @@ public class SimpleStorage {
     @Override
     public void close() {
       presigner.close();
+      s3Client.close();
     }
   }
 
@@ -132,6 +188,7 @@ public class SimpleStorage {
 
     private final String localEndpoint;
     private final S3Presigner presigner;
+    private final S3Client s3Client;
 
     LocalStackClient(Config config) {
       localEndpoint = checkNotNull(config).getString(AWS_LOCAL_ENDPOINT_CONF_PATH);
@@ -142,6 +199,13 @@ public class SimpleStorage {
         throw new RuntimeException(e);
       }
       presigner = S3Presigner.builder().endpointOverride(localUri).region(region).build();
+      // LocalStack serves buckets under the endpoint's path rather than as subdomains.
+      s3Client =
+          S3Client.builder()
+              .endpointOverride(localUri)
+              .region(region)
+              .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+              .build();
     }
 
     @Override
@@ -149,6 +213,16 @@ public class SimpleStorage {
       return presigner;
     }
 
+    @Override
+    public void putObject(PutObjectRequest request, Path file) {
+      s3Client.putObject(request, RequestBody.fromFile(file));
+    }
+
+    @Override
+    public void deleteObject(DeleteObjectRequest request) {
+      s3Client.deleteObject(request);
+    }
+
     @Override
     public String bucketAddress() {
       return String.join("/", localEndpoint, bucket);
@@ -157,13 +231,20 @@ public class SimpleStorage {
     @Override
     public void close() {
       presigner.close();
+      s3Client.close();
     }
   }
 
   static class NullClient implements Client {
     private final S3Presigner presigner;
+    private final Path storageDirectory;
 
     NullClient() {
+      try {
+        storageDirectory = Files.createTempDirectory("civiform-storage");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
       presigner = Mockito.mock(S3Presigner.class);
       PresignedGetObjectRequest presignedGetObjectRequest =
           Mockito.mock(PresignedGetObjectRequest.class);
@@ -183,6 +264,26 @@ public class SimpleStorage {
       return presigner;
     }
 
+    @Override
+    public void putObject(PutObjectRequest request, Path file) {
+      try {
+        Path target = storageDirectory.resolve(request.key());
+        Files.createDirectories(target.getParent());
+        Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public void deleteObject(DeleteObjectRequest request) {
+      try {
+        Files.deleteIfExists(storageDirectory.resolve(request.key()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
     @Override
     public String bucketAddress() {
       return "fake-bucket-address";
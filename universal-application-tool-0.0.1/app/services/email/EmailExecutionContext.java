@@ -0,0 +1,20 @@
+package services.email;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/**
+ * Custom execution context wired to "email.dispatcher" thread pool, which sends the emails in the
+ * outbox, so that waiting on the email service does not hold a database thread.
+ */
+@Singleton
+public class EmailExecutionContext extends CustomExecutionContext {
+  @Inject
+  public EmailExecutionContext(ActorSystem actorSystem) {
+    super(checkNotNull(actorSystem), "email.dispatcher");
+  }
+}
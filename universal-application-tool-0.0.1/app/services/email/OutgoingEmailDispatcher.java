@@ -0,0 +1,155 @@
+package services.email;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.google.common.collect.ImmutableList;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import models.OutgoingEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+import play.inject.ApplicationLifecycle;
+import repository.OutgoingEmailRepository;
+import services.aws.SimpleEmail;
+import services.metrics.MetricsService;
+
+/**
+ * Sends the emails waiting in the {@link OutgoingEmail} outbox through {@link SimpleEmail}.
+ *
+ * <p>Outside of tests, the outbox is polled every {@link #POLL_INTERVAL} on the {@link
+ * EmailExecutionContext}. Each poll claims, sends and records batches of due emails until none are
+ * left. A batch is claimed for {@link #CLAIM_LEASE}, which must be longer than sending it takes;
+ * the sends happen outside of any transaction. A failed send is retried with exponential backoff,
+ * starting at {@link #INITIAL_RETRY_DELAY}, until it has been attempted {@link #MAX_ATTEMPTS}
+ * times. After each poll, the number of emails still waiting is reported to {@link
+ * MetricsService}.
+ */
+@Singleton
+public final class OutgoingEmailDispatcher {
+  private static final Logger LOG = LoggerFactory.getLogger(OutgoingEmailDispatcher.class);
+
+  static final int BATCH_SIZE = 50;
+  static final int MAX_ATTEMPTS = 8;
+  static final Duration INITIAL_RETRY_DELAY = Duration.ofMinutes(1);
+  static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(10);
+
+  private final SimpleEmail simpleEmail;
+  private final OutgoingEmailRepository outgoingEmailRepository;
+  private final Clock clock;
+
+  @Inject
+  public OutgoingEmailDispatcher(
+      SimpleEmail simpleEmail,
+      OutgoingEmailRepository outgoingEmailRepository,
+      Clock clock,
+      ActorSystem actorSystem,
+      EmailExecutionContext executionContext,
+      ApplicationLifecycle appLifecycle,
+      Environment environment,
+      MetricsService metricsService) {
+    this(simpleEmail, outgoingEmailRepository, clock);
+    if (environment.isTest()) {
+      // Tests dispatch explicitly, so a background poll does not race with them.
+      return;
+    }
+    checkNotNull(metricsService);
+    Cancellable poll =
+        actorSystem
+            .scheduler()
+            .scheduleWithFixedDelay(
+                POLL_INTERVAL,
+                POLL_INTERVAL,
+                () -> dispatchDueSafely(metricsService),
+                executionContext);
+    appLifecycle.addStopHook(
+        () -> {
+          poll.cancel();
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  OutgoingEmailDispatcher(
+      SimpleEmail simpleEmail, OutgoingEmailRepository outgoingEmailRepository, Clock clock) {
+    this.simpleEmail = checkNotNull(simpleEmail);
+    this.outgoingEmailRepository = checkNotNull(outgoingEmailRepository);
+    this.clock = checkNotNull(clock);
+  }
+
+  /**
+   * Sends every email that is due, in batches of {@link #BATCH_SIZE}.
+   *
+   * @return the number of emails attempted
+   */
+  public int dispatchDue() {
+    int attempted = 0;
+    int batch;
+    do {
+      Instant now = clock.instant();
+      // The lease is matched when recording, so keep it to a precision the database stores.
+      Instant leaseUntil = now.plus(CLAIM_LEASE).truncatedTo(ChronoUnit.MILLIS);
+      ImmutableList<OutgoingEmail> claimed =
+          outgoingEmailRepository.claimDue(now, BATCH_SIZE, leaseUntil);
+      claimed.forEach(this::attemptSend);
+      outgoingEmailRepository.recordAttempts(claimed, leaseUntil);
+      batch = claimed.size();
+      attempted += batch;
+    } while (batch == BATCH_SIZE);
+    if (attempted > 0) {
+      LOG.info("Attempted {} emails, {} waiting in the outbox", attempted, queueDepth());
+    }
+    return attempted;
+  }
+
+  /** Returns the number of emails waiting in the outbox, including ones waiting to be retried. */
+  public int queueDepth() {
+    return outgoingEmailRepository.countPending();
+  }
+
+  private void dispatchDueSafely(MetricsService metricsService) {
+    try {
+      dispatchDue();
+    } catch (RuntimeException e) {
+      // Keep polling: emails this run claimed but did not record are retried when their lease
+      // runs out.
+      LOG.error("Failed to dispatch outgoing emails", e);
+    }
+    try {
+      metricsService.recordOutboxDepth(queueDepth());
+    } catch (RuntimeException e) {
+      LOG.error("Failed to count outgoing emails", e);
+    }
+  }
+
+  private void attemptSend(OutgoingEmail email) {
+    String error;
+    try {
+      if (simpleEmail.send(email.getToAddresses(), email.getSubject(), email.getBody())) {
+        email.markSent(clock.instant());
+        return;
+      }
+      error = "Rejected by SES";
+    } catch (RuntimeException e) {
+      error = e.toString();
+    }
+    int attempt = email.getAttempts() + 1;
+    Optional<Instant> retryTime = Optional.empty();
+    if (attempt < MAX_ATTEMPTS) {
+      Duration delay = INITIAL_RETRY_DELAY.multipliedBy(1L << (attempt - 1));
+      retryTime = Optional.of(clock.instant().plus(delay));
+    }
+    if (retryTime.isEmpty()) {
+      LOG.error("Giving up on outgoing email {} after {} attempts: {}", email.id, attempt, error);
+    }
+    email.markFailed(error, retryTime);
+  }
+}
@@ -0,0 +1,295 @@
+package services.export;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import services.LocalizedStrings;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.ReadOnlyApplicantProgramService;
+import services.applicant.predicate.CompiledPredicate;
+import services.applicant.predicate.VisibilityPredicateCache;
+import services.applicant.question.Scalar;
+import services.program.BlockDefinition;
+import services.program.Column;
+import services.program.ColumnType;
+import services.program.ProgramDefinition;
+import services.program.ProgramQuestionDefinition;
+import services.program.predicate.PredicateAction;
+import services.question.LocalizedQuestionOption;
+import services.question.exceptions.InvalidQuestionTypeException;
+import services.question.exceptions.UnsupportedQuestionTypeException;
+import services.question.types.MultiOptionQuestionDefinition;
+import services.question.types.QuestionDefinition;
+
+/**
+ * The applicant answer columns of a CSV export, compiled against one program definition so that
+ * each application's values can be read straight from its {@link ApplicantData}.
+ *
+ * <p>The values are the same as those read from {@link
+ * ReadOnlyApplicantProgramService#getSummaryData()}, without building blocks, localizing question
+ * text or validating answers. A column has a value only if its path is an answer scalar of a
+ * question in a block shown to the applicant. Select questions give the text of the selected
+ * options in the default locale, and file uploads give a link for admins to the file.
+ *
+ * <p>Programs are not compiled if a column may be answered in a repeated block, or if a question is
+ * in more than one block. Their rows are read from the summary data instead.
+ */
+final class CompiledCsvColumns {
+  private static final String EMPTY_VALUE = "";
+
+  /** Reads one answer scalar from an applicant's data. */
+  private interface ScalarReader {
+    String read(ApplicantData applicantData);
+  }
+
+  /** Reads a column's value, if the block it is answered in is shown. */
+  private static final class ColumnReader {
+    final BlockDefinition block;
+    final ScalarReader scalarReader;
+
+    ColumnReader(BlockDefinition block, ScalarReader scalarReader) {
+      this.block = block;
+      this.scalarReader = scalarReader;
+    }
+  }
+
+  /** The visibility rule of a block that has one. */
+  private static final class BlockVisibility {
+    final CompiledPredicate predicate;
+    final PredicateAction action;
+
+    BlockVisibility(CompiledPredicate predicate, PredicateAction action) {
+      this.predicate = predicate;
+      this.action = action;
+    }
+
+    boolean isShown(ApplicantData applicantData) {
+      boolean predicateIsTrue = predicate.evaluate(applicantData, Optional.empty());
+      switch (action) {
+        case HIDE_BLOCK:
+          return !predicateIsTrue;
+        case SHOW_BLOCK:
+          return predicateIsTrue;
+        default:
+          return true;
+      }
+    }
+  }
+
+  private final ImmutableMap<Path, ColumnReader> readersByPath;
+  private final ImmutableMap<Long, BlockVisibility> visibilityByBlockId;
+
+  private CompiledCsvColumns(
+      ImmutableMap<Path, ColumnReader> readersByPath,
+      ImmutableMap<Long, BlockVisibility> visibilityByBlockId) {
+    this.readersByPath = readersByPath;
+    this.visibilityByBlockId = visibilityByBlockId;
+  }
+
+  /**
+   * Compiles the applicant answer columns against the program, or returns empty if the columns
+   * cannot be read without the summary data.
+   *
+   * @param baseUrl the server's base URL, which links to uploaded files start with
+   */
+  static Optional<CompiledCsvColumns> compile(
+      ImmutableList<Column> columns,
+      ProgramDefinition programDefinition,
+      String baseUrl,
+      VisibilityPredicateCache visibilityPredicateCache) {
+    boolean hasRepeatedBlocks =
+        programDefinition.blockDefinitions().stream().anyMatch(BlockDefinition::isEnumerator);
+
+    Map<Path, ColumnReader> answerReaders = new HashMap<>();
+    for (BlockDefinition block : programDefinition.getNonRepeatedBlockDefinitions()) {
+      for (ProgramQuestionDefinition programQuestion : block.programQuestionDefinitions()) {
+        Optional<ImmutableMap<Path, ScalarReader>> scalarReaders =
+            compileQuestion(
+                programQuestion.getQuestionDefinition(), programDefinition.id(), baseUrl);
+        if (scalarReaders.isEmpty()) {
+          return Optional.empty();
+        }
+        for (Map.Entry<Path, ScalarReader> scalar : scalarReaders.get().entrySet()) {
+          ColumnReader previous =
+              answerReaders.put(scalar.getKey(), new ColumnReader(block, scalar.getValue()));
+          if (previous != null) {
+            return Optional.empty();
+          }
+        }
+      }
+    }
+
+    ImmutableMap.Builder<Path, ColumnReader> readersByPath = ImmutableMap.builder();
+    Map<Long, BlockVisibility> visibilityByBlockId = new HashMap<>();
+    for (Path path : answerColumnPaths(columns)) {
+      ColumnReader reader = answerReaders.get(path);
+      if (reader == null) {
+        if (hasRepeatedBlocks && path.toString().contains("[")) {
+          // The column may be answered in a repeated block, or by an enumerator question.
+          return Optional.empty();
+        }
+        continue;
+      }
+      readersByPath.put(path, reader);
+      BlockDefinition block = reader.block;
+      Optional<CompiledPredicate> predicate =
+          visibilityPredicateCache.get(programDefinition, block.id());
+      if (predicate.isPresent()) {
+        visibilityByBlockId.putIfAbsent(
+            block.id(),
+            new BlockVisibility(predicate.get(), block.visibilityPredicate().get().action()));
+      }
+    }
+    return Optional.of(
+        new CompiledCsvColumns(
+            readersByPath.build(), ImmutableMap.copyOf(visibilityByBlockId)));
+  }
+
+  /** Returns the reader of the column values for one applicant's data. */
+  Row row(ApplicantData applicantData) {
+    return new Row(applicantData);
+  }
+
+  /** The column values for one applicant's data. */
+  final class Row {
+    private final ApplicantData applicantData;
+    private final Map<Long, Boolean> shownBlocks = new HashMap<>();
+
+    private Row(ApplicantData applicantData) {
+      this.applicantData = applicantData;
+    }
+
+    /** Returns the answer at the column's path, or an empty string if it was not answered. */
+    String answer(Path path) {
+      ColumnReader reader = readersByPath.get(path);
+      if (reader == null || !isShown(reader.block.id())) {
+        return EMPTY_VALUE;
+      }
+      return reader.scalarReader.read(applicantData);
+    }
+
+    private boolean isShown(long blockDefinitionId) {
+      BlockVisibility visibility = visibilityByBlockId.get(blockDefinitionId);
+      if (visibility == null) {
+        return true;
+      }
+      return shownBlocks.computeIfAbsent(
+          blockDefinitionId, unused -> visibility.isShown(applicantData));
+    }
+  }
+
+  private static ImmutableSet<Path> answerColumnPaths(ImmutableList<Column> columns) {
+    return columns.stream()
+        .filter(
+            column ->
+                column.columnType() == ColumnType.APPLICANT
+                    || column.columnType() == ColumnType.APPLICANT_OPAQUE)
+        .map(column -> column.jsonPath().orElseThrow())
+        .collect(ImmutableSet.toImmutableSet());
+  }
+
+  /**
+   * Returns readers for the answer scalars that the summary data has for the question, keyed by
+   * path, or empty if the question cannot be compiled.
+   */
+  private static Optional<ImmutableMap<Path, ScalarReader>> compileQuestion(
+      QuestionDefinition question, long programId, String baseUrl) {
+    Path questionPath =
+        question.getContextualizedPath(Optional.empty(), ApplicantData.APPLICANT_PATH);
+    switch (question.getQuestionType()) {
+      case STATIC:
+      case ENUMERATOR:
+        // Static questions have no answers, and enumerator answers are paths to array elements,
+        // which are left to the summary data.
+        return Optional.of(ImmutableMap.of());
+      case DROPDOWN:
+      case RADIO_BUTTON:
+        return Optional.of(
+            ImmutableMap.of(
+                questionPath.join(Scalar.SELECTION),
+                singleSelectReader(
+                    questionPath.join(Scalar.SELECTION), defaultLocaleOptions(question))));
+      case CHECKBOX:
+        return Optional.of(
+            ImmutableMap.of(
+                questionPath.join(Scalar.SELECTIONS),
+                multiSelectReader(
+                    questionPath.join(Scalar.SELECTIONS), defaultLocaleOptions(question))));
+      case FILEUPLOAD:
+        Path fileKeyPath = questionPath.join(Scalar.FILE_KEY);
+        return Optional.of(
+            ImmutableMap.of(
+                fileKeyPath,
+                applicantData ->
+                    applicantData
+                        .readString(fileKeyPath)
+                        .map(
+                            fileKey ->
+                                baseUrl
+                                    + controllers.routes.FileController.adminShow(
+                                            programId, fileKey)
+                                        .url())
+                        .orElse(EMPTY_VALUE)));
+      default:
+        ImmutableSet<Scalar> scalars;
+        try {
+          scalars = Scalar.getScalars(question.getQuestionType());
+        } catch (InvalidQuestionTypeException | UnsupportedQuestionTypeException e) {
+          return Optional.empty();
+        }
+        ImmutableMap.Builder<Path, ScalarReader> readers = ImmutableMap.builder();
+        for (Scalar scalar : scalars) {
+          Path path = questionPath.join(scalar);
+          if (!Scalar.getMetadataScalarKeys().contains(path.keyName())) {
+            readers.put(
+                path, applicantData -> applicantData.readAsString(path).orElse(EMPTY_VALUE));
+          }
+        }
+        return Optional.of(readers.build());
+    }
+  }
+
+  private static ImmutableList<LocalizedQuestionOption> defaultLocaleOptions(
+      QuestionDefinition question) {
+    return ((MultiOptionQuestionDefinition) question)
+        .getOptionsForLocaleOrDefault(LocalizedStrings.DEFAULT_LOCALE);
+  }
+
+  private static ScalarReader singleSelectReader(
+      Path selectionPath, ImmutableList<LocalizedQuestionOption> options) {
+    ImmutableMap<Long, String> optionTexts =
+        options.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    LocalizedQuestionOption::id,
+                    LocalizedQuestionOption::optionText,
+                    (first, second) -> first));
+    return applicantData ->
+        applicantData
+            .readLong(selectionPath)
+            .map(id -> optionTexts.getOrDefault(id, EMPTY_VALUE))
+            .orElse(EMPTY_VALUE);
+  }
+
+  private static ScalarReader multiSelectReader(
+      Path selectionsPath, ImmutableList<LocalizedQuestionOption> options) {
+    return applicantData ->
+        applicantData
+            .readList(selectionsPath)
+            .map(
+                selectedIds -> {
+                  ImmutableSet<Long> selected = ImmutableSet.copyOf(selectedIds);
+                  // Selected options are listed in the question's order, not the applicant's.
+                  return options.stream()
+                      .filter(option -> selected.contains(option.id()))
+                      .map(LocalizedQuestionOption::optionText)
+                      .collect(Collectors.joining(", ", "[", "]"));
+                })
+            .orElse(EMPTY_VALUE);
+  }
+}
@@ -2,27 +2,46 @@ package services.export;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.hash.Hashing;
 import java.io.IOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import models.Application;
-import models.Program;
 import models.TrustedIntermediaryGroup;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import repository.ProgramRepository;
+import repository.UserRepository;
 import services.Path;
 import services.applicant.ReadOnlyApplicantProgramService;
+import services.applicant.predicate.VisibilityPredicateCache;
 import services.program.Column;
+import services.program.ColumnType;
+import services.program.ProgramDefinition;
 
 /**
  * CsvExporter takes a list of {@link Column}s and exports the data specified. A column contains a
  * {@link Path} indexing into an applicant's data, and CsvExporter takes the path and reads the
  * answer from {@link ReadOnlyApplicantProgramService} if present.
+ *
+ * <p>Columns about an application's program or trusted intermediary are read from other tables.
+ * Call {@link #prefetch} with each page of applications before exporting them, so that these are
+ * looked up once for the page rather than once per application.
+ *
+ * <p>Answers are read from the summary data of {@link ReadOnlyApplicantProgramService}, or, where
+ * the columns can be {@link #compiledColumns compiled} for the application's program, straight
+ * from the applicant's data.
+ *
+ * <p>{@link #formatRecord} may be called for several applications of a prefetched page at once, so
+ * that a page's rows can be formatted in parallel. The other methods must be called from one thread
+ * at a time.
  */
 public class CsvExporter {
   private final String EMPTY_VALUE = "";
@@ -31,24 +50,91 @@ public class CsvExporter {
   private ImmutableList<Column> columns;
   private Optional<String> secret;
   private Optional<ProgramRepository> programRepository;
+  private Optional<UserRepository> userRepository;
+  private Optional<String> baseUrl;
+  private Optional<VisibilityPredicateCache> visibilityPredicateCache;
+
+  /** Program admin names by program id. Kept for the whole export, as there are few programs. */
+  private final Map<Long, String> programNames = new ConcurrentHashMap<>();
+  /** The applicants in the prefetched page. */
+  private ImmutableSet<Long> prefetchedApplicantIds = ImmutableSet.of();
+  /** The names of the TI groups managing the prefetched applicants, by applicant id. */
+  private ImmutableMap<Long, String> tiOrganizationNames = ImmutableMap.of();
+  /** The compiled answer columns by program id, which identifies a program version. */
+  private final HashMap<Long, Optional<CompiledCsvColumns>> compiledColumnsByProgramId =
+      new HashMap<>();
 
   public CsvExporter(List<Column> columns) {
     this.wroteHeaders = false;
     this.columns = ImmutableList.copyOf(columns);
     this.secret = Optional.empty();
     this.programRepository = Optional.empty();
+    this.userRepository = Optional.empty();
+    this.baseUrl = Optional.empty();
+    this.visibilityPredicateCache = Optional.empty();
   }
 
   /** Provide a secret if you will need to use OPAQUE_ID type columns. */
   public CsvExporter(
-      ImmutableList<Column> columns, String secret, ProgramRepository programRepository) {
+      ImmutableList<Column> columns,
+      String secret,
+      ProgramRepository programRepository,
+      UserRepository userRepository,
+      String baseUrl,
+      VisibilityPredicateCache visibilityPredicateCache) {
     this(columns);
     this.secret = Optional.of(secret);
     this.programRepository = Optional.of(programRepository);
+    this.userRepository = Optional.of(userRepository);
+    this.baseUrl = Optional.of(baseUrl);
+    this.visibilityPredicateCache = Optional.of(visibilityPredicateCache);
+  }
+
+  /**
+   * Returns the answer columns compiled for applications to the program, or empty if their answers
+   * must be read from summary data. Columns are compiled once per program version.
+   */
+  Optional<CompiledCsvColumns> compiledColumns(ProgramDefinition programDefinition) {
+    if (baseUrl.isEmpty()) {
+      return Optional.empty();
+    }
+    return compiledColumnsByProgramId.computeIfAbsent(
+        programDefinition.id(),
+        unused ->
+            CompiledCsvColumns.compile(
+                columns, programDefinition, baseUrl.get(), visibilityPredicateCache.get()));
+  }
+
+  /**
+   * Looks up the program names and trusted intermediary groups that the columns need for a page of
+   * applications, with one query each, for the following calls to {@link #export}.
+   */
+  public void prefetch(ImmutableList<Application> applications) {
+    if (hasColumn(ColumnType.PROGRAM) && programRepository.isPresent()) {
+      ImmutableSet<Long> missingProgramIds =
+          applications.stream()
+              .map(application -> application.getProgram().id)
+              .filter(programId -> !programNames.containsKey(programId))
+              .collect(ImmutableSet.toImmutableSet());
+      programNames.putAll(programRepository.get().getProgramNames(missingProgramIds));
+    }
+    if (hasColumn(ColumnType.TI_ORGANIZATION) && userRepository.isPresent()) {
+      prefetchedApplicantIds =
+          applications.stream()
+              .map(application -> application.getApplicant().id)
+              .collect(ImmutableSet.toImmutableSet());
+      tiOrganizationNames = userRepository.get().getManagingGroupNames(prefetchedApplicantIds);
+    }
   }
 
-  private void writeHeadersOnFirstExport(CSVPrinter printer) throws IOException {
+  private boolean hasColumn(ColumnType columnType) {
+    return columns.stream().anyMatch(column -> column.columnType() == columnType);
+  }
+
+  /** Writes the header record to {@code out} if no application has been exported yet. */
+  void writeHeadersOnFirstExport(Appendable out) throws IOException {
     if (!wroteHeaders) {
+      CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.withFirstRecordAsHeader());
       for (Column column : columns) {
         printer.print(column.header());
       }
@@ -69,18 +155,69 @@ public class CsvExporter {
   public void export(
       Application application, ReadOnlyApplicantProgramService roApplicantService, Writer writer)
       throws IOException {
-    CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withFirstRecordAsHeader());
+    export(application, summaryAnswers(roApplicantService), writer);
+  }
+
+  /**
+   * Exports the application like {@link #export(Application, ReadOnlyApplicantProgramService,
+   * Writer)}, reading its answers with the columns compiled for its program.
+   */
+  void export(Application application, CompiledCsvColumns compiledColumns, Writer writer)
+      throws IOException {
+    export(application, compiledColumns.row(application.getApplicantData())::answer, writer);
+  }
 
-    this.writeHeadersOnFirstExport(printer);
+  /**
+   * Returns the application's CSV record, without the headers, reading its answers from the summary
+   * data.
+   */
+  String formatRecord(Application application, ReadOnlyApplicantProgramService roApplicantService) {
+    return formatRecord(application, summaryAnswers(roApplicantService));
+  }
 
+  /**
+   * Returns the application's CSV record, without the headers, reading its answers with the columns
+   * compiled for its program.
+   */
+  String formatRecord(Application application, CompiledCsvColumns compiledColumns) {
+    return formatRecord(application, compiledColumns.row(application.getApplicantData())::answer);
+  }
+
+  private String formatRecord(Application application, Function<Path, String> answers) {
+    StringBuilder record = new StringBuilder();
+    try {
+      CSVPrinter printer = new CSVPrinter(record, CSVFormat.DEFAULT.withFirstRecordAsHeader());
+      printRecord(application, answers, printer);
+    } catch (IOException e) {
+      // Appending to a StringBuilder does not throw.
+      throw new RuntimeException(e);
+    }
+    return record.toString();
+  }
+
+  private Function<Path, String> summaryAnswers(
+      ReadOnlyApplicantProgramService roApplicantService) {
     ImmutableMap<Path, String> answerMap =
         roApplicantService.getSummaryData().stream()
             .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
             .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    return path -> answerMap.getOrDefault(path, EMPTY_VALUE);
+  }
+
+  private void export(Application application, Function<Path, String> answers, Writer writer)
+      throws IOException {
+    this.writeHeadersOnFirstExport(writer);
+    printRecord(
+        application, answers, new CSVPrinter(writer, CSVFormat.DEFAULT.withFirstRecordAsHeader()));
+  }
+
+  private void printRecord(
+      Application application, Function<Path, String> answers, CSVPrinter printer)
+      throws IOException {
     for (Column column : getColumns()) {
       switch (column.columnType()) {
         case APPLICANT:
-          printer.print(getValueFromAnswerMap(column, answerMap));
+          printer.print(answers.apply(column.jsonPath().orElseThrow()));
           break;
         case ID:
           printer.print(application.id);
@@ -108,36 +245,10 @@ public class CsvExporter {
           printer.print(application.getSubmitterEmail().orElse("Applicant"));
           break;
         case PROGRAM:
-          Program program = application.getProgram();
-          if (programRepository.isEmpty()) {
-            throw new RuntimeException(
-                "No program repository provided, but program details requested.");
-          }
-          // This is a strange workaround for a bug in ebean.  For some reason, the program that
-          // is returned from the application crashes ebean's server when we attempt to access
-          // anything
-          // other than the id.  This is hard to debug since ebean doesn't write code, it writes
-          // bytecode,
-          // directly.  This workaround costs 1 extremely cheap query per application - bad, but
-          // probably not problematic until the size of the database gets huge.
-          printer.print(
-              programRepository
-                  .get()
-                  .lookupProgram(program.id)
-                  .toCompletableFuture()
-                  .join()
-                  .get()
-                  .getProgramDefinition()
-                  .adminName());
+          printer.print(getProgramName(application));
           break;
         case TI_ORGANIZATION:
-          printer.print(
-              application
-                  .getApplicant()
-                  .getAccount()
-                  .getManagedByGroup()
-                  .map(TrustedIntermediaryGroup::getName)
-                  .orElse(EMPTY_VALUE));
+          printer.print(getTiOrganizationName(application));
           break;
         case OPAQUE_ID:
           if (this.secret.isEmpty()) {
@@ -151,24 +262,48 @@ public class CsvExporter {
           }
           // We still hash the empty value.
           printer.print(
-              opaqueIdentifier(this.secret.get(), getValueFromAnswerMap(column, answerMap)));
+              opaqueIdentifier(this.secret.get(), answers.apply(column.jsonPath().orElseThrow())));
       }
     }
 
     printer.println();
   }
 
-  /**
-   * Returns the answer retrieved by {@link ReadOnlyApplicantProgramService}. The value is derived
-   * from the raw value in applicant data, such as translating enum number to human readable text in
-   * default locale or mapping file key to download url.
-   */
-  private String getValueFromAnswerMap(Column column, ImmutableMap<Path, String> answerMap) {
-    Path path = column.jsonPath().orElseThrow();
-    if (!answerMap.containsKey(path)) {
-      return EMPTY_VALUE;
+  private String getProgramName(Application application) {
+    // Only the program's id is read from the application: loading the rest of the program from it
+    // crashes ebean's server.
+    long programId = application.getProgram().id;
+    String name = programNames.get(programId);
+    if (name != null) {
+      return name;
+    }
+    if (programRepository.isEmpty()) {
+      throw new RuntimeException("No program repository provided, but program details requested.");
+    }
+    name =
+        programRepository
+            .get()
+            .lookupProgram(programId)
+            .toCompletableFuture()
+            .join()
+            .get()
+            .getProgramDefinition()
+            .adminName();
+    programNames.put(programId, name);
+    return name;
+  }
+
+  private String getTiOrganizationName(Application application) {
+    long applicantId = application.getApplicant().id;
+    if (prefetchedApplicantIds.contains(applicantId)) {
+      return tiOrganizationNames.getOrDefault(applicantId, EMPTY_VALUE);
     }
-    return answerMap.get(path);
+    return application
+        .getApplicant()
+        .getAccount()
+        .getManagedByGroup()
+        .map(TrustedIntermediaryGroup::getName)
+        .orElse(EMPTY_VALUE);
   }
 
   /** Returns an opaque identifier - the ID hashed with the application secret key. */
@@ -0,0 +1,20 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/**
+ * Custom execution context wired to "export-jobs.dispatcher" thread pool, whose size bounds how
+ * many background exports run at once.
+ */
+@Singleton
+public class ExportJobExecutionContext extends CustomExecutionContext {
+  @Inject
+  public ExportJobExecutionContext(ActorSystem actorSystem) {
+    super(checkNotNull(actorSystem), "export-jobs.dispatcher");
+  }
+}
@@ -0,0 +1,295 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import com.google.common.collect.ImmutableList;
+import com.typesafe.config.Config;
+import io.ebean.DuplicateKeyException;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import models.ExportJob;
+import models.ExportJobStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.Environment;
+import play.inject.ApplicationLifecycle;
+import repository.ApplicationRepository;
+import repository.DatabaseExecutionContexts;
+import repository.DatabaseWorkload;
+import repository.ExportJobRepository;
+import repository.VersionRepository;
+import services.aws.SimpleStorage;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+
+/**
+ * Runs CSV exports as background {@link ExportJob}s, so that large exports do not have to finish
+ * within a request.
+ *
+ * <p>Jobs run on {@link ExportJobExecutionContext}, write the CSV to a temporary file and then
+ * upload it through {@link SimpleStorage}, recording their progress as they go. Requesting an
+ * export that another job already covers, because neither the applications nor the programs and
+ * questions have changed since, returns that job instead of starting a new one. At most one job
+ * per export is queued or running at a time.
+ *
+ * <p>Outside of tests, each server records a heartbeat for its unfinished jobs every {@link
+ * #HEARTBEAT_INTERVAL}, and a job without one for {@link #STALE_AFTER} is assumed lost, e.g. to a
+ * restart, and replaced by the next request. Finished jobs are deleted with their files once they
+ * are older than the configured {@code export_jobs.retention}. Both run on the admin database
+ * dispatcher, so that they are not held up behind the exports themselves.
+ */
+@Singleton
+public final class ExportJobService {
+  private static final Logger LOG = LoggerFactory.getLogger(ExportJobService.class);
+
+  private static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(30);
+  static final Duration STALE_AFTER = HEARTBEAT_INTERVAL.multipliedBy(4);
+  private static final Duration CLEANUP_INTERVAL = Duration.ofHours(1);
+  private static final int CLEANUP_BATCH_SIZE = 100;
+
+  private static final String CSV_CONTENT_TYPE = "text/csv";
+
+  private final ExporterService exporterService;
+  private final ProgramService programService;
+  private final ExportJobRepository exportJobRepository;
+  private final ApplicationRepository applicationRepository;
+  private final VersionRepository versionRepository;
+  private final SimpleStorage simpleStorage;
+  private final ExportJobExecutionContext executionContext;
+  private final Clock clock;
+  private final Duration retention;
+  /** The jobs this server has queued or is running. */
+  private final Set<Long> unfinishedJobIds = ConcurrentHashMap.newKeySet();
+
+  @Inject
+  public ExportJobService(
+      ExporterService exporterService,
+      ProgramService programService,
+      ExportJobRepository exportJobRepository,
+      ApplicationRepository applicationRepository,
+      VersionRepository versionRepository,
+      SimpleStorage simpleStorage,
+      ExportJobExecutionContext executionContext,
+      Clock clock,
+      Config configuration,
+      ActorSystem actorSystem,
+      DatabaseExecutionContexts databaseExecutionContexts,
+      ApplicationLifecycle appLifecycle,
+      Environment environment) {
+    this.exporterService = checkNotNull(exporterService);
+    this.programService = checkNotNull(programService);
+    this.exportJobRepository = checkNotNull(exportJobRepository);
+    this.applicationRepository = checkNotNull(applicationRepository);
+    this.versionRepository = checkNotNull(versionRepository);
+    this.simpleStorage = checkNotNull(simpleStorage);
+    this.executionContext = checkNotNull(executionContext);
+    this.clock = checkNotNull(clock);
+    this.retention = checkNotNull(configuration).getDuration("export_jobs.retention");
+    if (environment.isTest()) {
+      // Tests run the maintenance explicitly, so a background task does not race with them.
+      return;
+    }
+    ImmutableList<Cancellable> maintenance =
+        ImmutableList.of(
+            actorSystem
+                .scheduler()
+                .scheduleWithFixedDelay(
+                    HEARTBEAT_INTERVAL,
+                    HEARTBEAT_INTERVAL,
+                    this::recordHeartbeatsSafely,
+                    databaseExecutionContexts.forWorkload(DatabaseWorkload.ADMIN)),
+            actorSystem
+                .scheduler()
+                .scheduleWithFixedDelay(
+                    CLEANUP_INTERVAL,
+                    CLEANUP_INTERVAL,
+                    this::deleteExpiredJobsSafely,
+                    databaseExecutionContexts.forWorkload(DatabaseWorkload.ADMIN)));
+    appLifecycle.addStopHook(
+        () -> {
+          maintenance.forEach(Cancellable::cancel);
+          return CompletableFuture.completedFuture(null);
+        });
+  }
+
+  /**
+   * Returns a job exporting the applications to a program, starting one unless an existing job
+   * covers them.
+   *
+   * @throws ProgramNotFoundException If the program ID refers to a program that does not exist.
+   */
+  public ExportJob requestProgramExport(long programId) throws ProgramNotFoundException {
+    programService.getProgramDefinition(programId);
+    return request(Optional.of(programId));
+  }
+
+  /**
+   * Returns a job exporting the demographics of all applications, starting one unless an existing
+   * job covers them.
+   */
+  public ExportJob requestDemographicsExport() {
+    return request(Optional.empty());
+  }
+
+  public Optional<ExportJob> getJob(long jobId) {
+    return exportJobRepository.lookup(jobId);
+  }
+
+  /** Returns a short-lived link to download the file of a job that has succeeded. */
+  public URL getDownloadUrl(ExportJob job) {
+    if (job.getStatus() != ExportJobStatus.SUCCEEDED) {
+      throw new IllegalStateException(String.format("Export job %d has not succeeded", job.id));
+    }
+    String storageKey = job.getStorageKey().orElseThrow();
+    return simpleStorage.getPresignedDownloadUrl(
+        storageKey, storageKey.substring(storageKey.lastIndexOf('/') + 1));
+  }
+
+  private ExportJob request(Optional<Long> programId) {
+    // The CSV's columns come from the versioned programs and questions, so they count as inputs.
+    String fingerprint =
+        String.format(
+            "%s:%d:%s",
+            programId.map(id -> "program-" + id).orElse("demographics"),
+            versionRepository.getVersionGeneration(),
+            applicationRepository.getApplicationsFingerprint(programId));
+    Instant staleBefore = clock.instant().minus(STALE_AFTER);
+    Optional<ExportJob> reusable = exportJobRepository.findReusable(fingerprint, staleBefore);
+    if (reusable.isPresent()) {
+      return reusable.get();
+    }
+    // Only one job per export may be unfinished. One that started before the latest changes is
+    // still returned, and a later request exports them once it finishes.
+    Optional<ExportJob> unfinished = exportJobRepository.findUnfinished(programId);
+    if (unfinished.isPresent()) {
+      if (unfinished.get().getHeartbeatTime().isAfter(staleBefore)) {
+        return unfinished.get();
+      }
+      unfinished.get().markFailed(clock.instant(), "Lost before finishing");
+      exportJobRepository.update(unfinished.get());
+    }
+    ExportJob job;
+    try {
+      job = exportJobRepository.insert(new ExportJob(programId, fingerprint, clock.instant()));
+    } catch (DuplicateKeyException e) {
+      // Another request started the same export since we looked.
+      return exportJobRepository.findUnfinished(programId).orElseThrow(() -> e);
+    }
+    long jobId = job.id;
+    unfinishedJobIds.add(jobId);
+    CompletableFuture.runAsync(() -> run(jobId), executionContext)
+        .whenComplete((unused, e) -> unfinishedJobIds.remove(jobId));
+    return job;
+  }
+
+  /** Records a heartbeat for every job this server has queued or is running. */
+  void recordHeartbeats() {
+    exportJobRepository.recordHeartbeats(ImmutableList.copyOf(unfinishedJobIds), clock.instant());
+  }
+
+  /**
+   * Deletes the jobs that finished longer than the retention ago, along with their files.
+   *
+   * @return the number of jobs deleted
+   */
+  int deleteExpiredJobs() {
+    Instant finishedBefore = clock.instant().minus(retention);
+    int deleted = 0;
+    ImmutableList<ExportJob> expired;
+    do {
+      expired = exportJobRepository.findFinishedBefore(finishedBefore, CLEANUP_BATCH_SIZE);
+      for (ExportJob job : expired) {
+        job.getStorageKey().ifPresent(simpleStorage::deleteObject);
+        exportJobRepository.delete(job);
+      }
+      deleted += expired.size();
+    } while (expired.size() == CLEANUP_BATCH_SIZE);
+    return deleted;
+  }
+
+  private void recordHeartbeatsSafely() {
+    try {
+      recordHeartbeats();
+    } catch (RuntimeException e) {
+      LOG.error("Failed to record export job heartbeats", e);
+    }
+  }
+
+  private void deleteExpiredJobsSafely() {
+    try {
+      int deleted = deleteExpiredJobs();
+      if (deleted > 0) {
+        LOG.info("Deleted {} expired export jobs", deleted);
+      }
+    } catch (RuntimeException e) {
+      // Jobs that were not deleted are found again by the next cleanup.
+      LOG.error("Failed to delete expired export jobs", e);
+    }
+  }
+
+  /** Runs the job, recording its progress and outcome. */
+  void run(long jobId) {
+    ExportJob job = exportJobRepository.lookup(jobId).orElseThrow();
+    Path file = null;
+    try {
+      job.markRunning(clock.instant(), applicationRepository.countApplications(job.getProgramId()));
+      exportJobRepository.update(job);
+
+      file = Files.createTempFile("export-" + jobId + "-", ".csv");
+      IntConsumer onPageWritten =
+          rows -> {
+            job.addRowsWritten(rows);
+            exportJobRepository.update(job);
+          };
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        if (job.getProgramId().isPresent()) {
+          exporterService.writeProgramCsv(job.getProgramId().get(), writer, onPageWritten);
+        } else {
+          exporterService.writeDemographicsCsv(writer, onPageWritten);
+        }
+      }
+      String storageKey = storageKey(job);
+      simpleStorage.putObject(storageKey, file, CSV_CONTENT_TYPE);
+      job.markSucceeded(clock.instant(), storageKey);
+    } catch (IOException | ProgramNotFoundException | RuntimeException e) {
+      LOG.error("Export job {} failed", jobId, e);
+      job.markFailed(clock.instant(), e.toString());
+    } finally {
+      deleteQuietly(file);
+    }
+    exportJobRepository.update(job);
+  }
+
+  private static String storageKey(ExportJob job) {
+    String fileName =
+        job.getProgramId().map(id -> "program-" + id + ".csv").orElse("demographics.csv");
+    return String.format("exports/%d/%s", job.id, fileName);
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOG.warn("Could not delete temporary export file {}", file, e);
+    }
+  }
+}
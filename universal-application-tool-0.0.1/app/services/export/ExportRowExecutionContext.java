@@ -0,0 +1,20 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/**
+ * Custom execution context wired to "export-rows.dispatcher" fork-join pool, which formats the rows
+ * of CSV exports. Its parallelism bounds how many cores exports can take from interactive requests.
+ */
+@Singleton
+public class ExportRowExecutionContext extends CustomExecutionContext {
+  @Inject
+  public ExportRowExecutionContext(ActorSystem actorSystem) {
+    super(checkNotNull(actorSystem), "export-rows.dispatcher");
+  }
+}
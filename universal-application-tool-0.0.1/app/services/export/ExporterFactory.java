@@ -7,6 +7,8 @@ import java.util.Optional;
 import javax.inject.Inject;
 import models.Program;
 import repository.ProgramRepository;
+import repository.UserRepository;
+import services.applicant.predicate.VisibilityPredicateCache;
 import services.program.CsvExportConfig;
 import services.program.PdfExportConfig;
 
@@ -14,11 +16,19 @@ import services.program.PdfExportConfig;
 public class ExporterFactory {
   private final Config config;
   private final ProgramRepository programRepository;
+  private final UserRepository userRepository;
+  private final VisibilityPredicateCache visibilityPredicateCache;
 
   @Inject
-  public ExporterFactory(Config config, ProgramRepository programRepository) {
+  public ExporterFactory(
+      Config config,
+      ProgramRepository programRepository,
+      UserRepository userRepository,
+      VisibilityPredicateCache visibilityPredicateCache) {
     this.config = Preconditions.checkNotNull(config);
     this.programRepository = Preconditions.checkNotNull(programRepository);
+    this.userRepository = Preconditions.checkNotNull(userRepository);
+    this.visibilityPredicateCache = Preconditions.checkNotNull(visibilityPredicateCache);
   }
 
   public PdfExporter pdfExporter(Program program) throws NotConfiguredException, IOException {
@@ -47,6 +57,11 @@ public class ExporterFactory {
 
   public CsvExporter csvExporter(CsvExportConfig exportConfig) {
     return new CsvExporter(
-        exportConfig.columns(), config.getString("play.http.secret.key"), programRepository);
+        exportConfig.columns(),
+        config.getString("play.http.secret.key"),
+        programRepository,
+        userRepository,
+        config.getString("base_url"),
+        visibilityPredicateCache);
   }
 }
@@ -1,26 +1,38 @@
 package services.export;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
 
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import java.io.ByteArrayOutputStream;
+import com.google.common.collect.Iterables;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import javax.inject.Inject;
 import models.Application;
 import models.QuestionTag;
+import repository.ApplicationRepository;
+import repository.DatabaseWorkload;
+import repository.ProgramCsvColumnsRepository;
 import services.Path;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantData;
@@ -48,6 +60,12 @@ public class ExporterService {
   private final ProgramService programService;
   private final QuestionService questionService;
   private final ApplicantService applicantService;
+  private final ApplicationRepository applicationRepository;
+  private final ProgramCsvColumnsRepository programCsvColumnsRepository;
+  private final ExportRowExecutionContext exportRowExecutionContext;
+
+  /** The number of applications read from the database and written to the CSV at a time. */
+  private static final int EXPORT_PAGE_SIZE = 100;
 
   private static final String HEADER_SPACER_ENUM = " - ";
   private static final String HEADER_SPACER_SCALAR = " ";
@@ -60,11 +78,17 @@ public class ExporterService {
       ExporterFactory exporterFactory,
       ProgramService programService,
       QuestionService questionService,
-      ApplicantService applicantService) {
+      ApplicantService applicantService,
+      ApplicationRepository applicationRepository,
+      ProgramCsvColumnsRepository programCsvColumnsRepository,
+      ExportRowExecutionContext exportRowExecutionContext) {
     this.exporterFactory = checkNotNull(exporterFactory);
     this.programService = checkNotNull(programService);
     this.questionService = checkNotNull(questionService);
     this.applicantService = checkNotNull(applicantService);
+    this.applicationRepository = checkNotNull(applicationRepository);
+    this.programCsvColumnsRepository = checkNotNull(programCsvColumnsRepository);
+    this.exportRowExecutionContext = checkNotNull(exportRowExecutionContext);
   }
 
   /**
@@ -73,37 +97,173 @@ public class ExporterService {
    * @throws ProgramNotFoundException If the program ID refers to a program that does not exist.
    */
   public String getProgramCsv(long programId) throws ProgramNotFoundException {
-    ImmutableList<Application> applications = programService.getProgramApplications(programId);
+    CsvExporter csvExporter = getProgramCsvExporter(programId);
+    StringBuilder csv = new StringBuilder();
+    forEachApplicationPage(
+        Optional.of(programId), page -> csv.append(exportCsv(csvExporter, page)));
+    return csv.toString();
+  }
+
+  /**
+   * Return a {@link Source} of the CSV of all the applications for a particular program.
+   * Applications are read and written {@link #EXPORT_PAGE_SIZE} at a time as the source is
+   * consumed, so memory use does not grow with the number of applications.
+   *
+   * @throws ProgramNotFoundException If the program ID refers to a program that does not exist.
+   */
+  public Source<ByteString, NotUsed> getProgramCsvSource(long programId)
+      throws ProgramNotFoundException {
+    return streamCsv(getProgramCsvExporter(programId), Optional.of(programId));
+  }
+
+  /**
+   * Writes the CSV of all the applications to a program to {@code writer}, a page at a time,
+   * calling {@code onPageWritten} with the number of applications in each page once it is written.
+   *
+   * @throws ProgramNotFoundException If the program ID refers to a program that does not exist.
+   */
+  public void writeProgramCsv(long programId, Writer writer, IntConsumer onPageWritten)
+      throws ProgramNotFoundException, IOException {
+    writeCsv(getProgramCsvExporter(programId), Optional.of(programId), writer, onPageWritten);
+  }
+
+  private CsvExporter getProgramCsvExporter(long programId) throws ProgramNotFoundException {
     ProgramDefinition program = programService.getProgramDefinition(programId);
-    CsvExporter csvExporter;
     if (program.exportDefinitions().stream()
         .anyMatch(exportDefinition -> exportDefinition.csvConfig().isPresent())) {
-      csvExporter = exporterFactory.csvExporter(program.toProgram());
-    } else {
-      csvExporter = exporterFactory.csvExporter(generateDefaultCsvConfig(programId));
+      return exporterFactory.csvExporter(program.toProgram());
     }
-    return exportCsv(csvExporter, applications);
+    return exporterFactory.csvExporter(generateDefaultCsvConfig(programId));
   }
 
-  public String exportCsv(CsvExporter csvExporter, ImmutableList<Application> applications) {
+  /**
+   * Streams the CSV of all applications, or all applications to one program, one page at a time.
+   * The returned source can only be materialized once, since the exporter writes headers with the
+   * first page.
+   */
+  private Source<ByteString, NotUsed> streamCsv(
+      CsvExporter csvExporter, Optional<Long> programId) {
+    return Source.unfoldAsync(
+        0L,
+        afterId ->
+            applicationRepository
+                .getApplicationsAfter(
+                    programId, afterId, EXPORT_PAGE_SIZE, DatabaseWorkload.EXPORT)
+                .thenApply(
+                    page -> {
+                      if (page.isEmpty()) {
+                        return Optional.<Pair<Long, ByteString>>empty();
+                      }
+                      return Optional.of(
+                          Pair.create(
+                              Iterables.getLast(page).id,
+                              ByteString.fromString(exportCsv(csvExporter, page))));
+                    }));
+  }
+
+  private void writeCsv(
+      CsvExporter csvExporter,
+      Optional<Long> programId,
+      Writer writer,
+      IntConsumer onPageWritten)
+      throws IOException {
     try {
-      OutputStream inMemoryBytes = new ByteArrayOutputStream();
-      Writer writer = new OutputStreamWriter(inMemoryBytes, StandardCharsets.UTF_8);
-      for (Application application : applications) {
-        ReadOnlyApplicantProgramService roApplicantService =
-            applicantService
-                .getReadOnlyApplicantProgramService(application)
-                .toCompletableFuture()
-                .join();
-        csvExporter.export(application, roApplicantService, writer);
+      forEachApplicationPage(
+          programId,
+          page -> {
+            try {
+              writer.write(exportCsv(csvExporter, page));
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+            onPageWritten.accept(page.size());
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** Calls {@code consumer} with each page of applications, in id order. */
+  private void forEachApplicationPage(
+      Optional<Long> programId, Consumer<ImmutableList<Application>> consumer) {
+    long afterId = 0L;
+    while (true) {
+      ImmutableList<Application> page =
+          applicationRepository
+              .getApplicationsAfter(programId, afterId, EXPORT_PAGE_SIZE, DatabaseWorkload.EXPORT)
+              .toCompletableFuture()
+              .join();
+      if (page.isEmpty()) {
+        return;
       }
-      writer.close();
-      return inMemoryBytes.toString();
+      consumer.accept(page);
+      afterId = Iterables.getLast(page).id;
+    }
+  }
+
+  /**
+   * Returns the CSV rows for a page of applications, in the order of {@code applications}. The data
+   * the rows need from other tables, such as program definitions, is looked up once for the page
+   * rather than once per application. Answers are read with the exporter's compiled columns where
+   * the program allows it.
+   *
+   * <p>The rows are formatted in parallel on {@link ExportRowExecutionContext}. Only one page is
+   * formatted at a time, and the next page is not read until this one is returned, so an export
+   * holds at most {@link #EXPORT_PAGE_SIZE} rows in memory however fast the pool is.
+   */
+  public String exportCsv(CsvExporter csvExporter, ImmutableList<Application> applications) {
+    if (applications.isEmpty()) {
+      return "";
+    }
+    csvExporter.prefetch(applications);
+    Map<Long, ProgramDefinition> programDefinitions = new HashMap<>();
+    List<CompletableFuture<String>> records = new ArrayList<>(applications.size());
+    for (Application application : applications) {
+      ProgramDefinition programDefinition =
+          programDefinitions.computeIfAbsent(
+              application.getProgram().id, this::getProgramDefinitionForApplications);
+      // Columns are compiled here rather than in the tasks, as the exporter caches them.
+      Optional<CompiledCsvColumns> compiledColumns = csvExporter.compiledColumns(programDefinition);
+      records.add(
+          supplyAsync(
+              () ->
+                  compiledColumns.isPresent()
+                      ? csvExporter.formatRecord(application, compiledColumns.get())
+                      : csvExporter.formatRecord(
+                          application,
+                          applicantService.getReadOnlyApplicantProgramService(
+                              application, programDefinition)),
+              exportRowExecutionContext.current()));
+    }
+
+    StringBuilder csv = new StringBuilder();
+    try {
+      csvExporter.writeHeadersOnFirstExport(csv);
     } catch (IOException e) {
       // Since it's an in-memory writer, this shouldn't happen.  Catch so that callers don't
       // have to deal with it.
       throw new RuntimeException(e);
     }
+    for (CompletableFuture<String> record : records) {
+      try {
+        csv.append(record.join());
+      } catch (CompletionException e) {
+        // Rethrow what the row threw, as it would have been had the row been formatted here.
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+    return csv.toString();
+  }
+
+  private ProgramDefinition getProgramDefinitionForApplications(long programId) {
+    try {
+      return programService.getProgramDefinition(programId);
+    } catch (ProgramNotFoundException e) {
+      throw new RuntimeException("Cannot find a program that has applications for it.", e);
+    }
   }
 
   /**
@@ -111,45 +271,87 @@ public class ExporterService {
    * id, the application submission time, and all possible scalar values from all of its
    * applications. This means if one application had a question repeated for N repeated entities,
    * then there would be N columns for each of that question's scalars.
+   *
+   * <p>The scalar columns come from the program's {@link ProgramCsvColumnsRepository catalog},
+   * which submissions keep up to date, so this does not read any applications once the catalog
+   * exists.
    */
   CsvExportConfig generateDefaultCsvConfig(long programId) {
-    ImmutableList<Application> applications;
-    try {
-      applications = programService.getProgramApplications(programId);
-    } catch (ProgramNotFoundException e) {
-      throw new RuntimeException("Cannot find a program we are trying to generate CSVs for.", e);
-    }
-
-    // Create a map from a key <block id, question index> to an answer with every application. It
-    // doesn't matter which answer ends up in the map, as long as every <block id, question index>
-    // is accounted for.
-    Map<String, AnswerData> answerMap = new HashMap<>();
-    for (Application application : applications) {
-      ReadOnlyApplicantProgramService roApplicantService =
-          applicantService
-              .getReadOnlyApplicantProgramService(application)
-              .toCompletableFuture()
-              .join();
-      roApplicantService
-          .getSummaryData()
-          .forEach(data -> answerMap.putIfAbsent(answerDataKey(data), data));
-    }
+    ImmutableMap<String, ImmutableList<String>> columns =
+        programCsvColumnsRepository
+            .lookupColumns(programId)
+            .orElseGet(() -> backfillCsvColumns(programId));
 
-    // Get the list of all answers, sorted by block ID and question index, and generate the default
+    // Get the paths of all answers, sorted by block ID and question index, and generate the default
     // csv config.
-    ImmutableList<AnswerData> answers =
-        answerMap.values().stream()
+    ImmutableList<ImmutableList<String>> answerPaths =
+        columns.entrySet().stream()
             .sorted(
-                Comparator.comparing(AnswerData::blockId).thenComparing(AnswerData::questionIndex))
+                Comparator.comparing(
+                        (Map.Entry<String, ImmutableList<String>> entry) ->
+                            blockIdOfAnswerKey(entry.getKey()))
+                    .thenComparing(entry -> questionIndexOfAnswerKey(entry.getKey())))
+            .map(Map.Entry::getValue)
             .collect(ImmutableList.toImmutableList());
-    return generateDefaultCsvConfig(answers);
+    return generateDefaultCsvConfig(answerPaths);
+  }
+
+  /**
+   * Returns the CSV answer columns for one application's answers: the scalar paths of each answer
+   * that is exported, keyed by block id and question index.
+   */
+  public static ImmutableMap<String, ImmutableList<String>> answerColumns(
+      ImmutableList<AnswerData> answers) {
+    Map<String, ImmutableList<String>> columns = new LinkedHashMap<>();
+    for (AnswerData answerData : answers) {
+      if (answerData.questionDefinition().isEnumerator()) {
+        continue; // Do not include Enumerator answers in CSVs.
+      }
+      columns.putIfAbsent(
+          answerDataKey(answerData),
+          answerData.scalarAnswersInDefaultLocale().keySet().stream()
+              .map(Path::toString)
+              .collect(ImmutableList.toImmutableList()));
+    }
+    return ImmutableMap.copyOf(columns);
+  }
+
+  /**
+   * Builds the program's column catalog by reading every application to it once, and saves it so
+   * that later exports only read the catalog. The catalog is started before the scan, so that
+   * applications submitted during the scan add their own columns to it, and is only used once the
+   * scan's columns complete it.
+   */
+  private ImmutableMap<String, ImmutableList<String>> backfillCsvColumns(long programId) {
+    programCsvColumnsRepository.startColumns(programId);
+    Map<String, ImmutableList<String>> columns = new HashMap<>();
+    forEachApplicationPage(
+        Optional.of(programId),
+        page -> {
+          // Look up each program version once for the page, rather than once per application.
+          Map<Long, ProgramDefinition> programDefinitions = new HashMap<>();
+          for (Application application : page) {
+            ProgramDefinition programDefinition =
+                programDefinitions.computeIfAbsent(
+                    application.getProgram().id, this::getProgramDefinitionForApplications);
+            ReadOnlyApplicantProgramService roApplicantService =
+                applicantService.getReadOnlyApplicantProgramService(
+                    application, programDefinition);
+            answerColumns(roApplicantService.getSummaryData()).forEach(columns::putIfAbsent);
+          }
+        });
+    programCsvColumnsRepository.insertOrMergeColumns(programId, ImmutableMap.copyOf(columns));
+    // Submissions during the scan may have added columns the scan did not see.
+    return programCsvColumnsRepository.lookupColumns(programId).orElseThrow();
   }
 
   /**
-   * Produce the default {@link CsvExportConfig} for a list of {@link AnswerData}s. The default
-   * config includes all the questions, the application id, and the application submission time.
+   * Produce the default {@link CsvExportConfig} for the scalar paths of a list of answers. The
+   * default config includes all the questions, the application id, and the application submission
+   * time.
    */
-  private CsvExportConfig generateDefaultCsvConfig(ImmutableList<AnswerData> answerDataList) {
+  private CsvExportConfig generateDefaultCsvConfig(
+      ImmutableList<ImmutableList<String>> answerPaths) {
     ImmutableList.Builder<Column> columnsBuilder = new ImmutableList.Builder<>();
     // First add the ID, submit time, and submitter email columns.
     columnsBuilder.add(Column.builder().setHeader("ID").setColumnType(ColumnType.ID).build());
@@ -167,11 +369,9 @@ public class ExporterService {
             .build());
 
     // Add columns for each path to an answer.
-    for (AnswerData answerData : answerDataList) {
-      if (answerData.questionDefinition().isEnumerator()) {
-        continue; // Do not include Enumerator answers in CSVs.
-      }
-      for (Path path : answerData.scalarAnswersInDefaultLocale().keySet()) {
+    for (ImmutableList<String> paths : answerPaths) {
+      for (String pathString : paths) {
+        Path path = Path.create(pathString);
         columnsBuilder.add(
             Column.builder()
                 .setHeader(pathToHeader(path))
@@ -233,13 +433,44 @@ public class ExporterService {
     return String.format("%s-%d", answerData.blockId(), answerData.questionIndex());
   }
 
+  private static String blockIdOfAnswerKey(String answerKey) {
+    return answerKey.substring(0, answerKey.lastIndexOf('-'));
+  }
+
+  private static int questionIndexOfAnswerKey(String answerKey) {
+    return Integer.parseInt(answerKey.substring(answerKey.lastIndexOf('-') + 1));
+  }
+
   /**
    * A string containing the CSV which maps applicants (opaquely) to the programs they applied to.
    */
   public String getDemographicsCsv() {
-    return exportCsv(
+    CsvExporter csvExporter = exporterFactory.csvExporter(getDemographicsExporterConfig());
+    StringBuilder csv = new StringBuilder();
+    forEachApplicationPage(Optional.empty(), page -> csv.append(exportCsv(csvExporter, page)));
+    return csv.toString();
+  }
+
+  /**
+   * A {@link Source} of the CSV which maps applicants (opaquely) to the programs they applied to,
+   * read and written a page of applications at a time.
+   */
+  public Source<ByteString, NotUsed> getDemographicsCsvSource() {
+    return streamCsv(
+        exporterFactory.csvExporter(getDemographicsExporterConfig()), Optional.empty());
+  }
+
+  /**
+   * Writes the CSV which maps applicants (opaquely) to the programs they applied to, a page at a
+   * time, calling {@code onPageWritten} with the number of applications in each page once it is
+   * written.
+   */
+  public void writeDemographicsCsv(Writer writer, IntConsumer onPageWritten) throws IOException {
+    writeCsv(
         exporterFactory.csvExporter(getDemographicsExporterConfig()),
-        applicantService.getAllApplications());
+        Optional.empty(),
+        writer,
+        onPageWritten);
   }
 
   public CsvExportConfig getDemographicsExporterConfig() {
@@ -0,0 +1,196 @@
+package services.metrics;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CollectorRegistry;
+import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.GaugeMetricFamily;
+import io.prometheus.client.Histogram;
+import io.prometheus.client.exporter.common.TextFormat;
+import io.prometheus.client.hotspot.GarbageCollectorExports;
+import io.prometheus.client.hotspot.MemoryPoolsExports;
+import io.prometheus.client.hotspot.StandardExports;
+import io.prometheus.client.hotspot.ThreadExports;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.db.Database;
+import repository.DatabaseExecutionContext;
+import repository.DatabaseExecutionContexts;
+import repository.DatabaseWorkload;
+
+/**
+ * Collects the server's metrics and renders them in the Prometheus text format.
+ *
+ * <p>This covers request latency and status per route, the saturation of the database dispatchers
+ * and connection pool, the depth of the email outbox, and JVM heap, GC and thread stats. Metrics
+ * are kept in a registry owned by this instance rather than Prometheus' global one, so that each
+ * application, e.g. in tests, starts from zero.
+ */
+@Singleton
+public final class MetricsService {
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
+
+  /** The content type of {@link #scrape()}. */
+  public static final String CONTENT_TYPE = TextFormat.CONTENT_TYPE_004;
+
+  /** The route label for requests that did not match a route. */
+  public static final String UNMATCHED_ROUTE = "unmatched";
+
+  private final CollectorRegistry registry = new CollectorRegistry();
+  private final Histogram requestLatency;
+  private final Counter responses;
+  private final Gauge outboxDepth;
+
+  @Inject
+  public MetricsService(DatabaseExecutionContexts databaseExecutionContexts, Database database) {
+    requestLatency =
+        Histogram.build()
+            .name("civiform_http_request_duration_seconds")
+            .help("Time from receiving a request to sending the response headers.")
+            .labelNames("method", "route")
+            .buckets(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+            .register(registry);
+    responses =
+        Counter.build()
+            .name("civiform_http_responses_total")
+            .help("Responses sent, by status class, e.g. 2xx.")
+            .labelNames("method", "route", "status_class")
+            .register(registry);
+    outboxDepth =
+        Gauge.build()
+            .name("civiform_email_outbox_pending")
+            .help("Emails waiting in the outbox to be sent or retried, as of the last poll.")
+            .register(registry);
+    new DatabaseCollector(checkNotNull(databaseExecutionContexts), hikariPool(database))
+        .register(registry);
+    new StandardExports().register(registry);
+    new MemoryPoolsExports().register(registry);
+    new GarbageCollectorExports().register(registry);
+    new ThreadExports().register(registry);
+  }
+
+  /**
+   * Records a response to a request for the route, which is the route's path pattern from the
+   * routes file, or {@link #UNMATCHED_ROUTE}.
+   */
+  public void recordRequest(String method, String route, int status, long durationMillis) {
+    requestLatency.labels(method, route).observe(durationMillis / 1000.0);
+    responses.labels(method, route, (status / 100) + "xx").inc();
+  }
+
+  /** Records the number of emails waiting in the outbox, including ones waiting to be retried. */
+  public void recordOutboxDepth(int depth) {
+    outboxDepth.set(depth);
+  }
+
+  /** Returns all metrics in the Prometheus text format. */
+  public String scrape() {
+    StringWriter writer = new StringWriter();
+    try {
+      TextFormat.write004(writer, registry.metricFamilySamples());
+    } catch (IOException e) {
+      // StringWriter does not throw.
+      throw new UncheckedIOException(e);
+    }
+    return writer.toString();
+  }
+
+  private static Optional<HikariDataSource> hikariPool(Database database) {
+    try {
+      if (database.getDataSource().isWrapperFor(HikariDataSource.class)) {
+        return Optional.of(database.getDataSource().unwrap(HikariDataSource.class));
+      }
+    } catch (SQLException e) {
+      LOG.warn("Could not unwrap the connection pool", e);
+    }
+    LOG.warn("The database is not using a Hikari connection pool, so it will not be monitored.");
+    return Optional.empty();
+  }
+
+  /** Reports the state of the database dispatcher and connection pool at the time of scraping. */
+  private static final class DatabaseCollector extends Collector {
+    private final DatabaseExecutionContexts databaseExecutionContexts;
+    private final Optional<HikariDataSource> pool;
+
+    DatabaseCollector(
+        DatabaseExecutionContexts databaseExecutionContexts, Optional<HikariDataSource> pool) {
+      this.databaseExecutionContexts = databaseExecutionContexts;
+      this.pool = pool;
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      ImmutableList.Builder<MetricFamilySamples> samples = ImmutableList.builder();
+      ImmutableList<String> labelNames = ImmutableList.of("workload");
+      GaugeMetricFamily queued =
+          new GaugeMetricFamily(
+              "civiform_database_dispatcher_queued_tasks",
+              "Tasks waiting for a database dispatcher thread, by workload.",
+              labelNames);
+      GaugeMetricFamily active =
+          new GaugeMetricFamily(
+              "civiform_database_dispatcher_active_tasks",
+              "Tasks running on a database dispatcher, by workload.",
+              labelNames);
+      CounterMetricFamily completed =
+          new CounterMetricFamily(
+              "civiform_database_dispatcher_completed_tasks",
+              "Tasks that have finished running on a database dispatcher, by workload.",
+              labelNames);
+      for (Map.Entry<DatabaseWorkload, DatabaseExecutionContext> dispatcher :
+          databaseExecutionContexts.all().entrySet()) {
+        ImmutableList<String> workload =
+            ImmutableList.of(dispatcher.getKey().name().toLowerCase(Locale.ROOT));
+        queued.addMetric(workload, dispatcher.getValue().queuedTaskCount());
+        active.addMetric(workload, dispatcher.getValue().activeTaskCount());
+        completed.addMetric(workload, dispatcher.getValue().completedTaskCount());
+      }
+      samples.add(queued, active, completed);
+
+      // The pool's MXBean is only available once the pool has started.
+      Optional<HikariPoolMXBean> poolStats = pool.map(HikariDataSource::getHikariPoolMXBean);
+      if (poolStats.isPresent()) {
+        GaugeMetricFamily connections =
+            new GaugeMetricFamily(
+                "civiform_db_pool_connections",
+                "Connections in the database connection pool, by state.",
+                ImmutableList.of("state"));
+        connections.addMetric(ImmutableList.of("active"), poolStats.get().getActiveConnections());
+        connections.addMetric(ImmutableList.of("idle"), poolStats.get().getIdleConnections());
+        connections.addMetric(ImmutableList.of("total"), poolStats.get().getTotalConnections());
+        samples.add(connections);
+        samples.add(
+            gauge(
+                "civiform_db_pool_max_connections",
+                "The most connections the database connection pool will open.",
+                pool.get().getMaximumPoolSize()));
+        samples.add(
+            gauge(
+                "civiform_db_pool_pending_threads",
+                "Threads waiting for a connection from the database connection pool.",
+                poolStats.get().getThreadsAwaitingConnection()));
+      }
+      return samples.build();
+    }
+
+    private static GaugeMetricFamily gauge(String name, String help, double value) {
+      return new GaugeMetricFamily(name, help, value);
+    }
+  }
+}
@@ -8,13 +8,16 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.util.Optional;
-import models.Version;
 
 /**
  * A data class storing the current active and draft programs. For efficient querying of information
  * about current active / draft programs which does not hit the database. Lifespan should be
  * measured in milliseconds - seconds at the maximum - within one request serving path - because it
  * does not have any mechanism for a refresh.
+ *
+ * <p>Built from a {@link VersionSnapshot}, whose program definitions are already synced, so
+ * construction does not look up any programs or questions. Programs whose questions could not be
+ * synced are included with their stored definitions.
  */
 public class ActiveAndDraftPrograms {
 
@@ -25,15 +28,13 @@ public class ActiveAndDraftPrograms {
   private final int activeSize;
   private final int draftSize;
 
-  public ActiveAndDraftPrograms(ProgramService service, Version active, Version draft) {
+  public ActiveAndDraftPrograms(VersionSnapshot snapshot) {
     ImmutableMap.Builder<String, ProgramDefinition> activeToName = ImmutableMap.builder();
     ImmutableMap.Builder<String, ProgramDefinition> draftToName = ImmutableMap.builder();
-    checkNotNull(draft).getPrograms().stream()
-        .map(program -> getProgramDefinition(checkNotNull(service), program.id))
+    checkNotNull(snapshot)
+        .getDraftPrograms()
         .forEach(program -> draftToName.put(program.adminName(), program));
-    checkNotNull(active).getPrograms().stream()
-        .map(program -> getProgramDefinition(checkNotNull(service), program.id))
-        .forEach(program -> activeToName.put(program.adminName(), program));
+    snapshot.getActivePrograms().forEach(program -> activeToName.put(program.adminName(), program));
     ImmutableMap<String, ProgramDefinition> activeNames = activeToName.build();
     ImmutableMap<String, ProgramDefinition> draftNames = draftToName.build();
     activePrograms = activeNames.values().asList();
@@ -83,13 +84,4 @@ public class ActiveAndDraftPrograms {
   public boolean anyDraft() {
     return getDraftSize() > 0;
   }
-
-  private ProgramDefinition getProgramDefinition(ProgramService service, long id) {
-    try {
-      return service.getProgramDefinition(id);
-    } catch (ProgramNotFoundException e) {
-      // This is not possible because we query with existing program ids.
-      throw new RuntimeException(e);
-    }
-  }
 }
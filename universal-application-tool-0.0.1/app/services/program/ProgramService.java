@@ -9,6 +9,7 @@ import models.Application;
 import models.Program;
 import services.CiviFormError;
 import services.ErrorAnd;
+import services.PaginationInfo;
 import services.program.predicate.PredicateDefinition;
 import services.question.exceptions.QuestionNotFoundException;
 import services.question.types.QuestionDefinition;
@@ -301,8 +302,19 @@ public interface ProgramService {
    */
   ImmutableList<Application> getProgramApplications(long programId) throws ProgramNotFoundException;
 
-  ImmutableList<Application> getProgramApplications(long programId, Optional<String> search)
-      throws ProgramNotFoundException;
+  /**
+   * Get one page of the program's applications, optionally restricted to applicants whose name
+   * contains {@code search}.
+   *
+   * @param programId the program id.
+   * @param search text to match against the applicant name, ignoring case.
+   * @param pageSize the maximum number of applications on a page.
+   * @param page the 1-based page number.
+   * @return the requested page and the total page count, or a stage that fails with {@link
+   *     ProgramNotFoundException} when programId does not correspond to a real Program.
+   */
+  CompletionStage<PaginationInfo<Application>> getProgramApplications(
+      long programId, Optional<String> search, int pageSize, int page);
 
   /** Create a new draft starting from the program specified by `id`. */
   ProgramDefinition newDraftOf(long id) throws ProgramNotFoundException;
@@ -5,26 +5,27 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Streams;
 import com.google.inject.Inject;
 import forms.BlockForm;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 import models.Account;
 import models.Application;
 import models.Program;
 import models.Version;
 import play.db.ebean.Transactional;
-import play.libs.concurrent.HttpExecutionContext;
+import repository.DatabaseExecutionContext;
 import repository.ProgramRepository;
+import repository.QueryProfilingHttpExecutionContext;
 import repository.UserRepository;
 import repository.VersionRepository;
 import services.CiviFormError;
 import services.ErrorAnd;
+import services.PaginationInfo;
 import services.program.predicate.PredicateDefinition;
 import services.question.QuestionService;
 import services.question.ReadOnlyQuestionService;
@@ -36,9 +37,11 @@ public class ProgramServiceImpl implements ProgramService {
 
   private final ProgramRepository programRepository;
   private final QuestionService questionService;
-  private final HttpExecutionContext httpExecutionContext;
+  private final QueryProfilingHttpExecutionContext httpExecutionContext;
   private final UserRepository userRepository;
   private final VersionRepository versionRepository;
+  private final VersionSnapshotCache versionSnapshotCache;
+  private final DatabaseExecutionContext databaseExecutionContext;
 
   @Inject
   public ProgramServiceImpl(
@@ -46,34 +49,56 @@ public class ProgramServiceImpl implements ProgramService {
       QuestionService questionService,
       UserRepository userRepository,
       VersionRepository versionRepository,
-      HttpExecutionContext ec) {
+      VersionSnapshotCache versionSnapshotCache,
+      DatabaseExecutionContext databaseExecutionContext,
+      QueryProfilingHttpExecutionContext ec) {
     this.programRepository = checkNotNull(programRepository);
     this.questionService = checkNotNull(questionService);
     this.httpExecutionContext = checkNotNull(ec);
     this.userRepository = checkNotNull(userRepository);
     this.versionRepository = checkNotNull(versionRepository);
+    this.versionSnapshotCache = checkNotNull(versionSnapshotCache);
+    this.databaseExecutionContext = checkNotNull(databaseExecutionContext);
   }
 
   @Override
   public ProgramDefinition getProgramDefinition(long id) throws ProgramNotFoundException {
-    try {
-      return getProgramDefinitionAsync(id).toCompletableFuture().join();
-    } catch (CompletionException e) {
-      if (e.getCause() instanceof ProgramNotFoundException) {
-        throw new ProgramNotFoundException(id);
-      }
-      throw new RuntimeException(e);
+    // The snapshot and program are read on this thread, so that callers in a transaction see its
+    // changes.
+    VersionSnapshot snapshot = versionSnapshotCache.getSnapshot();
+    Optional<ProgramDefinition> cachedProgramDefinition = snapshot.getProgramDefinition(id);
+    if (cachedProgramDefinition.isPresent()) {
+      return cachedProgramDefinition.get();
     }
+    Program program =
+        programRepository.lookupProgramSync(id).orElseThrow(() -> new ProgramNotFoundException(id));
+    return syncProgramDefinition(program, snapshot);
   }
 
   @Override
   public ActiveAndDraftPrograms getActiveAndDraftPrograms() {
-    return new ActiveAndDraftPrograms(
-        this, versionRepository.getActiveVersion(), versionRepository.getDraftVersion());
+    return new ActiveAndDraftPrograms(versionSnapshotCache.getSnapshot());
   }
 
   @Override
   public CompletionStage<ProgramDefinition> getProgramDefinitionAsync(long id) {
+    // Capture the request's context here, as the stages after the snapshot run on other threads.
+    Executor httpExecutor = httpExecutionContext.current();
+    return CompletableFuture.supplyAsync(
+            versionSnapshotCache::getSnapshot, databaseExecutionContext.current())
+        .thenCompose(snapshot -> getProgramDefinition(id, snapshot, httpExecutor));
+  }
+
+  /**
+   * Returns the program from the snapshot if it is there, and otherwise looks it up and syncs its
+   * questions with the version it is in.
+   */
+  private CompletionStage<ProgramDefinition> getProgramDefinition(
+      long id, VersionSnapshot snapshot, Executor httpExecutor) {
+    Optional<ProgramDefinition> cachedProgramDefinition = snapshot.getProgramDefinition(id);
+    if (cachedProgramDefinition.isPresent()) {
+      return CompletableFuture.completedStage(cachedProgramDefinition.get());
+    }
     return programRepository
         .lookupProgram(id)
         .thenComposeAsync(
@@ -81,18 +106,26 @@ public class ProgramServiceImpl implements ProgramService {
               if (programMaybe.isEmpty()) {
                 return CompletableFuture.failedFuture(new ProgramNotFoundException(id));
               }
-              Program program = programMaybe.get();
-              if (isActiveOrDraftProgram(program)) {
-                return syncProgramDefinitionQuestions(program.getProgramDefinition())
-                    .thenApply(programDefinition -> programDefinition.orderBlockDefinitions());
-              }
-              // Any version that the program is in has all the questions the program has.
-              Version version = program.getVersions().stream().findAny().get();
-              ProgramDefinition programDefinition =
-                  syncProgramDefinitionQuestions(program.getProgramDefinition(), version);
-              return CompletableFuture.completedStage(programDefinition.orderBlockDefinitions());
+              return CompletableFuture.completedStage(
+                  syncProgramDefinition(programMaybe.get(), snapshot));
             },
-            httpExecutionContext.current());
+            httpExecutor);
+  }
+
+  /**
+   * Syncs the program's questions with the snapshot if the program is in it, and otherwise with a
+   * version the program is in.
+   */
+  private ProgramDefinition syncProgramDefinition(Program program, VersionSnapshot snapshot) {
+    if (snapshot.containsProgram(program)) {
+      return syncProgramDefinitionQuestions(
+              program.getProgramDefinition(), snapshot.getReadOnlyQuestionService())
+          .orderBlockDefinitions();
+    }
+    // Any version that the program is in has all the questions the program has.
+    Version version = program.getVersions().stream().findAny().get();
+    return syncProgramDefinitionQuestions(program.getProgramDefinition(), version)
+        .orderBlockDefinitions();
   }
 
   @Override
@@ -160,9 +193,7 @@ public class ProgramServiceImpl implements ProgramService {
             .toProgram();
     return ErrorAnd.of(
         syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
-            .toCompletableFuture()
-            .join());
+            programRepository.updateProgramSync(program).getProgramDefinition()));
   }
 
   @Override
@@ -190,9 +221,7 @@ public class ProgramServiceImpl implements ProgramService {
             .toProgram();
     return ErrorAnd.of(
         syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
-            .toCompletableFuture()
-            .join());
+            programRepository.updateProgramSync(program).getProgramDefinition()));
   }
 
   private boolean hasProgramNameCollision(String programName) {
@@ -263,9 +292,7 @@ public class ProgramServiceImpl implements ProgramService {
         programDefinition.insertBlockDefinitionInTheRightPlace(blockDefinition).toProgram();
     return ErrorAnd.of(
         syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
-            .toCompletableFuture()
-            .join());
+            programRepository.updateProgramSync(program).getProgramDefinition()));
   }
 
   @Override
@@ -281,9 +308,7 @@ public class ProgramServiceImpl implements ProgramService {
           "Something happened to the program's block while trying to move it", e);
     }
     return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
-        .toCompletableFuture()
-        .join();
+        programRepository.updateProgramSync(program).getProgramDefinition());
   }
 
   @Override
@@ -367,7 +392,7 @@ public class ProgramServiceImpl implements ProgramService {
     newQuestionListBuilder.addAll(programQuestionDefinitions);
 
     ReadOnlyQuestionService roQuestionService =
-        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+        versionSnapshotCache.getSnapshot().getReadOnlyQuestionService();
 
     for (long qid : questionIds) {
       newQuestionListBuilder.add(
@@ -506,7 +531,7 @@ public class ProgramServiceImpl implements ProgramService {
   public ImmutableList<Application> getProgramApplications(long programId)
       throws ProgramNotFoundException {
     Optional<Program> programMaybe =
-        programRepository.lookupProgram(programId).toCompletableFuture().join();
+        programRepository.lookupProgramSync(programId);
     if (programMaybe.isEmpty()) {
       throw new ProgramNotFoundException(programId);
     }
@@ -514,17 +539,13 @@ public class ProgramServiceImpl implements ProgramService {
   }
 
   @Override
-  public ImmutableList<Application> getProgramApplications(long programId, Optional<String> search)
-      throws ProgramNotFoundException {
-    return getProgramApplications(programId).stream()
-        .filter(
-            application ->
-                application
-                    .getApplicantData()
-                    .getApplicantName()
-                    .toLowerCase(Locale.ROOT)
-                    .contains(search.orElse("").toLowerCase(Locale.ROOT)))
-        .collect(ImmutableList.toImmutableList());
+  public CompletionStage<PaginationInfo<Application>> getProgramApplications(
+      long programId, Optional<String> search, int pageSize, int page) {
+    // Fails if the program does not exist; served from the version snapshot when it is current.
+    return getProgramDefinitionAsync(programId)
+        .thenCompose(
+            unused ->
+                programRepository.getApplicationsForProgram(programId, search, pageSize, page));
   }
 
   @Override
@@ -567,9 +588,7 @@ public class ProgramServiceImpl implements ProgramService {
     }
 
     return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program.toProgram()).getProgramDefinition())
-        .toCompletableFuture()
-        .join();
+        programRepository.updateProgramSync(program.toProgram()).getProgramDefinition());
   }
 
   private ProgramDefinition updateProgramDefinitionWithBlockDefinition(
@@ -588,25 +607,13 @@ public class ProgramServiceImpl implements ProgramService {
     return programDefinition.getMaxBlockDefinitionId() + 1;
   }
 
-  private boolean isActiveOrDraftProgram(Program program) {
-    return Streams.concat(
-            versionRepository.getActiveVersion().getPrograms().stream(),
-            versionRepository.getDraftVersion().getPrograms().stream())
-        .anyMatch(p -> p.id.equals(program.id));
-  }
-
   /**
    * Update all {@link QuestionDefinition}s in the ProgramDefinition with appropriate versions from
    * the {@link QuestionService}.
    */
-  private CompletionStage<ProgramDefinition> syncProgramDefinitionQuestions(
-      ProgramDefinition programDefinition) {
-    return questionService
-        .getReadOnlyQuestionService()
-        .thenApplyAsync(
-            roQuestionService ->
-                syncProgramDefinitionQuestions(programDefinition, roQuestionService),
-            httpExecutionContext.current());
+  private ProgramDefinition syncProgramDefinitionQuestions(ProgramDefinition programDefinition) {
+    return syncProgramDefinitionQuestions(
+        programDefinition, versionSnapshotCache.getSnapshot().getReadOnlyQuestionService());
   }
 
   private ProgramDefinition syncProgramDefinitionQuestions(
@@ -615,7 +622,7 @@ public class ProgramServiceImpl implements ProgramService {
         programDefinition, questionService.getReadOnlyVersionedQuestionService(version));
   }
 
-  private ProgramDefinition syncProgramDefinitionQuestions(
+  static ProgramDefinition syncProgramDefinitionQuestions(
       ProgramDefinition programDefinition, ReadOnlyQuestionService roQuestionService) {
     ProgramDefinition.Builder programDefinitionBuilder = programDefinition.toBuilder();
 
@@ -630,7 +637,7 @@ public class ProgramServiceImpl implements ProgramService {
     return programDefinitionBuilder.build();
   }
 
-  private BlockDefinition syncBlockDefinitionQuestions(
+  private static BlockDefinition syncBlockDefinitionQuestions(
       long programDefinitionId,
       BlockDefinition blockDefinition,
       ReadOnlyQuestionService roQuestionService) {
@@ -647,7 +654,7 @@ public class ProgramServiceImpl implements ProgramService {
     return blockBuilder.build();
   }
 
-  private ProgramQuestionDefinition syncProgramQuestionDefinition(
+  private static ProgramQuestionDefinition syncProgramQuestionDefinition(
       long programDefinitionId,
       ProgramQuestionDefinition pqd,
       ReadOnlyQuestionService roQuestionService) {
@@ -0,0 +1,138 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import models.Program;
+import models.Version;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import services.question.ReadOnlyCurrentQuestionServiceImpl;
+import services.question.ReadOnlyQuestionService;
+
+/**
+ * An immutable view of the current active and draft {@link Version}s: every program in either
+ * version with its questions synced and blocks ordered, and a {@link ReadOnlyQuestionService} over
+ * the questions in either version.
+ *
+ * <p>Snapshots are shared between requests by {@link VersionSnapshotCache}, so nothing reachable
+ * from a snapshot may be mutable.
+ */
+public final class VersionSnapshot {
+  private static final Logger LOG = LoggerFactory.getLogger(VersionSnapshot.class);
+
+  private final long generation;
+  private final long activeVersionId;
+  private final long draftVersionId;
+  private final ImmutableMap<Long, ProgramDefinition> activeProgramsById;
+  private final ImmutableMap<Long, ProgramDefinition> draftProgramsById;
+  /** Programs kept with their stored definition because their questions could not be synced. */
+  private final ImmutableSet<Long> unsyncedProgramIds;
+  private final ReadOnlyQuestionService readOnlyQuestionService;
+
+  private VersionSnapshot(
+      long generation,
+      long activeVersionId,
+      long draftVersionId,
+      ImmutableMap<Long, ProgramDefinition> activeProgramsById,
+      ImmutableMap<Long, ProgramDefinition> draftProgramsById,
+      ImmutableSet<Long> unsyncedProgramIds,
+      ReadOnlyQuestionService readOnlyQuestionService) {
+    this.generation = generation;
+    this.activeVersionId = activeVersionId;
+    this.draftVersionId = draftVersionId;
+    this.activeProgramsById = checkNotNull(activeProgramsById);
+    this.draftProgramsById = checkNotNull(draftProgramsById);
+    this.unsyncedProgramIds = checkNotNull(unsyncedProgramIds);
+    this.readOnlyQuestionService = checkNotNull(readOnlyQuestionService);
+  }
+
+  /** Builds a snapshot of the given versions, tagged with the generation they were read at. */
+  static VersionSnapshot create(long generation, Version active, Version draft) {
+    ReadOnlyQuestionService roQuestionService =
+        new ReadOnlyCurrentQuestionServiceImpl(checkNotNull(active), checkNotNull(draft));
+    ImmutableSet.Builder<Long> unsyncedProgramIds = ImmutableSet.builder();
+    return new VersionSnapshot(
+        generation,
+        active.id,
+        draft.id,
+        syncPrograms(active, roQuestionService, unsyncedProgramIds),
+        syncPrograms(draft, roQuestionService, unsyncedProgramIds),
+        unsyncedProgramIds.build(),
+        roQuestionService);
+  }
+
+  /** The version generation this snapshot was read at. */
+  public long getGeneration() {
+    return generation;
+  }
+
+  public long getActiveVersionId() {
+    return activeVersionId;
+  }
+
+  public long getDraftVersionId() {
+    return draftVersionId;
+  }
+
+  /** Returns true if the given program is in the active or draft version of this snapshot. */
+  public boolean containsProgram(Program program) {
+    return program.getVersions().stream()
+        .anyMatch(
+            version -> version.id.equals(activeVersionId) || version.id.equals(draftVersionId));
+  }
+
+  public ImmutableList<ProgramDefinition> getActivePrograms() {
+    return activeProgramsById.values().asList();
+  }
+
+  public ImmutableList<ProgramDefinition> getDraftPrograms() {
+    return draftProgramsById.values().asList();
+  }
+
+  /**
+   * Returns the synced program with the given id if it is in the active or draft version. Programs
+   * whose questions could not be synced are never returned, so looking them up takes the uncached
+   * path, which reports the error.
+   */
+  public Optional<ProgramDefinition> getProgramDefinition(long id) {
+    if (unsyncedProgramIds.contains(id)) {
+      return Optional.empty();
+    }
+    ProgramDefinition programDefinition = draftProgramsById.get(id);
+    if (programDefinition == null) {
+      programDefinition = activeProgramsById.get(id);
+    }
+    return Optional.ofNullable(programDefinition);
+  }
+
+  public ReadOnlyQuestionService getReadOnlyQuestionService() {
+    return readOnlyQuestionService;
+  }
+
+  private static ImmutableMap<Long, ProgramDefinition> syncPrograms(
+      Version version,
+      ReadOnlyQuestionService roQuestionService,
+      ImmutableSet.Builder<Long> unsyncedProgramIds) {
+    ImmutableMap.Builder<Long, ProgramDefinition> programsById = ImmutableMap.builder();
+    for (Program program : version.getPrograms()) {
+      try {
+        programsById.put(
+            program.id,
+            ProgramServiceImpl.syncProgramDefinitionQuestions(
+                    program.getProgramDefinition(), roQuestionService)
+                .orderBlockDefinitions());
+      } catch (RuntimeException e) {
+        // A program that references a question missing from both versions keeps its stored
+        // definition, so that it is still listed and its name is still taken.
+        LOG.error("Could not sync questions for program {}.", program.id, e);
+        programsById.put(program.id, program.getProgramDefinition());
+        unsyncedProgramIds.add(program.id);
+      }
+    }
+    return programsById.build();
+  }
+}
@@ -0,0 +1,57 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.inject.Provider;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import repository.VersionRepository;
+
+/**
+ * Holds the most recent {@link VersionSnapshot} so that requests which only need the active and
+ * draft programs and questions do not reload and re-sync them from the database.
+ *
+ * <p>Freshness is checked against the version generation, which changes whenever a transaction
+ * that changed versions, programs, or questions commits. This costs one small read per call, but
+ * keeps every server correct no matter which server (or which direct Ebean write) made the change.
+ */
+@Singleton
+public final class VersionSnapshotCache {
+
+  private final Provider<VersionRepository> versionRepositoryProvider;
+  private final AtomicReference<VersionSnapshot> snapshot = new AtomicReference<>();
+
+  @Inject
+  public VersionSnapshotCache(Provider<VersionRepository> versionRepositoryProvider) {
+    this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+  }
+
+  /** Returns a snapshot of the current active and draft versions. */
+  public VersionSnapshot getSnapshot() {
+    VersionRepository versionRepository = versionRepositoryProvider.get();
+    // Read the generation before the versions: if they change in between, the snapshot is tagged
+    // with the older generation and is reloaded on the next call.
+    long generation = versionRepository.getVersionGeneration();
+    VersionSnapshot current = snapshot.get();
+    if (versionRepository.isInTransaction()) {
+      // The transaction may see uncommitted changes, which must not be shared with other requests.
+      return load(versionRepository, generation);
+    }
+    if (current != null && current.getGeneration() == generation) {
+      return current;
+    }
+    VersionSnapshot loaded = load(versionRepository, generation);
+    snapshot.set(loaded);
+    return loaded;
+  }
+
+  /**
+   * Loads a snapshot of the current versions. A program that cannot be synced is logged and left to
+   * the uncached path, so one broken program does not take down every other program.
+   */
+  private static VersionSnapshot load(VersionRepository versionRepository, long generation) {
+    return VersionSnapshot.create(
+        generation, versionRepository.getActiveVersion(), versionRepository.getDraftVersion());
+  }
+}
@@ -17,6 +17,7 @@ import repository.VersionRepository;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.export.ExporterService;
+import services.program.VersionSnapshotCache;
 import services.question.exceptions.InvalidUpdateException;
 import services.question.exceptions.QuestionNotFoundException;
 import services.question.types.QuestionDefinition;
@@ -26,13 +27,16 @@ public final class QuestionServiceImpl implements QuestionService {
 
   private final QuestionRepository questionRepository;
   private final Provider<VersionRepository> versionRepositoryProvider;
+  private final VersionSnapshotCache versionSnapshotCache;
 
   @Inject
   public QuestionServiceImpl(
       QuestionRepository questionRepository,
-      Provider<VersionRepository> versionRepositoryProvider) {
+      Provider<VersionRepository> versionRepositoryProvider,
+      VersionSnapshotCache versionSnapshotCache) {
     this.questionRepository = checkNotNull(questionRepository);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+    this.versionSnapshotCache = checkNotNull(versionSnapshotCache);
   }
 
   @Override
@@ -56,9 +60,7 @@ public final class QuestionServiceImpl implements QuestionService {
   @Override
   public CompletionStage<ReadOnlyQuestionService> getReadOnlyQuestionService() {
     return CompletableFuture.completedStage(
-        new ReadOnlyCurrentQuestionServiceImpl(
-            versionRepositoryProvider.get().getActiveVersion(),
-            versionRepositoryProvider.get().getDraftVersion()));
+        versionSnapshotCache.getSnapshot().getReadOnlyQuestionService());
   }
 
   @Override
@@ -1,7 +1,6 @@
 package views;
 
 import static j2html.TagCreator.div;
-import static j2html.TagCreator.document;
 import static j2html.TagCreator.each;
 import static j2html.TagCreator.footer;
 import static j2html.TagCreator.head;
@@ -10,11 +9,27 @@ import static j2html.TagCreator.html;
 import static j2html.TagCreator.main;
 import static j2html.TagCreator.title;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.stream.javadsl.StreamConverters;
+import akka.util.ByteString;
 import j2html.tags.ContainerTag;
 import j2html.tags.EmptyTag;
 import j2html.tags.Tag;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import play.twirl.api.Content;
 import views.components.Modal;
 import views.components.ToastMessage;
@@ -22,6 +37,8 @@ import views.style.BaseStyles;
 
 /** The HtmlBundle class stores all of the data necessary for rendering a page. */
 public class HtmlBundle {
+  private static final Logger LOG = LoggerFactory.getLogger(HtmlBundle.class);
+
   private String pageTitle;
   private String language = "en";
 
@@ -38,6 +55,7 @@ public class HtmlBundle {
   private ArrayList<Modal> modals = new ArrayList<>();
   private ArrayList<Tag> stylesheets = new ArrayList<>();
   private ArrayList<ToastMessage> toastMessages = new ArrayList<>();
+  private Optional<IntConsumer> headingCheck = Optional.empty();
 
   public HtmlBundle addBodyStyles(String... styles) {
     bodyStyles.addAll(Arrays.asList(styles));
@@ -195,25 +213,157 @@ public class HtmlBundle {
     return modalContainer;
   }
 
-  public Content render() {
-    return new HtmlBundleContent(getContent());
+  /**
+   * Sets a check that is given the number of {@code <h1>} tags on the page once it has been
+   * rendered, whether the page is rendered in full or streamed.
+   */
+  public HtmlBundle setHeadingCheck(IntConsumer headingCheck) {
+    this.headingCheck = Optional.of(headingCheck);
+    return this;
   }
 
-  private static class HtmlBundleContent implements Content {
-    ContainerTag bundleContent;
+  /**
+   * Returns the page. The page is not rendered until it is first used, and is then rendered once,
+   * either in full by {@link HtmlBundleContent#body()} or as a stream by {@link
+   * HtmlBundleContent#stream}.
+   */
+  public HtmlBundleContent render() {
+    return new HtmlBundleContent(getContent(), headingCheck);
+  }
+
+  /** A page built from an {@link HtmlBundle}, which renders it at most once. */
+  public static final class HtmlBundleContent implements Content {
+    private static final String DOCTYPE = "<!DOCTYPE html>";
+
+    /** Characters rendered before a streamed page is sent on as a chunk. */
+    private static final int STREAM_CHUNK_SIZE = 16 * 1024;
 
-    public HtmlBundleContent(ContainerTag bundleContent) {
+    /**
+     * Rendering buffers grow to fit the largest page rendered on their thread. They are reused for
+     * the next page unless they have grown beyond this size.
+     */
+    private static final int MAX_REUSED_BUFFER_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER =
+        ThreadLocal.withInitial(() -> new StringBuilder(64 * 1024));
+
+    private final ContainerTag bundleContent;
+    private final Optional<IntConsumer> headingCheck;
+    private String body;
+
+    private HtmlBundleContent(ContainerTag bundleContent, Optional<IntConsumer> headingCheck) {
       this.bundleContent = bundleContent;
+      this.headingCheck = headingCheck;
     }
 
     @Override
-    public String body() {
-      return document(new ContainerTag("html").with(bundleContent));
+    public synchronized String body() {
+      if (body == null) {
+        StringBuilder buffer = RENDER_BUFFER.get();
+        buffer.setLength(0);
+        try {
+          writeTo(buffer);
+        } catch (IOException e) {
+          // StringBuilder does not throw IOExceptions.
+          throw new UncheckedIOException(e);
+        }
+        body = buffer.toString();
+        if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+          RENDER_BUFFER.remove();
+        }
+      }
+      return body;
     }
 
     @Override
     public String contentType() {
       return "text/html";
     }
+
+    /**
+     * Returns the page as UTF-8 chunks, for a chunked response. The page is rendered on {@code
+     * executor} while the stream is consumed, so the browser can start loading it before it has
+     * been rendered in full. The rendering thread waits while the client is slow to read, and gives
+     * up on the page if the client takes longer than {@code writeTimeout} to read a chunk.
+     */
+    public Source<ByteString, ?> stream(Executor executor, Duration writeTimeout) {
+      return StreamConverters.asOutputStream(writeTimeout)
+          .mapMaterializedValue(
+              outputStream -> {
+                executor.execute(
+                    () -> {
+                      try (Writer writer =
+                          new BufferedWriter(
+                              new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                              STREAM_CHUNK_SIZE)) {
+                        writeTo(writer);
+                      } catch (IOException e) {
+                        // The client has gone away, or stopped reading.
+                        LOG.warn("Failed to stream page: {}", e.getMessage());
+                      }
+                    });
+                return NotUsed.getInstance();
+              });
+    }
+
+    private void writeTo(Appendable out) throws IOException {
+      HeadingCountingAppendable countingOut = new HeadingCountingAppendable(out);
+      countingOut.append(DOCTYPE);
+      new ContainerTag("html").with(bundleContent).render(countingOut);
+      headingCheck.ifPresent(check -> check.accept(countingOut.headingCount()));
+    }
+  }
+
+  /**
+   * Passes characters through to another {@link Appendable}, counting the {@code <h1} sequences
+   * among them, so headings can be checked without scanning the page again.
+   */
+  private static final class HeadingCountingAppendable implements Appendable {
+    private static final String HEADING_START = "<h1";
+
+    private final Appendable out;
+    private int matched;
+    private int headingCount;
+
+    HeadingCountingAppendable(Appendable out) {
+      this.out = out;
+    }
+
+    int headingCount() {
+      return headingCount;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      for (int i = start; i < end; i++) {
+        count(csq.charAt(i));
+      }
+      out.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      count(c);
+      out.append(c);
+      return this;
+    }
+
+    private void count(char c) {
+      if (c == HEADING_START.charAt(matched)) {
+        matched++;
+        if (matched == HEADING_START.length()) {
+          headingCount++;
+          matched = 0;
+        }
+      } else {
+        matched = c == HEADING_START.charAt(0) ? 1 : 0;
+      }
+    }
   }
 }
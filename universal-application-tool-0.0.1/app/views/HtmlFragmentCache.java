@@ -0,0 +1,95 @@
+package views;
+
+import static j2html.TagCreator.rawHtml;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import j2html.tags.DomContent;
+import j2html.tags.Text;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.inject.Singleton;
+
+/**
+ * Holds pieces of pages that are the same on every page view, such as the navigation bar and the
+ * footer, already serialized to HTML. Pages splice them in as raw HTML rather than building and
+ * rendering the same j2html trees on every request.
+ *
+ * <p>Fragments are keyed by everything they depend on, e.g. the locale of the messages in them.
+ * Values that change on every page view, such as the user's name, are left as placeholders in the
+ * cached HTML and filled in, escaped, when the fragment is used.
+ */
+@Singleton
+public final class HtmlFragmentCache {
+  private final ConcurrentHashMap<String, Template> fragments = new ConcurrentHashMap<>();
+
+  /** Returns the fragment for the key, building it with {@code fragment} the first time. */
+  public DomContent get(String key, Supplier<DomContent> fragment) {
+    return get(key, ImmutableMap.of(), unused -> fragment.get());
+  }
+
+  /**
+   * Returns the fragment for the key, with each placeholder in it replaced by its value.
+   *
+   * <p>The first time, the fragment is built by calling {@code template} with a map from each
+   * placeholder name to a token, which it should use in place of the value. The values are escaped
+   * when they are filled in, so the template must only use tokens in text or attribute values.
+   */
+  public DomContent get(
+      String key,
+      ImmutableMap<String, String> placeholderValues,
+      Function<ImmutableMap<String, String>, DomContent> template) {
+    Template compiled =
+        fragments.computeIfAbsent(
+            key, unused -> Template.compile(placeholderValues.keySet().asList(), template));
+    return rawHtml(compiled.fill(placeholderValues));
+  }
+
+  /** A serialized fragment, split into literal HTML and named placeholders. */
+  private static final class Template {
+    private static final String TOKEN_DELIMITER = "\u0000";
+
+    /** Alternates between literal HTML, at even indexes, and placeholder names, at odd ones. */
+    private final ImmutableList<String> parts;
+
+    private final int literalLength;
+
+    private Template(ImmutableList<String> parts) {
+      this.parts = parts;
+      int length = 0;
+      for (int i = 0; i < parts.size(); i += 2) {
+        length += parts.get(i).length();
+      }
+      this.literalLength = length;
+    }
+
+    static Template compile(
+        ImmutableList<String> placeholders,
+        Function<ImmutableMap<String, String>, DomContent> template) {
+      ImmutableMap.Builder<String, String> tokens = ImmutableMap.builder();
+      for (String placeholder : placeholders) {
+        tokens.put(placeholder, TOKEN_DELIMITER + placeholder + TOKEN_DELIMITER);
+      }
+      String html = template.apply(tokens.build()).render();
+      // Splitting on the delimiter leaves literal HTML and placeholder names alternating.
+      return new Template(ImmutableList.copyOf(html.split(TOKEN_DELIMITER, -1)));
+    }
+
+    String fill(Map<String, String> placeholderValues) {
+      if (parts.size() == 1) {
+        return parts.get(0);
+      }
+      StringBuilder html = new StringBuilder(literalLength + 64);
+      for (int i = 0; i < parts.size(); i++) {
+        if (i % 2 == 0) {
+          html.append(parts.get(i));
+        } else {
+          html.append(new Text(placeholderValues.getOrDefault(parts.get(i), "")).render());
+        }
+      }
+      return html.toString();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package views;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/**
+ * Custom execution context wired to "html-render.dispatcher" thread pool, which renders streamed
+ * pages (see {@link HtmlBundle.HtmlBundleContent#stream}). A streaming render waits while the
+ * client is slow to read, so it must not hold a thread that serves requests.
+ */
+@Singleton
+public class HtmlRenderExecutionContext extends CustomExecutionContext {
+  private final Duration streamWriteTimeout;
+
+  @Inject
+  public HtmlRenderExecutionContext(ActorSystem actorSystem, Config configuration) {
+    super(checkNotNull(actorSystem), "html-render.dispatcher");
+    this.streamWriteTimeout = checkNotNull(configuration).getDuration("stream_html_write_timeout");
+  }
+
+  /** How long a streaming render waits for the client to read the next chunk before giving up. */
+  public Duration getStreamWriteTimeout() {
+    return streamWriteTimeout;
+  }
+}
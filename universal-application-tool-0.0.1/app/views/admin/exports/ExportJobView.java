@@ -0,0 +1,77 @@
+package views.admin.exports;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static j2html.TagCreator.a;
+import static j2html.TagCreator.div;
+import static j2html.TagCreator.h1;
+import static j2html.TagCreator.meta;
+import static j2html.TagCreator.p;
+
+import com.google.inject.Inject;
+import j2html.tags.Tag;
+import java.util.Optional;
+import models.ExportJob;
+import play.twirl.api.Content;
+import views.BaseHtmlView;
+import views.HtmlBundle;
+import views.admin.AdminLayout;
+import views.style.Styles;
+
+/**
+ * Renders the progress of a CSV export. The page reloads itself until the export has finished,
+ * and then links to the file if the export succeeded.
+ */
+public class ExportJobView extends BaseHtmlView {
+  private static final int REFRESH_SECONDS = 3;
+
+  private final AdminLayout layout;
+
+  @Inject
+  public ExportJobView(AdminLayout layout) {
+    this.layout = checkNotNull(layout);
+  }
+
+  /** @param downloadUrl a link to the exported file, present once the export has succeeded. */
+  public Content render(ExportJob job, Optional<String> downloadUrl) {
+    String title = "Exporting applications";
+    HtmlBundle htmlBundle =
+        layout
+            .getBundle()
+            .setTitle(title)
+            .addMainContent(
+                div()
+                    .withClasses(Styles.PX_20)
+                    .with(h1(title).withClasses(Styles.MY_4), renderStatus(job))
+                    .condWith(
+                        downloadUrl.isPresent(),
+                        a("Download CSV")
+                            .withId("export-job-download")
+                            .withHref(downloadUrl.orElse(""))
+                            .withClasses(Styles.TEXT_BLUE_400)));
+    if (!job.isFinished()) {
+      htmlBundle.addMetadata(
+          meta().attr("http-equiv", "refresh").attr("content", REFRESH_SECONDS));
+    }
+    return layout.renderCentered(htmlBundle);
+  }
+
+  private Tag renderStatus(ExportJob job) {
+    return p(statusText(job)).withId("export-job-status");
+  }
+
+  private static String statusText(ExportJob job) {
+    switch (job.getStatus()) {
+      case QUEUED:
+        return "Waiting for other exports to finish.";
+      case RUNNING:
+        // Applications submitted after the export started may be written too.
+        return String.format(
+            "Exported %d of %d applications.",
+            Math.min(job.getRowsWritten(), job.getRowsTotal()), job.getRowsTotal());
+      case FAILED:
+        return String.format("The export failed: %s", job.getError().orElse("unknown error"));
+      default:
+        return "The export has finished.";
+    }
+  }
+}
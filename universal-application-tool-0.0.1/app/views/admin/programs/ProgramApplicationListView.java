@@ -70,7 +70,7 @@ public final class ProgramApplicationListView extends BaseHtmlView {
                     applications,
                     application -> this.renderApplicationListItem(programId, application)),
                 br(),
-                renderDownloadButton(programId))
+                renderDownloadButton(request, programId))
             .withClasses(Styles.MB_16);
 
     HtmlBundle htmlBundle = layout.getBundle().setTitle(title).addMainContent(contentDiv);
@@ -104,14 +104,14 @@ public final class ProgramApplicationListView extends BaseHtmlView {
             Styles.BORDER, Styles.BORDER_GRAY_300, Styles.BG_WHITE, Styles.ROUNDED, Styles.P_4);
   }
 
-  private Tag renderDownloadButton(long programId) {
-    String link = controllers.admin.routes.AdminApplicationController.downloadAll(programId).url();
+  private Tag renderDownloadButton(Http.Request request, long programId) {
+    String link = controllers.admin.routes.AdminExportController.exportProgram(programId).url();
     return new LinkElement()
         .setId("download-all-button")
         .setHref(link)
         .setText("Download all (CSV)")
         .setStyles(ReferenceClasses.DOWNLOAD_ALL_BUTTON)
-        .asButton();
+        .asHiddenForm(request);
   }
 
   private Tag renderApplicationListItem(long programId, Application application) {
@@ -77,7 +77,7 @@ public final class ProgramIndexView extends BaseHtmlView {
                             programs.getDraftProgramDefinition(name),
                             request,
                             profile)))
-            .with(renderDownloadExportCsvButton());
+            .with(renderDownloadExportCsvButton(request));
 
     HtmlBundle htmlBundle =
         layout
@@ -88,12 +88,12 @@ public final class ProgramIndexView extends BaseHtmlView {
     return layout.renderCentered(htmlBundle);
   }
 
-  private ContainerTag renderDownloadExportCsvButton() {
+  private ContainerTag renderDownloadExportCsvButton(Http.Request request) {
     return new LinkElement()
         .setId("download-export-csv-button")
-        .setHref(routes.AdminApplicationController.downloadDemographics().url())
+        .setHref(routes.AdminExportController.exportDemographics().url())
         .setText("Download Exported Data (CSV)")
-        .asButton();
+        .asHiddenForm(request);
   }
 
   private Tag maybeRenderPublishButton(ActiveAndDraftPrograms programs, Http.Request request) {
@@ -12,11 +12,12 @@ import static j2html.TagCreator.text;
 import auth.CiviFormProfile;
 import auth.ProfileUtils;
 import auth.Roles;
+import com.google.common.collect.ImmutableMap;
 import com.typesafe.config.Config;
 import controllers.routes;
-import io.jsonwebtoken.lang.Strings;
 import j2html.TagCreator;
 import j2html.tags.ContainerTag;
+import j2html.tags.DomContent;
 import j2html.tags.Tag;
 import java.util.Optional;
 import javax.inject.Inject;
@@ -28,6 +29,7 @@ import play.twirl.api.Content;
 import services.MessageKey;
 import views.BaseHtmlLayout;
 import views.HtmlBundle;
+import views.HtmlFragmentCache;
 import views.LanguageSelector;
 import views.ViewUtils;
 import views.html.helper.CSRF;
@@ -41,8 +43,10 @@ public class ApplicantLayout extends BaseHtmlLayout {
 
   private static final String CIVIFORM_TITLE = "CiviForm";
   private static final Logger LOG = LoggerFactory.getLogger(ApplicantLayout.class);
+  private static final String USER_NAME = "userName";
 
   private final ProfileUtils profileUtils;
+  private final HtmlFragmentCache fragmentCache;
   public final LanguageSelector languageSelector;
   public final String supportEmail;
 
@@ -51,26 +55,29 @@ public class ApplicantLayout extends BaseHtmlLayout {
       ViewUtils viewUtils,
       Config configuration,
       ProfileUtils profileUtils,
-      LanguageSelector languageSelector) {
+      LanguageSelector languageSelector,
+      HtmlFragmentCache fragmentCache) {
     super(viewUtils, configuration);
     this.profileUtils = checkNotNull(profileUtils);
+    this.fragmentCache = checkNotNull(fragmentCache);
     this.languageSelector = checkNotNull(languageSelector);
     this.supportEmail = checkNotNull(configuration).getString("support_email_address");
   }
 
   private Content renderWithSupportFooter(HtmlBundle bundle, Messages messages) {
-    ContainerTag supportLink =
-        div()
-            .with(
-                text(messages.at(MessageKey.FOOTER_SUPPORT_LINK_DESCRIPTION.getKeyName())),
-                text(" "),
-                a(supportEmail)
-                    .withHref("mailto:" + supportEmail)
-                    .withTarget("_blank")
-                    .withClasses(Styles.TEXT_BLUE_800))
-            .withClasses(Styles.MX_AUTO, Styles.MAX_W_SCREEN_SM, Styles.W_5_6);
-
-    bundle.addFooterContent(supportLink);
+    bundle.addFooterContent(
+        fragmentCache.get(
+            "applicant-support-footer:" + messages.lang().code(),
+            () ->
+                div()
+                    .with(
+                        text(messages.at(MessageKey.FOOTER_SUPPORT_LINK_DESCRIPTION.getKeyName())),
+                        text(" "),
+                        a(supportEmail)
+                            .withHref("mailto:" + supportEmail)
+                            .withTarget("_blank")
+                            .withClasses(Styles.TEXT_BLUE_800))
+                    .withClasses(Styles.MX_AUTO, Styles.MAX_W_SCREEN_SM, Styles.W_5_6)));
 
     return render(bundle);
   }
@@ -88,14 +95,17 @@ public class ApplicantLayout extends BaseHtmlLayout {
 
     bundle.addFooterStyles(Styles.MT_24);
 
-    Content rendered = super.render(bundle);
-    if (!rendered.body().contains("<h1")) {
-      LOG.error("Page does not contain an <h1>, which is important for screen readers.");
-    }
-    if (Strings.countOccurrencesOf(rendered.body(), "<h1") > 1) {
-      LOG.error("Page contains more than one <h1>, which is detrimental to screen readers.");
-    }
-    return rendered;
+    // Checked as the page is rendered, so that it is rendered only once.
+    bundle.setHeadingCheck(
+        headingCount -> {
+          if (headingCount == 0) {
+            LOG.error("Page does not contain an <h1>, which is important for screen readers.");
+          }
+          if (headingCount > 1) {
+            LOG.error("Page contains more than one <h1>, which is detrimental to screen readers.");
+          }
+        });
+    return super.render(bundle);
   }
 
   public Content renderWithNav(
@@ -142,11 +152,16 @@ public class ApplicantLayout extends BaseHtmlLayout {
         Tag csrfInput = input().isHidden().withValue(csrfToken).withName("csrfToken");
         Tag redirectInput = input().isHidden().withValue(request.uri()).withName("redirectLink");
         String preferredLanguage = languageSelector.getPreferredLangage(request).code();
-        ContainerTag languageDropdown =
-            languageSelector
-                .renderDropdown(preferredLanguage)
-                .attr("onchange", "this.form.submit()")
-                .attr("aria-label", messages.at(MessageKey.LANGUAGE_LABEL_SR.getKeyName()));
+        DomContent languageDropdown =
+            fragmentCache.get(
+                String.format(
+                    "applicant-language-dropdown:%s:%s", messages.lang().code(), preferredLanguage),
+                () ->
+                    languageSelector
+                        .renderDropdown(preferredLanguage)
+                        .attr("onchange", "this.form.submit()")
+                        .attr(
+                            "aria-label", messages.at(MessageKey.LANGUAGE_LABEL_SR.getKeyName())));
         languageForm =
             form()
                 .withAction(updateLanguageAction)
@@ -160,43 +175,58 @@ public class ApplicantLayout extends BaseHtmlLayout {
     return languageForm;
   }
 
-  private ContainerTag branding() {
-    return a().withHref(routes.HomeController.index().url())
-        .with(
-            div()
-                .withId("brand-id")
-                .withClasses(ApplicantStyles.CIVIFORM_LOGO)
-                .withText("CiviForm"));
+  private DomContent branding() {
+    return fragmentCache.get(
+        "applicant-branding",
+        () ->
+            a().withHref(routes.HomeController.index().url())
+                .with(
+                    div()
+                        .withId("brand-id")
+                        .withClasses(ApplicantStyles.CIVIFORM_LOGO)
+                        .withText("CiviForm")));
   }
 
-  private ContainerTag maybeRenderTiButton(Optional<CiviFormProfile> profile, String userName) {
+  private DomContent maybeRenderTiButton(Optional<CiviFormProfile> profile, String userName) {
     if (profile.isPresent() && profile.get().getRoles().contains(Roles.ROLE_TI.toString())) {
-      String tiDashboardText = "Trusted intermediary dashboard";
-      String tiDashboardLink =
-          controllers.ti.routes.TrustedIntermediaryController.dashboard(
-                  Optional.empty(), Optional.empty())
-              .url();
-      return div(
-          a(tiDashboardText)
-              .withHref(tiDashboardLink)
-              .withClasses(
-                  Styles.PX_3,
-                  Styles.TEXT_SM,
-                  Styles.OPACITY_75,
-                  StyleUtils.hover(Styles.OPACITY_100)),
-          div("(applying as: " + userName + ")")
-              .withClasses(Styles.TEXT_SM, Styles.PX_3, Styles.OPACITY_75));
+      return fragmentCache.get(
+          "applicant-ti-button",
+          ImmutableMap.of(USER_NAME, String.valueOf(userName)),
+          placeholders -> {
+            String tiDashboardText = "Trusted intermediary dashboard";
+            String tiDashboardLink =
+                controllers.ti.routes.TrustedIntermediaryController.dashboard(
+                        Optional.empty(), Optional.empty())
+                    .url();
+            return div(
+                a(tiDashboardText)
+                    .withHref(tiDashboardLink)
+                    .withClasses(
+                        Styles.PX_3,
+                        Styles.TEXT_SM,
+                        Styles.OPACITY_75,
+                        StyleUtils.hover(Styles.OPACITY_100)),
+                div("(applying as: " + placeholders.get(USER_NAME) + ")")
+                    .withClasses(Styles.TEXT_SM, Styles.PX_3, Styles.OPACITY_75));
+          });
     }
     return div();
   }
 
-  private ContainerTag logoutButton(String userName, Messages messages) {
-    String logoutLink = org.pac4j.play.routes.LogoutController.logout().url();
-    return div(
-        div(messages.at(MessageKey.USER_NAME.getKeyName(), userName)).withClasses(Styles.TEXT_SM),
-        a(messages.at(MessageKey.BUTTON_LOGOUT.getKeyName()))
-            .withHref(logoutLink)
-            .withClasses(ApplicantStyles.LINK_LOGOUT));
+  private DomContent logoutButton(String userName, Messages messages) {
+    // The user's name is filled in on each page view; the rest only depends on the language.
+    return fragmentCache.get(
+        "applicant-logout-button:" + messages.lang().code(),
+        ImmutableMap.of(USER_NAME, String.valueOf(userName)),
+        placeholders -> {
+          String logoutLink = org.pac4j.play.routes.LogoutController.logout().url();
+          return div(
+              div(messages.at(MessageKey.USER_NAME.getKeyName(), placeholders.get(USER_NAME)))
+                  .withClasses(Styles.TEXT_SM),
+              a(messages.at(MessageKey.BUTTON_LOGOUT.getKeyName()))
+                  .withHref(logoutLink)
+                  .withClasses(ApplicantStyles.LINK_LOGOUT));
+        });
   }
 
   /**
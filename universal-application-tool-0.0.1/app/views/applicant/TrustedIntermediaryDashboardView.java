@@ -51,6 +51,7 @@ public class TrustedIntermediaryDashboardView extends BaseHtmlView {
 
   public Content render(
       TrustedIntermediaryGroup tiGroup,
+      ImmutableList<Account> trustedIntermediaries,
       String userName,
       ImmutableList<Account> managedAccounts,
       int totalPageCount,
@@ -78,7 +79,7 @@ public class TrustedIntermediaryDashboardView extends BaseHtmlView {
                 renderTIApplicantsTable(managedAccounts, search, page, totalPageCount),
                 hr().withClasses(Styles.MT_6),
                 renderHeader("Trusted Intermediary Members"),
-                renderTIMembersTable(tiGroup).withClasses(Styles.ML_2))
+                renderTIMembersTable(trustedIntermediaries).withClasses(Styles.ML_2))
             .addMainStyles(Styles.PX_2, Styles.MAX_W_SCREEN_XL, Styles.MX_AUTO);
 
     if (request.flash().get("error").isPresent()) {
@@ -103,13 +104,7 @@ public class TrustedIntermediaryDashboardView extends BaseHtmlView {
         div(table()
                 .withClasses(Styles.BORDER, Styles.BORDER_GRAY_300, Styles.SHADOW_MD, Styles.W_3_4)
                 .with(renderApplicantTableHeader())
-                .with(
-                    tbody(
-                        each(
-                            managedAccounts.stream()
-                                .sorted(Comparator.comparing(Account::getApplicantName))
-                                .collect(Collectors.toList()),
-                            account -> renderApplicantRow(account)))))
+                .with(tbody(each(managedAccounts, account -> renderApplicantRow(account)))))
             .withClasses(Styles.MB_16);
     return main.with(
         renderPaginationDiv(
@@ -119,7 +114,7 @@ public class TrustedIntermediaryDashboardView extends BaseHtmlView {
                 routes.TrustedIntermediaryController.dashboard(search, Optional.of(pageNumber))));
   }
 
-  private ContainerTag renderTIMembersTable(TrustedIntermediaryGroup tiGroup) {
+  private ContainerTag renderTIMembersTable(ImmutableList<Account> trustedIntermediaries) {
     return div(
         table()
             .withClasses(Styles.BORDER, Styles.BORDER_GRAY_300, Styles.SHADOW_MD, Styles.W_3_4)
@@ -127,7 +122,7 @@ public class TrustedIntermediaryDashboardView extends BaseHtmlView {
             .with(
                 tbody(
                     each(
-                        tiGroup.getTrustedIntermediaries().stream()
+                        trustedIntermediaries.stream()
                             .sorted(Comparator.comparing(Account::getApplicantName))
                             .collect(Collectors.toList()),
                         account -> renderTIRow(account)))));
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.SyntheticProgram;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+
+/** Reads, writes and merges of {@link ApplicantData} for an application to a synthetic program. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplicantDataBenchmark {
+
+  @Param({"5", "20"})
+  public int blocks;
+
+  @Param({"5"})
+  public int questionsPerBlock;
+
+  private ApplicantData applicantData;
+  private ImmutableList<Path> updatedAtPaths;
+  private ImmutableList<Path> missingPaths;
+
+  @Setup
+  public void setUp() throws Exception {
+    SyntheticProgram program = SyntheticProgram.create(blocks, questionsPerBlock);
+    applicantData = program.copyApplicantData();
+    updatedAtPaths =
+        program.questions().stream()
+            .map(
+                question ->
+                    new ApplicantQuestion(question, applicantData, Optional.empty())
+                        .getContextualizedPath()
+                        .join(Scalar.UPDATED_AT))
+            .collect(ImmutableList.toImmutableList());
+    missingPaths =
+        updatedAtPaths.stream()
+            .map(path -> path.parentPath().join("missing"))
+            .collect(ImmutableList.toImmutableList());
+  }
+
+  @Benchmark
+  public void readLong(Blackhole blackhole) {
+    for (Path path : updatedAtPaths) {
+      blackhole.consume(applicantData.readLong(path));
+    }
+  }
+
+  @Benchmark
+  public void readString_missing(Blackhole blackhole) {
+    for (Path path : missingPaths) {
+      blackhole.consume(applicantData.readString(path));
+    }
+  }
+
+  @Benchmark
+  public void hasPath(Blackhole blackhole) {
+    for (Path path : updatedAtPaths) {
+      blackhole.consume(applicantData.hasPath(path));
+    }
+  }
+
+  @Benchmark
+  public void putLong() {
+    for (Path path : updatedAtPaths) {
+      applicantData.putLong(path, 54321L);
+    }
+  }
+
+  @Benchmark
+  public ApplicantData mergeFrom() {
+    ApplicantData target = new ApplicantData();
+    target.mergeFrom(applicantData);
+    return target;
+  }
+}
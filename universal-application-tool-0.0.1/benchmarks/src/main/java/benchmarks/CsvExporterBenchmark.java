@@ -0,0 +1,70 @@
+package benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.applicant.SyntheticProgram;
+import services.export.CsvExporter;
+import services.program.Column;
+import services.program.ColumnType;
+
+/** Exporting one application to CSV, with a column for every answered scalar. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvExporterBenchmark {
+
+  @Param({"5", "20"})
+  public int blocks;
+
+  @Param({"5"})
+  public int questionsPerBlock;
+
+  private SyntheticProgram program;
+  private CsvExporter exporter;
+  private final CharArrayWriter writer = new CharArrayWriter();
+
+  @Setup
+  public void setUp() throws Exception {
+    program = SyntheticProgram.create(blocks, questionsPerBlock);
+    ImmutableList.Builder<Column> columns = ImmutableList.builder();
+    columns.add(Column.builder().setHeader("ID").setColumnType(ColumnType.ID).build());
+    columns.add(
+        Column.builder().setHeader("Language").setColumnType(ColumnType.LANGUAGE).build());
+    program.newReadOnlyService().getSummaryData().stream()
+        .flatMap(answer -> answer.scalarAnswersInDefaultLocale().keySet().stream())
+        .forEach(
+            path ->
+                columns.add(
+                    Column.builder()
+                        .setHeader(path.toString())
+                        .setJsonPath(path)
+                        .setColumnType(ColumnType.APPLICANT)
+                        .build()));
+    exporter = new CsvExporter(columns.build());
+    // Write the headers up front, so every invocation measures a single row.
+    exporter.export(program.application(), program.newReadOnlyService(), writer);
+  }
+
+  @Benchmark
+  public int export() throws IOException {
+    writer.reset();
+    exporter.export(program.application(), program.newReadOnlyService(), writer);
+    return writer.size();
+  }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import static j2html.TagCreator.div;
+import static j2html.TagCreator.input;
+import static j2html.TagCreator.label;
+import static j2html.TagCreator.p;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import views.HtmlBundle;
+
+/** Building and rendering an {@link HtmlBundle} for a page with a form of text fields. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlBundleBenchmark {
+
+  @Param({"5", "50"})
+  public int fields;
+
+  @Benchmark
+  public String render() {
+    HtmlBundle bundle = new HtmlBundle().setTitle("Benchmark page");
+    for (int i = 0; i < fields; i++) {
+      bundle.addMainContent(
+          div()
+              .withClasses("mb-4", "w-full")
+              .with(
+                  label("Question " + i).attr("for", "field-" + i),
+                  p("Help text for question " + i).withClasses("text-sm"),
+                  input().withId("field-" + i).withName("field-" + i).withValue("answer " + i)));
+    }
+    return bundle.render().body();
+  }
+}
@@ -0,0 +1,47 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.Path;
+import services.applicant.question.Scalar;
+
+/** Creating and joining {@link Path}s, as done for every question of every block. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+
+  private String pathString = "applicant.household_members[3].jobs[1].income";
+  private Path path = Path.create(pathString);
+
+  @Benchmark
+  public Path create() {
+    return Path.create(pathString);
+  }
+
+  @Benchmark
+  public Path joinString() {
+    return path.join("currency_cents");
+  }
+
+  @Benchmark
+  public Path joinScalar() {
+    return path.join(Scalar.UPDATED_AT);
+  }
+
+  @Benchmark
+  public Path atIndex() {
+    return path.parentPath().atIndex(2);
+  }
+}
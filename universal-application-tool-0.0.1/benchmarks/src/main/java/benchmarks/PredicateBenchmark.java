@@ -0,0 +1,88 @@
+package benchmarks;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import services.applicant.ApplicantData;
+import services.applicant.SyntheticProgram;
+import services.applicant.predicate.CompiledPredicate;
+import services.applicant.predicate.JsonPathPredicateGenerator;
+import services.applicant.predicate.PredicateEvaluator;
+import services.program.BlockDefinition;
+import services.program.predicate.PredicateExpressionNode;
+import services.question.types.QuestionDefinition;
+
+/**
+ * Evaluating the visibility predicates of every block of a synthetic program, through JsonPath and
+ * through {@link CompiledPredicate}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredicateBenchmark {
+
+  @Param({"5", "20"})
+  public int blocks;
+
+  @Param({"5"})
+  public int questionsPerBlock;
+
+  private ApplicantData applicantData;
+  private ImmutableList<QuestionDefinition> questions;
+  private ImmutableList<PredicateExpressionNode> predicates;
+  private ImmutableList<CompiledPredicate> compiledPredicates;
+
+  @Setup
+  public void setUp() throws Exception {
+    SyntheticProgram program = SyntheticProgram.create(blocks, questionsPerBlock);
+    applicantData = program.copyApplicantData();
+    questions = program.questions();
+    predicates =
+        program.programDefinition().blockDefinitions().stream()
+            .map(BlockDefinition::visibilityPredicate)
+            .flatMap(Optional::stream)
+            .map(predicate -> predicate.rootNode())
+            .collect(ImmutableList.toImmutableList());
+    ImmutableMap<Long, QuestionDefinition> questionsById =
+        questions.stream().collect(toImmutableMap(QuestionDefinition::getId, q -> q));
+    compiledPredicates =
+        predicates.stream()
+            .map(predicate -> CompiledPredicate.compile(predicate, questionsById))
+            .collect(ImmutableList.toImmutableList());
+  }
+
+  @Benchmark
+  public void predicateEvaluator(Blackhole blackhole) {
+    PredicateEvaluator evaluator =
+        new PredicateEvaluator(
+            applicantData, new JsonPathPredicateGenerator(questions, Optional.empty()));
+    for (PredicateExpressionNode predicate : predicates) {
+      blackhole.consume(evaluator.evaluate(predicate));
+    }
+  }
+
+  @Benchmark
+  public void compiledPredicate(Blackhole blackhole) {
+    for (CompiledPredicate predicate : compiledPredicates) {
+      blackhole.consume(predicate.evaluate(applicantData, Optional.empty()));
+    }
+  }
+}
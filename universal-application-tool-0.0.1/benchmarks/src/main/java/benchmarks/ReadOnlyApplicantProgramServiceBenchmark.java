@@ -0,0 +1,54 @@
+package benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.applicant.AnswerData;
+import services.applicant.Block;
+import services.applicant.SyntheticProgram;
+
+/**
+ * Building the blocks and the summary of an application, as done on every applicant page view and
+ * for every exported application.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadOnlyApplicantProgramServiceBenchmark {
+
+  @Param({"5", "20"})
+  public int blocks;
+
+  @Param({"5"})
+  public int questionsPerBlock;
+
+  private SyntheticProgram program;
+
+  @Setup
+  public void setUp() throws Exception {
+    program = SyntheticProgram.create(blocks, questionsPerBlock);
+  }
+
+  @Benchmark
+  public ImmutableList<Block> getAllActiveBlocks() {
+    return program.newReadOnlyService().getAllActiveBlocks();
+  }
+
+  @Benchmark
+  public ImmutableList<AnswerData> getSummaryData() {
+    return program.newReadOnlyService().getSummaryData();
+  }
+}
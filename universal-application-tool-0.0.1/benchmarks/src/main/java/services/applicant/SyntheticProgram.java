@@ -0,0 +1,165 @@
+package services.applicant;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import models.Applicant;
+import models.Application;
+import models.LifecycleStage;
+import models.Program;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+import services.program.ProgramDefinition;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateAction;
+import services.program.predicate.PredicateDefinition;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.exceptions.UnsupportedQuestionTypeException;
+import services.question.types.QuestionDefinition;
+import services.question.types.QuestionDefinitionBuilder;
+import support.ProgramBuilder;
+import support.QuestionAnswerer;
+import support.TestQuestionBank;
+
+/**
+ * A program of configurable size, with an application that answers every question in it, built
+ * without a database for benchmarks.
+ *
+ * <p>Questions cycle through text, number, name, address and checkbox questions. Every block after
+ * the first is shown only if the first question, a text question, has its expected answer, so
+ * visibility predicates are evaluated for every block.
+ */
+public final class SyntheticProgram {
+  private static final long PROGRAM_ID = 1L;
+  private static final long FIRST_QUESTION_ID = 1000L;
+  private static final String FIRST_ANSWER = "answer 0";
+
+  private final ProgramDefinition programDefinition;
+  private final ImmutableList<QuestionDefinition> questions;
+  private final Application application;
+
+  private SyntheticProgram(
+      ProgramDefinition programDefinition,
+      ImmutableList<QuestionDefinition> questions,
+      Application application) {
+    this.programDefinition = programDefinition;
+    this.questions = questions;
+    this.application = application;
+  }
+
+  /** Creates a program with {@code blocks} blocks of {@code questionsPerBlock} questions each. */
+  public static SyntheticProgram create(int blocks, int questionsPerBlock)
+      throws UnsupportedQuestionTypeException {
+    TestQuestionBank questionBank = new TestQuestionBank(false);
+    ImmutableList<QuestionDefinition> templates =
+        ImmutableList.of(
+            questionBank.applicantFavoriteColor().getQuestionDefinition(),
+            questionBank.applicantJugglingNumber().getQuestionDefinition(),
+            questionBank.applicantName().getQuestionDefinition(),
+            questionBank.applicantAddress().getQuestionDefinition(),
+            questionBank.applicantKitchenTools().getQuestionDefinition());
+
+    ImmutableList.Builder<QuestionDefinition> questions = ImmutableList.builder();
+    for (int i = 0; i < blocks * questionsPerBlock; i++) {
+      QuestionDefinition template = templates.get(i % templates.size());
+      questions.add(
+          new QuestionDefinitionBuilder(template)
+              .setId(FIRST_QUESTION_ID + i)
+              .setName(template.getName() + " " + i)
+              .build());
+    }
+    ImmutableList<QuestionDefinition> allQuestions = questions.build();
+
+    PredicateDefinition firstAnswerGiven =
+        PredicateDefinition.create(
+            PredicateExpressionNode.create(
+                LeafOperationExpressionNode.create(
+                    allQuestions.get(0).getId(),
+                    Scalar.TEXT,
+                    Operator.EQUAL_TO,
+                    PredicateValue.of(FIRST_ANSWER))),
+            PredicateAction.SHOW_BLOCK);
+    ProgramBuilder.BlockBuilder block =
+        ProgramBuilder.newDisconnectedProgram(PROGRAM_ID, "synthetic program").withBlock();
+    for (int b = 0; b < blocks; b++) {
+      if (b > 0) {
+        block = block.withBlock().withPredicate(firstAnswerGiven);
+      }
+      block.withRequiredQuestionDefinitions(
+          allQuestions.subList(b * questionsPerBlock, (b + 1) * questionsPerBlock));
+    }
+    Program program = block.build();
+
+    Applicant applicant = new Applicant();
+    ApplicantData applicantData = applicant.getApplicantData();
+    for (int i = 0; i < allQuestions.size(); i++) {
+      answer(applicantData, allQuestions.get(i), i);
+    }
+    Application application = new Application(applicant, program, LifecycleStage.ACTIVE);
+    return new SyntheticProgram(program.getProgramDefinition(), allQuestions, application);
+  }
+
+  public ProgramDefinition programDefinition() {
+    return programDefinition;
+  }
+
+  public ImmutableList<QuestionDefinition> questions() {
+    return questions;
+  }
+
+  public Application application() {
+    return application;
+  }
+
+  /** Returns a copy of the applicant's answers, which can be changed without affecting others. */
+  public ApplicantData copyApplicantData() {
+    return new ApplicantData(application.getApplicantData().asJsonString());
+  }
+
+  /**
+   * Returns a new {@link ReadOnlyApplicantProgramService} for the application. Services cache the
+   * blocks they compute, so benchmarks create one per invocation.
+   */
+  public ReadOnlyApplicantProgramService newReadOnlyService() {
+    return new ReadOnlyApplicantProgramServiceImpl(
+        application.getApplicantData(), programDefinition, "http://localhost:9000");
+  }
+
+  private static void answer(ApplicantData applicantData, QuestionDefinition question, int index) {
+    ApplicantQuestion applicantQuestion =
+        new ApplicantQuestion(question, applicantData, Optional.empty());
+    switch (question.getQuestionType()) {
+      case TEXT:
+        QuestionAnswerer.answerTextQuestion(
+            applicantData, applicantQuestion.getContextualizedPath(), "answer " + index);
+        break;
+      case NUMBER:
+        QuestionAnswerer.answerNumberQuestion(
+            applicantData, applicantQuestion.getContextualizedPath(), index);
+        break;
+      case NAME:
+        QuestionAnswerer.answerNameQuestion(
+            applicantData, applicantQuestion.getContextualizedPath(), "Alice", "M", "Doe");
+        break;
+      case ADDRESS:
+        QuestionAnswerer.answerAddressQuestion(
+            applicantData,
+            applicantQuestion.getContextualizedPath(),
+            "123 Main St",
+            "Apt " + index,
+            "Seattle",
+            "WA",
+            "98101");
+        break;
+      case CHECKBOX:
+        QuestionAnswerer.answerMultiSelectQuestion(
+            applicantData, applicantQuestion.getContextualizedPath(), 0, 1L);
+        break;
+      default:
+        throw new IllegalStateException("Unexpected question type " + question.getQuestionType());
+    }
+    QuestionAnswerer.addMetadata(
+        applicantData, applicantQuestion.getContextualizedPath(), PROGRAM_ID, 12345L);
+  }
+}
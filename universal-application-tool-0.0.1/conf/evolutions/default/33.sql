@@ -0,0 +1,58 @@
+# --- Track a generation counter for the versioned data model (versions, programs, questions and
+# --- the associations between them). Each transaction that changes those tables bumps the counter
+# --- once, so in-memory snapshots of the active and draft versions can tell when they are stale.
+# --- The row triggers are deferred to commit, so the counter row is only locked while a writer
+# --- commits rather than for the rest of its transaction. Truncate cannot have a deferred trigger
+# --- and bumps the counter straight away.
+
+# --- !Ups
+create table if not exists version_generation (
+  id int primary key,
+  generation bigint not null,
+  last_txid bigint
+);
+insert into version_generation (id, generation) values (1, 0) on conflict do nothing;
+
+create or replace function bump_version_generation() returns trigger as $$
+begin
+  update version_generation set generation = generation + 1, last_txid = txid_current()
+    where id = 1 and last_txid is distinct from txid_current();;
+  return null;;
+end;;
+$$ language plpgsql;
+
+create constraint trigger versions_bump_generation after insert or update or delete on versions
+  deferrable initially deferred for each row execute procedure bump_version_generation();
+create constraint trigger versions_programs_bump_generation after insert or update or delete on versions_programs
+  deferrable initially deferred for each row execute procedure bump_version_generation();
+create constraint trigger versions_questions_bump_generation after insert or update or delete on versions_questions
+  deferrable initially deferred for each row execute procedure bump_version_generation();
+create constraint trigger programs_bump_generation after insert or update or delete on programs
+  deferrable initially deferred for each row execute procedure bump_version_generation();
+create constraint trigger questions_bump_generation after insert or update or delete on questions
+  deferrable initially deferred for each row execute procedure bump_version_generation();
+
+create trigger versions_truncate_bump_generation after truncate on versions
+  for each statement execute procedure bump_version_generation();
+create trigger versions_programs_truncate_bump_generation after truncate on versions_programs
+  for each statement execute procedure bump_version_generation();
+create trigger versions_questions_truncate_bump_generation after truncate on versions_questions
+  for each statement execute procedure bump_version_generation();
+create trigger programs_truncate_bump_generation after truncate on programs
+  for each statement execute procedure bump_version_generation();
+create trigger questions_truncate_bump_generation after truncate on questions
+  for each statement execute procedure bump_version_generation();
+
+# --- !Downs
+drop trigger if exists questions_truncate_bump_generation on questions;
+drop trigger if exists programs_truncate_bump_generation on programs;
+drop trigger if exists versions_questions_truncate_bump_generation on versions_questions;
+drop trigger if exists versions_programs_truncate_bump_generation on versions_programs;
+drop trigger if exists versions_truncate_bump_generation on versions;
+drop trigger if exists questions_bump_generation on questions;
+drop trigger if exists programs_bump_generation on programs;
+drop trigger if exists versions_questions_bump_generation on versions_questions;
+drop trigger if exists versions_programs_bump_generation on versions_programs;
+drop trigger if exists versions_bump_generation on versions;
+drop function if exists bump_version_generation;
+drop table if exists version_generation;
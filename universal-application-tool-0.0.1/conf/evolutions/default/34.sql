@@ -0,0 +1,14 @@
+# --- Persist, per program, the CSV answer columns seen in any of its applications so the default
+# --- CSV export does not need to scan every application to find its headers. A catalog is only
+# --- complete once a scan of the program's existing applications has been merged into it.
+
+# --- !Ups
+create table if not exists program_csv_columns (
+  id bigserial primary key,
+  program_id bigint not null unique,
+  columns jsonb not null,
+  complete boolean not null default true
+);
+
+# --- !Downs
+drop table if exists program_csv_columns;
@@ -0,0 +1,25 @@
+# --- Store each application's applicant name, lowercased and formatted the way the admin
+# --- application list displays it, and index it so name search and paging run in the database.
+
+# --- !Ups
+create extension if not exists pg_trgm;
+
+alter table applications add column if not exists applicant_name varchar generated always as (
+  case
+    when object #>> '{applicant,name,first_name}' is null
+      or object #>> '{applicant,name,last_name}' is null
+    then '<anonymous applicant>'
+    else lower(
+      (object #>> '{applicant,name,last_name}') || ', '
+        || (object #>> '{applicant,name,first_name}'))
+  end
+) stored;
+
+create index if not exists index_applications_by_program on applications (program_id, id);
+create index if not exists index_applications_by_applicant_name
+  on applications using gin (applicant_name gin_trgm_ops);
+
+# --- !Downs
+drop index if exists index_applications_by_applicant_name;
+drop index if exists index_applications_by_program;
+alter table applications drop column if exists applicant_name;
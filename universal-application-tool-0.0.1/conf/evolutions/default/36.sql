@@ -0,0 +1,27 @@
+# --- Store each applicant's name, formatted "last, first" the way the trusted intermediary
+# --- dashboard displays it, and index it so client search, sort and paging run in the database.
+# --- The name is lowercased, as evolution 35 does for applications.applicant_name, so both name
+# --- searches lowercase the search term and match it with LIKE on the indexed column.
+
+# --- !Ups
+alter table applicants add column if not exists applicant_name varchar generated always as (
+  case
+    when object #>> '{applicant,name,first_name}' is null
+      or object #>> '{applicant,name,last_name}' is null
+    then '<anonymous applicant>'
+    else lower(
+      (object #>> '{applicant,name,last_name}') || ', '
+        || (object #>> '{applicant,name,first_name}'))
+  end
+) stored;
+
+create index if not exists index_applicants_by_account on applicants (account_id, when_created);
+create index if not exists index_applicants_by_applicant_name
+  on applicants using gin (applicant_name gin_trgm_ops);
+create index if not exists index_accounts_by_managed_by_group on accounts (managed_by_group_id);
+
+# --- !Downs
+drop index if exists index_accounts_by_managed_by_group;
+drop index if exists index_applicants_by_applicant_name;
+drop index if exists index_applicants_by_account;
+alter table applicants drop column if exists applicant_name;
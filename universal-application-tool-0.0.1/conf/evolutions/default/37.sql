@@ -0,0 +1,22 @@
+# --- Email outbox: notifications are recorded in the transaction that triggers them and sent
+# --- later by a background dispatcher, so requests do not wait on the email service.
+
+# --- !Ups
+create table if not exists outgoing_emails (
+  id bigserial primary key,
+  to_addresses varchar[] not null,
+  subject varchar not null,
+  body text not null,
+  create_time timestamp not null,
+  attempts integer not null default 0,
+  next_attempt_time timestamp,
+  sent_time timestamp,
+  last_error text
+);
+
+create index if not exists index_outgoing_emails_pending
+  on outgoing_emails (next_attempt_time) where sent_time is null;
+
+# --- !Downs
+drop index if exists index_outgoing_emails_pending;
+drop table if exists outgoing_emails;
@@ -0,0 +1,36 @@
+# --- Background CSV exports: each export runs as a job whose progress admins can follow, and whose
+# --- file is kept in storage and reused until the applications it covers change. At most one job
+# --- per export is queued or running, so that two requests racing to start the same export cannot
+# --- both insert a job. The demographics export has no program id.
+
+# --- !Ups
+create table if not exists export_jobs (
+  id bigserial primary key,
+  program_id bigint,
+  fingerprint varchar not null,
+  status varchar not null,
+  rows_total integer not null default 0,
+  rows_written integer not null default 0,
+  storage_key varchar,
+  error text,
+  create_time timestamp not null,
+  start_time timestamp,
+  finish_time timestamp,
+  heartbeat_time timestamp not null
+);
+
+create index if not exists index_export_jobs_by_fingerprint
+  on export_jobs (fingerprint, create_time);
+
+create index if not exists index_export_jobs_by_finish_time
+  on export_jobs (finish_time);
+
+create unique index if not exists index_export_jobs_one_unfinished
+  on export_jobs ((coalesce(program_id, 0)))
+  where status in ('queued', 'running');
+
+# --- !Downs
+drop index if exists index_export_jobs_one_unfinished;
+drop index if exists index_export_jobs_by_finish_time;
+drop index if exists index_export_jobs_by_fingerprint;
+drop table if exists export_jobs;
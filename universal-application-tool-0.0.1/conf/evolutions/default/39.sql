@@ -0,0 +1,9 @@
+# --- Index the questions each program uses, so the programs that use a question can be found
+# --- without reading every program in a version when the question gets a new draft.
+
+# --- !Ups
+create index if not exists index_programs_by_block_definitions
+  on programs using gin (block_definitions jsonb_path_ops);
+
+# --- !Downs
+drop index if exists index_programs_by_block_definitions;
@@ -0,0 +1,49 @@
+package auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import models.Account;
+import org.junit.Before;
+import org.junit.Test;
+import repository.WithPostgresContainer;
+import support.QueryCounter;
+
+public class AccountValidityCacheTest extends WithPostgresContainer {
+
+  private AccountValidityCache cache;
+  private ProfileFactory profileFactory;
+
+  @Before
+  public void setUp() {
+    cache = instanceOf(AccountValidityCache.class);
+    profileFactory = instanceOf(ProfileFactory.class);
+  }
+
+  @Test
+  public void isValid_remembersExistingAccountUntilInvalidated() {
+    Account account = resourceCreator.insertAccount();
+    CiviFormProfile profile = profileFactory.wrap(account);
+
+    assertThat(cache.isValid(profile).toCompletableFuture().join()).isTrue();
+
+    account.delete();
+    assertThat(cache.isValid(profile).toCompletableFuture().join()).isTrue();
+
+    cache.invalidate(account.id);
+    assertThat(cache.isValid(profile).toCompletableFuture().join()).isFalse();
+  }
+
+  @Test
+  public void isValid_doesNotRememberMissingAccount() {
+    Account account = resourceCreator.insertAccount();
+    CiviFormProfile profile = profileFactory.wrap(account);
+    account.delete();
+
+    assertThat(cache.isValid(profile).toCompletableFuture().join()).isFalse();
+
+    try (QueryCounter queryCounter = QueryCounter.start()) {
+      assertThat(cache.isValid(profile).toCompletableFuture().join()).isFalse();
+      assertThat(queryCounter.count()).isEqualTo(1);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.fakeRequest;
+import static play.test.Helpers.route;
+import static play.test.Helpers.testServerPort;
+
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.junit.Test;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.WithApplication;
+
+public class DisableCachingFilterTest extends WithApplication {
+  private static final String ASSET = "images/external.png";
+
+  /** The fingerprint of {@link #ASSET}, as the sbt-digest pipeline stage records it. */
+  private String assetDigest;
+
+  /**
+   * Starts the application with a digest file next to {@link #ASSET}, as the asset pipeline writes
+   * one for each asset in production builds, so the assets controller serves it fingerprinted.
+   */
+  @Override
+  protected Application provideApplication() {
+    ClassLoader parent = getClass().getClassLoader();
+    try (InputStream asset = parent.getResourceAsStream("public/" + ASSET)) {
+      assetDigest =
+          String.format(
+              "%032x",
+              new BigInteger(
+                  1, MessageDigest.getInstance("MD5").digest(ByteStreams.toByteArray(asset))));
+      Path digests = Files.createTempDirectory("asset-digests");
+      Path digestFile = digests.resolve("public/" + ASSET + ".md5");
+      Files.createDirectories(digestFile.getParent());
+      Files.writeString(digestFile, assetDigest, StandardCharsets.UTF_8);
+      return new GuiceApplicationBuilder()
+          .in(new URLClassLoader(new URL[] {digests.toUri().toURL()}, parent))
+          .build();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Test
+  public void disablesCachingOfPages() {
+    Result result = route(app, request(controllers.routes.HomeController.playIndex().url()));
+
+    assertThat(result.header(Http.HeaderNames.CACHE_CONTROL))
+        .contains("no-cache, must-revalidate");
+    assertThat(result.header(Http.HeaderNames.PRAGMA)).contains("no-cache");
+  }
+
+  @Test
+  public void leavesVersionedAssetsToTheAssetsController() {
+    Result result = route(app, request("/assets/images/" + assetDigest + "-external.png"));
+
+    assertThat(result.status()).isEqualTo(Http.Status.OK);
+    assertThat(result.header(Http.HeaderNames.CACHE_CONTROL))
+        .contains("public, max-age=31536000, immutable");
+    assertThat(result.header(Http.HeaderNames.PRAGMA)).isEmpty();
+    assertThat(result.header(Http.HeaderNames.EXPIRES)).isEmpty();
+  }
+
+  @Test
+  public void leavesPlainAssetsToTheAssetsController() {
+    Result result = route(app, request("/assets/" + ASSET));
+
+    assertThat(result.status()).isEqualTo(Http.Status.OK);
+    assertThat(result.header(Http.HeaderNames.CACHE_CONTROL)).contains("no-cache");
+    assertThat(result.header(Http.HeaderNames.PRAGMA)).isEmpty();
+    assertThat(result.header(Http.HeaderNames.EXPIRES)).isEmpty();
+  }
+
+  private static Http.RequestBuilder request(String path) {
+    return fakeRequest("GET", path).header(Http.HeaderNames.HOST, "localhost:" + testServerPort());
+  }
+}
@@ -2,6 +2,7 @@ package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import java.time.Instant;
 import java.util.Optional;
 import models.Applicant;
@@ -68,6 +69,35 @@ public class ApplicationRepositoryTest extends WithPostgresContainer {
     assertThat(applicationTwo.getSubmitTime()).isAfter(initialSubmitTime);
   }
 
+  @Test
+  public void getApplicationsAfter_pagesInIdOrder() {
+    Program program = saveProgram("Program");
+    Program otherProgram = saveProgram("OtherProgram");
+    Application first = saveApplication(saveApplicant("Alice"), program);
+    Application other = saveApplication(saveApplicant("Bob"), otherProgram);
+    Application second = saveApplication(saveApplicant("Carol"), program);
+    Application third = saveApplication(saveApplicant("Dave"), program);
+
+    assertThat(getApplicationsAfter(Optional.of(program.id), 0, 2)).containsExactly(first, second);
+    assertThat(getApplicationsAfter(Optional.of(program.id), second.id, 2)).containsExactly(third);
+    assertThat(getApplicationsAfter(Optional.of(program.id), third.id, 2)).isEmpty();
+    assertThat(getApplicationsAfter(Optional.empty(), first.id, 10))
+        .containsExactly(other, second, third);
+  }
+
+  private ImmutableList<Application> getApplicationsAfter(
+      Optional<Long> programId, long afterId, int pageSize) {
+    return repo.getApplicationsAfter(programId, afterId, pageSize, DatabaseWorkload.EXPORT)
+        .toCompletableFuture()
+        .join();
+  }
+
+  private Application saveApplication(Applicant applicant, Program program) {
+    Application application = new Application(applicant, program, LifecycleStage.ACTIVE);
+    application.save();
+    return application;
+  }
+
   private Applicant saveApplicant(String name) {
     Applicant applicant = new Applicant();
     applicant.getApplicantData().putString(Path.create("$.applicant.name"), name);
@@ -0,0 +1,51 @@
+package repository;
+
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatabaseExecutionContextTest extends WithPostgresContainer {
+
+  private DatabaseExecutionContext executionContext;
+
+  @Before
+  public void setUp() {
+    executionContext = instanceOf(DatabaseExecutionContext.class);
+  }
+
+  @Test
+  public void execute_countsRunningTasks() throws Exception {
+    assertCountsRunningTask(executionContext);
+  }
+
+  @Test
+  public void current_countsRunningTasks() throws Exception {
+    // Repositories submit through current(), e.g. supplyAsync(..., executionContext.current()).
+    assertCountsRunningTask(executionContext.current());
+  }
+
+  private void assertCountsRunningTask(Executor executor) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Void> task =
+        runAsync(
+            () -> {
+              started.countDown();
+              Uninterruptibles.awaitUninterruptibly(release);
+            },
+            executor);
+    started.await();
+    long activeWhileRunning = executionContext.activeTaskCount();
+    release.countDown();
+    task.join();
+
+    assertThat(activeWhileRunning).isPositive();
+  }
+}
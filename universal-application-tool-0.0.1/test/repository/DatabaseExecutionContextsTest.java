@@ -0,0 +1,36 @@
+package repository;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DatabaseExecutionContextsTest extends WithPostgresContainer {
+
+  private DatabaseExecutionContexts executionContexts;
+
+  @Before
+  public void setUp() {
+    executionContexts = instanceOf(DatabaseExecutionContexts.class);
+  }
+
+  @Test
+  public void forWorkload_applicantIsTheDefaultContext() {
+    assertThat(executionContexts.forWorkload(DatabaseWorkload.APPLICANT))
+        .isSameAs(instanceOf(DatabaseExecutionContext.class));
+  }
+
+  @Test
+  public void forWorkload_runsOnTheWorkloadsDispatcher() {
+    for (DatabaseWorkload workload : DatabaseWorkload.values()) {
+      String threadName =
+          supplyAsync(
+                  () -> Thread.currentThread().getName(),
+                  executionContexts.forWorkload(workload))
+              .join();
+
+      assertThat(threadName).contains(workload.dispatcherName());
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.Ebean;
+import java.time.Instant;
+import models.OutgoingEmail;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OutgoingEmailRepositoryTest extends WithPostgresContainer {
+  private static final Instant NOW = Instant.parse("2021-08-01T10:00:00Z");
+
+  private OutgoingEmailRepository repo;
+
+  @Before
+  public void setupOutgoingEmailRepository() {
+    repo = instanceOf(OutgoingEmailRepository.class);
+  }
+
+  @Test
+  public void claimDue_leasesEmailsUntilLeaseRunsOut() {
+    OutgoingEmail email = insertEmail();
+    Instant leaseUntil = NOW.plusSeconds(300);
+
+    assertThat(repo.claimDue(NOW, 10, leaseUntil)).containsExactly(email);
+    assertThat(repo.claimDue(NOW.plusSeconds(60), 10, NOW.plusSeconds(360))).isEmpty();
+    assertThat(repo.claimDue(leaseUntil, 10, NOW.plusSeconds(600))).containsExactly(email);
+    assertThat(repo.countPending()).isEqualTo(1);
+  }
+
+  @Test
+  public void recordAttempts_savesClaimedEmails() {
+    insertEmail();
+    Instant leaseUntil = NOW.plusSeconds(300);
+    ImmutableList<OutgoingEmail> claimed = repo.claimDue(NOW, 10, leaseUntil);
+    claimed.get(0).markSent(NOW);
+
+    assertThat(repo.recordAttempts(claimed, leaseUntil)).isEqualTo(1);
+
+    OutgoingEmail saved = Ebean.find(OutgoingEmail.class, claimed.get(0).id);
+    assertThat(saved.getSentTime()).contains(NOW);
+    assertThat(repo.countPending()).isEqualTo(0);
+  }
+
+  @Test
+  public void recordAttempts_leavesEmailsClaimedAgainToTheirNewClaim() {
+    insertEmail();
+    Instant firstLease = NOW.plusSeconds(300);
+    ImmutableList<OutgoingEmail> firstClaim = repo.claimDue(NOW, 10, firstLease);
+    repo.claimDue(firstLease, 10, firstLease.plusSeconds(300));
+    firstClaim.get(0).markSent(NOW);
+
+    assertThat(repo.recordAttempts(firstClaim, firstLease)).isEqualTo(0);
+
+    OutgoingEmail saved = Ebean.find(OutgoingEmail.class, firstClaim.get(0).id);
+    assertThat(saved.getSentTime()).isEmpty();
+    assertThat(saved.getNextAttemptTime()).contains(firstLease.plusSeconds(300));
+  }
+
+  private OutgoingEmail insertEmail() {
+    OutgoingEmail email =
+        new OutgoingEmail(ImmutableList.of("a@example.com"), "subject", "body", NOW);
+    Ebean.save(email);
+    return email;
+  }
+}
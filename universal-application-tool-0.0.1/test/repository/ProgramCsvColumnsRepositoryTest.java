@@ -0,0 +1,74 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProgramCsvColumnsRepositoryTest extends WithPostgresContainer {
+  private ProgramCsvColumnsRepository repo;
+
+  @Before
+  public void setupProgramCsvColumnsRepository() {
+    repo = instanceOf(ProgramCsvColumnsRepository.class);
+  }
+
+  @Test
+  public void lookupColumns_emptyWithoutCatalog() {
+    assertThat(repo.lookupColumns(1L)).isEmpty();
+  }
+
+  @Test
+  public void mergeColumnsIfPresent_doesNotCreateCatalog() {
+    repo.mergeColumnsIfPresent(1L, ImmutableMap.of("1-0", ImmutableList.of("applicant.a.text")));
+
+    assertThat(repo.lookupColumns(1L)).isEmpty();
+  }
+
+  @Test
+  public void insertOrMergeColumns_keepsExistingEntriesAndAddsNewOnes() {
+    repo.insertOrMergeColumns(1L, ImmutableMap.of("1-0", ImmutableList.of("applicant.a.text")));
+    repo.insertOrMergeColumns(
+        1L,
+        ImmutableMap.of(
+            "1-0", ImmutableList.of("applicant.other.text"),
+            "2-0", ImmutableList.of("applicant.b.first_name", "applicant.b.last_name")));
+    repo.mergeColumnsIfPresent(1L, ImmutableMap.of("3-0", ImmutableList.of()));
+
+    assertThat(repo.lookupColumns(1L))
+        .hasValue(
+            ImmutableMap.of(
+                "1-0", ImmutableList.of("applicant.a.text"),
+                "2-0", ImmutableList.of("applicant.b.first_name", "applicant.b.last_name"),
+                "3-0", ImmutableList.of()));
+    assertThat(repo.lookupColumns(2L)).isEmpty();
+  }
+
+  @Test
+  public void startColumns_collectsMergesButHidesCatalogUntilComplete() {
+    repo.startColumns(1L);
+    repo.mergeColumnsIfPresent(1L, ImmutableMap.of("1-0", ImmutableList.of("applicant.a.text")));
+
+    assertThat(repo.lookupColumns(1L)).isEmpty();
+
+    repo.insertOrMergeColumns(1L, ImmutableMap.of("2-0", ImmutableList.of("applicant.b.text")));
+
+    assertThat(repo.lookupColumns(1L))
+        .hasValue(
+            ImmutableMap.of(
+                "1-0", ImmutableList.of("applicant.a.text"),
+                "2-0", ImmutableList.of("applicant.b.text")));
+  }
+
+  @Test
+  public void startColumns_leavesCompleteCatalogComplete() {
+    repo.insertOrMergeColumns(1L, ImmutableMap.of("1-0", ImmutableList.of("applicant.a.text")));
+
+    repo.startColumns(1L);
+
+    assertThat(repo.lookupColumns(1L))
+        .hasValue(ImmutableMap.of("1-0", ImmutableList.of("applicant.a.text")));
+  }
+}
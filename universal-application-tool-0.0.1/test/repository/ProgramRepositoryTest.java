@@ -1,15 +1,22 @@
 package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
+import com.google.common.collect.ImmutableList;
 import io.ebean.DB;
 import java.util.Locale;
 import java.util.Optional;
 import models.Account;
+import models.Applicant;
+import models.Application;
+import models.LifecycleStage;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
 import services.LocalizedStrings;
+import services.PaginationInfo;
+import services.WellKnownPaths;
 import services.program.ProgramNotFoundException;
 
 public class ProgramRepositoryTest extends WithPostgresContainer {
@@ -40,6 +47,15 @@ public class ProgramRepositoryTest extends WithPostgresContainer {
     assertThat(found).hasValue(two);
   }
 
+  @Test
+  public void getProgramNames_leavesOutMissingPrograms() {
+    Program one = resourceCreator.insertActiveProgram("one");
+    Program two = resourceCreator.insertDraftProgram("two");
+
+    assertThat(repo.getProgramNames(ImmutableList.of(one.id, two.id, two.id + 1000)))
+        .containsOnly(entry(one.id, "one"), entry(two.id, "two"));
+  }
+
   @Test
   public void loadLegacy() {
     DB.sqlUpdate(
@@ -139,4 +155,58 @@ public class ProgramRepositoryTest extends WithPostgresContainer {
     Program newDraft = repo.createOrUpdateDraft(withAdmins);
     assertThat(repo.getProgramAdministrators(newDraft.id)).containsExactly(admin);
   }
+
+  @Test
+  public void getApplicationsForProgram_pagesInIdOrder() {
+    Program program = resourceCreator.insertActiveProgram("program");
+    Program otherProgram = resourceCreator.insertActiveProgram("other program");
+    Application first = insertApplication(program, "Alice", "Smith");
+    Application second = insertApplication(program, "Bob", "Jones");
+    insertApplication(otherProgram, "Carol", "Smith");
+    Application third = insertApplication(program, "Dave", "Smithers");
+
+    PaginationInfo<Application> firstPage = findApplications(program.id, Optional.empty(), 2, 1);
+    PaginationInfo<Application> secondPage = findApplications(program.id, Optional.empty(), 2, 2);
+
+    assertThat(firstPage.getPageItems()).containsExactly(first, second);
+    assertThat(firstPage.getPageCount()).isEqualTo(2);
+    assertThat(secondPage.getPageItems()).containsExactly(third);
+    assertThat(secondPage.getPage()).isEqualTo(2);
+  }
+
+  @Test
+  public void getApplicationsForProgram_searchesApplicantNameIgnoringCase() {
+    Program program = resourceCreator.insertActiveProgram("program");
+    Application smith = insertApplication(program, "Alice", "Smith");
+    insertApplication(program, "Bob", "Jones");
+    Application smithers = insertApplication(program, "Dave", "Smithers");
+
+    PaginationInfo<Application> byLastName =
+        findApplications(program.id, Optional.of("SMITH"), 10, 1);
+    PaginationInfo<Application> byFullName =
+        findApplications(program.id, Optional.of("smith, alice"), 10, 1);
+    PaginationInfo<Application> wildcard = findApplications(program.id, Optional.of("%"), 10, 1);
+
+    assertThat(byLastName.getPageItems()).containsExactly(smith, smithers);
+    assertThat(byFullName.getPageItems()).containsExactly(smith);
+    assertThat(wildcard.getPageItems()).isEmpty();
+    assertThat(wildcard.getPageCount()).isEqualTo(1);
+  }
+
+  private PaginationInfo<Application> findApplications(
+      long programId, Optional<String> search, int pageSize, int page) {
+    return repo.getApplicationsForProgram(programId, search, pageSize, page)
+        .toCompletableFuture()
+        .join();
+  }
+
+  private Application insertApplication(Program program, String firstName, String lastName) {
+    Applicant applicant = resourceCreator.insertApplicant();
+    applicant.getApplicantData().putString(WellKnownPaths.APPLICANT_FIRST_NAME, firstName);
+    applicant.getApplicantData().putString(WellKnownPaths.APPLICANT_LAST_NAME, lastName);
+    applicant.save();
+    Application application = new Application(applicant, program, LifecycleStage.ACTIVE);
+    application.save();
+    return application;
+  }
 }
@@ -0,0 +1,51 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import org.junit.Test;
+
+public class QueryProfileTest {
+
+  @Test
+  public void shapeOf_removesTransactionIdBindsAndLiterals() {
+    assertThat(
+            QueryProfile.shapeOf(
+                "txn[1004] select t0.id, t0.name from programs t0 where t0.id = ?  and t0.name ="
+                    + " 'a''b'; --bind(42) --micros(310)"))
+        .isEqualTo("select t0.id, t0.name from programs t0 where t0.id = ? and t0.name = ?");
+  }
+
+  @Test
+  public void shapeOf_collapsesParameterLists() {
+    assertThat(QueryProfile.shapeOf("txn[1] select t0.id from questions t0 where t0.id in (?,?,?)"))
+        .isEqualTo("select t0.id from questions t0 where t0.id in (?...)");
+  }
+
+  @Test
+  public void record_countsStatementsAndTime() {
+    QueryProfile profile = new QueryProfile("GET /programs");
+
+    profile.record("txn[1] select t0.id from programs t0 where t0.id = ?; --bind(1) --micros(100)");
+    profile.record("txn[1] select t0.id from programs t0 where t0.id = ?; --bind(2) --micros(50)");
+    profile.record("txn[2] select t0.id from versions t0");
+
+    assertThat(profile.getLabel()).isEqualTo("GET /programs");
+    assertThat(profile.getQueryCount()).isEqualTo(3);
+    assertThat(profile.getQueryMicros()).isEqualTo(150);
+  }
+
+  @Test
+  public void getRepeatedShapes_returnsShapesRunAtLeastThatManyTimes() {
+    QueryProfile profile = new QueryProfile("GET /programs");
+
+    for (int id = 0; id < 5; id++) {
+      profile.record("txn[1] select t0.id from programs t0 where t0.id = ?; --bind(" + id + ")");
+    }
+    profile.record("txn[1] select t0.id from versions t0");
+
+    assertThat(profile.getRepeatedShapes(5))
+        .containsExactly(entry("select t0.id from programs t0 where t0.id = ?", 5));
+    assertThat(profile.getRepeatedShapes(6)).isEmpty();
+  }
+}
@@ -0,0 +1,94 @@
+package repository;
+
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import models.Account;
+import org.junit.Before;
+import org.junit.Test;
+import support.QueryCounter;
+
+public class QueryProfilerTest extends WithPostgresContainer {
+
+  private QueryProfiler queryProfiler;
+  private UserRepository userRepository;
+  private DatabaseExecutionContext databaseExecutionContext;
+  private QueryProfilingHttpExecutionContext httpExecutionContext;
+
+  @Before
+  public void setUp() {
+    queryProfiler = instanceOf(QueryProfiler.class);
+    userRepository = instanceOf(UserRepository.class);
+    databaseExecutionContext = instanceOf(DatabaseExecutionContext.class);
+    httpExecutionContext = instanceOf(QueryProfilingHttpExecutionContext.class);
+  }
+
+  @Test
+  public void attach_profilesDatabaseTasksSubmittedByTheThread() {
+    Account account = resourceCreator.insertAccount();
+    QueryProfile profile = queryProfiler.attach("test").get();
+    try {
+      userRepository.lookupAccount(account.id).toCompletableFuture().join();
+      userRepository.lookupAccount(account.id).toCompletableFuture().join();
+    } finally {
+      queryProfiler.detach();
+    }
+
+    assertThat(profile.getQueryCount()).isEqualTo(2);
+    assertThat(profile.getRepeatedShapes(2)).hasSize(1);
+  }
+
+  @Test
+  public void attach_profilesTasksSubmittedThroughCurrent() {
+    Account account = resourceCreator.insertAccountWithEmail("profiled@example.com");
+    QueryProfile profile = queryProfiler.attach("test").get();
+    try {
+      supplyAsync(
+              () -> userRepository.lookupAccount(account.getEmailAddress()),
+              databaseExecutionContext.current())
+          .join();
+    } finally {
+      queryProfiler.detach();
+    }
+
+    assertThat(profile.getQueryCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void attach_profilesContinuationsOnTheHttpExecutionContext() {
+    Account account = resourceCreator.insertAccountWithEmail("profiled@example.com");
+    QueryProfile profile = queryProfiler.attach("test").get();
+    try {
+      userRepository
+          .lookupAccount(account.id)
+          .thenApplyAsync(
+              unused -> userRepository.lookupAccount(account.getEmailAddress()),
+              httpExecutionContext.current())
+          .toCompletableFuture()
+          .join();
+    } finally {
+      queryProfiler.detach();
+    }
+
+    assertThat(profile.getQueryCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void detach_stopsProfiling() {
+    Account account = resourceCreator.insertAccount();
+    QueryProfile profile = queryProfiler.attach("test").get();
+    queryProfiler.detach();
+
+    userRepository.lookupAccount(account.id).toCompletableFuture().join();
+
+    assertThat(profile.getQueryCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void lookupAccount_staysWithinQueryBudget() {
+    Account account = resourceCreator.insertAccount();
+
+    QueryCounter.withinBudget(
+        1, () -> userRepository.lookupAccount(account.id).toCompletableFuture().join());
+  }
+}
@@ -1,13 +1,17 @@
 package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
+import com.google.common.collect.ImmutableList;
 import java.util.Optional;
 import java.util.Set;
 import models.Account;
 import models.Applicant;
+import models.TrustedIntermediaryGroup;
 import org.junit.Before;
 import org.junit.Test;
+import services.PaginationInfo;
 import services.Path;
 import services.program.ProgramDefinition;
 import support.ProgramBuilder;
@@ -175,6 +179,106 @@ public class UserRepositoryTest extends WithPostgresContainer {
         .doesNotContain(programName);
   }
 
+  @Test
+  public void getManagedAccounts_sortsAndPagesByApplicantName() {
+    TrustedIntermediaryGroup tiGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    TrustedIntermediaryGroup otherGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    Account carol = saveManagedAccount(tiGroup, "Carol", "Clark");
+    Account alice = saveManagedAccount(tiGroup, "Alice", "Adams");
+    saveManagedAccount(otherGroup, "Aaron", "Aardvark");
+    Account bob = saveManagedAccount(tiGroup, "Bob", "Baker");
+
+    PaginationInfo<Account> firstPage = findManagedAccounts(tiGroup, Optional.empty(), 2, 1);
+    PaginationInfo<Account> secondPage = findManagedAccounts(tiGroup, Optional.empty(), 2, 2);
+
+    assertThat(firstPage.getPageItems()).containsExactly(alice, bob);
+    assertThat(firstPage.getPageCount()).isEqualTo(2);
+    assertThat(secondPage.getPageItems()).containsExactly(carol);
+  }
+
+  @Test
+  public void getManagedAccounts_sortsByApplicantNameIgnoringCase() {
+    TrustedIntermediaryGroup tiGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    Account zimmer = saveManagedAccount(tiGroup, "Ann", "Zimmer");
+    Account deLaCruz = saveManagedAccount(tiGroup, "Maria", "de la Cruz");
+    Account baker = saveManagedAccount(tiGroup, "bob", "Baker");
+
+    // Sorting by case would put "de la Cruz" after "Zimmer".
+    assertThat(findManagedAccounts(tiGroup, Optional.empty(), 10, 1).getPageItems())
+        .containsExactly(baker, deLaCruz, zimmer);
+  }
+
+  @Test
+  public void getManagedAccounts_searchesApplicantNameIgnoringCase() {
+    TrustedIntermediaryGroup tiGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    Account smith = saveManagedAccount(tiGroup, "Alice", "Smith");
+    saveManagedAccount(tiGroup, "Bob", "Jones");
+    Account unnamed = resourceCreator.insertAccount();
+    unnamed.setManagedByGroup(tiGroup);
+    unnamed.save();
+
+    assertThat(findManagedAccounts(tiGroup, Optional.of("SMITH, a"), 10, 1).getPageItems())
+        .containsExactly(smith);
+    assertThat(findManagedAccounts(tiGroup, Optional.of("unnamed"), 10, 1).getPageItems())
+        .containsExactly(unnamed);
+    assertThat(findManagedAccounts(tiGroup, Optional.of("_"), 10, 1).getPageItems()).isEmpty();
+  }
+
+  @Test
+  public void getTrustedIntermediaries_returnsGroupMembersWithTheirNames() {
+    TrustedIntermediaryGroup tiGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    TrustedIntermediaryGroup otherGroup = resourceCreator.insertTrustedIntermediaryGroup();
+    Account member = resourceCreator.insertAccount();
+    member.setMemberOfGroup(tiGroup);
+    member.save();
+    Applicant applicant = new Applicant();
+    applicant.setAccount(member);
+    applicant.getApplicantData().setUserName("Alice", null, "Adams");
+    applicant.save();
+    Account otherMember = resourceCreator.insertAccount();
+    otherMember.setMemberOfGroup(otherGroup);
+    otherMember.save();
+
+    ImmutableList<Account> trustedIntermediaries =
+        repo.getTrustedIntermediaries(tiGroup).toCompletableFuture().join();
+
+    assertThat(trustedIntermediaries).containsExactly(member);
+    assertThat(trustedIntermediaries.get(0).getApplicantName()).isEqualTo("Adams, Alice");
+  }
+
+  @Test
+  public void getManagingGroupNames_onlyIncludesManagedApplicants() {
+    TrustedIntermediaryGroup tiGroup = resourceCreator.insertTrustedIntermediaryGroup("Helpers");
+    Account managedAccount = resourceCreator.insertAccount();
+    managedAccount.setManagedByGroup(tiGroup);
+    managedAccount.save();
+    Applicant managed = saveApplicant("Alice");
+    managed.setAccount(managedAccount);
+    managed.save();
+    Applicant unmanaged = saveApplicant("Bob");
+
+    assertThat(repo.getManagingGroupNames(ImmutableList.of(managed.id, unmanaged.id)))
+        .containsExactly(entry(managed.id, "Helpers"));
+    assertThat(repo.getManagingGroupNames(ImmutableList.of())).isEmpty();
+  }
+
+  private PaginationInfo<Account> findManagedAccounts(
+      TrustedIntermediaryGroup tiGroup, Optional<String> search, int pageSize, int page) {
+    return repo.getManagedAccounts(tiGroup, search, pageSize, page).toCompletableFuture().join();
+  }
+
+  private Account saveManagedAccount(
+      TrustedIntermediaryGroup tiGroup, String firstName, String lastName) {
+    Account account = resourceCreator.insertAccount();
+    account.setManagedByGroup(tiGroup);
+    account.save();
+    Applicant applicant = new Applicant();
+    applicant.setAccount(account);
+    applicant.getApplicantData().setUserName(firstName, null, lastName);
+    applicant.save();
+    return account;
+  }
+
   private Applicant saveApplicant(String name) {
     Applicant applicant = new Applicant();
     applicant.getApplicantData().putString(Path.create("$.applicant.name"), name);
@@ -2,6 +2,7 @@ package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import io.ebean.Transaction;
@@ -23,6 +24,7 @@ import services.program.predicate.PredicateExpressionNode;
 import services.program.predicate.PredicateExpressionNodeType;
 import services.program.predicate.PredicateValue;
 import support.ProgramBuilder;
+import support.QueryCounter;
 
 public class VersionRepositoryTest extends WithPostgresContainer {
   private VersionRepository versionRepository;
@@ -47,6 +49,34 @@ public class VersionRepositoryTest extends WithPostgresContainer {
     assertThat(oldDraft.getLifecycleStage()).isEqualTo(LifecycleStage.ACTIVE);
   }
 
+  @Test
+  public void testPublish_carriesOverActiveQuestionsByName() {
+    Version draft = versionRepository.getDraftVersion();
+    Version active = versionRepository.getActiveVersion();
+    resourceCreator.insertDraftProgram("program");
+    Question kept = resourceCreator.insertQuestion("kept");
+    kept.addVersion(active);
+    kept.save();
+    Question oldEdited = resourceCreator.insertQuestion("edited");
+    oldEdited.addVersion(active);
+    oldEdited.save();
+    Question newEdited = resourceCreator.insertQuestion("edited");
+    newEdited.addVersion(draft);
+    newEdited.save();
+    Question deleted = resourceCreator.insertQuestion("deleted");
+    deleted.addVersion(active);
+    deleted.save();
+    draft.refresh();
+    draft.addTombstoneForQuestion(deleted);
+    draft.save();
+
+    versionRepository.publishNewSynchronizedVersion();
+
+    assertThat(versionRepository.getActiveVersion().getQuestions())
+        .extracting(question -> question.id)
+        .containsExactlyInAnyOrder(kept.id, newEdited.id);
+  }
+
   @Test
   public void testSetLive() {
     resourceCreator.insertActiveProgram("foo");
@@ -89,6 +119,106 @@ public class VersionRepositoryTest extends WithPostgresContainer {
     assertThat(draft).isEqualTo(draft2);
   }
 
+  @Test
+  public void updateProgramsForNewDraftQuestion_draftsOnlyProgramsUsingQuestion() {
+    Version active = versionRepository.getActiveVersion();
+    Question oldShared = resourceCreator.insertQuestion("shared");
+    oldShared.addVersion(active);
+    oldShared.save();
+    Question other = resourceCreator.insertQuestion("other");
+    other.addVersion(active);
+    other.save();
+    ProgramBuilder.newActiveProgram("uses shared")
+        .withBlock()
+        .withRequiredQuestion(oldShared)
+        .build();
+    ProgramBuilder.newActiveProgram("uses other").withBlock().withRequiredQuestion(other).build();
+    Question newShared = resourceCreator.insertQuestion("shared");
+    newShared.addVersion(versionRepository.getDraftVersion());
+    newShared.save();
+
+    versionRepository.updateProgramsForNewDraftQuestion(oldShared.id);
+
+    Version draft = versionRepository.getDraftVersion();
+    draft.refresh();
+    assertThat(draft.getPrograms()).hasSize(1);
+    ProgramDefinition draftProgram = draft.getPrograms().get(0).getProgramDefinition();
+    assertThat(draftProgram.adminName()).isEqualTo("uses shared");
+    assertThat(draftProgram.hasQuestion(newShared.id)).isTrue();
+    assertThat(draftProgram.hasQuestion(oldShared.id)).isFalse();
+  }
+
+  @Test
+  public void updateProgramsForNewDraftQuestion_updatesDraftProgramInPlace() {
+    Version active = versionRepository.getActiveVersion();
+    Question oldShared = resourceCreator.insertQuestion("shared");
+    oldShared.addVersion(active);
+    oldShared.save();
+    Program draftProgram =
+        ProgramBuilder.newDraftProgram("uses shared")
+            .withBlock()
+            .withRequiredQuestion(oldShared)
+            .build();
+    Question newShared = resourceCreator.insertQuestion("shared");
+    newShared.addVersion(versionRepository.getDraftVersion());
+    newShared.save();
+
+    versionRepository.updateProgramsForNewDraftQuestion(oldShared.id);
+
+    Version draft = versionRepository.getDraftVersion();
+    draft.refresh();
+    assertThat(draft.getPrograms())
+        .extracting(program -> program.id)
+        .containsExactly(draftProgram.id);
+    ProgramDefinition updated = draft.getPrograms().get(0).getProgramDefinition();
+    assertThat(updated.hasQuestion(newShared.id)).isTrue();
+    assertThat(updated.hasQuestion(oldShared.id)).isFalse();
+  }
+
+  @Test
+  public void updateProgramsForNewDraftQuestion_updatesPredicatesOnQuestion() {
+    Version active = versionRepository.getActiveVersion();
+    Question oldShared = resourceCreator.insertQuestion("shared");
+    oldShared.addVersion(active);
+    oldShared.save();
+    Question other = resourceCreator.insertQuestion("other");
+    other.addVersion(active);
+    other.save();
+    PredicateDefinition predicate =
+        PredicateDefinition.create(
+            PredicateExpressionNode.create(
+                LeafOperationExpressionNode.create(
+                    oldShared.id, Scalar.TEXT, Operator.EQUAL_TO, PredicateValue.of("yes"))),
+            PredicateAction.SHOW_BLOCK);
+    ProgramBuilder.newActiveProgram("shows block on shared")
+        .withBlock()
+        .withRequiredQuestion(oldShared)
+        .withBlock()
+        .withRequiredQuestion(other)
+        .withPredicate(predicate)
+        .build();
+    Question newShared = resourceCreator.insertQuestion("shared");
+    newShared.addVersion(versionRepository.getDraftVersion());
+    newShared.save();
+
+    versionRepository.updateProgramsForNewDraftQuestion(oldShared.id);
+
+    Version draft = versionRepository.getDraftVersion();
+    draft.refresh();
+    assertThat(draft.getPrograms()).hasSize(1);
+    ProgramDefinition draftProgram = draft.getPrograms().get(0).getProgramDefinition();
+    assertThat(
+            draftProgram
+                .blockDefinitions()
+                .get(1)
+                .visibilityPredicate()
+                .get()
+                .rootNode()
+                .getLeafNode()
+                .questionId())
+        .isEqualTo(newShared.id);
+  }
+
   @Test
   public void updatePredicateNode() {
     Version draft = versionRepository.getDraftVersion();
@@ -156,6 +286,39 @@ public class VersionRepositoryTest extends WithPostgresContainer {
     assertThat(updated).isEqualTo(expectedAnd);
   }
 
+  @Test
+  public void updateQuestionVersions_queryCountDoesNotGrowWithQuestions() {
+    Version draft = versionRepository.getDraftVersion();
+    Version active = versionRepository.getActiveVersion();
+    ImmutableList.Builder<Question> oldQuestions = ImmutableList.builder();
+    for (int i = 0; i < 10; i++) {
+      Question oldQuestion = resourceCreator.insertQuestion("question" + i);
+      oldQuestion.addVersion(active);
+      oldQuestion.save();
+      oldQuestions.add(oldQuestion);
+      Question newQuestion = resourceCreator.insertQuestion("question" + i);
+      newQuestion.addVersion(draft);
+      newQuestion.save();
+    }
+    ImmutableList<Question> questions = oldQuestions.build();
+    Program small =
+        ProgramBuilder.newDraftProgram("small")
+            .withBlock()
+            .withRequiredQuestion(questions.get(0))
+            .build();
+    ProgramBuilder.BlockBuilder largeProgram =
+        ProgramBuilder.newDraftProgram("large").withBlock().withRequiredQuestion(questions.get(0));
+    for (Question question : questions.subList(1, questions.size())) {
+      largeProgram = largeProgram.withBlock().withRequiredQuestion(question);
+    }
+    Program large = largeProgram.build();
+
+    int smallCount = countQueriesToUpdateQuestionVersions(small);
+    int largeCount = countQueriesToUpdateQuestionVersions(large);
+
+    assertThat(largeCount).isEqualTo(smallCount);
+  }
+
   @Test
   public void updateQuestionVersions_updatesAllQuestionsInBlocks() {
     Version draft = versionRepository.getDraftVersion();
@@ -222,4 +385,11 @@ public class VersionRepositoryTest extends WithPostgresContainer {
                 .questionId())
         .isEqualTo(newOne.id);
   }
+
+  private int countQueriesToUpdateQuestionVersions(Program program) {
+    try (QueryCounter queryCounter = QueryCounter.start()) {
+      versionRepository.updateQuestionVersions(program);
+      return queryCounter.count();
+    }
+  }
 }
@@ -0,0 +1,142 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import models.Account;
+import models.Applicant;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import repository.ProgramRepository;
+import repository.UserRepository;
+import repository.WithPostgresContainer;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+
+public class RequestLoaderTest extends WithPostgresContainer {
+
+  private RequestLoader requestLoader;
+
+  @Before
+  public void setUp() {
+    requestLoader = instanceOf(RequestLoader.class);
+  }
+
+  @Test
+  public void loadApplicant_returnsTheSameApplicantForEachLookup() {
+    Applicant applicant = resourceCreator.insertApplicant();
+
+    Optional<Applicant> first =
+        requestLoader.loadApplicant(applicant.id).toCompletableFuture().join();
+    Optional<Applicant> second =
+        requestLoader.loadApplicant(applicant.id).toCompletableFuture().join();
+
+    assertThat(first).isPresent();
+    assertThat(first.get().id).isEqualTo(applicant.id);
+    assertThat(second.get()).isSameAs(first.get());
+  }
+
+  @Test
+  public void loadApplicant_missingApplicant_isEmpty() {
+    assertThat(requestLoader.loadApplicant(1234L).toCompletableFuture().join()).isEmpty();
+  }
+
+  @Test
+  public void loadAccount_returnsTheSameAccountForEachLookup() {
+    Account account = resourceCreator.insertAccountWithEmail("one@example.com");
+
+    Account first = requestLoader.loadAccount(account.id).toCompletableFuture().join().get();
+    Account second = requestLoader.loadAccount(account.id).toCompletableFuture().join().get();
+
+    assertThat(first.getEmailAddress()).isEqualTo("one@example.com");
+    assertThat(second).isSameAs(first);
+  }
+
+  @Test
+  public void loadProgramAndDefinition() {
+    Program program = resourceCreator.insertActiveProgram("program");
+
+    Program loadedProgram =
+        requestLoader.loadProgram(program.id).toCompletableFuture().join().get();
+    ProgramDefinition first =
+        requestLoader.loadProgramDefinition(program.id).toCompletableFuture().join();
+    ProgramDefinition second =
+        requestLoader.loadProgramDefinition(program.id).toCompletableFuture().join();
+
+    assertThat(loadedProgram.id).isEqualTo(program.id);
+    assertThat(first.adminName()).isEqualTo("program");
+    assertThat(second).isSameAs(first);
+  }
+
+  @Test
+  public void loadProgramDefinition_missingProgram_fails() {
+    Throwable thrown =
+        catchThrowable(
+            () -> requestLoader.loadProgramDefinition(1234L).toCompletableFuture().join());
+
+    assertThat(thrown).isInstanceOf(CompletionException.class);
+    assertThat(thrown).hasCauseInstanceOf(ProgramNotFoundException.class);
+  }
+
+  @Test
+  public void loadApplicant_overlappingLookupsWhileLoading_queryOnce() throws Exception {
+    UserRepository userRepository = Mockito.mock(UserRepository.class);
+    CompletableFuture<Optional<Applicant>> blockedLookup = new CompletableFuture<>();
+    Mockito.when(userRepository.lookupApplicant(1L)).thenReturn(blockedLookup);
+    RequestLoader loader =
+        new RequestLoader(
+            userRepository,
+            Mockito.mock(ProgramRepository.class),
+            Mockito.mock(ProgramService.class));
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      CountDownLatch ready = new CountDownLatch(2);
+      Callable<CompletionStage<Optional<Applicant>>> lookup =
+          () -> {
+            ready.countDown();
+            ready.await();
+            return loader.loadApplicant(1L);
+          };
+      Future<CompletionStage<Optional<Applicant>>> first = executor.submit(lookup);
+      Future<CompletionStage<Optional<Applicant>>> second = executor.submit(lookup);
+      CompletionStage<Optional<Applicant>> firstStage = first.get(10, TimeUnit.SECONDS);
+      CompletionStage<Optional<Applicant>> secondStage = second.get(10, TimeUnit.SECONDS);
+
+      // Both lookups were made while the load was still blocked.
+      assertThat(firstStage.toCompletableFuture()).isNotDone();
+      Applicant applicant = new Applicant();
+      blockedLookup.complete(Optional.of(applicant));
+
+      assertThat(firstStage.toCompletableFuture().join()).containsSame(applicant);
+      assertThat(secondStage.toCompletableFuture().join()).containsSame(applicant);
+      Mockito.verify(userRepository, Mockito.times(1)).lookupApplicant(1L);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void separateLoaders_doNotShareApplicants() {
+    Applicant applicant = resourceCreator.insertApplicant();
+    RequestLoader otherRequestLoader = instanceOf(RequestLoader.class);
+
+    Applicant first = requestLoader.loadApplicant(applicant.id).toCompletableFuture().join().get();
+    Applicant second =
+        otherRequestLoader.loadApplicant(applicant.id).toCompletableFuture().join().get();
+
+    assertThat(second).isNotSameAs(first);
+  }
+}
@@ -7,6 +7,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.testing.EqualsTester;
 import java.util.Locale;
 import java.util.Optional;
+import models.Applicant;
 import org.junit.Test;
 import services.Path;
 import services.applicant.predicate.JsonPathPredicate;
@@ -578,4 +579,113 @@ public class ApplicantDataTest {
     assertThat(data.evalPredicate(JsonPathPredicate.create("$.applicant[?(@.one in [\"other\"])]")))
         .isFalse();
   }
+
+  @Test
+  public void instancesParsedFromSameJson_doNotShareWrites() {
+    String testData = "{ \"applicant\": { \"testKey\": \"testValue\"} }";
+    ParsedApplicantDataCache cache = new ParsedApplicantDataCache(/* maximumJsonLength= */ 1000);
+    Applicant owner = applicantWithId(1L);
+    ApplicantData first = cache.parse(owner, Optional.empty(), testData);
+    ApplicantData second = cache.parse(owner, Optional.empty(), testData);
+
+    first.putString(Path.create("applicant.testKey"), "changed");
+    first.putString(Path.create("applicant.nested.key"), "added");
+
+    assertThat(second.readString(Path.create("applicant.testKey"))).hasValue("testValue");
+    assertThat(second.hasPath(Path.create("applicant.nested"))).isFalse();
+    assertThat(new ApplicantData(testData).asJsonString()).isEqualTo(second.asJsonString());
+  }
+
+  @Test
+  public void parse_sameOwnerWithChangedJson_returnsNewData() {
+    ParsedApplicantDataCache cache = new ParsedApplicantDataCache(/* maximumJsonLength= */ 1000);
+    Applicant owner = applicantWithId(1L);
+    cache.parse(owner, Optional.empty(), "{ \"applicant\": { \"testKey\": \"before\"} }");
+
+    ApplicantData data =
+        cache.parse(owner, Optional.empty(), "{ \"applicant\": { \"testKey\": \"after\"} }");
+
+    assertThat(data.readString(Path.create("applicant.testKey"))).hasValue("after");
+  }
+
+  @Test
+  public void parse_sameJsonForDifferentOwners_doesNotShareWrites() {
+    String testData = "{ \"applicant\": { \"testKey\": \"testValue\"} }";
+    ParsedApplicantDataCache cache = new ParsedApplicantDataCache(/* maximumJsonLength= */ 1000);
+    ApplicantData first = cache.parse(applicantWithId(1L), Optional.empty(), testData);
+    ApplicantData second = cache.parse(applicantWithId(2L), Optional.empty(), testData);
+
+    first.putString(Path.create("applicant.testKey"), "changed");
+
+    assertThat(second.readString(Path.create("applicant.testKey"))).hasValue("testValue");
+  }
+
+  @Test
+  public void lockedCopy_isUnaffectedByLaterWritesToOriginal() {
+    ApplicantData data = new ApplicantData();
+    data.putString(Path.create("applicant.children[0].name"), "first");
+
+    ApplicantData copy = data.lockedCopy();
+    data.putString(Path.create("applicant.children[0].name"), "changed");
+    data.putString(Path.create("applicant.children[1].name"), "second");
+
+    assertThat(copy.readString(Path.create("applicant.children[0].name"))).hasValue("first");
+    assertThat(copy.hasPath(Path.create("applicant.children[1]"))).isFalse();
+    assertThat(copy.preferredLocale()).isEqualTo(data.preferredLocale());
+    assertThatThrownBy(() -> copy.putString(Path.create("applicant.name"), "name"))
+        .isInstanceOf(RuntimeException.class)
+        .hasMessage("Cannot change ApplicantData after it has been locked.");
+  }
+
+  @Test
+  public void mergeFrom_doesNotShareStructureWithSource() {
+    ApplicantData source = new ApplicantData();
+    source.putString(Path.create("applicant.children[0].name"), "first");
+    ApplicantData target = new ApplicantData();
+    target.mergeFrom(source);
+
+    target.putString(Path.create("applicant.children[0].name"), "changed");
+
+    assertThat(source.readString(Path.create("applicant.children[0].name"))).hasValue("first");
+  }
+
+  @Test
+  public void read_missingValues_areEmptyWithoutThrowing() {
+    ApplicantData data =
+        new ApplicantData(
+            "{\"applicant\":{\"name\":\"Alice\",\"children\":[{\"name\":\"Bob\"}]}}");
+
+    assertThat(data.hasPath(Path.create("applicant.name.first"))).isFalse();
+    assertThat(data.readString(Path.create("applicant.name.first"))).isEmpty();
+    assertThat(data.hasPath(Path.create("applicant.children[1]"))).isFalse();
+    assertThat(data.readString(Path.create("applicant.children[1].name"))).isEmpty();
+    assertThat(data.hasPath(Path.create("applicant.children.name"))).isFalse();
+    assertThat(data.readString(Path.create("applicant.children[0].name"))).hasValue("Bob");
+  }
+
+  @Test
+  public void read_convertsValuesLikeJsonPath() {
+    ApplicantData data =
+        new ApplicantData("{\"applicant\":{\"number\":7,\"text\":\"12\",\"word\":\"a\"}}");
+
+    assertThat(data.readString(Path.create("applicant.number"))).hasValue("7");
+    assertThat(data.readLong(Path.create("applicant.number"))).hasValue(7L);
+    assertThat(data.readLong(Path.create("applicant.text"))).hasValue(12L);
+    assertThat(data.readLong(Path.create("applicant.word"))).isEmpty();
+    assertThat(data.readList(Path.create("applicant.word"))).isEmpty();
+  }
+
+  @Test
+  public void hasValueAtPath_isFalseForNull() {
+    ApplicantData data = new ApplicantData("{\"applicant\":{\"empty\":null}}");
+
+    assertThat(data.hasPath(Path.create("applicant.empty"))).isTrue();
+    assertThat(data.hasValueAtPath(Path.create("applicant.empty"))).isFalse();
+  }
+
+  private static Applicant applicantWithId(long id) {
+    Applicant applicant = new Applicant();
+    applicant.id = id;
+    return applicant;
+  }
 }
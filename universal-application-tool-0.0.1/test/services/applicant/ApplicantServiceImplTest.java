@@ -7,7 +7,10 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 import auth.CiviFormProfile;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.ebean.Ebean;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -16,15 +19,18 @@ import models.Account;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutgoingEmail;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import repository.ApplicationRepository;
+import repository.ProgramCsvColumnsRepository;
 import repository.UserRepository;
 import repository.WithPostgresContainer;
 import services.LocalizedStrings;
 import services.Path;
+import services.RequestLoader;
 import services.applicant.exception.ApplicantNotFoundException;
 import services.applicant.exception.ApplicationSubmissionException;
 import services.applicant.exception.ProgramBlockNotFoundException;
@@ -312,6 +318,52 @@ public class ApplicantServiceImplTest extends WithPostgresContainer {
     assertThat(applicantDataAfter.asJsonString()).contains("Alice", "Doe");
   }
 
+  @Test
+  public void stageAndUpdateIfValid_withRequestLoader_updatesLoadedApplicant() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    RequestLoader requestLoader = instanceOf(RequestLoader.class);
+    ImmutableMap<String, String> updates =
+        ImmutableMap.<String, String>builder()
+            .put(Path.create("applicant.name").join(Scalar.FIRST_NAME).toString(), "Alice")
+            .put(Path.create("applicant.name").join(Scalar.LAST_NAME).toString(), "Doe")
+            .build();
+
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), "1", updates, requestLoader)
+        .toCompletableFuture()
+        .join();
+
+    Applicant loadedApplicant =
+        requestLoader.loadApplicant(applicant.id).toCompletableFuture().join().get();
+    assertThat(loadedApplicant.getApplicantData().asJsonString()).contains("Alice", "Doe");
+    assertThat(subject.getName(applicant.id, requestLoader).toCompletableFuture().join())
+        .isEqualTo("Doe, Alice");
+  }
+
+  @Test
+  public void stageAndUpdateIfValid_withRequestLoader_invalidUpdatesDoNotChangeLoadedApplicant() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    RequestLoader requestLoader = instanceOf(RequestLoader.class);
+    // A name without a last name is invalid.
+    ImmutableMap<String, String> updates =
+        ImmutableMap.of(Path.create("applicant.name").join(Scalar.FIRST_NAME).toString(), "Alice");
+
+    ReadOnlyApplicantProgramService roApplicantProgramService =
+        subject
+            .stageAndUpdateIfValid(
+                applicant.id, programDefinition.id(), "1", updates, requestLoader)
+            .toCompletableFuture()
+            .join();
+
+    assertThat(roApplicantProgramService.getBlock("1").get().hasErrors()).isTrue();
+    Applicant loadedApplicant =
+        requestLoader.loadApplicant(applicant.id).toCompletableFuture().join().get();
+    assertThat(loadedApplicant.getApplicantData().asJsonString()).doesNotContain("Alice");
+    ApplicantData savedApplicantData =
+        userRepository.lookupApplicantSync(applicant.id).get().getApplicantData();
+    assertThat(savedApplicantData.asJsonString()).doesNotContain("Alice");
+  }
+
   @Test
   public void stageAndUpdateIfValid_updatesMetadataForQuestionOnce() {
     Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
@@ -633,6 +685,61 @@ public class ApplicantServiceImplTest extends WithPostgresContainer {
     assertThat(application.getApplicantData().asJsonString()).contains("Alice", "Doe");
   }
 
+  @Test
+  public void submitApplication_extendsExistingCsvColumns() {
+    ProgramCsvColumnsRepository columnsRepository = instanceOf(ProgramCsvColumnsRepository.class);
+    columnsRepository.insertOrMergeColumns(programDefinition.id(), ImmutableMap.of());
+    List<Runnable> csvColumnsTasks = new ArrayList<>();
+    subject.setCsvColumnsExecutor(csvColumnsTasks::add);
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccount());
+    applicant.save();
+    ImmutableMap<String, String> updates =
+        ImmutableMap.<String, String>builder()
+            .put(Path.create("applicant.name").join(Scalar.FIRST_NAME).toString(), "Alice")
+            .put(Path.create("applicant.name").join(Scalar.LAST_NAME).toString(), "Doe")
+            .build();
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), "1", updates)
+        .toCompletableFuture()
+        .join();
+
+    subject
+        .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+        .toCompletableFuture()
+        .join();
+
+    // The columns are recorded after the submission completes.
+    assertThat(columnsRepository.lookupColumns(programDefinition.id()).get()).isEmpty();
+    assertThat(csvColumnsTasks).hasSize(1);
+    csvColumnsTasks.get(0).run();
+
+    assertThat(columnsRepository.lookupColumns(programDefinition.id()).get().get("1-0"))
+        .contains(
+            Path.create("applicant.name").join(Scalar.FIRST_NAME).toString(),
+            Path.create("applicant.name").join(Scalar.LAST_NAME).toString());
+  }
+
+  @Test
+  public void submitApplication_queuesNotificationEmails() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccount());
+    applicant.save();
+
+    Application application =
+        subject
+            .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+            .toCompletableFuture()
+            .join();
+
+    ImmutableList<OutgoingEmail> emails =
+        ImmutableList.copyOf(Ebean.find(OutgoingEmail.class).findList());
+    assertThat(emails).hasSize(1);
+    assertThat(emails.get(0).getToAddresses()).containsExactly("test@example.com");
+    assertThat(emails.get(0).getBody()).contains(String.valueOf(application.id));
+    assertThat(emails.get(0).getSentTime()).isEmpty();
+  }
+
   @Test
   public void submitApplication_obsoletesOldApplication() {
     Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
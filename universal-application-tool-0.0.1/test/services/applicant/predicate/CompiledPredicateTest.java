@@ -0,0 +1,283 @@
+package services.applicant.predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.RepeatedEntity;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+import services.program.predicate.AndNode;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.OrNode;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.types.EnumeratorQuestionDefinition;
+import services.question.types.QuestionDefinition;
+import services.question.types.QuestionDefinitionBuilder;
+import support.TestQuestionBank;
+
+public class CompiledPredicateTest {
+
+  private final TestQuestionBank questionBank = new TestQuestionBank(false);
+  private final QuestionDefinition addressQuestion =
+      questionBank.applicantAddress().getQuestionDefinition();
+  private final QuestionDefinition numberQuestion =
+      questionBank.applicantJugglingNumber().getQuestionDefinition();
+  private final QuestionDefinition checkboxQuestion =
+      questionBank.applicantKitchenTools().getQuestionDefinition();
+
+  private ApplicantData applicantData;
+  private ImmutableMap<Long, QuestionDefinition> questionsById;
+
+  @Before
+  public void setUp() {
+    applicantData = new ApplicantData();
+    questionsById =
+        ImmutableMap.of(
+            addressQuestion.getId(), addressQuestion,
+            numberQuestion.getId(), numberQuestion,
+            checkboxQuestion.getId(), checkboxQuestion);
+  }
+
+  @Test
+  public void evaluate_stringEquality() {
+    PredicateExpressionNode node =
+        leaf(addressQuestion, Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("Seattle"));
+    CompiledPredicate predicate = CompiledPredicate.compile(node, questionsById);
+
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isFalse();
+
+    putAddressCity("Seattle");
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isTrue();
+
+    putAddressCity("Spokane");
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isFalse();
+  }
+
+  @Test
+  public void evaluate_notEqualTo_isTrueForMissingScalar() {
+    putAddressCity("Seattle");
+    PredicateExpressionNode node =
+        leaf(addressQuestion, Scalar.STATE, Operator.NOT_EQUAL_TO, PredicateValue.of("WA"));
+
+    CompiledPredicate predicate = CompiledPredicate.compile(node, questionsById);
+
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isTrue();
+  }
+
+  @Test
+  public void evaluate_numberComparison() {
+    applicantData.putLong(numberPath(), 7L);
+    CompiledPredicate greaterThanFive =
+        CompiledPredicate.compile(
+            leaf(numberQuestion, Scalar.NUMBER, Operator.GREATER_THAN, PredicateValue.of(5)),
+            questionsById);
+    CompiledPredicate lessThanFive =
+        CompiledPredicate.compile(
+            leaf(numberQuestion, Scalar.NUMBER, Operator.LESS_THAN, PredicateValue.of(5)),
+            questionsById);
+
+    assertThat(greaterThanFive.evaluate(applicantData, Optional.empty())).isTrue();
+    assertThat(lessThanFive.evaluate(applicantData, Optional.empty())).isFalse();
+  }
+
+  @Test
+  public void evaluate_in() {
+    putAddressCity("Portland");
+    PredicateExpressionNode node =
+        leaf(
+            addressQuestion,
+            Scalar.CITY,
+            Operator.IN,
+            PredicateValue.listOfStrings(ImmutableList.of("Seattle", "Portland")));
+
+    CompiledPredicate predicate = CompiledPredicate.compile(node, questionsById);
+
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isTrue();
+  }
+
+  @Test
+  public void evaluate_anyOfAndNoneOf_matchSelectedOptions() {
+    Path selections = selectionPath();
+    applicantData.putLong(selections.atIndex(0), 1L);
+    applicantData.putLong(selections.atIndex(1), 3L);
+
+    CompiledPredicate anyOf =
+        CompiledPredicate.compile(
+            leaf(
+                checkboxQuestion,
+                Scalar.SELECTIONS,
+                Operator.ANY_OF,
+                PredicateValue.listOfLongs(ImmutableList.of(2L, 3L))),
+            questionsById);
+    CompiledPredicate noneOf =
+        CompiledPredicate.compile(
+            leaf(
+                checkboxQuestion,
+                Scalar.SELECTIONS,
+                Operator.NONE_OF,
+                PredicateValue.listOfLongs(ImmutableList.of(2L, 3L))),
+            questionsById);
+
+    assertThat(anyOf.evaluate(applicantData, Optional.empty())).isTrue();
+    assertThat(noneOf.evaluate(applicantData, Optional.empty())).isFalse();
+  }
+
+  @Test
+  public void evaluate_questionNotInProgram_isFalse() {
+    putAddressCity("Seattle");
+    PredicateExpressionNode node =
+        leaf(addressQuestion, Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("Seattle"));
+
+    assertThat(
+            CompiledPredicate.compile(node, ImmutableMap.of())
+                .evaluate(applicantData, Optional.empty()))
+        .isFalse();
+  }
+
+  @Test
+  public void evaluate_andOrNodes() {
+    putAddressCity("Seattle");
+    applicantData.putString(
+        new ApplicantQuestion(addressQuestion, applicantData, Optional.empty())
+            .createAddressQuestion()
+            .getStatePath(),
+        "OR");
+    PredicateExpressionNode city =
+        leaf(addressQuestion, Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("Seattle"));
+    PredicateExpressionNode state =
+        leaf(addressQuestion, Scalar.STATE, Operator.EQUAL_TO, PredicateValue.of("WA"));
+
+    CompiledPredicate and =
+        CompiledPredicate.compile(
+            PredicateExpressionNode.create(AndNode.create(ImmutableSet.of(city, state))),
+            questionsById);
+    CompiledPredicate or =
+        CompiledPredicate.compile(
+            PredicateExpressionNode.create(OrNode.create(ImmutableSet.of(city, state))),
+            questionsById);
+
+    assertThat(and.evaluate(applicantData, Optional.empty())).isFalse();
+    assertThat(or.evaluate(applicantData, Optional.empty())).isTrue();
+  }
+
+  @Test
+  public void evaluate_repeatedQuestion_usesCurrentRepeatedEntity() {
+    EnumeratorQuestionDefinition enumerator =
+        (EnumeratorQuestionDefinition)
+            questionBank.applicantHouseholdMembers().getQuestionDefinition();
+    QuestionDefinition repeatedName =
+        new QuestionDefinitionBuilder(
+                questionBank.applicantHouseholdMemberName().getQuestionDefinition())
+            .setEnumeratorId(Optional.of(enumerator.getId()))
+            .build();
+    applicantData.putRepeatedEntities(
+        new ApplicantQuestion(enumerator, applicantData, Optional.empty()).getContextualizedPath(),
+        ImmutableList.of("Bernard", "Alice"));
+    ImmutableList<RepeatedEntity> entities =
+        RepeatedEntity.createRepeatedEntities(enumerator, applicantData);
+    for (RepeatedEntity entity : entities) {
+      applicantData.putString(
+          new ApplicantQuestion(repeatedName, applicantData, Optional.of(entity))
+              .createNameQuestion()
+              .getFirstNamePath(),
+          entity.entityName());
+    }
+
+    CompiledPredicate predicate =
+        CompiledPredicate.compile(
+            leaf(repeatedName, Scalar.FIRST_NAME, Operator.EQUAL_TO, PredicateValue.of("Alice")),
+            ImmutableMap.of(enumerator.getId(), enumerator, repeatedName.getId(), repeatedName));
+
+    assertThat(predicate.evaluate(applicantData, Optional.of(entities.get(0)))).isFalse();
+    assertThat(predicate.evaluate(applicantData, Optional.of(entities.get(1)))).isTrue();
+    // The repeated question does not apply outside of its enumerator's entities.
+    assertThat(predicate.evaluate(applicantData, Optional.empty())).isFalse();
+  }
+
+  @Test
+  public void evaluate_matchesJsonPathEvaluation() throws Exception {
+    putAddressCity("2");
+    applicantData.putLong(numberPath(), 2L);
+    applicantData.putLong(selectionPath().atIndex(0), 1L);
+    JsonPathPredicateGenerator generator =
+        new JsonPathPredicateGenerator(questionsById.values().asList(), Optional.empty());
+
+    ImmutableList<LeafOperationExpressionNode> leaves =
+        ImmutableList.of(
+            LeafOperationExpressionNode.create(
+                addressQuestion.getId(), Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of(2)),
+            LeafOperationExpressionNode.create(
+                addressQuestion.getId(), Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("2")),
+            LeafOperationExpressionNode.create(
+                addressQuestion.getId(),
+                Scalar.ZIP,
+                Operator.NOT_EQUAL_TO,
+                PredicateValue.of("98101")),
+            LeafOperationExpressionNode.create(
+                numberQuestion.getId(), Scalar.NUMBER, Operator.EQUAL_TO, PredicateValue.of("2")),
+            LeafOperationExpressionNode.create(
+                numberQuestion.getId(),
+                Scalar.NUMBER,
+                Operator.GREATER_THAN_OR_EQUAL_TO,
+                PredicateValue.of(2)),
+            LeafOperationExpressionNode.create(
+                numberQuestion.getId(),
+                Scalar.NUMBER,
+                Operator.NOT_IN,
+                PredicateValue.listOfLongs(ImmutableList.of(1L, 3L))),
+            LeafOperationExpressionNode.create(
+                checkboxQuestion.getId(),
+                Scalar.SELECTIONS,
+                Operator.SUBSET_OF,
+                PredicateValue.listOfLongs(ImmutableList.of(1L, 2L))),
+            LeafOperationExpressionNode.create(
+                checkboxQuestion.getId(),
+                Scalar.SELECTIONS,
+                Operator.ANY_OF,
+                PredicateValue.listOfStrings(ImmutableList.of("1"))));
+
+    for (LeafOperationExpressionNode leaf : leaves) {
+      boolean expected = applicantData.evalPredicate(generator.fromLeafNode(leaf));
+      assertThat(
+              CompiledPredicate.compile(PredicateExpressionNode.create(leaf), questionsById)
+                  .evaluate(applicantData, Optional.empty()))
+          .as(leaf.toString())
+          .isEqualTo(expected);
+    }
+  }
+
+  private static PredicateExpressionNode leaf(
+      QuestionDefinition question, Scalar scalar, Operator operator, PredicateValue value) {
+    return PredicateExpressionNode.create(
+        LeafOperationExpressionNode.create(question.getId(), scalar, operator, value));
+  }
+
+  private void putAddressCity(String city) {
+    applicantData.putString(
+        new ApplicantQuestion(addressQuestion, applicantData, Optional.empty())
+            .createAddressQuestion()
+            .getCityPath(),
+        city);
+  }
+
+  private Path numberPath() {
+    return new ApplicantQuestion(numberQuestion, applicantData, Optional.empty())
+        .createNumberQuestion()
+        .getNumberPath();
+  }
+
+  private Path selectionPath() {
+    return new ApplicantQuestion(checkboxQuestion, applicantData, Optional.empty())
+        .createMultiSelectQuestion()
+        .getSelectionPath();
+  }
+}
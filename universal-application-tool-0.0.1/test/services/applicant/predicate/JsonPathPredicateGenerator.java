@@ -13,7 +13,12 @@ import services.applicant.question.ApplicantQuestion;
 import services.program.predicate.LeafOperationExpressionNode;
 import services.question.types.QuestionDefinition;
 
-/** Generates {@link JsonPathPredicate}s based on the current applicant filling out the program. */
+/**
+ * Generates {@link JsonPathPredicate}s based on the current applicant filling out the program.
+ *
+ * <p>The application evaluates predicates with {@link CompiledPredicate}. This reference
+ * implementation is kept for tests and benchmarks to compare against.
+ */
 public class JsonPathPredicateGenerator {
 
   private final ImmutableMap<Long, QuestionDefinition> questionsById;
@@ -7,7 +7,11 @@ import services.program.predicate.LeafOperationExpressionNode;
 import services.program.predicate.OrNode;
 import services.program.predicate.PredicateExpressionNode;
 
-/** Evaluates complex predicates based on the given {@link ApplicantData}. */
+/**
+ * Evaluates complex predicates based on the given {@link ApplicantData} with JsonPath queries. The
+ * application uses {@link CompiledPredicate}; this reference implementation is kept for tests and
+ * benchmarks to compare against.
+ */
 public class PredicateEvaluator {
 
   private final ApplicantData applicantData;
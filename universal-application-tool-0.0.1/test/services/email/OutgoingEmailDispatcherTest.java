@@ -0,0 +1,103 @@
+package services.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.Ebean;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import models.OutgoingEmail;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import repository.OutgoingEmailRepository;
+import repository.WithPostgresContainer;
+import services.aws.SimpleEmail;
+
+public class OutgoingEmailDispatcherTest extends WithPostgresContainer {
+
+  private static final Instant NOW = Instant.parse("2021-08-01T10:00:00Z");
+
+  private SimpleEmail simpleEmail;
+  private OutgoingEmailRepository repository;
+
+  @Before
+  public void setUp() {
+    simpleEmail = Mockito.mock(SimpleEmail.class);
+    repository = instanceOf(OutgoingEmailRepository.class);
+  }
+
+  @Test
+  public void dispatchDue_sendsAndMarksEmails() {
+    Mockito.when(simpleEmail.send(any(ImmutableList.class), anyString(), anyString()))
+        .thenReturn(true);
+    OutgoingEmail email = insertEmail("a@example.com");
+
+    assertThat(dispatcherAt(NOW).dispatchDue()).isEqualTo(1);
+
+    Mockito.verify(simpleEmail).send(ImmutableList.of("a@example.com"), "subject", "body");
+    email.refresh();
+    assertThat(email.getSentTime()).contains(NOW);
+    assertThat(email.getAttempts()).isEqualTo(1);
+    assertThat(dispatcherAt(NOW).queueDepth()).isEqualTo(0);
+  }
+
+  @Test
+  public void dispatchDue_retriesFailedEmailsWithBackoff() {
+    Mockito.when(simpleEmail.send(any(ImmutableList.class), anyString(), anyString()))
+        .thenReturn(false);
+    OutgoingEmail email = insertEmail("a@example.com");
+
+    dispatcherAt(NOW).dispatchDue();
+
+    email.refresh();
+    assertThat(email.getSentTime()).isEmpty();
+    assertThat(email.getLastError()).isPresent();
+    assertThat(email.getNextAttemptTime())
+        .contains(NOW.plus(OutgoingEmailDispatcher.INITIAL_RETRY_DELAY));
+    assertThat(dispatcherAt(NOW).queueDepth()).isEqualTo(1);
+
+    // Not due yet.
+    assertThat(dispatcherAt(NOW.plusSeconds(1)).dispatchDue()).isEqualTo(0);
+
+    Instant retry = NOW.plus(OutgoingEmailDispatcher.INITIAL_RETRY_DELAY);
+    dispatcherAt(retry).dispatchDue();
+
+    email.refresh();
+    assertThat(email.getAttempts()).isEqualTo(2);
+    assertThat(email.getNextAttemptTime())
+        .contains(retry.plus(OutgoingEmailDispatcher.INITIAL_RETRY_DELAY.multipliedBy(2)));
+  }
+
+  @Test
+  public void dispatchDue_givesUpAfterMaxAttempts() {
+    Mockito.when(simpleEmail.send(any(ImmutableList.class), anyString(), anyString()))
+        .thenThrow(new RuntimeException("unreachable"));
+    OutgoingEmail email = insertEmail("a@example.com");
+
+    Instant now = NOW;
+    for (int i = 0; i < OutgoingEmailDispatcher.MAX_ATTEMPTS; i++) {
+      dispatcherAt(now).dispatchDue();
+      email.refresh();
+      now = email.getNextAttemptTime().orElse(now);
+    }
+
+    assertThat(email.getAttempts()).isEqualTo(OutgoingEmailDispatcher.MAX_ATTEMPTS);
+    assertThat(email.getNextAttemptTime()).isEmpty();
+    assertThat(email.getLastError().get()).contains("unreachable");
+    assertThat(dispatcherAt(now).queueDepth()).isEqualTo(0);
+  }
+
+  private OutgoingEmailDispatcher dispatcherAt(Instant now) {
+    return new OutgoingEmailDispatcher(simpleEmail, repository, Clock.fixed(now, ZoneOffset.UTC));
+  }
+
+  private OutgoingEmail insertEmail(String toAddress) {
+    OutgoingEmail email = new OutgoingEmail(ImmutableList.of(toAddress), "subject", "body", NOW);
+    Ebean.save(email);
+    return email;
+  }
+}
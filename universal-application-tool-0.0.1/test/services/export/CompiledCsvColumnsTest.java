@@ -0,0 +1,205 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.typesafe.config.Config;
+import java.util.Map;
+import java.util.Optional;
+import models.Applicant;
+import models.Application;
+import models.LifecycleStage;
+import org.junit.Before;
+import org.junit.Test;
+import repository.WithPostgresContainer;
+import services.Path;
+import services.applicant.ApplicantData;
+import services.applicant.ApplicantService;
+import services.applicant.predicate.VisibilityPredicateCache;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+import services.program.Column;
+import services.program.ColumnType;
+import services.program.ProgramDefinition;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateAction;
+import services.program.predicate.PredicateDefinition;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.types.QuestionDefinition;
+import support.ProgramBuilder;
+import support.QuestionAnswerer;
+
+public class CompiledCsvColumnsTest extends WithPostgresContainer {
+  private ImmutableList<QuestionDefinition> questions;
+  private ApplicantData applicantData;
+  private String baseUrl;
+  private VisibilityPredicateCache visibilityPredicateCache;
+
+  @Before
+  public void setUp() {
+    questions =
+        ImmutableList.of(
+            testQuestionBank.applicantName().getQuestionDefinition(),
+            testQuestionBank.applicantAddress().getQuestionDefinition(),
+            testQuestionBank.applicantKitchenTools().getQuestionDefinition(),
+            testQuestionBank.applicantIceCream().getQuestionDefinition(),
+            testQuestionBank.applicantSeason().getQuestionDefinition(),
+            testQuestionBank.applicantFile().getQuestionDefinition(),
+            testQuestionBank.applicantDate().getQuestionDefinition(),
+            testQuestionBank.applicantEmail().getQuestionDefinition(),
+            testQuestionBank.applicantJugglingNumber().getQuestionDefinition(),
+            testQuestionBank.applicantFavoriteColor().getQuestionDefinition(),
+            testQuestionBank.staticContent().getQuestionDefinition());
+    baseUrl = instanceOf(Config.class).getString("base_url");
+    visibilityPredicateCache = instanceOf(VisibilityPredicateCache.class);
+    applicantData = new ApplicantData();
+    QuestionAnswerer.answerNameQuestion(applicantData, path(0), "Alice", "", "Appleton");
+    QuestionAnswerer.answerAddressQuestion(
+        applicantData, path(1), "street st", "apt 100", "city", "AB", "54321");
+    // Selected out of order, to check that options are listed in the question's order.
+    QuestionAnswerer.answerMultiSelectQuestion(applicantData, path(2), 0, 3L);
+    QuestionAnswerer.answerMultiSelectQuestion(applicantData, path(2), 1, 1L);
+    QuestionAnswerer.answerSingleSelectQuestion(applicantData, path(3), 2L);
+    // Not an option of the question.
+    QuestionAnswerer.answerSingleSelectQuestion(applicantData, path(4), 100L);
+    QuestionAnswerer.answerFileQuestion(applicantData, path(5), "my-file-key");
+    QuestionAnswerer.answerDateQuestion(applicantData, path(6), "1980-01-01");
+    QuestionAnswerer.answerEmailQuestion(applicantData, path(7), "one@example.com");
+    QuestionAnswerer.answerNumberQuestion(applicantData, path(8), "123456");
+    QuestionAnswerer.answerTextQuestion(applicantData, path(9), "blue");
+  }
+
+  @Test
+  public void answer_matchesSummaryData() {
+    ProgramBuilder.BlockBuilder block =
+        ProgramBuilder.newActiveProgram()
+            .withBlock()
+            .withRequiredQuestionDefinition(questions.get(0));
+    for (QuestionDefinition question : questions.subList(1, questions.size())) {
+      block = block.withBlock().withRequiredQuestionDefinition(question);
+    }
+    ProgramDefinition program = block.buildDefinition();
+
+    assertCompiledAnswersMatchSummary(program);
+  }
+
+  @Test
+  public void answer_isEmptyForHiddenBlocks() {
+    QuestionDefinition colorQuestion = questions.get(9);
+    PredicateDefinition hideIfBlue =
+        PredicateDefinition.create(
+            PredicateExpressionNode.create(
+                LeafOperationExpressionNode.create(
+                    colorQuestion.getId(),
+                    Scalar.TEXT,
+                    Operator.EQUAL_TO,
+                    PredicateValue.of("blue"))),
+            PredicateAction.HIDE_BLOCK);
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram()
+            .withBlock()
+            .withRequiredQuestionDefinition(colorQuestion)
+            .withBlock()
+            .withPredicate(hideIfBlue)
+            .withRequiredQuestionDefinition(questions.get(0))
+            .buildDefinition();
+
+    assertCompiledAnswersMatchSummary(program);
+    CompiledCsvColumns compiled =
+        CompiledCsvColumns.compile(columns(), program, baseUrl, visibilityPredicateCache).get();
+    assertThat(compiled.row(applicantData).answer(path(0).join(Scalar.FIRST_NAME))).isEmpty();
+    assertThat(compiled.row(applicantData).answer(path(9).join(Scalar.TEXT))).isEqualTo("blue");
+  }
+
+  @Test
+  public void compile_leavesRepeatedColumnsToSummaryData() {
+    QuestionDefinition householdMembers =
+        testQuestionBank.applicantHouseholdMembers().getQuestionDefinition();
+    QuestionDefinition householdMemberName =
+        testQuestionBank.applicantHouseholdMemberName().getQuestionDefinition();
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram()
+            .withBlock()
+            .withRequiredQuestionDefinition(questions.get(0))
+            .withBlock()
+            .withRequiredQuestionDefinition(householdMembers)
+            .withRepeatedBlock()
+            .withRequiredQuestionDefinition(householdMemberName)
+            .buildDefinition();
+    Path repeatedName =
+        ApplicantData.APPLICANT_PATH
+            .join(householdMembers.getQuestionPathSegment())
+            .atIndex(0)
+            .join(householdMemberName.getQuestionPathSegment())
+            .join(Scalar.FIRST_NAME);
+
+    assertThat(
+            CompiledCsvColumns.compile(columns(), program, baseUrl, visibilityPredicateCache))
+        .isPresent();
+    assertThat(
+            CompiledCsvColumns.compile(
+                ImmutableList.<Column>builder()
+                    .addAll(columns())
+                    .add(
+                        Column.builder()
+                            .setHeader("repeated")
+                            .setJsonPath(repeatedName)
+                            .setColumnType(ColumnType.APPLICANT)
+                            .build())
+                    .build(),
+                program,
+                baseUrl,
+                visibilityPredicateCache))
+        .isEmpty();
+  }
+
+  private void assertCompiledAnswersMatchSummary(ProgramDefinition program) {
+    Applicant applicant = new Applicant();
+    applicant.setApplicantData(applicantData);
+    Application application =
+        new Application(applicant, program.toProgram(), LifecycleStage.ACTIVE);
+    ImmutableMap<Path, String> summary =
+        instanceOf(ApplicantService.class)
+            .getReadOnlyApplicantProgramService(application, program)
+            .getSummaryData()
+            .stream()
+            .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
+            .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+    CompiledCsvColumns.Row row =
+        CompiledCsvColumns.compile(columns(), program, baseUrl, visibilityPredicateCache)
+            .get()
+            .row(applicantData);
+
+    for (Column column : columns()) {
+      Path path = column.jsonPath().get();
+      assertThat(row.answer(path)).as(path.toString()).isEqualTo(summary.getOrDefault(path, ""));
+    }
+  }
+
+  /** Columns for every answer scalar of the questions. */
+  private ImmutableList<Column> columns() {
+    return questions.stream()
+        .filter(question -> !question.isEnumerator())
+        .flatMap(
+            question ->
+                new ApplicantQuestion(question, new ApplicantData(), Optional.empty())
+                    .getContextualizedScalars().keySet().stream())
+        .filter(path -> !Scalar.getMetadataScalarKeys().contains(path.keyName()))
+        .map(
+            path ->
+                Column.builder()
+                    .setHeader(ExporterService.pathToHeader(path))
+                    .setJsonPath(path)
+                    .setColumnType(ColumnType.APPLICANT)
+                    .build())
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private Path path(int questionIndex) {
+    return ApplicantData.APPLICANT_PATH.join(
+        questions.get(questionIndex).getQuestionPathSegment());
+  }
+}
@@ -2,9 +2,12 @@ package services.export;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import akka.stream.javadsl.Sink;
+import akka.util.ByteString;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Streams;
+import java.io.StringWriter;
 import java.util.AbstractMap;
 import java.util.Comparator;
 import java.util.List;
@@ -19,9 +22,12 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.junit.Before;
 import org.junit.Test;
+import repository.ApplicationRepository;
+import repository.ProgramCsvColumnsRepository;
 import repository.WithPostgresContainer;
 import services.Path;
 import services.applicant.ApplicantData;
+import services.applicant.ApplicantService;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.FileUploadQuestion;
 import services.applicant.question.MultiSelectQuestion;
@@ -32,9 +38,13 @@ import services.program.ColumnType;
 import services.program.CsvExportConfig;
 import services.program.ExportDefinition;
 import services.program.ExportEngine;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
 import services.question.types.QuestionDefinition;
 import services.question.types.QuestionType;
 import support.ProgramBuilder;
+import support.QueryCounter;
 import support.QuestionAnswerer;
 
 public class CsvExporterTest extends WithPostgresContainer {
@@ -227,6 +237,154 @@ public class CsvExporterTest extends WithPostgresContainer {
             String.format("/admin/programs/%d/files/my-file-key", fakeProgramWithCsvExport.id));
   }
 
+  @Test
+  public void getProgramCsvSource_streamsSameCsvAsGetProgramCsv() throws Exception {
+    ExporterService exporterService = instanceOf(ExporterService.class);
+
+    String streamed =
+        exporterService
+            .getProgramCsvSource(fakeProgramWithCsvExport.id)
+            .runWith(Sink.fold(ByteString.emptyByteString(), ByteString::concat), mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+
+    assertThat(streamed).isEqualTo(exporterService.getProgramCsv(fakeProgramWithCsvExport.id));
+    assertThat(CSVParser.parse(streamed, CSVFormat.DEFAULT.withFirstRecordAsHeader()).getRecords())
+        .hasSize(2);
+  }
+
+  @Test
+  public void exportCsv_formatsRowsInParallelInApplicationOrder() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      Applicant applicant = new Applicant();
+      applicant.save();
+      new Application(applicant, fakeProgramWithCsvExport, LifecycleStage.ACTIVE).save();
+    }
+    ImmutableList<Application> applications =
+        instanceOf(ApplicationRepository.class).getAllApplications().reverse();
+    CsvExportConfig config =
+        CsvExportConfig.builder()
+            .setColumns(
+                ImmutableList.<Column>builder()
+                    .add(Column.builder().setHeader("ID").setColumnType(ColumnType.ID).build())
+                    .addAll(createFakeCsvConfig().columns())
+                    .build())
+            .build();
+    ExporterFactory exporterFactory = instanceOf(ExporterFactory.class);
+
+    String csv =
+        instanceOf(ExporterService.class)
+            .exportCsv(exporterFactory.csvExporter(config), applications);
+
+    // Export the applications one at a time from the summary data, as exports used to.
+    CsvExporter sequentialExporter = exporterFactory.csvExporter(config);
+    ApplicantService applicantService = instanceOf(ApplicantService.class);
+    ProgramDefinition programDefinition =
+        instanceOf(ProgramService.class).getProgramDefinition(fakeProgramWithCsvExport.id);
+    StringWriter sequentialCsv = new StringWriter();
+    for (Application application : applications) {
+      sequentialExporter.export(
+          application,
+          applicantService.getReadOnlyApplicantProgramService(application, programDefinition),
+          sequentialCsv);
+    }
+    assertThat(csv).isEqualTo(sequentialCsv.toString());
+    assertThat(
+            CSVParser.parse(csv, CSVFormat.DEFAULT.withFirstRecordAsHeader()).getRecords().stream()
+                .map(record -> Long.valueOf(record.get("ID"))))
+        .containsExactlyElementsOf(
+            applications.stream()
+                .map(application -> application.id)
+                .collect(ImmutableList.toImmutableList()));
+  }
+
+  @Test
+  public void getProgramCsv_queryCountDoesNotGrowWithApplications() throws Exception {
+    ExporterService exporterService = instanceOf(ExporterService.class);
+    // Load the program versions, so that neither counted export includes loading them.
+    exporterService.getProgramCsv(fakeProgramWithCsvExport.id);
+    int smallCount = countQueriesToExport(exporterService, fakeProgramWithCsvExport.id);
+
+    for (int i = 0; i < 20; i++) {
+      Applicant applicant = new Applicant();
+      applicant.save();
+      new Application(applicant, fakeProgramWithCsvExport, LifecycleStage.ACTIVE).save();
+    }
+    int largeCount = countQueriesToExport(exporterService, fakeProgramWithCsvExport.id);
+
+    assertThat(largeCount).isEqualTo(smallCount);
+  }
+
+  @Test
+  public void useDefaultCsvConfig_firstExportQueryCountDoesNotGrowWithApplications()
+      throws Exception {
+    Question nameQuestion = testQuestionBank.applicantName();
+    Program smallProgram =
+        ProgramBuilder.newActiveProgram("small")
+            .withBlock()
+            .withRequiredQuestion(nameQuestion)
+            .build();
+    Program largeProgram =
+        ProgramBuilder.newActiveProgram("large")
+            .withBlock()
+            .withRequiredQuestion(nameQuestion)
+            .build();
+    for (int i = 0; i < 20; i++) {
+      Applicant applicant = new Applicant();
+      QuestionAnswerer.answerNameQuestion(
+          applicant.getApplicantData(),
+          ApplicantData.APPLICANT_PATH.join(
+              nameQuestion.getQuestionDefinition().getQuestionPathSegment()),
+          "Jane" + i,
+          "",
+          "Doe");
+      applicant.save();
+      new Application(applicant, i == 0 ? smallProgram : largeProgram, LifecycleStage.ACTIVE)
+          .save();
+    }
+    ExporterService exporterService = instanceOf(ExporterService.class);
+    // Load the program versions, so that neither counted export includes loading them.
+    instanceOf(ProgramService.class).getProgramDefinition(smallProgram.id);
+
+    // Both exports build their program's CSV columns from its applications.
+    int smallCount = countQueriesToExport(exporterService, smallProgram.id);
+    int largeCount = countQueriesToExport(exporterService, largeProgram.id);
+
+    assertThat(largeCount).isEqualTo(smallCount);
+  }
+
+  @Test
+  public void useDefaultCsvConfig_persistsColumnsOnFirstExport() throws Exception {
+    Question nameQuestion = testQuestionBank.applicantName();
+    Program program =
+        ProgramBuilder.newActiveProgram().withBlock().withRequiredQuestion(nameQuestion).build();
+    Applicant applicant = new Applicant();
+    QuestionAnswerer.answerNameQuestion(
+        applicant.getApplicantData(),
+        ApplicantData.APPLICANT_PATH.join(
+            nameQuestion.getQuestionDefinition().getQuestionPathSegment()),
+        "Jane",
+        "",
+        "Doe");
+    applicant.save();
+    new Application(applicant, program, LifecycleStage.ACTIVE).save();
+    ProgramCsvColumnsRepository columnsRepository =
+        instanceOf(ProgramCsvColumnsRepository.class);
+    assertThat(columnsRepository.lookupColumns(program.id)).isEmpty();
+
+    ExporterService exporterService = instanceOf(ExporterService.class);
+    String csv = exporterService.getProgramCsv(program.id);
+
+    assertThat(columnsRepository.lookupColumns(program.id)).isPresent();
+    assertThat(exporterService.getProgramCsv(program.id)).isEqualTo(csv);
+    assertThat(CSVParser.parse(csv, CSVFormat.DEFAULT.withFirstRecordAsHeader()).getHeaderNames())
+        .contains(
+            "applicant name (first_name)",
+            "applicant name (middle_name)",
+            "applicant name (last_name)");
+  }
+
   @Test
   public void useDefaultCsvConfig_withRepeatedEntities() throws Exception {
     // Define the program
@@ -425,4 +583,12 @@ public class CsvExporterTest extends WithPostgresContainer {
                         + " members jobs income (number)"))
         .isEqualTo("");
   }
+
+  private int countQueriesToExport(ExporterService exporterService, long programId)
+      throws ProgramNotFoundException {
+    try (QueryCounter queryCounter = QueryCounter.start()) {
+      exporterService.getProgramCsv(programId);
+      return queryCounter.count();
+    }
+  }
 }
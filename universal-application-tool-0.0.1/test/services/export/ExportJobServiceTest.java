@@ -0,0 +1,158 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.DuplicateKeyException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import models.Applicant;
+import models.ExportJob;
+import models.ExportJobStatus;
+import models.LifecycleStage;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import repository.ExportJobRepository;
+import repository.WithPostgresContainer;
+import support.ProgramBuilder;
+
+public class ExportJobServiceTest extends WithPostgresContainer {
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private ExportJobService service;
+  private ExportJobRepository exportJobRepository;
+  private Program program;
+
+  @Before
+  public void setUp() {
+    service = instanceOf(ExportJobService.class);
+    exportJobRepository = instanceOf(ExportJobRepository.class);
+    program = ProgramBuilder.newActiveProgram().build();
+    saveApplication();
+    saveApplication();
+  }
+
+  @Test
+  public void requestProgramExport_writesEveryApplication() throws Exception {
+    ExportJob job = awaitFinished(service.requestProgramExport(program.id));
+
+    assertThat(job.getStatus()).isEqualTo(ExportJobStatus.SUCCEEDED);
+    assertThat(job.getRowsTotal()).isEqualTo(2);
+    assertThat(job.getRowsWritten()).isEqualTo(2);
+    assertThat(job.getStorageKey())
+        .contains(String.format("exports/%d/program-%d.csv", job.id, program.id));
+    assertThat(service.getDownloadUrl(job)).isNotNull();
+  }
+
+  @Test
+  public void requestDemographicsExport_writesEveryApplication() throws Exception {
+    ExportJob job = awaitFinished(service.requestDemographicsExport());
+
+    assertThat(job.getStatus()).isEqualTo(ExportJobStatus.SUCCEEDED);
+    assertThat(job.getRowsWritten()).isEqualTo(2);
+  }
+
+  @Test
+  public void requestProgramExport_reusesJobWhileApplicationsAreUnchanged() throws Exception {
+    ExportJob first = awaitFinished(service.requestProgramExport(program.id));
+
+    assertThat(service.requestProgramExport(program.id).id).isEqualTo(first.id);
+  }
+
+  @Test
+  public void requestProgramExport_startsNewJobOnceApplicationsChange() throws Exception {
+    ExportJob first = awaitFinished(service.requestProgramExport(program.id));
+    saveApplication();
+
+    ExportJob second = awaitFinished(service.requestProgramExport(program.id));
+
+    assertThat(second.id).isNotEqualTo(first.id);
+    assertThat(second.getRowsWritten()).isEqualTo(3);
+  }
+
+  @Test
+  public void requestProgramExport_returnsUnfinishedJobForTheSameProgram() throws Exception {
+    ExportJob unfinished =
+        exportJobRepository.insert(
+            new ExportJob(Optional.of(program.id), "older fingerprint", Instant.now()));
+
+    assertThat(service.requestProgramExport(program.id).id).isEqualTo(unfinished.id);
+  }
+
+  @Test
+  public void requestProgramExport_replacesStaleUnfinishedJob() throws Exception {
+    ExportJob stale =
+        exportJobRepository.insert(
+            new ExportJob(
+                Optional.of(program.id),
+                "older fingerprint",
+                Instant.now().minus(ExportJobService.STALE_AFTER).minusSeconds(60)));
+
+    ExportJob job = awaitFinished(service.requestProgramExport(program.id));
+
+    assertThat(job.id).isNotEqualTo(stale.id);
+    assertThat(job.getStatus()).isEqualTo(ExportJobStatus.SUCCEEDED);
+    assertThat(exportJobRepository.lookup(stale.id).orElseThrow().getStatus())
+        .isEqualTo(ExportJobStatus.FAILED);
+  }
+
+  @Test
+  public void requestProgramExport_returnsOldUnfinishedJobWithRecentHeartbeat() throws Exception {
+    ExportJob running =
+        exportJobRepository.insert(
+            new ExportJob(
+                Optional.of(program.id),
+                "older fingerprint",
+                Instant.now().minus(ExportJobService.STALE_AFTER).minusSeconds(60)));
+
+    exportJobRepository.recordHeartbeats(ImmutableList.of(running.id), Instant.now());
+
+    assertThat(service.requestProgramExport(program.id).id).isEqualTo(running.id);
+  }
+
+  @Test
+  public void deleteExpiredJobs_deletesOnlyJobsFinishedBeforeTheRetention() throws Exception {
+    ExportJob recent = awaitFinished(service.requestProgramExport(program.id));
+    ExportJob expired =
+        exportJobRepository.insert(
+            new ExportJob(Optional.of(program.id), "expired fingerprint", Instant.EPOCH));
+    expired.markSucceeded(Instant.EPOCH, "exports/expired/program.csv");
+    exportJobRepository.update(expired);
+
+    assertThat(service.deleteExpiredJobs()).isEqualTo(1);
+
+    assertThat(exportJobRepository.lookup(expired.id)).isEmpty();
+    assertThat(exportJobRepository.lookup(recent.id)).isPresent();
+  }
+
+  @Test
+  public void insert_rejectsSecondUnfinishedJobForTheSameExport() {
+    exportJobRepository.insert(new ExportJob(Optional.empty(), "first", Instant.now()));
+
+    assertThatThrownBy(
+            () ->
+                exportJobRepository.insert(
+                    new ExportJob(Optional.empty(), "second", Instant.now())))
+        .isInstanceOf(DuplicateKeyException.class);
+  }
+
+  private void saveApplication() {
+    Applicant applicant = resourceCreator.insertApplicant();
+    new models.Application(applicant, program, LifecycleStage.ACTIVE).save();
+  }
+
+  private ExportJob awaitFinished(ExportJob job) throws InterruptedException {
+    Instant deadline = Instant.now().plus(TIMEOUT);
+    while (Instant.now().isBefore(deadline)) {
+      ExportJob current = service.getJob(job.id).orElseThrow();
+      if (current.isFinished()) {
+        return current;
+      }
+      Thread.sleep(50);
+    }
+    throw new AssertionError(String.format("Export job %d did not finish in time", job.id));
+  }
+}
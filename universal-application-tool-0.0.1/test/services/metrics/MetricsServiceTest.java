@@ -0,0 +1,64 @@
+package services.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+import repository.WithPostgresContainer;
+
+public class MetricsServiceTest extends WithPostgresContainer {
+
+  private MetricsService metricsService;
+
+  @Before
+  public void setUp() {
+    metricsService = instanceOf(MetricsService.class);
+  }
+
+  @Test
+  public void recordRequest_countsResponsesPerRouteAndStatusClass() {
+    metricsService.recordRequest("GET", "/programs", 200, 12);
+    metricsService.recordRequest("GET", "/programs", 204, 30);
+    metricsService.recordRequest("GET", "/programs", 500, 2000);
+    metricsService.recordRequest("POST", "/programs", 303, 5);
+
+    String metrics = metricsService.scrape();
+
+    assertThat(metrics)
+        .contains(
+            "civiform_http_responses_total{method=\"GET\",route=\"/programs\","
+                + "status_class=\"2xx\",} 2.0")
+        .contains(
+            "civiform_http_responses_total{method=\"GET\",route=\"/programs\","
+                + "status_class=\"5xx\",} 1.0")
+        .contains(
+            "civiform_http_responses_total{method=\"POST\",route=\"/programs\","
+                + "status_class=\"3xx\",} 1.0")
+        .contains(
+            "civiform_http_request_duration_seconds_count{method=\"GET\",route=\"/programs\",} 3.0")
+        .contains(
+            "civiform_http_request_duration_seconds_bucket{method=\"GET\",route=\"/programs\","
+                + "le=\"0.025\",} 1.0");
+  }
+
+  @Test
+  public void recordOutboxDepth_setsGauge() {
+    metricsService.recordOutboxDepth(7);
+    metricsService.recordOutboxDepth(3);
+
+    assertThat(metricsService.scrape()).contains("civiform_email_outbox_pending 3.0");
+  }
+
+  @Test
+  public void scrape_includesDatabaseAndJvmMetrics() {
+    String metrics = metricsService.scrape();
+
+    assertThat(metrics)
+        .contains("civiform_database_dispatcher_queued_tasks{workload=\"applicant\",}")
+        .contains("civiform_database_dispatcher_active_tasks{workload=\"export\",}")
+        .contains("civiform_db_pool_connections{state=\"active\",}")
+        .contains("civiform_db_pool_pending_threads")
+        .contains("jvm_memory_pool_bytes_used")
+        .contains("jvm_gc_collection_seconds_count");
+  }
+}
@@ -0,0 +1,81 @@
+package services.program;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import models.Question;
+import org.junit.Before;
+import org.junit.Test;
+import repository.VersionRepository;
+import repository.WithPostgresContainer;
+import support.ProgramBuilder;
+import support.QueryCounter;
+
+public class ActiveAndDraftProgramsTest extends WithPostgresContainer {
+
+  private ProgramService programService;
+  private Question question;
+
+  @Before
+  public void setUp() {
+    programService = instanceOf(ProgramServiceImpl.class);
+    question = testQuestionBank.applicantName();
+    instanceOf(VersionRepository.class).getDraftVersion();
+  }
+
+  @Test
+  public void getActiveAndDraftPrograms_splitsProgramsByVersion() {
+    insertPrograms("active", "draft", 2);
+
+    ActiveAndDraftPrograms programs = programService.getActiveAndDraftPrograms();
+
+    assertThat(programs.getActiveSize()).isEqualTo(2);
+    assertThat(programs.getDraftSize()).isEqualTo(2);
+    assertThat(programs.getProgramNames())
+        .containsExactlyInAnyOrder("active0", "active1", "draft0", "draft1");
+    assertThat(programs.getDraftProgramDefinition("draft0").get().getQuestionDefinition(0, 0))
+        .isEqualTo(question.getQuestionDefinition());
+  }
+
+  @Test
+  public void getActiveAndDraftPrograms_queryCountDoesNotGrowWithPrograms() {
+    insertPrograms("smallActive", "smallDraft", 2);
+    int smallCount = countQueriesToLoadPrograms(4);
+
+    insertPrograms("largeActive", "largeDraft", 20);
+    int largeCount = countQueriesToLoadPrograms(44);
+
+    assertThat(largeCount).isEqualTo(smallCount);
+  }
+
+  @Test
+  public void getActiveAndDraftPrograms_unchangedVersionsOnlyReadTheGeneration() {
+    insertPrograms("active", "draft", 5);
+    programService.getActiveAndDraftPrograms();
+
+    ActiveAndDraftPrograms programs =
+        QueryCounter.withinBudget(1, () -> programService.getActiveAndDraftPrograms());
+
+    assertThat(programs.getProgramNames()).hasSize(10);
+  }
+
+  private int countQueriesToLoadPrograms(int expectedProgramCount) {
+    try (QueryCounter queryCounter = QueryCounter.start()) {
+      ActiveAndDraftPrograms programs = programService.getActiveAndDraftPrograms();
+      assertThat(programs.getProgramNames()).hasSize(expectedProgramCount);
+      return queryCounter.count();
+    }
+  }
+
+  private void insertPrograms(String activePrefix, String draftPrefix, int count) {
+    for (int i = 0; i < count; i++) {
+      ProgramBuilder.newActiveProgram(activePrefix + i)
+          .withBlock()
+          .withRequiredQuestion(question)
+          .build();
+      ProgramBuilder.newDraftProgram(draftPrefix + i)
+          .withBlock()
+          .withRequiredQuestion(question)
+          .build();
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package services.program;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.ebean.DB;
+import io.ebean.Transaction;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import repository.VersionRepository;
+import repository.WithPostgresContainer;
+import services.LocalizedStrings;
+import services.question.types.QuestionDefinition;
+import services.question.types.QuestionDefinitionBuilder;
+import services.question.types.QuestionType;
+import support.ProgramBuilder;
+
+public class VersionSnapshotCacheTest extends WithPostgresContainer {
+
+  private VersionSnapshotCache versionSnapshotCache;
+  private VersionRepository versionRepository;
+
+  @Before
+  public void setUp() {
+    versionSnapshotCache = instanceOf(VersionSnapshotCache.class);
+    versionRepository = instanceOf(VersionRepository.class);
+    // Creating the draft bumps the generation, so do it up front rather than inside a test.
+    versionRepository.getDraftVersion();
+  }
+
+  @Test
+  public void getSnapshot_reusesSnapshotWhileNothingChanges() {
+    resourceCreator.insertActiveProgram("foo");
+
+    VersionSnapshot first = versionSnapshotCache.getSnapshot();
+    VersionSnapshot second = versionSnapshotCache.getSnapshot();
+
+    assertThat(second).isSameAs(first);
+    assertThat(second.getActivePrograms())
+        .extracting(ProgramDefinition::adminName)
+        .containsExactly("foo");
+  }
+
+  @Test
+  public void getSnapshot_reloadsAfterDirectWrite() {
+    VersionSnapshot before = versionSnapshotCache.getSnapshot();
+
+    Program program = resourceCreator.insertDraftProgram("bar");
+    VersionSnapshot after = versionSnapshotCache.getSnapshot();
+
+    assertThat(after.getGeneration()).isGreaterThan(before.getGeneration());
+    assertThat(before.getProgramDefinition(program.id)).isEmpty();
+    assertThat(after.getProgramDefinition(program.id)).isPresent();
+  }
+
+  @Test
+  public void getSnapshot_reloadsAfterPublish() {
+    Program program = resourceCreator.insertDraftProgram("bar");
+    assertThat(versionSnapshotCache.getSnapshot().getDraftPrograms()).hasSize(1);
+
+    versionRepository.publishNewSynchronizedVersion();
+    VersionSnapshot snapshot = versionSnapshotCache.getSnapshot();
+
+    assertThat(snapshot.getDraftPrograms()).isEmpty();
+    assertThat(snapshot.getActivePrograms())
+        .extracting(ProgramDefinition::id)
+        .containsExactly(program.id);
+  }
+
+  @Test
+  public void getSnapshot_insideTransaction_isNotShared() {
+    VersionSnapshot before = versionSnapshotCache.getSnapshot();
+
+    Program program;
+    try (Transaction transaction = DB.beginTransaction()) {
+      program = resourceCreator.insertDraftProgram("uncommitted");
+      assertThat(versionSnapshotCache.getSnapshot().getProgramDefinition(program.id)).isPresent();
+      transaction.rollback();
+    }
+
+    VersionSnapshot after = versionSnapshotCache.getSnapshot();
+    assertThat(after.getGeneration()).isEqualTo(before.getGeneration());
+    assertThat(after.getProgramDefinition(program.id)).isEmpty();
+  }
+
+  @Test
+  public void getSnapshot_firstLoad_keepsProgramsThatCannotBeSynced() throws Exception {
+    QuestionDefinition missingQuestion =
+        new QuestionDefinitionBuilder()
+            .setId(Long.MAX_VALUE)
+            .setName("missing")
+            .setDescription("not in any version")
+            .setQuestionText(LocalizedStrings.of())
+            .setQuestionHelpText(LocalizedStrings.empty())
+            .setQuestionType(QuestionType.TEXT)
+            .build();
+    Program broken =
+        ProgramBuilder.newActiveProgram("broken")
+            .withBlock()
+            .withRequiredQuestionDefinition(missingQuestion)
+            .build();
+    Program working = resourceCreator.insertActiveProgram("working");
+    // A new cache has not loaded a snapshot yet, whatever the shared one has seen.
+    VersionSnapshotCache freshCache = new VersionSnapshotCache(() -> versionRepository);
+
+    VersionSnapshot snapshot = freshCache.getSnapshot();
+
+    assertThat(snapshot.getActivePrograms())
+        .extracting(ProgramDefinition::adminName)
+        .containsExactlyInAnyOrder("broken", "working");
+    assertThat(snapshot.getProgramDefinition(broken.id)).isEmpty();
+    assertThat(snapshot.getProgramDefinition(working.id)).isPresent();
+  }
+}
@@ -8,6 +8,7 @@ import models.Program;
 import models.Question;
 import play.inject.Injector;
 import repository.VersionRepository;
+import services.LocalizedStrings;
 import services.program.BlockDefinition;
 import services.program.ExportDefinition;
 import services.program.ProgramDefinition;
@@ -19,9 +20,8 @@ import services.question.types.QuestionDefinition;
  * The ProgramBuilder can only be used by tests that have a database available because the programs
  * it builds are versioned with the version table, and are persisted in the database.
  *
- * <p>If any tests need to use the ProgramBuilder without a database, new `public static
- * ProgramBuilder newProgram` methods can be added to create programs that are not versioned, and do
- * not get persisted to the database.
+ * <p>Code that runs without a database can use {@link #newDisconnectedProgram}, which creates
+ * programs that are not versioned, and do not get persisted to the database.
  */
 public class ProgramBuilder {
 
@@ -30,16 +30,41 @@ public class ProgramBuilder {
   long programDefinitionId;
   ProgramDefinition.Builder builder;
   AtomicInteger numBlocks = new AtomicInteger(0);
+  private final boolean persisted;
 
   private ProgramBuilder(long programDefinitionId, ProgramDefinition.Builder builder) {
+    this(programDefinitionId, builder, /* persisted= */ true);
+  }
+
+  private ProgramBuilder(
+      long programDefinitionId, ProgramDefinition.Builder builder, boolean persisted) {
     this.programDefinitionId = programDefinitionId;
     this.builder = builder;
+    this.persisted = persisted;
   }
 
   public static void setInjector(Injector i) {
     injector = i;
   }
 
+  /**
+   * Creates a {@link ProgramBuilder} for a program with the given id that is not versioned and is
+   * never persisted, for code that runs without a database, such as benchmarks.
+   */
+  public static ProgramBuilder newDisconnectedProgram(long id, String name) {
+    ProgramDefinition.Builder builder =
+        ProgramDefinition.builder()
+            .setId(id)
+            .setAdminName(name)
+            .setAdminDescription("")
+            .setExternalLink("")
+            .setLocalizedName(LocalizedStrings.withDefaultValue(name))
+            .setLocalizedDescription(LocalizedStrings.withDefaultValue(""))
+            .setBlockDefinitions(ImmutableList.of())
+            .setExportDefinitions(ImmutableList.of());
+    return new ProgramBuilder(id, builder, /* persisted= */ false);
+  }
+
   /**
    * Creates {@link ProgramBuilder} with a new {@link Program} with an empty name and description,
    * in draft state.
@@ -153,7 +178,9 @@ public class ProgramBuilder {
     }
 
     Program program = programDefinition.toProgram();
-    program.update();
+    if (persisted) {
+      program.update();
+    }
     return program;
   }
 
@@ -0,0 +1,87 @@
+package support;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.function.Supplier;
+import org.slf4j.LoggerFactory;
+import repository.QueryProfile;
+
+/**
+ * Records the SQL statements Ebean executes while it is open, by listening on Ebean's SQL logger.
+ * Use it in a try-with-resources block around the code under test, or use {@link
+ * #withinBudget(int, Supplier)} to assert that a call runs at most a number of statements.
+ */
+public final class QueryCounter implements AutoCloseable {
+
+  private static final String EBEAN_SQL_LOGGER = "io.ebean.SQL";
+
+  private final Logger logger;
+  private final Level previousLevel;
+  private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+  private QueryCounter() {
+    logger = (Logger) LoggerFactory.getLogger(EBEAN_SQL_LOGGER);
+    previousLevel = logger.getLevel();
+    appender.start();
+    logger.addAppender(appender);
+    logger.setLevel(Level.DEBUG);
+  }
+
+  /** Starts recording statements. */
+  public static QueryCounter start() {
+    return new QueryCounter();
+  }
+
+  /** Returns the statements recorded so far. */
+  public ImmutableList<String> getStatements() {
+    return appender.list.stream()
+        .map(ILoggingEvent::getFormattedMessage)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** Returns the number of statements recorded so far. */
+  public int count() {
+    return appender.list.size();
+  }
+
+  /** Runs {@code call} and asserts that it ran at most {@code maxQueries} statements. */
+  public static <T> T withinBudget(int maxQueries, Supplier<T> call) {
+    try (QueryCounter queryCounter = start()) {
+      T result = call.get();
+      queryCounter.assertAtMost(maxQueries);
+      return result;
+    }
+  }
+
+  /** Asserts that at most {@code maxQueries} statements were recorded so far. */
+  public void assertAtMost(int maxQueries) {
+    ImmutableList<String> statements = getStatements();
+    assertThat(statements.size())
+        .as("statements run:\n%s", String.join("\n", statements))
+        .isLessThanOrEqualTo(maxQueries);
+  }
+
+  /**
+   * Asserts that no statement shape (see {@link QueryProfile#shapeOf}) was recorded more than
+   * {@code maxRepeats} times, which would suggest an N+1 query.
+   */
+  public void assertNoRepeatedQueries(int maxRepeats) {
+    QueryProfile profile = new QueryProfile("test");
+    getStatements().forEach(profile::record);
+    ImmutableMap<String, Integer> repeated = profile.getRepeatedShapes(maxRepeats + 1);
+    assertThat(repeated).as("statements run more than %d times", maxRepeats).isEmpty();
+  }
+
+  @Override
+  public void close() {
+    logger.setLevel(previousLevel);
+    logger.detachAppender(appender);
+    appender.stop();
+  }
+}
@@ -1,8 +1,21 @@
 package views;
 
 import static j2html.TagCreator.div;
+import static j2html.TagCreator.h1;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import play.twirl.api.Content;
 
@@ -38,4 +51,109 @@ public class HtmlBundleTest {
     Content content = bundle.render();
     assertThat(content.body()).contains("<main><div>One</div><div>Two</div></main>");
   }
+
+  @Test
+  public void body_isRenderedOnce() {
+    List<Integer> headingCounts = new ArrayList<>();
+    HtmlBundle bundle = new HtmlBundle().setHeadingCheck(headingCounts::add);
+    bundle.addMainContent(h1("Title"));
+
+    Content content = bundle.render();
+
+    assertThat(content.body()).startsWith("<!DOCTYPE html><html><html lang=\"en\">");
+    assertThat(content.body()).isSameAs(content.body());
+    assertThat(headingCounts).containsExactly(1);
+  }
+
+  @Test
+  public void headingCheck_countsHeadings() {
+    List<Integer> headingCounts = new ArrayList<>();
+    HtmlBundle bundle = new HtmlBundle().setHeadingCheck(headingCounts::add);
+    bundle.addMainContent(h1("One"), div("<h1 in text is escaped"), h1("Two"));
+
+    bundle.render().body();
+
+    assertThat(headingCounts).containsExactly(2);
+  }
+
+  @Test
+  public void stream_matchesBody() throws Exception {
+    HtmlBundle bundle = bundleWithRows(2000);
+    String body = bundle.render().body();
+
+    ActorSystem actorSystem = ActorSystem.create();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ByteString streamed =
+          concat(
+              bundle.render().stream(executor, Duration.ofSeconds(5)),
+              Materializer.matFromSystem(actorSystem));
+
+      assertThat(streamed.decodeString(StandardCharsets.UTF_8)).isEqualTo(body);
+    } finally {
+      executor.shutdown();
+      actorSystem.terminate();
+    }
+  }
+
+  @Test
+  public void stream_slowConsumerWithinTimeout_receivesWholePage() throws Exception {
+    HtmlBundle bundle = bundleWithRows(20000);
+    String body = bundle.render().body();
+
+    ActorSystem actorSystem = ActorSystem.create();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      ByteString streamed =
+          concat(
+              bundle
+                  .render()
+                  .stream(executor, Duration.ofSeconds(5))
+                  .throttle(1, Duration.ofMillis(10)),
+              Materializer.matFromSystem(actorSystem));
+
+      assertThat(streamed.decodeString(StandardCharsets.UTF_8)).isEqualTo(body);
+    } finally {
+      executor.shutdown();
+      actorSystem.terminate();
+    }
+  }
+
+  @Test
+  public void stream_consumerSlowerThanTimeout_releasesRenderThread() throws Exception {
+    HtmlBundle bundle = bundleWithRows(20000);
+
+    ActorSystem actorSystem = ActorSystem.create();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // Reading the whole page at one chunk a second would take well over ten seconds.
+      bundle
+          .render()
+          .stream(executor, Duration.ofMillis(50))
+          .throttle(1, Duration.ofSeconds(1))
+          .runWith(Sink.ignore(), Materializer.matFromSystem(actorSystem));
+
+      // The render gives up once a write times out, so the single render thread is free again.
+      executor.submit(() -> {}).get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+      actorSystem.terminate();
+    }
+  }
+
+  private static HtmlBundle bundleWithRows(int rows) {
+    HtmlBundle bundle = new HtmlBundle().setTitle("Streamed");
+    for (int i = 0; i < rows; i++) {
+      bundle.addMainContent(div("Row " + i));
+    }
+    return bundle;
+  }
+
+  private static ByteString concat(Source<ByteString, ?> source, Materializer materializer)
+      throws Exception {
+    return source
+        .runWith(Sink.fold(ByteString.emptyByteString(), ByteString::concat), materializer)
+        .toCompletableFuture()
+        .get();
+  }
 }
@@ -0,0 +1,68 @@
+package views;
+
+import static j2html.TagCreator.a;
+import static j2html.TagCreator.div;
+import static j2html.TagCreator.text;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HtmlFragmentCacheTest {
+
+  private HtmlFragmentCache cache;
+
+  @Before
+  public void setUp() {
+    cache = new HtmlFragmentCache();
+  }
+
+  @Test
+  public void get_buildsFragmentOncePerKey() {
+    AtomicInteger builds = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(
+              cache
+                  .get(
+                      "key",
+                      () -> {
+                        builds.incrementAndGet();
+                        return div("footer").withId("footer");
+                      })
+                  .render())
+          .isEqualTo("<div id=\"footer\">footer</div>");
+    }
+    cache.get("other-key", () -> div("other")).render();
+
+    assertThat(builds.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_fillsInPlaceholdersOnEachCall() {
+    assertThat(render("Alice")).isEqualTo("<div><a href=\"/logout\">Alice</a>(Alice)</div>");
+    assertThat(render("Bob")).isEqualTo("<div><a href=\"/logout\">Bob</a>(Bob)</div>");
+  }
+
+  @Test
+  public void get_escapesPlaceholderValues() {
+    assertThat(render("<script>\"Eve\" & co"))
+        .isEqualTo(
+            "<div><a href=\"/logout\">&lt;script&gt;&quot;Eve&quot; &amp; co</a>"
+                + "(&lt;script&gt;&quot;Eve&quot; &amp; co)</div>");
+  }
+
+  private String render(String name) {
+    return cache
+        .get(
+            "logout",
+            ImmutableMap.of("name", name),
+            placeholders ->
+                div(
+                    a(placeholders.get("name")).withHref("/logout"),
+                    text("(" + placeholders.get("name") + ")")))
+        .render();
+  }
+}